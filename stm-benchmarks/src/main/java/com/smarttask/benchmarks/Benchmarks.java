@@ -0,0 +1,35 @@
+package com.smarttask.benchmarks;
+
+import com.smarttask.server.auth.PasswordHashBenchmark;
+import com.smarttask.server.dao.RowMappingBenchmark;
+import com.smarttask.server.metrics.MetricsBenchmark;
+import com.smarttask.server.util.JsonBenchmark;
+
+/**
+ * Entry point of the micro-benchmarks. They live in the server's packages to
+ * reach package-private classes, but outside the server jar.
+ *
+ * mvn install, then: mvn exec:java -pl stm-benchmarks -Dexec.args=&lt;name&gt;
+ * - password-hash: logins per second per core for PASSWORD_HASH_ITERATIONS
+ * - row-mapping: TaskRowMapper against by-label mapping, no database needed
+ * - json: reflective Gson against the streaming adapters and the binary task list
+ * - metrics: cost of recording a request, on one thread and on every core
+ */
+public final class Benchmarks {
+
+    private Benchmarks() {}
+
+    public static void main(String[] args) throws Exception {
+        String name = args.length > 0 ? args[0] : "";
+        switch (name) {
+            case "password-hash" -> PasswordHashBenchmark.run();
+            case "row-mapping" -> RowMappingBenchmark.run();
+            case "json" -> JsonBenchmark.run();
+            case "metrics" -> MetricsBenchmark.run();
+            default -> {
+                System.err.println("Usage: Benchmarks password-hash|row-mapping|json|metrics");
+                System.exit(2);
+            }
+        }
+    }
+}
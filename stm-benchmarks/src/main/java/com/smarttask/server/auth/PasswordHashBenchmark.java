@@ -0,0 +1,50 @@
+package com.smarttask.server.auth;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Logins per second per core for the configured cost (PASSWORD_HASH_ITERATIONS),
+ * to help choose it on the target machine: one thread, then every core.
+ *
+ * {@code Benchmarks password-hash}
+ */
+public final class PasswordHashBenchmark {
+
+    private static final String PASSWORD = "benchmark-password";
+
+    private PasswordHashBenchmark() {}
+
+    public static void run() throws InterruptedException {
+        int cores = Runtime.getRuntime().availableProcessors();
+        String stored = PasswordHasher.hash(PASSWORD);
+        // Warm-up so the JIT has compiled the HMAC loop
+        for (int i = 0; i < 3; i++) PasswordHasher.verify(PASSWORD, stored);
+
+        System.out.println("PBKDF2-HMAC-SHA256, " + PasswordHasher.ITERATIONS + " iterations, " + cores + " core(s)");
+        double single = measure(stored, 1, 3_000);
+        System.out.printf("  1 thread : %.1f logins/s (%.1f ms each)%n", single, 1000 / single);
+        double all = measure(stored, cores, 3_000);
+        System.out.printf("  %d thread(s): %.1f logins/s, %.1f per core%n", cores, all, all / cores);
+        System.out.printf("  pool of %d thread(s) (PASSWORD_HASH_THREADS): about %.0f logins/s at most%n",
+                PasswordHasher.THREADS, single * Math.min(PasswordHasher.THREADS, cores));
+    }
+
+    /** Verifications per second over the duration, spread over the threads. */
+    private static double measure(String stored, int threads, long durationMs) throws InterruptedException {
+        AtomicInteger done = new AtomicInteger();
+        long deadline = System.currentTimeMillis() + durationMs;
+        Thread[] workers = new Thread[threads];
+        long start = System.nanoTime();
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Thread(() -> {
+                while (System.currentTimeMillis() < deadline) {
+                    PasswordHasher.verify(PASSWORD, stored);
+                    done.incrementAndGet();
+                }
+            });
+            workers[i].start();
+        }
+        for (Thread worker : workers) worker.join();
+        return done.get() / ((System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,195 @@
+package com.smarttask.server.dao;
+
+import com.smarttask.model.Priority;
+import com.smarttask.model.Status;
+import com.smarttask.model.Task;
+import com.smarttask.model.User;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Maps 100 000 task rows with {@link TaskRowMapper} and with the former
+ * per-row, by-label mapping, and prints time and allocation per row.
+ *
+ * Rows come from an in-memory ResultSet that behaves like the driver where it
+ * matters here: label lookup on every getXxx("name"), a new String per cell.
+ * No database is needed: {@code Benchmarks row-mapping}.
+ */
+public final class RowMappingBenchmark {
+
+    private static final int ROWS = 100_000;
+    private static final int USERS = 50;
+    private static final int PROJECTS = 20;
+    private static final String[] COLUMNS = {
+            "id", "title", "description", "priority", "status", "due_date", "created_at", "updated_at",
+            "completed_at", "user_id", "project_id", "recurrence_type", "parent_task_id", "username", "email"
+    };
+
+    private RowMappingBenchmark() {}
+
+    public static void run() {
+        Object[][] rows = rows();
+        System.out.println("Mapping " + ROWS + " task rows (" + COLUMNS.length + " columns)");
+        try {
+            for (int i = 0; i < 3; i++) {
+                // Warm-up so both paths are compiled
+                mapAll(rows, true);
+                mapAll(rows, false);
+            }
+            report("by label, per row (former)", rows, false);
+            report("column positions (TaskRowMapper)", rows, true);
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void report(String name, Object[][] rows, boolean positional) throws SQLException {
+        long best = Long.MAX_VALUE;
+        long allocated = 0;
+        List<Task> tasks = null;
+        for (int i = 0; i < 5; i++) {
+            long before = allocatedBytes();
+            long start = System.nanoTime();
+            tasks = mapAll(rows, positional);
+            best = Math.min(best, System.nanoTime() - start);
+            allocated = allocatedBytes() - before;
+        }
+        Set<String> userIds = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Task t : tasks) userIds.add(t.getUser().getId());
+        System.out.printf("  %-34s %6.0f ns/row, %5.0f bytes/row, %6d user id instances%n",
+                name, (double) best / ROWS, (double) allocated / ROWS, userIds.size());
+    }
+
+    private static List<Task> mapAll(Object[][] rows, boolean positional) throws SQLException {
+        ResultSet rs = resultSet(rows);
+        List<Task> tasks = new ArrayList<>(ROWS);
+        TaskRowMapper mapper = new TaskRowMapper();
+        while (rs.next()) {
+            tasks.add(positional ? mapper.map(rs) : mapByLabel(rs));
+        }
+        return tasks;
+    }
+
+    /** The per-row mapping TaskRowMapper replaced, as a baseline. */
+    private static Task mapByLabel(ResultSet rs) throws SQLException {
+        Task t = new Task();
+        t.setId(rs.getString("id"));
+        t.setTitle(rs.getString("title"));
+        t.setDescription(rs.getString("description"));
+        t.setProjectId(rs.getString("project_id"));
+        try {
+            String p = rs.getString("priority");
+            t.setPriority(p != null ? Priority.valueOf(p) : Priority.MEDIUM);
+        } catch (IllegalArgumentException e) {
+            t.setPriority(Priority.MEDIUM);
+        }
+        try {
+            String s = rs.getString("status");
+            t.setStatus(s != null ? Status.valueOf(s) : Status.TODO);
+        } catch (IllegalArgumentException e) {
+            t.setStatus(Status.TODO);
+        }
+        t.setProjectId(rs.getString("project_id"));
+        String parentId = rs.getString("parent_task_id");
+        if (parentId != null) {
+            Task parent = new Task();
+            parent.setId(parentId);
+            t.setParentTask(parent);
+        }
+        Timestamp ts = rs.getTimestamp("due_date");
+        if (ts != null) t.setDueDate(ts.toLocalDateTime());
+        Timestamp created = rs.getTimestamp("created_at");
+        if (created != null) t.setCreatedAt(created.toLocalDateTime());
+        String userId = rs.getString("user_id");
+        if (userId != null) {
+            User u = new User();
+            u.setId(userId);
+            u.setUsername(rs.getString("username"));
+            u.setEmail(rs.getString("email"));
+            t.setUser(u);
+        }
+        String recurrenceType = rs.getString("recurrence_type");
+        t.setRecurrenceType(recurrenceType != null ? recurrenceType : "NONE");
+        return t;
+    }
+
+    private static Object[][] rows() {
+        Priority[] priorities = Priority.values();
+        Status[] statuses = Status.values();
+        long now = System.currentTimeMillis();
+        Object[][] rows = new Object[ROWS][];
+        for (int i = 0; i < ROWS; i++) {
+            int user = i % USERS;
+            rows[i] = new Object[] {
+                    bytes("task-" + i), bytes("Task " + i), bytes("Description of task " + i),
+                    // 1 row in 100 carries a value this version does not know
+                    bytes(i % 100 == 0 ? "CRITICAL" : priorities[i % priorities.length].name()),
+                    bytes(statuses[i % statuses.length].name()),
+                    now + i * 60_000L, now, now, null,
+                    bytes("user-" + user), bytes("project-" + i % PROJECTS), bytes("NONE"),
+                    i % 10 == 0 ? null : bytes("task-" + i / 10 * 10),
+                    bytes("user" + user), bytes("user" + user + "@example.com")
+            };
+        }
+        return rows;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /** Forward-only ResultSet over the rows, decoding a new value on every read like the driver. */
+    private static ResultSet resultSet(Object[][] rows) {
+        Map<String, Integer> labels = new HashMap<>();
+        for (int i = 0; i < COLUMNS.length; i++) labels.put(COLUMNS[i], i + 1);
+        ResultSetMetaData meta = (ResultSetMetaData) Proxy.newProxyInstance(
+                RowMappingBenchmark.class.getClassLoader(), new Class<?>[] {ResultSetMetaData.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getColumnCount" -> COLUMNS.length;
+                    case "getColumnLabel", "getColumnName" -> COLUMNS[(Integer) args[0] - 1];
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        int[] row = {-1};
+        return (ResultSet) Proxy.newProxyInstance(
+                RowMappingBenchmark.class.getClassLoader(), new Class<?>[] {ResultSet.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "next": return ++row[0] < rows.length;
+                        case "getMetaData": return meta;
+                        case "getString":
+                        case "getTimestamp":
+                            break;
+                        default: throw new UnsupportedOperationException(method.getName());
+                    }
+                    int column = args[0] instanceof String label ? findColumn(labels, label) : (Integer) args[0];
+                    Object value = rows[row[0]][column - 1];
+                    if (value == null) return null;
+                    if (method.getName().equals("getTimestamp")) return new Timestamp((Long) value);
+                    return value instanceof byte[] b ? new String(b, StandardCharsets.UTF_8) : String.valueOf(value);
+                });
+    }
+
+    private static int findColumn(Map<String, Integer> labels, String label) throws SQLException {
+        Integer column = labels.get(label);
+        if (column == null) column = labels.get(label.toLowerCase());
+        if (column == null) throw new SQLException("Column '" + label + "' not found.");
+        return column;
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+}
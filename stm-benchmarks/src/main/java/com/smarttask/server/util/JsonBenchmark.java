@@ -0,0 +1,155 @@
+package com.smarttask.server.util;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonDeserializer;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.JsonSerializer;
+import com.google.gson.reflect.TypeToken;
+import com.smarttask.model.Priority;
+import com.smarttask.model.Status;
+import com.smarttask.model.Task;
+import com.smarttask.model.User;
+import com.smarttask.wire.TaskListCodec;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Serializes and parses a 10 000-task payload with the former Gson configuration
+ * (reflection, JsonSerializer/JsonDeserializer dates) and with {@link GsonUtils}
+ * (streaming model adapters), and checks both produce the same JSON. The same tasks
+ * also go through the binary format ({@link TaskListCodec}) for comparison.
+ *
+ * {@code Benchmarks json}
+ */
+public final class JsonBenchmark {
+
+    private static final int TASKS = 10_000;
+    private static final int ROUNDS = 10;
+    private static final Type TASK_LIST = new TypeToken<List<Task>>() {}.getType();
+
+    private JsonBenchmark() {}
+
+    public static void run() {
+        List<Task> tasks = tasks();
+        Gson reflective = reflectiveGson();
+        Gson streaming = GsonUtils.getGson();
+
+        String json = reflective.toJson(tasks, TASK_LIST);
+        if (!json.equals(streaming.toJson(tasks, TASK_LIST))) {
+            throw new IllegalStateException("Streaming adapters do not produce the reflective JSON");
+        }
+        if (!json.equals(streaming.toJson(streaming.fromJson(json, TASK_LIST), TASK_LIST))) {
+            throw new IllegalStateException("Streaming adapters do not read back what they write");
+        }
+        System.out.printf("%d tasks, %.1f MB of JSON, identical output%n", TASKS, json.length() / 1e6);
+
+        for (int i = 0; i < 3; i++) {
+            // Warm-up
+            measure(reflective, tasks, json);
+            measure(streaming, tasks, json);
+        }
+        print("reflective (former)", measure(reflective, tasks, json));
+        print("streaming adapters", measure(streaming, tasks, json));
+
+        byte[] binary = TaskListCodec.encode(tasks);
+        if (!json.equals(streaming.toJson(decode(binary), TASK_LIST))) {
+            throw new IllegalStateException("Binary format does not read back what it writes");
+        }
+        for (int i = 0; i < 3; i++) measureBinary(tasks, binary);
+        print("binary (" + binary.length / 1000 + " KB)", measureBinary(tasks, binary));
+    }
+
+    private static long[] measureBinary(List<Task> tasks, byte[] binary) {
+        long write = Long.MAX_VALUE;
+        long read = Long.MAX_VALUE;
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            TaskListCodec.encode(tasks);
+            long middle = System.nanoTime();
+            decode(binary);
+            long end = System.nanoTime();
+            write = Math.min(write, middle - start);
+            read = Math.min(read, end - middle);
+        }
+        return new long[] {write, read};
+    }
+
+    private static List<Task> decode(byte[] binary) {
+        try {
+            return TaskListCodec.decode(binary);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Best serialize and parse time over the rounds, in ns. */
+    private static long[] measure(Gson gson, List<Task> tasks, String json) {
+        long write = Long.MAX_VALUE;
+        long read = Long.MAX_VALUE;
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            gson.toJson(tasks, TASK_LIST);
+            long middle = System.nanoTime();
+            gson.fromJson(json, TASK_LIST);
+            long end = System.nanoTime();
+            write = Math.min(write, middle - start);
+            read = Math.min(read, end - middle);
+        }
+        return new long[] {write, read};
+    }
+
+    private static void print(String name, long[] times) {
+        System.out.printf("  %-22s serialize %6.1f ms (%7.0f tasks/s), parse %6.1f ms (%7.0f tasks/s)%n",
+                name, times[0] / 1e6, TASKS / (times[0] / 1e9), times[1] / 1e6, TASKS / (times[1] / 1e9));
+    }
+
+    private static List<Task> tasks() {
+        Priority[] priorities = Priority.values();
+        Status[] statuses = Status.values();
+        LocalDateTime now = LocalDateTime.of(2024, 5, 1, 9, 30);
+        List<Task> tasks = new ArrayList<>(TASKS);
+        for (int i = 0; i < TASKS; i++) {
+            User user = new User();
+            user.setId("user-" + i % 50);
+            user.setUsername("user" + i % 50);
+            user.setEmail("user" + i % 50 + "@example.com");
+
+            Task t = new Task();
+            t.setId("task-" + i);
+            t.setTitle("Task " + i);
+            t.setDescription("Description of task " + i);
+            t.setPriority(priorities[i % priorities.length]);
+            t.setStatus(statuses[i % statuses.length]);
+            t.setDueDate(now.plusHours(i));
+            t.setCreatedAt(now);
+            t.setUser(user);
+            t.setProjectId("project-" + i % 20);
+            t.setTags(new ArrayList<>(List.of("tag" + i % 7, "tag" + i % 11)));
+            tasks.add(t);
+        }
+        return tasks;
+    }
+
+    /** The configuration GsonUtils had before the streaming adapters. */
+    private static Gson reflectiveGson() {
+        return new GsonBuilder()
+                .registerTypeAdapter(LocalDateTime.class, (JsonSerializer<LocalDateTime>) (src, type, ctx) ->
+                        new JsonPrimitive(src.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)))
+                .registerTypeAdapter(LocalDateTime.class, (JsonDeserializer<LocalDateTime>) (json, type, ctx) ->
+                        LocalDateTime.parse(json.getAsString(), DateTimeFormatter.ISO_LOCAL_DATE_TIME))
+                .registerTypeAdapter(LocalDate.class, (JsonSerializer<LocalDate>) (src, type, ctx) ->
+                        new JsonPrimitive(src.format(DateTimeFormatter.ISO_LOCAL_DATE)))
+                .registerTypeAdapter(LocalDate.class, (JsonDeserializer<LocalDate>) (json, type, ctx) ->
+                        LocalDate.parse(json.getAsString(), DateTimeFormatter.ISO_LOCAL_DATE))
+                .serializeNulls()
+                .create();
+    }
+}
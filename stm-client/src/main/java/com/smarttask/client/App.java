@@ -1,5 +1,6 @@
 package com.smarttask.client;
 
+import com.smarttask.client.util.SharedHttpClient;
 import com.smarttask.client.view.controller.MainLayoutController;
 import com.smarttask.model.User;
 import javafx.application.Application;
@@ -33,6 +34,11 @@ public class App extends Application {
         primaryStage.show();
     }
 
+    @Override
+    public void stop() {
+        SharedHttpClient.metrics().printSummary();
+    }
+
     public static void main(String[] args) {
         launch(args);
     }
@@ -8,4 +8,7 @@ public class AppConfig {
     // Service API
     public static final String API_URL = "http://localhost:8080/api";
     // public static final String API_URL = "https://smarttaskmanager-production-a7ba.up.railway.app/api";
+
+    // Listes de tâches au format binaire (TaskListCodec) plutôt qu'en JSON ; STM_BINARY_WIRE=false pour revenir au JSON
+    public static final boolean BINARY_WIRE = Boolean.parseBoolean(System.getenv().getOrDefault("STM_BINARY_WIRE", "true"));
 }
\ No newline at end of file
@@ -4,12 +4,12 @@ import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 import com.smarttask.client.config.AppConfig;
 import com.smarttask.client.util.GsonUtils;
+import com.smarttask.client.util.SharedHttpClient;
 import com.smarttask.model.User;
 import javafx.application.Platform;
 
 import java.nio.ByteBuffer;
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.WebSocket;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -27,8 +27,7 @@ public class AIService {
     }
 
     public void connect() {
-        HttpClient client = HttpClient.newHttpClient();
-        client.newWebSocketBuilder()
+        SharedHttpClient.get().newWebSocketBuilder()
                 .buildAsync(URI.create(AppConfig.AI_WS_URL), new WebSocketListener())
                 .thenAccept(ws -> {
                     this.webSocket = ws;
@@ -0,0 +1,47 @@
+package com.smarttask.client.service;
+
+import com.smarttask.client.config.AppConfig;
+import com.smarttask.client.util.GsonUtils;
+import com.smarttask.client.util.SharedHttpClient;
+import com.smarttask.model.DashboardStats;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+/**
+ * Service pour les statistiques agrégées calculées par le serveur.
+ */
+public class AnalyticsService {
+    private final String baseUrl;
+    private final HttpClient client;
+
+    public AnalyticsService() {
+        this(AppConfig.API_URL + "/analytics");
+    }
+
+    public AnalyticsService(String baseUrl) {
+        this.baseUrl = baseUrl;
+        this.client = SharedHttpClient.get();
+    }
+
+    public DashboardStats getDashboardStats(String userId) {
+        try {
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create(baseUrl + "/dashboard/" + userId))
+                    .GET()
+                    .build();
+
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+            if (response.statusCode() == 200) {
+                return GsonUtils.getGson().fromJson(response.body(), DashboardStats.class);
+            } else {
+                System.err.println("Erreur getDashboardStats: " + response.statusCode());
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+}
@@ -1,23 +1,32 @@
 package com.smarttask.client.service;
 
 import com.smarttask.model.Attachment;
+import com.smarttask.model.Task;
 import com.smarttask.client.util.GsonUtils;
+import com.smarttask.client.util.SharedHttpClient;
 
+import java.io.File;
 import java.io.IOException;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Arrays;
 
 public class AttachmentService {
+    private static final int THUMBNAIL_ATTEMPTS = 5;
+
     private final String baseUrl;
     private final HttpClient client;
+    private final BlobService blobService;
 
     public AttachmentService(String baseUrl) {
         this.baseUrl = baseUrl;
-        this.client = HttpClient.newHttpClient();
+        this.client = SharedHttpClient.get();
+        this.blobService = new BlobService(baseUrl);
     }
 
     public List<Attachment> getAttachments(String taskId) throws IOException, InterruptedException {
@@ -42,6 +51,46 @@ public class AttachmentService {
         return GsonUtils.getGson().fromJson(response.body(), Attachment.class);
     }
 
+    /**
+     * Envoie le contenu du fichier au serveur puis crée la pièce jointe qui le référence.
+     */
+    public Attachment upload(Task task, File file) throws IOException, InterruptedException {
+        String contentHash = blobService.upload(file.toPath());
+        Attachment attachment = new Attachment();
+        attachment.setTask(task);
+        attachment.setFileName(file.getName());
+        attachment.setFileType(Files.probeContentType(file.toPath()));
+        attachment.setFileSize(file.length());
+        attachment.setContentHash(contentHash);
+        return addAttachment(attachment);
+    }
+
+    /**
+     * Télécharge le contenu d'une pièce jointe (reprend un téléchargement interrompu).
+     */
+    public void download(Attachment attachment, Path target) throws IOException, InterruptedException {
+        blobService.download(baseUrl + "/attachments/" + attachment.getId() + "/content", target);
+    }
+
+    /**
+     * Miniature JPEG d'une image jointe, ou null s'il n'y en a pas.
+     * Le serveur la génère en arrière-plan : tant qu'elle n'est pas prête (202), on réessaie.
+     */
+    public byte[] getThumbnail(String id) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/attachments/" + id + "/thumbnail"))
+                .GET()
+                .build();
+        for (int attempt = 1; attempt <= THUMBNAIL_ATTEMPTS; attempt++) {
+            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() == 200) return response.body();
+            if (response.statusCode() != 202 && response.statusCode() != 503) return null;
+            long retryAfter = response.headers().firstValueAsLong("Retry-After").orElse(1);
+            Thread.sleep(Math.min(retryAfter, 10) * 1000);
+        }
+        return null;
+    }
+
     public void deleteAttachment(String id) throws IOException, InterruptedException {
         HttpRequest request = HttpRequest.newBuilder()
                 .uri(URI.create(baseUrl + "/attachments/" + id))
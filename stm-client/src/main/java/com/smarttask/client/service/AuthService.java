@@ -1,14 +1,16 @@
 package com.smarttask.client.service;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonObject;
 import com.smarttask.client.util.GsonUtils;
+import com.smarttask.client.util.SessionManager;
+import com.smarttask.client.util.SharedHttpClient;
 import com.smarttask.model.User;
 import org.apache.http.HttpEntity;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
 import org.apache.http.util.EntityUtils;
 import com.smarttask.client.config.AppConfig;
 
@@ -23,6 +25,7 @@ public class AuthService {
     private static final String BASE_URL = AppConfig.API_URL + "/auth";
 
     private final Gson gson = GsonUtils.getGson();
+    private final CloseableHttpClient httpClient = SharedHttpClient.apache();
 
     /**
      * Tente de connecter un utilisateur.
@@ -31,7 +34,7 @@ public class AuthService {
      * @return L'utilisateur connecté ou null si les identifiants sont incorrects
      */
     public User login(String username, String password) {
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
+        try {
             HttpPost request = new HttpPost(BASE_URL + "/login");
             request.setHeader("Content-Type", "application/json");
 
@@ -48,7 +51,10 @@ public class AuthService {
                 String responseBody = EntityUtils.toString(entity, StandardCharsets.UTF_8);
 
                 if (statusCode == 200) {
-                    return gson.fromJson(responseBody, User.class);
+                    // Le jeton de session accompagne l'utilisateur ; il authentifie toutes les requêtes suivantes
+                    JsonObject body = gson.fromJson(responseBody, JsonObject.class);
+                    if (body.has("token")) SessionManager.getInstance().setToken(body.get("token").getAsString());
+                    return gson.fromJson(body, User.class);
                 } else {
                     System.err.println("Erreur de connexion: " + responseBody);
                     return null;
@@ -69,38 +75,36 @@ public class AuthService {
      * @throws Exception avec le message d'erreur si l'inscription échoue
      */
     public User register(String username, String password, String email) throws Exception {
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
-            HttpPost request = new HttpPost(BASE_URL + "/register");
-            request.setHeader("Content-Type", "application/json");
-
-            User user = new User();
-            user.setUsername(username);
-            user.setPassword(password);
-            user.setEmail(email);
-
-            String json = gson.toJson(user);
-            request.setEntity(new StringEntity(json, StandardCharsets.UTF_8));
-
-            try (CloseableHttpResponse response = httpClient.execute(request)) {
-                int statusCode = response.getStatusLine().getStatusCode();
-                HttpEntity entity = response.getEntity();
-                String responseBody = EntityUtils.toString(entity, StandardCharsets.UTF_8);
-
-                if (statusCode == 201) {
-                    return gson.fromJson(responseBody, User.class);
-                } else {
-                    // Tenter de parser le message d'erreur JSON
-                    try {
-                        ErrorResponse errorResponse = gson.fromJson(responseBody, ErrorResponse.class);
-                        if (errorResponse != null && errorResponse.error != null) {
-                            throw new Exception(errorResponse.error);
-                        }
-                    } catch (Exception e) {
-                        // Si le parsing échoue, on ignore et on continue
+        HttpPost request = new HttpPost(BASE_URL + "/register");
+        request.setHeader("Content-Type", "application/json");
+
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword(password);
+        user.setEmail(email);
+
+        String json = gson.toJson(user);
+        request.setEntity(new StringEntity(json, StandardCharsets.UTF_8));
+
+        try (CloseableHttpResponse response = httpClient.execute(request)) {
+            int statusCode = response.getStatusLine().getStatusCode();
+            HttpEntity entity = response.getEntity();
+            String responseBody = EntityUtils.toString(entity, StandardCharsets.UTF_8);
+
+            if (statusCode == 201) {
+                return gson.fromJson(responseBody, User.class);
+            } else {
+                // Tenter de parser le message d'erreur JSON
+                try {
+                    ErrorResponse errorResponse = gson.fromJson(responseBody, ErrorResponse.class);
+                    if (errorResponse != null && errorResponse.error != null) {
+                        throw new Exception(errorResponse.error);
                     }
-                    // Fallback sur le corps complet ou un message par défaut
-                    throw new Exception("Erreur d'inscription: " + responseBody);
+                } catch (Exception e) {
+                    // Si le parsing échoue, on ignore et on continue
                 }
+                // Fallback sur le corps complet ou un message par défaut
+                throw new Exception("Erreur d'inscription: " + responseBody);
             }
         }
     }
@@ -116,7 +120,7 @@ public class AuthService {
      * @return true si le mot de passe est correct, false sinon
      */
     public boolean verifyPassword(String username, String password) {
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
+        try {
             HttpPost request = new HttpPost(BASE_URL + "/verify-password");
             request.setHeader("Content-Type", "application/json");
 
@@ -128,6 +132,7 @@ public class AuthService {
             request.setEntity(new StringEntity(json, StandardCharsets.UTF_8));
 
             try (CloseableHttpResponse response = httpClient.execute(request)) {
+                EntityUtils.consume(response.getEntity());
                 return response.getStatusLine().getStatusCode() == 200;
             }
         } catch (Exception e) {
@@ -0,0 +1,192 @@
+package com.smarttask.client.service;
+
+import com.google.gson.JsonObject;
+import com.smarttask.client.config.AppConfig;
+import com.smarttask.client.util.GsonUtils;
+import com.smarttask.client.util.SharedHttpClient;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+
+/**
+ * Service d'envoi et de téléchargement du contenu des pièces jointes (blob store du serveur).
+ *
+ * Les fichiers jusqu'à CHUNK_SIZE partent en une requête. Au-delà, l'envoi est reprenable :
+ * le fichier part par morceaux et, après une coupure, reprend à l'offset que le serveur a reçu.
+ * Un téléchargement interrompu laisse un fichier .part que l'appel suivant reprend avec Range.
+ */
+public class BlobService {
+    private static final int CHUNK_SIZE = 8 * 1024 * 1024;
+    private static final int MAX_ATTEMPTS = 3;
+    private static final Duration TRANSFER_TIMEOUT = Duration.ofMinutes(5);
+
+    private final String baseUrl;
+    private final HttpClient client;
+
+    public BlobService() {
+        this(AppConfig.API_URL);
+    }
+
+    public BlobService(String apiUrl) {
+        this.baseUrl = apiUrl;
+        this.client = SharedHttpClient.get();
+    }
+
+    /**
+     * Envoie le fichier et renvoie son SHA-256, qui référence le contenu côté serveur.
+     */
+    public String upload(Path file) throws IOException, InterruptedException {
+        long size = Files.size(file);
+        return size <= CHUNK_SIZE ? uploadAtOnce(file) : uploadResumable(file, size);
+    }
+
+    /**
+     * Télécharge le contenu vers target, en reprenant un éventuel target.part.
+     */
+    public void download(String contentUrl, Path target) throws IOException, InterruptedException {
+        Path part = target.resolveSibling(target.getFileName() + ".part");
+        for (int attempt = 1; ; attempt++) {
+            long received = Files.exists(part) ? Files.size(part) : 0;
+            HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(contentUrl))
+                    .timeout(TRANSFER_TIMEOUT)
+                    .GET();
+            if (received > 0) builder.header("Range", "bytes=" + received + "-");
+
+            HttpResponse<InputStream> response;
+            try {
+                response = client.send(builder.build(), HttpResponse.BodyHandlers.ofInputStream());
+            } catch (IOException e) {
+                if (attempt >= MAX_ATTEMPTS) throw e;
+                continue;
+            }
+
+            int status = response.statusCode();
+            if (status == 416) {
+                // Le .part contient déjà tout le fichier
+                response.body().close();
+            } else if (status == 200 || status == 206) {
+                StandardOpenOption mode = status == 206 ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING;
+                try (InputStream in = response.body();
+                     OutputStream out = Files.newOutputStream(part, StandardOpenOption.CREATE, StandardOpenOption.WRITE, mode)) {
+                    in.transferTo(out);
+                } catch (IOException e) {
+                    // Ce qui est arrivé reste dans le .part
+                    if (attempt >= MAX_ATTEMPTS) throw e;
+                    continue;
+                }
+            } else {
+                response.body().close();
+                throw new IOException("Download failed: HTTP " + status);
+            }
+            Files.move(part, target, StandardCopyOption.REPLACE_EXISTING);
+            return;
+        }
+    }
+
+    private String uploadAtOnce(Path file) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/blobs"))
+                .header("Content-Type", "application/octet-stream")
+                .timeout(TRANSFER_TIMEOUT)
+                .POST(HttpRequest.BodyPublishers.ofFile(file))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 201) {
+            throw new IOException("Upload failed: HTTP " + response.statusCode() + " " + response.body());
+        }
+        return json(response).get("sha256").getAsString();
+    }
+
+    private String uploadResumable(Path file, long size) throws IOException, InterruptedException {
+        String sha256 = sha256(file);
+
+        HttpResponse<String> started = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/blobs/uploads"))
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build(), HttpResponse.BodyHandlers.ofString());
+        if (started.statusCode() != 201) {
+            throw new IOException("Upload failed: HTTP " + started.statusCode() + " " + started.body());
+        }
+        String uploadUrl = baseUrl + "/blobs/uploads/" + json(started).get("uploadId").getAsString();
+
+        long offset = 0;
+        int failures = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (offset < size) {
+                ByteBuffer chunk = ByteBuffer.allocate((int) Math.min(CHUNK_SIZE, size - offset));
+                while (chunk.hasRemaining()) {
+                    if (channel.read(chunk, offset + chunk.position()) < 0) break;
+                }
+
+                HttpResponse<String> response;
+                try {
+                    response = client.send(HttpRequest.newBuilder(URI.create(uploadUrl))
+                            .header("Content-Type", "application/octet-stream")
+                            .header("Upload-Offset", String.valueOf(offset))
+                            .timeout(TRANSFER_TIMEOUT)
+                            .method("PATCH", HttpRequest.BodyPublishers.ofByteArray(chunk.array(), 0, chunk.position()))
+                            .build(), HttpResponse.BodyHandlers.ofString());
+                } catch (IOException e) {
+                    if (++failures >= MAX_ATTEMPTS) throw e;
+                    // Reprise là où le serveur s'est arrêté
+                    offset = uploadedBytes(uploadUrl);
+                    continue;
+                }
+
+                if (response.statusCode() == 200) {
+                    failures = 0;
+                } else if (response.statusCode() != 409 || ++failures >= MAX_ATTEMPTS) {
+                    throw new IOException("Upload failed: HTTP " + response.statusCode() + " " + response.body());
+                }
+                // 200 et 409 renvoient tous deux l'offset du serveur
+                offset = json(response).get("offset").getAsLong();
+            }
+        }
+
+        HttpResponse<String> completed = client.send(HttpRequest.newBuilder(URI.create(uploadUrl + "/complete"))
+                .header("X-Content-SHA256", sha256)
+                .timeout(TRANSFER_TIMEOUT)
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build(), HttpResponse.BodyHandlers.ofString());
+        if (completed.statusCode() != 201) {
+            throw new IOException("Upload failed: HTTP " + completed.statusCode() + " " + completed.body());
+        }
+        return json(completed).get("sha256").getAsString();
+    }
+
+    private long uploadedBytes(String uploadUrl) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(uploadUrl)).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IOException("Upload lost: HTTP " + response.statusCode());
+        }
+        return json(response).get("offset").getAsLong();
+    }
+
+    private static JsonObject json(HttpResponse<String> response) {
+        return GsonUtils.getGson().fromJson(response.body(), JsonObject.class);
+    }
+
+    private static String sha256(Path file) throws IOException {
+        try (DigestInputStream in = new DigestInputStream(Files.newInputStream(file), MessageDigest.getInstance("SHA-256"))) {
+            in.transferTo(OutputStream.nullOutputStream());
+            return HexFormat.of().formatHex(in.getMessageDigest().digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
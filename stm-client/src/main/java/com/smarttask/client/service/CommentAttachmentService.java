@@ -2,12 +2,16 @@ package com.smarttask.client.service;
 
 import com.smarttask.model.CommentAttachment;
 import com.smarttask.client.util.GsonUtils;
+import com.smarttask.client.util.SharedHttpClient;
 import com.smarttask.client.config.AppConfig;
+import java.io.File;
 import java.io.IOException;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Arrays;
 
@@ -16,14 +20,17 @@ public class CommentAttachmentService {
     private String baseUrl = AppConfig.API_URL + "/comment-attachments";
 
     private final HttpClient client;
+    private final BlobService blobService;
 
     public CommentAttachmentService() {
-        this.client = HttpClient.newHttpClient();
+        this.client = SharedHttpClient.get();
+        this.blobService = new BlobService();
     }
 
     public CommentAttachmentService(String baseUrl) {
-        this.client = HttpClient.newHttpClient();
+        this.client = SharedHttpClient.get();
         this.baseUrl = baseUrl.endsWith("/comment-attachments") ? baseUrl : baseUrl + "/comment-attachments";
+        this.blobService = new BlobService(this.baseUrl.substring(0, this.baseUrl.length() - "/comment-attachments".length()));
     }
 
     /**
@@ -86,6 +93,24 @@ public class CommentAttachmentService {
         }
     }
 
+    /**
+     * Envoie le contenu du fichier au serveur puis crée l'attachment qui le référence
+     */
+    public CommentAttachment upload(String commentId, File file) throws IOException, InterruptedException {
+        String contentHash = blobService.upload(file.toPath());
+        CommentAttachment attachment = new CommentAttachment(
+                commentId, file.getName(), Files.probeContentType(file.toPath()), file.length(), null);
+        attachment.setContentHash(contentHash);
+        return addAttachment(attachment);
+    }
+
+    /**
+     * Télécharge le contenu d'un attachment (reprend un téléchargement interrompu)
+     */
+    public void download(CommentAttachment attachment, Path target) throws IOException, InterruptedException {
+        blobService.download(baseUrl + "/" + attachment.getId() + "/content", target);
+    }
+
     /**
      * Supprime un attachment
      */
@@ -2,10 +2,12 @@ package com.smarttask.client.service;
 
 import com.google.gson.Gson;
 import com.smarttask.client.util.GsonUtils;
+import com.smarttask.client.util.SharedHttpClient;
 import com.smarttask.model.Comment;
 import com.smarttask.client.config.AppConfig;
 import java.io.IOException;
 import java.net.URI;
+import java.net.URLEncoder;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
@@ -23,13 +25,13 @@ public class CommentService {
 
     // Constructeur par défaut
     public CommentService() {
-        this.client = HttpClient.newHttpClient();
+        this.client = SharedHttpClient.get();
         this.gson = GsonUtils.getGson();
     }
 
     // Constructeur avec URL personnalisée (pour la compatibilité avec votre Controller)
     public CommentService(String url) {
-        this.client = HttpClient.newHttpClient();
+        this.client = SharedHttpClient.get();
         this.gson = GsonUtils.getGson();
         // On s'assure que l'URL pointe bien vers le endpoint des commentaires
         this.baseUrl = url.endsWith("/comments") ? url : url + "/comments";
@@ -57,6 +59,43 @@ public class CommentService {
         return Collections.emptyList();
     }
 
+    /**
+     * Récupère une page du fil, du plus récent au plus ancien.
+     * Cursor null pour la première page, puis le nextCursor de la page précédente.
+     */
+    public CommentPage getThreadPage(String taskId, String cursor, int limit) {
+        String query = "?limit=" + limit;
+        if (cursor != null) query += "&before=" + URLEncoder.encode(cursor, StandardCharsets.UTF_8);
+        return fetchPage(taskId, query);
+    }
+
+    /**
+     * Récupère les commentaires postés après le cursor (latestCursor d'une page déjà reçue),
+     * du plus ancien au plus récent, sans retélécharger le fil.
+     */
+    public CommentPage getNewerComments(String taskId, String latestCursor, int limit) {
+        return fetchPage(taskId, "?limit=" + limit + "&after=" + URLEncoder.encode(latestCursor, StandardCharsets.UTF_8));
+    }
+
+    private CommentPage fetchPage(String taskId, String query) {
+        try {
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create(baseUrl + "/task/" + taskId + query))
+                    .GET()
+                    .build();
+
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+            if (response.statusCode() == 200) {
+                return gson.fromJson(response.body(), CommentPage.class);
+            }
+            System.err.println("Erreur page commentaires: " + response.statusCode());
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
     /**
      * Ajoute un commentaire.
      */
@@ -118,4 +157,18 @@ public class CommentService {
             return false;
         }
     }
+
+    /**
+     * Une page du fil de commentaires, telle que renvoyée par l'endpoint paginé.
+     */
+    public static class CommentPage {
+        private List<Comment> items;
+        private String nextCursor;
+        private String latestCursor;
+
+        public List<Comment> getItems() { return items != null ? items : List.of(); }
+        public String getNextCursor() { return nextCursor; }
+        public String getLatestCursor() { return latestCursor; }
+        public boolean hasMore() { return nextCursor != null; }
+    }
 }
@@ -2,14 +2,16 @@ package com.smarttask.client.service;
 
 import com.google.gson.Gson;
 import com.smarttask.client.util.GsonUtils;
+import com.smarttask.client.util.SharedHttpClient;
 import com.google.gson.reflect.TypeToken;
 import com.smarttask.client.config.AppConfig;
+import com.smarttask.model.Task;
 import com.smarttask.model.TaskDependency;
+import com.smarttask.model.TaskGraph;
 import org.apache.http.HttpEntity;
 import org.apache.http.client.methods.*;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
 import org.apache.http.util.EntityUtils;
 
 import java.lang.reflect.Type;
@@ -21,9 +23,12 @@ public class DependencyService {
     private static final String BASE_URL = AppConfig.API_URL + "/dependencies";
 
     private final Gson gson = GsonUtils.getGson();
+    private final CloseableHttpClient httpClient = SharedHttpClient.apache();
+
+    private static final Type TASK_LIST = new TypeToken<List<Task>>(){}.getType();
 
     public List<TaskDependency> getPredecessors(String taskId) {
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
+        try {
             HttpGet request = new HttpGet(BASE_URL + "/successor/" + taskId);
             request.setHeader("Content-Type", "application/json");
             try (CloseableHttpResponse response = httpClient.execute(request)) {
@@ -41,7 +46,7 @@ public class DependencyService {
     }
 
     public List<TaskDependency> getSuccessors(String taskId) {
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
+        try {
             HttpGet request = new HttpGet(BASE_URL + "/predecessor/" + taskId);
             request.setHeader("Content-Type", "application/json");
             try (CloseableHttpResponse response = httpClient.execute(request)) {
@@ -59,7 +64,7 @@ public class DependencyService {
     }
 
     public TaskDependency addDependency(TaskDependency dependency) {
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
+        try {
             HttpPost request = new HttpPost(BASE_URL);
             request.setHeader("Content-Type", "application/json");
             String json = gson.toJson(dependency);
@@ -76,10 +81,11 @@ public class DependencyService {
     }
 
     public boolean removeDependency(String dependencyId) {
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
+        try {
             HttpDelete request = new HttpDelete(BASE_URL + "/" + dependencyId);
             request.setHeader("Content-Type", "application/json");
             try (CloseableHttpResponse response = httpClient.execute(request)) {
+                EntityUtils.consume(response.getEntity());
                 return response.getStatusLine().getStatusCode() == 200;
             }
         } catch (Exception e) {
@@ -87,4 +93,44 @@ public class DependencyService {
         }
         return false;
     }
+
+    /**
+     * Graphe de dépendances complet d'un projet (une seule requête au lieu d'un parcours saut par saut).
+     */
+    public TaskGraph getProjectGraph(String projectId) {
+        return get(BASE_URL + "/project/" + projectId, TaskGraph.class);
+    }
+
+    /** Tâches du projet dans un ordre qui respecte les dépendances. */
+    public List<Task> getTopologicalOrder(String projectId) {
+        return get(BASE_URL + "/project/" + projectId + "/order", TASK_LIST);
+    }
+
+    /** Plus longue chaîne de tâches ouvertes du projet. */
+    public List<Task> getCriticalPath(String projectId) {
+        return get(BASE_URL + "/project/" + projectId + "/critical-path", TASK_LIST);
+    }
+
+    /** Tâches ouvertes qui bloquent la tâche, directement ou transitivement. */
+    public List<Task> getBlockers(String projectId, String taskId) {
+        return get(BASE_URL + "/project/" + projectId + "/blockers/" + taskId, TASK_LIST);
+    }
+
+    private <T> T get(String url, Type type) {
+        try {
+            HttpGet request = new HttpGet(url);
+            request.setHeader("Content-Type", "application/json");
+            try (CloseableHttpResponse response = httpClient.execute(request)) {
+                int status = response.getStatusLine().getStatusCode();
+                String body = EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8);
+                if (status == 200) {
+                    return gson.fromJson(body, type);
+                }
+                System.err.println("Erreur " + url + ": " + status + " " + body);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
 }
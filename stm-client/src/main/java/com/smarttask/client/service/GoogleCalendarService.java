@@ -15,6 +15,7 @@ import com.google.api.services.calendar.Calendar;
 import com.google.api.services.calendar.CalendarScopes;
 import com.google.api.services.calendar.model.*;
 
+import com.smarttask.client.util.RequestScheduler;
 import com.smarttask.model.CalendarEvent;
 import com.smarttask.model.Task;
 import com.smarttask.model.User;
@@ -30,8 +31,7 @@ import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 /**
@@ -75,8 +75,8 @@ public class GoogleCalendarService {
     private boolean isAuthenticated = false;
     private String userCalendarId = "primary"; // Use primary calendar by default
 
-    // Async executor for non-blocking operations
-    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    // Async executor for non-blocking operations (shared client scheduler, not tied to a view)
+    private final Executor executor = RequestScheduler.getInstance().asExecutor(RequestScheduler.Priority.BACKGROUND);
 
     // Map to track Google Event IDs for our tasks/events
     // Key: SmartTask ID, Value: Google Calendar Event ID
@@ -920,6 +920,5 @@ public class GoogleCalendarService {
         if (currentUser != null) {
             saveSyncMappings(currentUser);
         }
-        executor.shutdown();
     }
 }
\ No newline at end of file
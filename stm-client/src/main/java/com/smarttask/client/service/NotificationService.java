@@ -2,16 +2,17 @@ package com.smarttask.client.service;
 
 import com.google.gson.Gson;
 import com.smarttask.client.util.GsonUtils;
+import com.smarttask.client.util.SharedHttpClient;
 import com.google.gson.reflect.TypeToken;
 import com.smarttask.model.Notification;
 import org.apache.http.HttpEntity;
 import org.apache.http.client.methods.*;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
 import org.apache.http.util.EntityUtils;
 import com.smarttask.client.config.AppConfig;
 import java.lang.reflect.Type;
+import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
@@ -21,9 +22,10 @@ public class NotificationService {
     private static final String BASE_URL = AppConfig.API_URL + "/notifications";
 
     private final Gson gson = GsonUtils.getGson();
+    private final CloseableHttpClient httpClient = SharedHttpClient.apache();
 
     public List<Notification> getUserNotifications(String userId) {
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
+        try {
             HttpGet request = new HttpGet(BASE_URL + "/user/" + userId);
             request.setHeader("Content-Type", "application/json");
             try (CloseableHttpResponse response = httpClient.execute(request)) {
@@ -40,8 +42,31 @@ public class NotificationService {
         return null;
     }
 
+    /**
+     * Fetches one page of notifications, newest first.
+     * Pass a null cursor for the first page, then the previous page's nextCursor.
+     */
+    public NotificationPage getUserNotificationsPage(String userId, String cursor, int limit) {
+        try {
+            String url = BASE_URL + "/user/" + userId + "?limit=" + limit;
+            if (cursor != null) url += "&before=" + URLEncoder.encode(cursor, StandardCharsets.UTF_8);
+            HttpGet request = new HttpGet(url);
+            request.setHeader("Content-Type", "application/json");
+            try (CloseableHttpResponse response = httpClient.execute(request)) {
+                int status = response.getStatusLine().getStatusCode();
+                String body = EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8);
+                if (status == 200) {
+                    return gson.fromJson(body, NotificationPage.class);
+                }
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
     public List<Notification> getUnreadNotifications(String userId) {
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
+        try {
             HttpGet request = new HttpGet(BASE_URL + "/user/" + userId + "/unread");
             request.setHeader("Content-Type", "application/json");
             try (CloseableHttpResponse response = httpClient.execute(request)) {
@@ -59,7 +84,7 @@ public class NotificationService {
     }
 
     public Notification createNotification(Notification notification) {
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
+        try {
             HttpPost request = new HttpPost(BASE_URL);
             request.setHeader("Content-Type", "application/json");
             String json = gson.toJson(notification);
@@ -76,10 +101,11 @@ public class NotificationService {
     }
 
     public boolean markAsRead(String notificationId) {
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
+        try {
             HttpPut request = new HttpPut(BASE_URL + "/" + notificationId + "/read");
             request.setHeader("Content-Type", "application/json");
             try (CloseableHttpResponse response = httpClient.execute(request)) {
+                EntityUtils.consume(response.getEntity());
                 return response.getStatusLine().getStatusCode() == 200;
             }
         } catch (Exception e) {
@@ -89,13 +115,14 @@ public class NotificationService {
     }
 
     public boolean markAllAsRead(String userId) {
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
+        try {
             HttpPut request = new HttpPut(BASE_URL + "/read-all");
             request.setHeader("Content-Type", "application/json");
             Map<String, String> body = Map.of("userId", userId);
             String json = gson.toJson(body);
             request.setEntity(new StringEntity(json, StandardCharsets.UTF_8));
             try (CloseableHttpResponse response = httpClient.execute(request)) {
+                EntityUtils.consume(response.getEntity());
                 return response.getStatusLine().getStatusCode() == 200;
             }
         } catch (Exception e) {
@@ -105,10 +132,11 @@ public class NotificationService {
     }
 
     public boolean deleteNotification(String notificationId) {
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
+        try {
             HttpDelete request = new HttpDelete(BASE_URL + "/" + notificationId);
             request.setHeader("Content-Type", "application/json");
             try (CloseableHttpResponse response = httpClient.execute(request)) {
+                EntityUtils.consume(response.getEntity());
                 return response.getStatusLine().getStatusCode() == 200;
             }
         } catch (Exception e) {
@@ -116,4 +144,16 @@ public class NotificationService {
         }
         return false;
     }
+
+    /**
+     * One page of notifications as returned by the paginated endpoint.
+     */
+    public static class NotificationPage {
+        private List<Notification> items;
+        private String nextCursor;
+
+        public List<Notification> getItems() { return items != null ? items : List.of(); }
+        public String getNextCursor() { return nextCursor; }
+        public boolean hasMore() { return nextCursor != null; }
+    }
 }
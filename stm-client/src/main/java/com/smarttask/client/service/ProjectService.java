@@ -2,6 +2,7 @@ package com.smarttask.client.service;
 
 import com.google.gson.Gson;
 import com.smarttask.client.util.GsonUtils;
+import com.smarttask.client.util.SharedHttpClient;
 import com.smarttask.client.config.AppConfig;
 import com.google.gson.reflect.TypeToken;
 import com.smarttask.model.Project;
@@ -11,7 +12,6 @@ import org.apache.http.HttpEntity;
 import org.apache.http.client.methods.*;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
 import org.apache.http.util.EntityUtils;
 
 
@@ -29,23 +29,18 @@ public class ProjectService {
     private String baseUrl = AppConfig.API_URL + "/projects";
 
     private final Gson gson = GsonUtils.getGson();
+    private final CloseableHttpClient httpClient = SharedHttpClient.apache();
     // ⚡ OPTIMISÉ: HttpClient réutilisable avec HTTP/2
     private final HttpClient client;
 
     // Constructeur 1 : Sans arguments (pour la compatibilité)
     public ProjectService() {
-        this.client = HttpClient.newBuilder()
-                .version(HttpClient.Version.HTTP_2)
-                .connectTimeout(java.time.Duration.ofSeconds(10))
-                .build();
+        this.client = SharedHttpClient.get();
     }
 
     // Constructeur 2 : Avec l'URL (pour la flexibilité dans ProjectsViewController)
     public ProjectService(String url) {
-        this.client = HttpClient.newBuilder()
-                .version(HttpClient.Version.HTTP_2)
-                .connectTimeout(java.time.Duration.ofSeconds(10))
-                .build();
+        this.client = SharedHttpClient.get();
         // Si l'URL reçue est juste l'hôte (ex: http://127.0.0.1:8090), on ajoute le chemin
         if (url != null && !url.contains("/projects")) {
             this.baseUrl = url + "/projects";
@@ -144,10 +139,11 @@ public class ProjectService {
     }
 
     public boolean addTeamToProject(String projectId, String teamId) {
-    try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
+    try {
         // Format typique REST: POST /api/projects/{id}/teams/{teamId}
         HttpPost request = new HttpPost(baseUrl + "/" + projectId + "/teams/" + teamId);
         try (CloseableHttpResponse response = httpClient.execute(request)) {
+            EntityUtils.consume(response.getEntity());
             return response.getStatusLine().getStatusCode() == 200;
         }
     } catch (Exception e) {
@@ -157,9 +153,10 @@ public class ProjectService {
 }
 
     public boolean removeTeamFromProject(String projectId, String teamId) {
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
+        try {
             HttpDelete request = new HttpDelete(baseUrl + "/" + projectId + "/teams/" + teamId);
             try (CloseableHttpResponse response = httpClient.execute(request)) {
+                EntityUtils.consume(response.getEntity());
                 return response.getStatusLine().getStatusCode() == 200;
             }
         } catch (Exception e) {
@@ -169,7 +166,7 @@ public class ProjectService {
     }
 
     public List<Team> getTeamsByProject(String projectId) {
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
+        try {
             HttpGet request = new HttpGet(baseUrl + "/" + projectId + "/teams");
             request.setHeader("Content-Type", "application/json");
             try (CloseableHttpResponse response = httpClient.execute(request)) {
@@ -178,6 +175,7 @@ public class ProjectService {
                     Type listType = new TypeToken<List<Team>>(){}.getType();
                     return gson.fromJson(body, listType);
                 }
+                EntityUtils.consume(response.getEntity());
             }
         } catch (Exception e) {
             e.printStackTrace();
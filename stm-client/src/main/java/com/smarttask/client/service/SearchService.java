@@ -0,0 +1,61 @@
+package com.smarttask.client.service;
+
+import com.google.gson.reflect.TypeToken;
+import com.smarttask.client.config.AppConfig;
+import com.smarttask.client.util.GsonUtils;
+import com.smarttask.client.util.SharedHttpClient;
+import com.smarttask.model.SearchResult;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Service pour la recherche plein texte (tâches, commentaires, tags, événements).
+ */
+public class SearchService {
+    private final String baseUrl;
+    private final HttpClient client;
+
+    public SearchService() {
+        this(AppConfig.API_URL + "/search");
+    }
+
+    public SearchService(String baseUrl) {
+        this.baseUrl = baseUrl;
+        this.client = SharedHttpClient.get();
+    }
+
+    /**
+     * Results visible to the logged-in user, who is identified by the session token.
+     */
+    public List<SearchResult> search(String query, int limit) {
+        try {
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create(baseUrl + "?q=" + URLEncoder.encode(query, StandardCharsets.UTF_8)
+                            + "&limit=" + limit))
+                    .GET()
+                    .build();
+
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+            if (response.statusCode() == 200) {
+                List<SearchResult> results = GsonUtils.getGson().fromJson(response.body(),
+                        new TypeToken<List<SearchResult>>(){}.getType());
+                return results != null ? results : new ArrayList<>();
+            } else {
+                System.err.println("Erreur search: " + response.statusCode());
+            }
+        } catch (InterruptedException e) {
+            // Superseded by a newer query
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return new ArrayList<>();
+    }
+}
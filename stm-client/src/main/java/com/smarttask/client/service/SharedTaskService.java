@@ -2,13 +2,13 @@ package com.smarttask.client.service;
 
 import com.google.gson.Gson;
 import com.smarttask.client.util.GsonUtils;
+import com.smarttask.client.util.SharedHttpClient;
 import com.google.gson.reflect.TypeToken;
 import com.smarttask.model.SharedTask;
 import org.apache.http.HttpEntity;
 import org.apache.http.client.methods.*;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
 import org.apache.http.util.EntityUtils;
 import com.smarttask.client.config.AppConfig;
 import java.lang.reflect.Type;
@@ -21,9 +21,10 @@ public class SharedTaskService {
     private static final String BASE_URL = AppConfig.API_URL + "/shared-tasks";
 
     private final Gson gson = GsonUtils.getGson();
+    private final CloseableHttpClient httpClient = SharedHttpClient.apache();
 
     public List<SharedTask> getSharedByTask(String taskId) {
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
+        try {
             HttpGet request = new HttpGet(BASE_URL + "/task/" + taskId);
             request.setHeader("Content-Type", "application/json");
             try (CloseableHttpResponse response = httpClient.execute(request)) {
@@ -41,7 +42,7 @@ public class SharedTaskService {
     }
 
     public List<SharedTask> getSharedWithUser(String userId) {
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
+        try {
             HttpGet request = new HttpGet(BASE_URL + "/user/" + userId);
             request.setHeader("Content-Type", "application/json");
             try (CloseableHttpResponse response = httpClient.execute(request)) {
@@ -59,13 +60,14 @@ public class SharedTaskService {
     }
 
     public boolean shareTask(String taskId, String userId, String permissionLevel) {
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
+        try {
             HttpPost request = new HttpPost(BASE_URL);
             request.setHeader("Content-Type", "application/json");
             Map<String, String> body = Map.of("taskId", taskId, "userId", userId, "permissionLevel", permissionLevel);
             String json = gson.toJson(body);
             request.setEntity(new StringEntity(json, StandardCharsets.UTF_8));
             try (CloseableHttpResponse response = httpClient.execute(request)) {
+                EntityUtils.consume(response.getEntity());
                 return response.getStatusLine().getStatusCode() == 201;
             }
         } catch (Exception e) {
@@ -75,13 +77,14 @@ public class SharedTaskService {
     }
 
     public boolean updatePermission(String taskId, String userId, String permissionLevel) {
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
+        try {
             HttpPut request = new HttpPut(BASE_URL + "/" + taskId + "/" + userId);
             request.setHeader("Content-Type", "application/json");
             Map<String, String> body = Map.of("permissionLevel", permissionLevel);
             String json = gson.toJson(body);
             request.setEntity(new StringEntity(json, StandardCharsets.UTF_8));
             try (CloseableHttpResponse response = httpClient.execute(request)) {
+                EntityUtils.consume(response.getEntity());
                 return response.getStatusLine().getStatusCode() == 200;
             }
         } catch (Exception e) {
@@ -91,10 +94,11 @@ public class SharedTaskService {
     }
 
     public boolean revokeSharing(String taskId, String userId) {
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
+        try {
             HttpDelete request = new HttpDelete(BASE_URL + "/" + taskId + "/" + userId);
             request.setHeader("Content-Type", "application/json");
             try (CloseableHttpResponse response = httpClient.execute(request)) {
+                EntityUtils.consume(response.getEntity());
                 return response.getStatusLine().getStatusCode() == 200;
             }
         } catch (Exception e) {
@@ -2,6 +2,7 @@ package com.smarttask.client.service;
 
 import com.smarttask.model.TaskDependency;
 import com.smarttask.client.util.GsonUtils;
+import com.smarttask.client.util.SharedHttpClient;
 import com.smarttask.client.config.AppConfig;
 import java.io.IOException;
 import java.net.http.HttpClient;
@@ -13,17 +14,17 @@ import java.util.Arrays;
 
 public class TaskDependencyService {
 
-    private String baseUrl = AppConfig.API_URL + "/task-dependencies";
+    private String baseUrl = AppConfig.API_URL + "/dependencies";
 
     private final HttpClient client;
 
     public TaskDependencyService() {
-        this.client = HttpClient.newHttpClient();
+        this.client = SharedHttpClient.get();
     }
 
     public TaskDependencyService(String baseUrl) {
-        this.client = HttpClient.newHttpClient();
-        this.baseUrl = baseUrl.endsWith("/api/task-dependencies") ? baseUrl : baseUrl + "/task-dependencies";
+        this.client = SharedHttpClient.get();
+        this.baseUrl = baseUrl.endsWith("/api/dependencies") ? baseUrl : baseUrl + "/dependencies";
     }
 
     /**
@@ -86,6 +87,8 @@ public class TaskDependencyService {
 
         if (response.statusCode() == 201 || response.statusCode() == 200) {
             return GsonUtils.getGson().fromJson(response.body(), TaskDependency.class);
+        } else if (response.statusCode() == 409) {
+            throw new IOException("Cette dépendance créerait un cycle");
         } else {
             throw new IOException("Failed to add dependency: HTTP " + response.statusCode());
         }
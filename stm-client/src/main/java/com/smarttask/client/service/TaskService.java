@@ -2,11 +2,15 @@ package com.smarttask.client.service;
 
 import com.google.gson.Gson;
 import com.smarttask.client.util.GsonUtils;
+import com.smarttask.client.util.SharedHttpClient;
 import com.smarttask.model.Priority;
 import com.smarttask.model.Status;
 import com.smarttask.model.Task;
+import com.smarttask.model.TaskDetail;
+import com.smarttask.model.TaskTreeNode;
 import com.smarttask.model.User;
 import com.smarttask.client.config.AppConfig;
+import com.smarttask.wire.TaskListCodec;
 import java.io.IOException;
 import java.net.URI;
 import java.net.http.HttpClient;
@@ -14,9 +18,12 @@ import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Service pour gérer les opérations sur les tâches via l'API HTTP.
@@ -30,21 +37,14 @@ public class TaskService {
     private final HttpClient client;
     private final Gson gson;
 
-    // ⚡ OPTIMISÉ: Constructeur avec HTTP/2 et keep-alive
     public TaskService() {
-        this.client = HttpClient.newBuilder()
-                .version(HttpClient.Version.HTTP_2)  // ⚡ HTTP/2 pour multiplexage
-                .connectTimeout(java.time.Duration.ofSeconds(10))
-                .build();
+        this.client = SharedHttpClient.get();
         this.gson = GsonUtils.getGson();
     }
 
     // Constructeur avec URL personnalisée (si besoin)
     public TaskService(String url) {
-        this.client = HttpClient.newBuilder()
-                .version(HttpClient.Version.HTTP_2)  // ⚡ HTTP/2 pour multiplexage
-                .connectTimeout(java.time.Duration.ofSeconds(10))
-                .build();
+        this.client = SharedHttpClient.get();
         this.gson = GsonUtils.getGson();
         // Logique pour s'assurer que l'URL est correcte
         this.baseUrl = url.contains("/api/tasks") ? url : url + "/api/tasks";
@@ -52,17 +52,7 @@ public class TaskService {
 
     public List<Task> getTasksByProject(String projectId) {
         try {
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(baseUrl + "/project/" + projectId))
-                    .GET()
-                    .build();
-
-            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
-
-            if (response.statusCode() == 200) {
-                Task[] tasks = gson.fromJson(response.body(), Task[].class);
-                return Arrays.asList(tasks);
-            }
+            return fetchTasks(baseUrl + "/project/" + projectId);
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -72,46 +62,85 @@ public class TaskService {
      * Récupère toutes les tâches d'un utilisateur.
      */
     public List<Task> getTasksByUser(String userId) {
+        try {
+            return fetchTasks(baseUrl + "/" + userId + "/user");
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * Récupère en un seul appel tout ce qu'affiche l'écran de détail d'une tâche.
+     */
+    public TaskDetail getTaskDetail(String taskId) {
         try {
             HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(baseUrl + "/" + userId + "/user"))
+                    .uri(URI.create(baseUrl + "/" + taskId + "/detail"))
                     .GET()
                     .build();
 
             HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
 
             if (response.statusCode() == 200) {
-                Task[] tasks = gson.fromJson(response.body(), Task[].class);
-                return Arrays.asList(tasks);
+                return gson.fromJson(response.body(), TaskDetail.class);
             } else {
-                System.err.println("Erreur getTasksByUser: " + response.statusCode());
+                System.err.println("Erreur getTaskDetail: " + response.statusCode());
             }
         } catch (Exception e) {
             e.printStackTrace();
         }
-        return Collections.emptyList();
+        return null;
     }
 
     /**
      * Récupère les sous-tâches d'une tâche parente.
      */
     public List<Task> getSubTasks(String parentId) {
+        try {
+            return fetchTasks(baseUrl + "/sub/" + parentId);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * Récupère une tâche et toute sa descendance en une seule requête.
+     * Le serveur renvoie les lignes parents d'abord, l'arbre (subTasks) est donc
+     * reconstruit en un seul passage. Retourne null si la tâche n'existe pas.
+     */
+    public Task getTaskTree(String taskId) {
         try {
             HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(baseUrl + "/sub/" + parentId))
+                    .uri(URI.create(baseUrl + "/" + taskId + "/tree"))
                     .GET()
                     .build();
 
             HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
 
             if (response.statusCode() == 200) {
-                Task[] tasks = gson.fromJson(response.body(), Task[].class);
-                return Arrays.asList(tasks);
+                TaskTreeNode[] rows = gson.fromJson(response.body(), TaskTreeNode[].class);
+                Map<String, Task> byId = new HashMap<>();
+                Task root = null;
+                for (TaskTreeNode row : rows) {
+                    Task t = row.getTask();
+                    t.setSubTasks(new ArrayList<>());
+                    byId.put(t.getId(), t);
+                    if (row.getDepth() == 0) {
+                        root = t;
+                    } else {
+                        byId.get(t.getParentTask().getId()).getSubTasks().add(t);
+                    }
+                }
+                return root;
+            } else {
+                System.err.println("Erreur getTaskTree: " + response.statusCode());
             }
         } catch (Exception e) {
             e.printStackTrace();
         }
-        return Collections.emptyList();
+        return null;
     }
 
     /**
@@ -220,4 +249,27 @@ public class TaskService {
             return false;
         }
     }
+
+    /**
+     * GET d'une liste de tâches. Avec AppConfig.BINARY_WIRE, le format binaire est proposé
+     * au serveur (Accept) ; la réponse est décodée selon son Content-Type, donc un serveur
+     * qui ne connaît que le JSON reste compris.
+     */
+    private List<Task> fetchTasks(String url) throws IOException, InterruptedException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder().uri(URI.create(url)).GET();
+        if (AppConfig.BINARY_WIRE) {
+            builder.header("Accept", TaskListCodec.MEDIA_TYPE + ", application/json;q=0.5");
+        }
+        HttpResponse<byte[]> response = client.send(builder.build(), HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            System.err.println("Erreur " + url + " : " + response.statusCode());
+            return Collections.emptyList();
+        }
+        String contentType = response.headers().firstValue("Content-Type").orElse(null);
+        if (TaskListCodec.isBinary(contentType)) {
+            return TaskListCodec.decode(response.body());
+        }
+        Task[] tasks = gson.fromJson(new String(response.body(), StandardCharsets.UTF_8), Task[].class);
+        return Arrays.asList(tasks);
+    }
 }
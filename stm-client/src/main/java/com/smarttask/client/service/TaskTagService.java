@@ -2,6 +2,7 @@ package com.smarttask.client.service;
 
 import com.smarttask.model.TaskTag;
 import com.smarttask.client.util.GsonUtils;
+import com.smarttask.client.util.SharedHttpClient;
 import com.smarttask.client.config.AppConfig;
 import java.io.IOException;
 import java.net.http.HttpRequest;
@@ -10,6 +11,7 @@ import java.net.http.HttpClient;
 import java.net.URI;
 import java.util.List;
 import java.util.Arrays;
+import java.util.Map;
 
 public class TaskTagService {
     private final String baseUrl;
@@ -21,7 +23,7 @@ public class TaskTagService {
      */
     public TaskTagService() {
         this.baseUrl = AppConfig.API_URL;
-        this.client = HttpClient.newHttpClient();
+        this.client = SharedHttpClient.get();
     }
 
     /**
@@ -29,7 +31,7 @@ public class TaskTagService {
      */
     public TaskTagService(String baseUrl) {
         this.baseUrl = baseUrl;
-        this.client = HttpClient.newHttpClient();
+        this.client = SharedHttpClient.get();
     }
 
     public List<TaskTag> listByTaskId(String taskId) throws IOException, InterruptedException {
@@ -74,4 +76,39 @@ public class TaskTagService {
             throw new IOException("Failed to delete tag: " + resp.body());
         }
     }
+
+    /**
+     * Ajoute le tag à toutes les tâches en une seule requête (une transaction côté serveur).
+     * @return les ids des tâches qui n'avaient pas encore le tag
+     */
+    public List<String> addToTasks(List<String> taskIds, String tagName) throws IOException, InterruptedException {
+        return bulk("/tags/bulk", taskIds, tagName);
+    }
+
+    /**
+     * Retire le tag de toutes les tâches en une seule requête.
+     * @return les ids des tâches qui portaient le tag
+     */
+    public List<String> removeFromTasks(List<String> taskIds, String tagName) throws IOException, InterruptedException {
+        return bulk("/tags/bulk/remove", taskIds, tagName);
+    }
+
+    private List<String> bulk(String path, List<String> taskIds, String tagName) throws IOException, InterruptedException {
+        String json = GsonUtils.getGson().toJson(Map.of("taskIds", taskIds, "tagName", tagName));
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+        HttpResponse<String> resp = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (resp.statusCode() != 200) {
+            throw new IOException("Failed to update tags: " + resp.body());
+        }
+        BulkResult result = GsonUtils.getGson().fromJson(resp.body(), BulkResult.class);
+        return result != null && result.changed != null ? result.changed : List.of();
+    }
+
+    private static class BulkResult {
+        List<String> changed;
+    }
 }
@@ -3,14 +3,15 @@ package com.smarttask.client.service;
 import com.google.gson.Gson;
 import com.smarttask.client.config.AppConfig;
 import com.smarttask.client.util.GsonUtils;
+import com.smarttask.client.util.SharedHttpClient;
 import com.google.gson.reflect.TypeToken;
 import com.smarttask.model.Team;
 import com.smarttask.model.TeamMember;
+import com.smarttask.model.TeamWithMembers;
 import com.smarttask.model.User;
 import org.apache.http.client.methods.*;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
 import org.apache.http.util.EntityUtils;
 
 import java.lang.reflect.Type;
@@ -21,9 +22,10 @@ public class TeamService {
     private final String baseUrl = AppConfig.API_URL + "/teams";
     private final String usersUrl = AppConfig.API_URL + "/users";
     private final Gson gson = GsonUtils.getGson();
+    private final CloseableHttpClient httpClient = SharedHttpClient.apache();
 
     public List<User> getAllUsers() {
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
+        try {
             HttpGet request = new HttpGet(usersUrl);
             request.setHeader("Content-Type", "application/json");
 
@@ -46,7 +48,7 @@ public class TeamService {
     }
 
     public boolean addMember(String teamId, String userId, String role) {
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
+        try {
             HttpPost request = new HttpPost(baseUrl + "/" + teamId + "/members");
             request.setHeader("Content-Type", "application/json");
 
@@ -59,6 +61,7 @@ public class TeamService {
             request.setEntity(new StringEntity(json, StandardCharsets.UTF_8));
 
             try (CloseableHttpResponse response = httpClient.execute(request)) {
+                EntityUtils.consume(response.getEntity());
                 return response.getStatusLine().getStatusCode() == 201;
             }
         } catch (Exception e) {
@@ -68,7 +71,7 @@ public class TeamService {
     }
 
     public List<Team> getTeamsByUser(String userId) {
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
+        try {
             HttpGet request = new HttpGet(baseUrl + "?userId=" + userId);
             request.setHeader("Content-Type", "application/json");
 
@@ -90,8 +93,34 @@ public class TeamService {
         }
     }
 
+    /**
+     * Teams of a user with their members embedded: one request whatever the number of teams.
+     */
+    public List<TeamWithMembers> getTeamsWithMembers(String userId) {
+        try {
+            HttpGet request = new HttpGet(baseUrl + "?userId=" + userId + "&include=members");
+            request.setHeader("Content-Type", "application/json");
+
+            try (CloseableHttpResponse response = httpClient.execute(request)) {
+                int statusCode = response.getStatusLine().getStatusCode();
+                String body = EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8);
+                if (statusCode == 200) {
+                    Type listType = new TypeToken<List<TeamWithMembers>>() {
+                    }.getType();
+                    return gson.fromJson(body, listType);
+                } else {
+                    System.err.println("Error loading teams: " + body);
+                    return List.of();
+                }
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            return List.of();
+        }
+    }
+
     public String createTeam(Team team) {
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
+        try {
             HttpPost request = new HttpPost(baseUrl);
             request.setHeader("Content-Type", "application/json");
             String json = gson.toJson(team);
@@ -112,7 +141,7 @@ public class TeamService {
     }
 
     public List<TeamMember> getTeamMembers(String teamId) {
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
+        try {
             HttpGet request = new HttpGet(baseUrl + "/" + teamId + "/members");
             request.setHeader("Content-Type", "application/json");
 
@@ -134,13 +163,14 @@ public class TeamService {
     }
 
     public boolean updateTeam(Team team) {
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
+        try {
             HttpPut request = new HttpPut(baseUrl + "/" + team.getId());
             request.setHeader("Content-Type", "application/json");
             String json = gson.toJson(team);
             request.setEntity(new StringEntity(json, StandardCharsets.UTF_8));
 
             try (CloseableHttpResponse response = httpClient.execute(request)) {
+                EntityUtils.consume(response.getEntity());
                 return response.getStatusLine().getStatusCode() == 204;
             }
         } catch (Exception e) {
@@ -150,11 +180,12 @@ public class TeamService {
     }
 
     public boolean deactivateTeam(String teamId) {
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
+        try {
             HttpDelete request = new HttpDelete(baseUrl + "/" + teamId);
             request.setHeader("Content-Type", "application/json");
 
             try (CloseableHttpResponse response = httpClient.execute(request)) {
+                EntityUtils.consume(response.getEntity());
                 return response.getStatusLine().getStatusCode() == 204;
             }
         } catch (Exception e) {
@@ -164,11 +195,12 @@ public class TeamService {
     }
 
         public List<Team> getMyTeams(String userId) {
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
+        try {
             HttpGet request = new HttpGet(baseUrl + "?userId=" + userId);
 
             try (CloseableHttpResponse response = httpClient.execute(request)) {
                 if (response.getStatusLine().getStatusCode() != 200) {
+                    EntityUtils.consume(response.getEntity());
                     return List.of();
                 }
 
@@ -1,13 +1,16 @@
 package com.smarttask.client.service;
 
+import com.smarttask.model.TimeTotals;
 import com.smarttask.model.TimeTracking;
 import com.smarttask.client.util.GsonUtils;
+import com.smarttask.client.util.SharedHttpClient;
 import com.smarttask.client.config.AppConfig;
 import java.io.IOException;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.net.URI;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Arrays;
 import java.util.Collections;
@@ -23,10 +26,7 @@ public class TimeTrackingService {
     public TimeTrackingService(String baseUrl) {
         this.baseUrl = baseUrl;
         // ⚡ OPTIMISÉ: HTTP/2 pour multiplexage
-        this.client = HttpClient.newBuilder()
-                .version(HttpClient.Version.HTTP_2)
-                .connectTimeout(java.time.Duration.ofSeconds(10))
-                .build();
+        this.client = SharedHttpClient.get();
     }
 
     public List<TimeTracking> getTimeLogsByUser(String userId) {
@@ -65,6 +65,38 @@ public class TimeTrackingService {
         return Collections.emptyList();
     }
 
+    public TimeTotals getTaskTotals(String taskId) {
+        return getTotals("/totals/task/" + taskId);
+    }
+
+    /** Temps par jour de l'utilisateur entre from et to (inclus). */
+    public TimeTotals getUserTotals(String userId, LocalDate from, LocalDate to) {
+        return getTotals("/totals/user/" + userId + "?from=" + from + "&to=" + to);
+    }
+
+    /** Temps par semaine du projet entre from et to (semaines entières). */
+    public TimeTotals getProjectTotals(String projectId, LocalDate from, LocalDate to) {
+        return getTotals("/totals/project/" + projectId + "?from=" + from + "&to=" + to);
+    }
+
+    private TimeTotals getTotals(String path) {
+        try {
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create(baseUrl + path))
+                    .GET()
+                    .build();
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() == 200) {
+                return GsonUtils.getGson().fromJson(response.body(), TimeTotals.class);
+            } else {
+                System.err.println("Erreur getTotals: " + response.statusCode());
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
     public TimeTracking startTracking(TimeTracking log) throws IOException, InterruptedException {
         String json = GsonUtils.getGson().toJson(log);
         HttpRequest request = HttpRequest.newBuilder()
@@ -1,6 +1,7 @@
 package com.smarttask.client.service;
 
 import com.smarttask.client.util.GsonUtils;
+import com.smarttask.client.util.SharedHttpClient;
 import com.smarttask.model.User;
 import com.smarttask.client.config.AppConfig;
 import java.io.IOException;
@@ -24,7 +25,7 @@ public class UserService {
     private final HttpClient client;
 
     public UserService() {
-        this.client = HttpClient.newHttpClient();
+        this.client = SharedHttpClient.get();
     }
 
     /**
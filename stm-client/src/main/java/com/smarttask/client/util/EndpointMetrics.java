@@ -0,0 +1,74 @@
+package com.smarttask.client.util;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Per-endpoint latency counters for the client's HTTP calls.
+ * Endpoints are keyed by method + path, with id segments collapsed to {id}
+ * so /api/tasks/42 and /api/tasks/43 count as the same endpoint.
+ */
+public class EndpointMetrics {
+
+    private static final long SLOW_REQUEST_MS = 1000;
+    private static final Pattern ID_SEGMENT = Pattern.compile("\\d+|[0-9a-fA-F-]{32,36}");
+
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+
+    public void record(String method, URI uri, long elapsedNanos, boolean failed) {
+        String endpoint = method + " " + normalize(uri.getPath());
+        Stats s = stats.computeIfAbsent(endpoint, k -> new Stats());
+        long elapsedMs = elapsedNanos / 1_000_000;
+        s.count.incrementAndGet();
+        s.totalMs.addAndGet(elapsedMs);
+        s.maxMs.accumulateAndGet(elapsedMs, Math::max);
+        if (failed) s.errors.incrementAndGet();
+
+        if (elapsedMs >= SLOW_REQUEST_MS) {
+            System.err.println("⚠️ Slow request: " + endpoint + " took " + elapsedMs + "ms");
+        }
+    }
+
+    /**
+     * Returns a sorted copy of the counters, e.g. for a debug screen or the exit log.
+     */
+    public Map<String, String> snapshot() {
+        Map<String, String> copy = new TreeMap<>();
+        stats.forEach((endpoint, s) -> copy.put(endpoint, s.toString()));
+        return copy;
+    }
+
+    public void printSummary() {
+        if (stats.isEmpty()) return;
+        System.out.println("📊 HTTP latency per endpoint:");
+        snapshot().forEach((endpoint, line) -> System.out.println("   " + endpoint + " -> " + line));
+    }
+
+    private static String normalize(String path) {
+        if (path == null || path.isEmpty()) return "/";
+        StringBuilder sb = new StringBuilder();
+        for (String segment : path.split("/")) {
+            if (segment.isEmpty()) continue;
+            sb.append('/').append(ID_SEGMENT.matcher(segment).matches() ? "{id}" : segment);
+        }
+        return sb.length() == 0 ? "/" : sb.toString();
+    }
+
+    private static class Stats {
+        final AtomicLong count = new AtomicLong();
+        final AtomicLong errors = new AtomicLong();
+        final AtomicLong totalMs = new AtomicLong();
+        final AtomicLong maxMs = new AtomicLong();
+
+        @Override
+        public String toString() {
+            long n = count.get();
+            long avg = n == 0 ? 0 : totalMs.get() / n;
+            return n + " calls, avg " + avg + "ms, max " + maxMs.get() + "ms, " + errors.get() + " errors";
+        }
+    }
+}
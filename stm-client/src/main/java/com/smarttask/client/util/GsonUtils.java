@@ -1,16 +1,14 @@
 package com.smarttask.client.util;
 
-import com.google.gson.*;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.smarttask.json.JavaTimeAdapters;
+import com.smarttask.json.ModelTypeAdapters;
 
-import java.lang.reflect.Type;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 
 public final class GsonUtils {
-    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
-    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE;
-
     private static final Gson GSON = createGson();
 
     private GsonUtils() {}
@@ -22,31 +20,10 @@ public final class GsonUtils {
     private static Gson createGson() {
         GsonBuilder builder = new GsonBuilder();
 
-        builder.registerTypeAdapter(LocalDateTime.class, new JsonSerializer<LocalDateTime>() {
-            @Override
-            public JsonElement serialize(LocalDateTime src, Type typeOfSrc, JsonSerializationContext context) {
-                return new JsonPrimitive(src.format(DATE_TIME_FORMATTER));
-            }
-        });
-        builder.registerTypeAdapter(LocalDateTime.class, new JsonDeserializer<LocalDateTime>() {
-            @Override
-            public LocalDateTime deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context) throws JsonParseException {
-                return LocalDateTime.parse(json.getAsString(), DATE_TIME_FORMATTER);
-            }
-        });
-
-        builder.registerTypeAdapter(LocalDate.class, new JsonSerializer<LocalDate>() {
-            @Override
-            public JsonElement serialize(LocalDate src, Type typeOfSrc, JsonSerializationContext context) {
-                return new JsonPrimitive(src.format(DATE_FORMATTER));
-            }
-        });
-        builder.registerTypeAdapter(LocalDate.class, new JsonDeserializer<LocalDate>() {
-            @Override
-            public LocalDate deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context) throws JsonParseException {
-                return LocalDate.parse(json.getAsString(), DATE_FORMATTER);
-            }
-        });
+        builder.registerTypeAdapter(LocalDateTime.class, JavaTimeAdapters.LOCAL_DATE_TIME);
+        builder.registerTypeAdapter(LocalDate.class, JavaTimeAdapters.LOCAL_DATE);
+        // Task, User, Project, Team, Notification without reflection
+        builder.registerTypeAdapterFactory(new ModelTypeAdapters());
 
         builder.serializeNulls();
         return builder.create();
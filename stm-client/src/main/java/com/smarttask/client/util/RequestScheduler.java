@@ -0,0 +1,145 @@
+package com.smarttask.client.util;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Request Scheduler - Singleton
+ * Single place where the client runs blocking work (HTTP calls, file IO) off the FX thread.
+ *
+ * - Every job runs on a virtual thread, so blocking calls are cheap.
+ * - At most MAX_CONCURRENT jobs talk to the server at once; BACKGROUND jobs may only use
+ *   BACKGROUND_SLOTS of them, leaving room for what the visible view is waiting on.
+ * - VIEW jobs belong to the view currently displayed and are cancelled by cancelViewRequests()
+ *   when the user navigates away.
+ * - fetch() shares one in-flight call between callers asking for the same key.
+ * Failed jobs are logged here, callers only need to handle the failure if the UI must react.
+ */
+public class RequestScheduler {
+
+    public enum Priority {
+        /** Needed by the view on screen; cancelled on navigation. */
+        VIEW,
+        /** Not tied to a view (saves, emails, refreshes); survives navigation. */
+        BACKGROUND
+    }
+
+    private static final int MAX_CONCURRENT = 8;
+    private static final int BACKGROUND_SLOTS = 3;
+
+    private static final RequestScheduler INSTANCE = new RequestScheduler();
+
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("stm-request-", 0).factory());
+    private final Semaphore slots = new Semaphore(MAX_CONCURRENT, true);
+    private final Semaphore backgroundSlots = new Semaphore(BACKGROUND_SLOTS, true);
+
+    private final Set<CompletableFuture<?>> viewRequests = ConcurrentHashMap.newKeySet();
+    private final Map<String, CompletableFuture<?>> inFlight = new ConcurrentHashMap<>();
+
+    private RequestScheduler() {
+        // Private constructor for singleton
+    }
+
+    public static RequestScheduler getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Runs a job and returns its result. Cancelling the returned future interrupts the job.
+     */
+    public <T> CompletableFuture<T> submit(Priority priority, Callable<T> job) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> running = executor.submit(() -> {
+            boolean background = priority == Priority.BACKGROUND;
+            boolean acquired = false;
+            try {
+                if (background) backgroundSlots.acquire();
+                try {
+                    slots.acquire();
+                    acquired = true;
+                    if (!result.isDone()) {
+                        result.complete(job.call());
+                    }
+                } finally {
+                    if (acquired) slots.release();
+                    if (background) backgroundSlots.release();
+                }
+            } catch (InterruptedException e) {
+                result.cancel(false);
+            } catch (Throwable t) {
+                if (!result.isDone()) {
+                    System.err.println("❌ Request failed: " + t);
+                    result.completeExceptionally(t);
+                }
+            }
+        });
+
+        if (priority == Priority.VIEW) {
+            viewRequests.add(result);
+        }
+        result.whenComplete((r, ex) -> {
+            viewRequests.remove(result);
+            if (result.isCancelled()) {
+                running.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Variant of {@link #submit(Priority, Callable)} for jobs without a result.
+     */
+    public CompletableFuture<Void> run(Priority priority, Runnable job) {
+        return submit(priority, () -> {
+            job.run();
+            return null;
+        });
+    }
+
+    /**
+     * Like submit(), but a caller asking for a key that is already being fetched gets the
+     * in-flight result instead of issuing a second identical GET.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> fetch(String key, Priority priority, Callable<T> job) {
+        CompletableFuture<T> shared = new CompletableFuture<>();
+        CompletableFuture<T> existing = (CompletableFuture<T>) inFlight.putIfAbsent(key, shared);
+        if (existing != null) {
+            return existing.thenApply(r -> r);
+        }
+
+        submit(priority, job).whenComplete((r, ex) -> {
+            inFlight.remove(key, shared);
+            if (ex != null) shared.completeExceptionally(ex);
+            else shared.complete(r);
+        });
+        // Each caller gets its own stage so cancelling one does not cancel the others
+        return shared.thenApply(r -> r);
+    }
+
+    /**
+     * Cancels every VIEW request still pending or running. Called when the displayed view changes.
+     */
+    public void cancelViewRequests() {
+        for (CompletableFuture<?> f : viewRequests) {
+            f.cancel(true);
+        }
+        viewRequests.clear();
+    }
+
+    /**
+     * Exposes the scheduler as an Executor, for APIs such as CompletableFuture.supplyAsync.
+     */
+    public Executor asExecutor(Priority priority) {
+        return job -> run(priority, job);
+    }
+}
@@ -10,6 +10,8 @@ public class SessionManager {
     
     private static SessionManager instance;
     private User currentUser;
+    // Jeton signé renvoyé par le login, renouvelé par le serveur au fil des requêtes
+    private volatile String token;
     
     private SessionManager() {
         // Private constructor for singleton
@@ -53,6 +55,21 @@ public class SessionManager {
     public void clearSession() {
         System.out.println("🚪 Session cleared for user: " + (currentUser != null ? currentUser.getUsername() : "none"));
         this.currentUser = null;
+        this.token = null;
+    }
+
+    /**
+     * Session token sent as Authorization: Bearer, or null before login
+     */
+    public String getToken() {
+        return token;
+    }
+
+    /**
+     * Set the session token (at login, then whenever the server renews it)
+     */
+    public void setToken(String token) {
+        this.token = token;
     }
     
     /**
@@ -0,0 +1,238 @@
+package com.smarttask.client.util;
+
+import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.HttpResponseInterceptor;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.protocol.HttpContext;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.Authenticator;
+import java.net.CookieHandler;
+import java.net.ProxySelector;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.net.http.WebSocket;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Shared HTTP clients for every client service.
+ *
+ * One java.net.http client (HTTP/2, falling back to HTTP/1.1 when the server does not
+ * upgrade) and one pooled Apache client for the services still written against it.
+ * Both keep connections alive between calls, apply the same timeouts, retry idempotent
+ * requests on connection failures and record per-endpoint latency in {@link #metrics()}.
+ * Requests made while a user is logged in carry its signed session token in the
+ * Authorization header (or, without a token, its id in the X-User-Id header), which the
+ * server uses for per-task permission checks. A renewed token sent back by the server in
+ * X-Session-Token replaces the current one.
+ */
+public final class SharedHttpClient {
+
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final int MAX_RETRIES = 2;
+    private static final long RETRY_BACKOFF_MS = 150;
+    private static final Set<String> IDEMPOTENT_METHODS = Set.of("GET", "HEAD", "PUT", "DELETE", "OPTIONS");
+    private static final String USER_HEADER = "X-User-Id";
+    private static final String AUTH_HEADER = "Authorization";
+    private static final String RENEWED_TOKEN_HEADER = "X-Session-Token";
+
+    private static final EndpointMetrics METRICS = new EndpointMetrics();
+    private static final HttpClient CLIENT = new InstrumentedClient(HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(CONNECT_TIMEOUT)
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build());
+    private static final CloseableHttpClient APACHE_CLIENT = createApacheClient();
+
+    private SharedHttpClient() {}
+
+    /** The java.net.http client, safe to share between threads. */
+    public static HttpClient get() {
+        return CLIENT;
+    }
+
+    /**
+     * The pooled Apache client. Shared: callers must not close it, and must read or
+     * consume (EntityUtils.consume) every response body, otherwise the connection is
+     * not returned to the pool.
+     */
+    public static CloseableHttpClient apache() {
+        return APACHE_CLIENT;
+    }
+
+    public static EndpointMetrics metrics() {
+        return METRICS;
+    }
+
+    /** Keeps the token the server renewed, unless the user logged out meanwhile. */
+    private static void renewToken(String token) {
+        SessionManager session = SessionManager.getInstance();
+        if (session.getToken() != null) session.setToken(token);
+    }
+
+    private static CloseableHttpClient createApacheClient() {
+        PoolingHttpClientConnectionManager pool = new PoolingHttpClientConnectionManager();
+        pool.setMaxTotal(20);
+        pool.setDefaultMaxPerRoute(10);
+        pool.setValidateAfterInactivity(5_000);
+
+        RequestConfig config = RequestConfig.custom()
+                .setConnectTimeout((int) CONNECT_TIMEOUT.toMillis())
+                .setConnectionRequestTimeout((int) CONNECT_TIMEOUT.toMillis())
+                .setSocketTimeout((int) REQUEST_TIMEOUT.toMillis())
+                .build();
+
+        String startAttr = "stm.request.start";
+        HttpRequestInterceptor start = (request, context) -> context.setAttribute(startAttr, System.nanoTime());
+        HttpRequestInterceptor user = (request, context) -> {
+            String token = SessionManager.getInstance().getToken();
+            String userId = SessionManager.getInstance().getCurrentUserId();
+            if (token != null) {
+                if (!request.containsHeader(AUTH_HEADER)) request.addHeader(AUTH_HEADER, "Bearer " + token);
+            } else if (userId != null && !request.containsHeader(USER_HEADER)) {
+                request.addHeader(USER_HEADER, userId);
+            }
+        };
+        HttpResponseInterceptor renewed = (response, context) -> {
+            org.apache.http.Header header = response.getFirstHeader(RENEWED_TOKEN_HEADER);
+            if (header != null) renewToken(header.getValue());
+        };
+        HttpResponseInterceptor end = (response, context) -> {
+            Object started = context.getAttribute(startAttr);
+            org.apache.http.HttpRequest request = (org.apache.http.HttpRequest) context.getAttribute("http.request");
+            if (started instanceof Long && request != null) {
+                METRICS.record(request.getRequestLine().getMethod(), URI.create(request.getRequestLine().getUri()),
+                        System.nanoTime() - (Long) started, response.getStatusLine().getStatusCode() >= 500);
+            }
+        };
+
+        return HttpClients.custom()
+                .setConnectionManager(pool)
+                .setDefaultRequestConfig(config)
+                .setKeepAliveStrategy(DefaultConnectionKeepAliveStrategy.INSTANCE)
+                .setRetryHandler(SharedHttpClient::retryApache)
+                .addInterceptorFirst(start)
+                .addInterceptorFirst(user)
+                .addInterceptorLast(renewed)
+                .addInterceptorLast(end)
+                .build();
+    }
+
+    /**
+     * Same policy as the java.net.http client: idempotent methods only, on connection
+     * failures (refused, reset, dropped keep-alive connection: ConnectException,
+     * NoHttpResponseException, ...) but not on timeouts, with the same backoff.
+     * StandardHttpRequestRetryHandler never retries a ConnectException.
+     */
+    private static boolean retryApache(IOException e, int executionCount, HttpContext context) {
+        org.apache.http.HttpRequest request = HttpClientContext.adapt(context).getRequest();
+        if (request == null || !IDEMPOTENT_METHODS.contains(request.getRequestLine().getMethod())) return false;
+        // Socket, connect and pool timeouts: a slow server, not a transient failure
+        if (executionCount > MAX_RETRIES || e instanceof InterruptedIOException) return false;
+        try {
+            Thread.sleep(RETRY_BACKOFF_MS * executionCount);
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Delegating client that adds the default request timeout, the retry policy
+     * and latency recording on top of the JDK client.
+     */
+    private static final class InstrumentedClient extends HttpClient {
+
+        private final HttpClient delegate;
+
+        InstrumentedClient(HttpClient delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler)
+                throws IOException, InterruptedException {
+            HttpRequest req = prepare(request);
+            boolean retryable = IDEMPOTENT_METHODS.contains(req.method());
+            int attempt = 0;
+            while (true) {
+                long start = System.nanoTime();
+                try {
+                    HttpResponse<T> response = delegate.send(req, handler);
+                    METRICS.record(req.method(), req.uri(), System.nanoTime() - start, response.statusCode() >= 500);
+                    response.headers().firstValue(RENEWED_TOKEN_HEADER).ifPresent(SharedHttpClient::renewToken);
+                    return response;
+                } catch (IOException e) {
+                    METRICS.record(req.method(), req.uri(), System.nanoTime() - start, true);
+                    if (!retryable || attempt >= MAX_RETRIES || !isTransient(e)) throw e;
+                    attempt++;
+                    Thread.sleep(RETRY_BACKOFF_MS * attempt);
+                }
+            }
+        }
+
+        @Override
+        public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> handler) {
+            return sendAsync(request, handler, null);
+        }
+
+        @Override
+        public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> handler,
+                                                                HttpResponse.PushPromiseHandler<T> pushHandler) {
+            HttpRequest req = prepare(request);
+            long start = System.nanoTime();
+            return delegate.sendAsync(req, handler, pushHandler).whenComplete((response, error) -> {
+                METRICS.record(req.method(), req.uri(), System.nanoTime() - start,
+                        error != null || response.statusCode() >= 500);
+                if (response != null) response.headers().firstValue(RENEWED_TOKEN_HEADER).ifPresent(SharedHttpClient::renewToken);
+            });
+        }
+
+        /** Adds the default timeout and the session (or user) header when the request has none. */
+        private static HttpRequest prepare(HttpRequest request) {
+            String token = SessionManager.getInstance().getToken();
+            String userId = SessionManager.getInstance().getCurrentUserId();
+            boolean addToken = token != null && request.headers().firstValue(AUTH_HEADER).isEmpty();
+            boolean addUser = token == null && userId != null && request.headers().firstValue(USER_HEADER).isEmpty();
+            if (request.timeout().isPresent() && !addToken && !addUser) return request;
+            HttpRequest.Builder builder = HttpRequest.newBuilder(request, (name, value) -> true);
+            if (request.timeout().isEmpty()) builder.timeout(REQUEST_TIMEOUT);
+            if (addToken) builder.header(AUTH_HEADER, "Bearer " + token);
+            if (addUser) builder.header(USER_HEADER, userId);
+            return builder.build();
+        }
+
+        private static boolean isTransient(IOException e) {
+            // Connection refused/reset or a dropped keep-alive connection, not a slow server
+            return !(e instanceof HttpTimeoutException);
+        }
+
+        @Override public WebSocket.Builder newWebSocketBuilder() { return delegate.newWebSocketBuilder(); }
+        @Override public Optional<CookieHandler> cookieHandler() { return delegate.cookieHandler(); }
+        @Override public Optional<Duration> connectTimeout() { return delegate.connectTimeout(); }
+        @Override public Redirect followRedirects() { return delegate.followRedirects(); }
+        @Override public Optional<ProxySelector> proxy() { return delegate.proxy(); }
+        @Override public SSLContext sslContext() { return delegate.sslContext(); }
+        @Override public SSLParameters sslParameters() { return delegate.sslParameters(); }
+        @Override public Optional<Authenticator> authenticator() { return delegate.authenticator(); }
+        @Override public Version version() { return delegate.version(); }
+        @Override public Optional<Executor> executor() { return delegate.executor(); }
+    }
+}
@@ -128,18 +128,15 @@ public class AIController implements AIResponseListener {
         if (isVocalMode) {
             // Petit délai pour laisser le temps aux derniers chunks audio d'arriver
             // (évite de repasser en mode écoute avant que l'audio soit bien en file)
-            new Thread(() -> {
-                try {
-                    Thread.sleep(200);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                }
-                javafx.application.Platform.runLater(() -> {
+            javafx.application.Platform.runLater(() -> {
+                PauseTransition delay = new PauseTransition(Duration.millis(200));
+                delay.setOnFinished(e -> {
                     if (isVocalMode) {
                         audioService.notifyServerAudioEnd();
                     }
                 });
-            }, "AudioEnd-Delay").start();
+                delay.play();
+            });
         }
     }
 
@@ -1,6 +1,7 @@
 package com.smarttask.client.view.controller;
 
 import com.smarttask.client.service.EmailNotificationService;
+import com.smarttask.client.util.RequestScheduler;
 import com.smarttask.client.util.SessionManager;
 import com.smarttask.model.*;
 import com.smarttask.client.view.controller.kanban.*;
@@ -4358,7 +4359,7 @@ public class CalendarController implements Initializable {
         }
 
         // Run in background thread to not block UI
-        new Thread(() -> {
+        RequestScheduler.getInstance().run(RequestScheduler.Priority.BACKGROUND, () -> {
             try {
                 EmailNotificationService emailService = new EmailNotificationService();
 
@@ -4380,7 +4381,7 @@ public class CalendarController implements Initializable {
                 System.err.println("❌ Error sending invitations: " + e.getMessage());
                 e.printStackTrace();
             }
-        }).start();
+        });
     }
 
     private void setupItemContextMenu(Node node, PlannerItem item) {
@@ -3,15 +3,14 @@ package com.smarttask.client.view.controller;
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 import com.smarttask.client.config.AppConfig;
-import com.smarttask.client.service.ProjectService;
-import com.smarttask.client.service.TaskService;
-import com.smarttask.client.service.TimeTrackingService;
+import com.smarttask.client.service.AnalyticsService;
 import com.smarttask.client.util.GsonUtils;
+import com.smarttask.client.util.RequestScheduler;
+import com.smarttask.client.util.RequestScheduler.Priority;
 import com.smarttask.client.util.SessionManager;
-import com.smarttask.model.Project;
-import com.smarttask.model.Status;
+import com.smarttask.client.util.SharedHttpClient;
+import com.smarttask.model.DashboardStats;
 import com.smarttask.model.Task;
-import com.smarttask.model.TimeTracking;
 import com.smarttask.model.User;
 import javafx.animation.FadeTransition;
 import javafx.animation.KeyFrame;
@@ -35,18 +34,13 @@ import javafx.scene.shape.Circle;
 import javafx.util.Duration;
 
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.WebSocket;
-import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-import java.time.temporal.TemporalAdjusters;
-import java.util.Comparator;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.CompletionStage;
-import java.util.stream.Collectors;
 
 public class DashboardController {
 
@@ -74,9 +68,7 @@ public class DashboardController {
     private WebSocket webSocket;
     private final Gson gson = GsonUtils.getGson();
 
-    private final TaskService taskService = new TaskService();
-    private final TimeTrackingService timeTrackingService = new TimeTrackingService();
-    private final ProjectService projectService = new ProjectService();
+    private final AnalyticsService analyticsService = new AnalyticsService();
 
     private JsonObject calculatedStatsForAI;
     private boolean analysisSent = false;
@@ -105,101 +97,70 @@ public class DashboardController {
     }
 
     private void refreshDashboardData() {
-        // ⚡ OPTIMISÉ: Utilisation d'ExecutorService au lieu de new Thread()
-        java.util.concurrent.ExecutorService executor = java.util.concurrent.Executors.newSingleThreadExecutor();
-        executor.submit(() -> {
-            try {
-                if (currentUser == null) return;
-
-                long startTime = System.currentTimeMillis();
-                
-                // ⚡ Chargement parallèle des données
-                java.util.concurrent.CompletableFuture<List<Task>> tasksFuture = 
-                    java.util.concurrent.CompletableFuture.supplyAsync(
-                        () -> taskService.getTasksByUser(currentUser.getId())
-                    );
-                
-                java.util.concurrent.CompletableFuture<List<TimeTracking>> timeLogsFuture = 
-                    java.util.concurrent.CompletableFuture.supplyAsync(
-                        () -> timeTrackingService.getTimeLogsByUser(currentUser.getId())
-                    );
-                
-                java.util.concurrent.CompletableFuture<List<Project>> projectsFuture = 
-                    java.util.concurrent.CompletableFuture.supplyAsync(
-                        () -> projectService.getProjectsByUser(currentUser.getId())
-                    );
-                
-                // Attendre tous les résultats en parallèle
-                List<Task> allTasks = tasksFuture.join();
-                List<TimeTracking> timeLogs = timeLogsFuture.join();
-                List<Project> projects = projectsFuture.join();
-                
-                long loadTime = System.currentTimeMillis() - startTime;
-                System.out.println("⚡ Data loaded in " + loadTime + "ms (parallel)");
-
-                // ⚡ Mise à jour UI en un seul batch
-                Platform.runLater(() -> {
-                    long uiStartTime = System.currentTimeMillis();
-                    calculateAndDisplayMetrics(allTasks);
-                    updatePerformanceChart(allTasks);
-                    updateDistributionChart(allTasks, projects);
-                    loadUpcomingTasks(allTasks);
-                    long uiTime = System.currentTimeMillis() - uiStartTime;
-                    System.out.println("⚡ UI updated in " + uiTime + "ms");
+        if (currentUser == null) return;
+        String userId = currentUser.getId();
+        long startTime = System.currentTimeMillis();
+
+        // ⚡ Une seule requête : le serveur agrège (et met en cache) toutes les métriques
+        RequestScheduler.getInstance()
+                .fetch("dashboard:user:" + userId, Priority.VIEW, () -> analyticsService.getDashboardStats(userId))
+                .whenComplete((stats, error) -> {
+                    if (error != null) {
+                        Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                        if (!(cause instanceof CancellationException)) {
+                            Platform.runLater(() -> insightTitleLabel.setText("Error loading data"));
+                        }
+                        return;
+                    }
+                    if (stats == null) {
+                        Platform.runLater(() -> insightTitleLabel.setText("Error loading data"));
+                        return;
+                    }
+
+                    long loadTime = System.currentTimeMillis() - startTime;
+                    System.out.println("⚡ Data loaded in " + loadTime + "ms");
+
+                    // ⚡ Mise à jour UI en un seul batch
+                    Platform.runLater(() -> {
+                        long uiStartTime = System.currentTimeMillis();
+                        calculateAndDisplayMetrics(stats);
+                        updatePerformanceChart(stats);
+                        updateDistributionChart(stats);
+                        loadUpcomingTasks(stats.getUpcomingTasks());
+                        long uiTime = System.currentTimeMillis() - uiStartTime;
+                        System.out.println("⚡ UI updated in " + uiTime + "ms");
+                    });
+
+                    prepareAIStats(stats);
+                    Platform.runLater(this::trySendAnalysis);
                 });
-
-                prepareAIStats(allTasks, timeLogs);
-                Platform.runLater(this::trySendAnalysis);
-
-            } catch (Exception e) {
-                e.printStackTrace();
-                Platform.runLater(() -> insightTitleLabel.setText("Error loading data"));
-            } finally {
-                executor.shutdown();
-            }
-        });
     }
 
     // --- METRICS ---
-    private void calculateAndDisplayMetrics(List<Task> tasks) {
-        int totalTasks = tasks.size();
-        
-        long tasksDone = tasks.stream().filter(t -> t.getStatus() == Status.COMPLETED).count();
-        long tasksOverdue = tasks.stream()
-                .filter(t -> t.getStatus() != Status.COMPLETED && t.getDueDate() != null 
-                        && t.getDueDate().toLocalDate().isBefore(LocalDate.now()))
-                .count();
-
-        int productivityScore = totalTasks > 0 ? (int)((tasksDone * 100) / totalTasks) : 0;
-        TrendResult trend = calculateWeeklyTrend(tasks);
-
-        productivityScoreLabel.setText(productivityScore + "%");
-        tasksDoneLabel.setText(tasksDone + " / " + totalTasks);
+    private void calculateAndDisplayMetrics(DashboardStats stats) {
+        double diff = stats.getThisWeekScore() - stats.getLastWeekScore();
+
+        productivityScoreLabel.setText(stats.getProductivityScore() + "%");
+        tasksDoneLabel.setText(stats.getCompletedTasks() + " / " + stats.getTotalTasks());
         if (overdueTasksLabel != null) {
-            overdueTasksLabel.setText(String.valueOf(tasksOverdue));
+            overdueTasksLabel.setText(String.valueOf(stats.getOverdueTasks()));
         }
 
         if (productivityTrendLabel != null) {
-            productivityTrendLabel.setText(trend.message);
+            String sign = diff > 0 ? "+" : "";
+            productivityTrendLabel.setText(String.format("%s%.0f%% vs last week", sign, diff));
             productivityTrendLabel.getStyleClass().removeAll("trend-up", "trend-down", "trend-neutral");
-            if (trend.difference > 0) productivityTrendLabel.getStyleClass().add("trend-up");
-            else if (trend.difference < 0) productivityTrendLabel.getStyleClass().add("trend-down");
+            if (diff > 0) productivityTrendLabel.getStyleClass().add("trend-up");
+            else if (diff < 0) productivityTrendLabel.getStyleClass().add("trend-down");
             else productivityTrendLabel.getStyleClass().add("trend-neutral");
         }
     }
 
     // --- UPCOMING TASKS (URGENT LIST) ---
-    private void loadUpcomingTasks(List<Task> tasks) {
+    private void loadUpcomingTasks(List<Task> urgentTasks) {
         if (upcomingTasksContainer == null) return;
         upcomingTasksContainer.getChildren().clear();
 
-        List<Task> urgentTasks = tasks.stream()
-                .filter(t -> t.getStatus() != Status.COMPLETED)
-                .filter(t -> t.getDueDate() != null)
-                .sorted(Comparator.comparing(Task::getDueDate))
-                .limit(4)
-                .collect(Collectors.toList());
-
         if (urgentTasks.isEmpty()) {
             Label emptyLabel = new Label("No urgent tasks! 🎉");
             emptyLabel.setStyle("-fx-text-fill: #9CA3AF; -fx-font-style: italic; -fx-font-size: 12px;");
@@ -242,24 +203,15 @@ public class DashboardController {
     }
 
     // --- CHARTS ---
-    private void updatePerformanceChart(List<Task> tasks) {
+    private void updatePerformanceChart(DashboardStats stats) {
         performanceChart.getData().clear();
         XYChart.Series<String, Number> series = new XYChart.Series<>();
         series.setName("Completed Tasks");
 
-        LocalDate today = LocalDate.now();
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("EEE");
 
-        for (int i = 4; i >= 0; i--) {
-            LocalDate dateToCheck = today.minusDays(i);
-            long count = tasks.stream()
-                    .filter(t -> t.getStatus() == Status.COMPLETED)
-                    .filter(t -> t.getDueDate() != null && t.getDueDate().toLocalDate().isEqual(dateToCheck))
-                    .count();
-            
-            XYChart.Data<String, Number> data = new XYChart.Data<>(dateToCheck.format(formatter), count);
-            series.getData().add(data);
-        }
+        stats.getCompletedPerDay().forEach((day, count) ->
+                series.getData().add(new XYChart.Data<>(LocalDate.parse(day).format(formatter), count)));
         performanceChart.getData().add(series);
 
         for (XYChart.Data<String, Number> data : series.getData()) {
@@ -273,21 +225,11 @@ public class DashboardController {
         }
     }
 
-    private void updateDistributionChart(List<Task> tasks, List<Project> projects) {
+    private void updateDistributionChart(DashboardStats stats) {
         timeDistributionChart.getData().clear();
         ObservableList<PieChart.Data> pieData = FXCollections.observableArrayList();
 
-        Map<String, String> projectNames = projects.stream()
-                .collect(Collectors.toMap(p -> p.getId().toString(), Project::getName));
-
-        Map<String, Long> distribution = new HashMap<>();
-        for (Task t : tasks) {
-            String label = "No Project";
-            if (t.getProjectId() != null) label = projectNames.getOrDefault(t.getProjectId().toString(), "Unknown");
-            distribution.put(label, distribution.getOrDefault(label, 0L) + 1);
-        }
-
-        distribution.forEach((name, count) -> pieData.add(new PieChart.Data(name, count)));
+        stats.getTasksPerProject().forEach((name, count) -> pieData.add(new PieChart.Data(name, count)));
         timeDistributionChart.setData(pieData);
 
         pieData.forEach(data -> {
@@ -300,58 +242,17 @@ public class DashboardController {
 
     // --- AI & LOGIC ---
     
-    private void prepareAIStats(List<Task> tasks, List<TimeTracking> timeLogs) {
-        long overdue = tasks.stream()
-                .filter(t -> t.getStatus() != Status.COMPLETED && t.getDueDate() != null && t.getDueDate().toLocalDate().isBefore(LocalDate.now()))
-                .count();
-        double hours = timeLogs.stream().mapToDouble(l -> (l.getDurationMs() != null ? l.getDurationMs() : 0L) / 3600000.0).sum();
-
+    private void prepareAIStats(DashboardStats stats) {
         calculatedStatsForAI = new JsonObject();
         calculatedStatsForAI.addProperty("username", currentUser.getUsername());
-        calculatedStatsForAI.addProperty("tasks_total", tasks.size());
-        calculatedStatsForAI.addProperty("tasks_done", tasks.stream().filter(t -> t.getStatus() == Status.COMPLETED).count());
-        calculatedStatsForAI.addProperty("overdue", overdue);
-        calculatedStatsForAI.addProperty("hours_worked", hours);
-    }
-
-    private TrendResult calculateWeeklyTrend(List<Task> allTasks) {
-        LocalDate today = LocalDate.now();
-        LocalDate startOfThisWeek = today.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
-        LocalDate startOfLastWeek = startOfThisWeek.minusWeeks(1);
-        LocalDate endOfLastWeek = startOfThisWeek.minusDays(1);
-
-        double scoreThisWeek = calculatePeriodScore(allTasks, startOfThisWeek, today);
-        double scoreLastWeek = calculatePeriodScore(allTasks, startOfLastWeek, endOfLastWeek);
-        double diff = scoreThisWeek - scoreLastWeek;
-
-        String sign = diff > 0 ? "+" : "";
-        String msg = String.format("%s%.0f%% vs last week", sign, diff);
-        return new TrendResult(diff, msg);
-    }
-
-    private double calculatePeriodScore(List<Task> tasks, LocalDate start, LocalDate end) {
-        List<Task> periodTasks = tasks.stream()
-                .filter(t -> t.getDueDate() != null)
-                .filter(t -> {
-                    LocalDate d = t.getDueDate().toLocalDate();
-                    return !d.isBefore(start) && !d.isAfter(end);
-                })
-                .collect(Collectors.toList());
-
-        if (periodTasks.isEmpty()) return 0.0;
-        long done = periodTasks.stream().filter(t -> t.getStatus() == Status.COMPLETED).count();
-        return ((double) done / periodTasks.size()) * 100.0;
-    }
-
-    private static class TrendResult {
-        double difference;
-        String message;
-        TrendResult(double d, String m) { difference = d; message = m; }
+        calculatedStatsForAI.addProperty("tasks_total", stats.getTotalTasks());
+        calculatedStatsForAI.addProperty("tasks_done", stats.getCompletedTasks());
+        calculatedStatsForAI.addProperty("overdue", stats.getOverdueTasks());
+        calculatedStatsForAI.addProperty("hours_worked", stats.getHoursWorked());
     }
 
     private void connectWebSocket() {
-        HttpClient client = HttpClient.newHttpClient();
-        client.newWebSocketBuilder()
+        SharedHttpClient.get().newWebSocketBuilder()
                 .buildAsync(URI.create(AppConfig.AI_WS_URL), new WebSocketListener())
                 .thenAccept(ws -> {
                     this.webSocket = ws;
@@ -1,6 +1,8 @@
 package com.smarttask.client.view.controller;
 
 import com.smarttask.client.service.AuthService;
+import com.smarttask.client.util.RequestScheduler;
+import com.smarttask.client.util.RequestScheduler.Priority;
 import com.smarttask.client.util.SessionManager;
 import com.smarttask.model.User;
 import javafx.animation.*;
@@ -90,7 +92,7 @@ public class LoginController {
         });
 
         // 5. Lancer le thread
-        new Thread(loginTask).start();
+        RequestScheduler.getInstance().run(Priority.BACKGROUND, loginTask);
     }
 
     @FXML
@@ -126,7 +128,7 @@ public class LoginController {
             showError(registerErrorLabel, "Erreur: " + registerTask.getException().getMessage());
         });
 
-        new Thread(registerTask).start();
+        RequestScheduler.getInstance().run(Priority.BACKGROUND, registerTask);
     }
 
     // Méthode utilitaire pour gérer l'état de chargement
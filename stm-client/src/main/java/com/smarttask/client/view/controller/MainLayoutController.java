@@ -2,17 +2,29 @@ package com.smarttask.client.view.controller;
 
 import com.smarttask.client.view.controller.teams.TeamsController;
 import com.smarttask.model.Project;
+import com.smarttask.model.SearchResult;
+import com.smarttask.model.Task;
 import com.smarttask.model.User;
+import com.smarttask.client.service.SearchService;
+import com.smarttask.client.service.TaskService;
 import com.google.gson.JsonObject;
 import com.smarttask.client.view.controller.projects.ProjectViewController;
+import com.smarttask.client.view.controller.projects.TaskDetailController;
+import com.smarttask.client.util.RequestScheduler;
+import com.smarttask.client.util.SharedHttpClient;
 
+import javafx.animation.PauseTransition;
 import javafx.application.Platform;
+import javafx.geometry.Side;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
+import javafx.scene.control.ContextMenu;
 import javafx.scene.control.Label;
+import javafx.scene.control.MenuItem;
+import javafx.scene.control.TextField;
 import javafx.scene.layout.StackPane;
 import javafx.stage.Stage;
 import javafx.animation.TranslateTransition;
@@ -22,6 +34,8 @@ import javafx.scene.paint.Color;
 
 import java.io.IOException;
 import java.net.http.WebSocket;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 
 
@@ -66,6 +80,17 @@ public class MainLayoutController {
 
     @FXML private Label notificationBadge;
 
+    // Recherche globale
+    @FXML private TextField globalSearchField;
+    private static final Duration SEARCH_DEBOUNCE = Duration.millis(250);
+    private static final int SEARCH_LIMIT = 10;
+    private static final int SEARCH_SNIPPET_LENGTH = 60;
+    private final SearchService searchService = new SearchService();
+    private final TaskService taskService = new TaskService();
+    private final PauseTransition searchDebounce = new PauseTransition(SEARCH_DEBOUNCE);
+    private final ContextMenu searchResultsMenu = new ContextMenu();
+    private CompletableFuture<List<SearchResult>> pendingSearch;
+
     private User currentUser;
     private Button currentActiveButton;
     private static MainLayoutController instance;
@@ -113,6 +138,7 @@ public class MainLayoutController {
     private void initialize() {
         instance = this;
 
+        setupSearch();
         setActiveButton(tasksButton);
         showTasks();
     }
@@ -212,10 +238,119 @@ public class MainLayoutController {
         }
     }
 
+    // --- Recherche globale ---
+
+    /**
+     * Recherche au fil de la frappe : la requête part 250 ms après la dernière touche,
+     * la précédente est annulée et une réponse arrivée après une nouvelle saisie est ignorée.
+     */
+    private void setupSearch() {
+        if (globalSearchField == null) return;
+        searchDebounce.setOnFinished(e -> runSearch(globalSearchField.getText()));
+        globalSearchField.textProperty().addListener((obs, old, text) -> {
+            if (text == null || text.isBlank()) {
+                searchDebounce.stop();
+                cancelPendingSearch();
+                searchResultsMenu.hide();
+            } else {
+                searchDebounce.playFromStart();
+            }
+        });
+        globalSearchField.setOnAction(e -> {
+            searchDebounce.stop();
+            runSearch(globalSearchField.getText());
+        });
+    }
+
+    private void runSearch(String query) {
+        if (currentUser == null || query == null || query.isBlank()) return;
+        cancelPendingSearch();
+        CompletableFuture<List<SearchResult>> search = RequestScheduler.getInstance()
+                .submit(RequestScheduler.Priority.VIEW, () -> searchService.search(query.strip(), SEARCH_LIMIT));
+        pendingSearch = search;
+        search.thenAccept(results -> Platform.runLater(() -> {
+            if (search != pendingSearch || !query.equals(globalSearchField.getText())) return;
+            showSearchResults(results);
+        }));
+    }
+
+    private void cancelPendingSearch() {
+        if (pendingSearch != null) {
+            pendingSearch.cancel(true);
+            pendingSearch = null;
+        }
+    }
+
+    private void showSearchResults(List<SearchResult> results) {
+        searchResultsMenu.getItems().clear();
+        if (results.isEmpty()) {
+            MenuItem none = new MenuItem("Aucun résultat");
+            none.setDisable(true);
+            searchResultsMenu.getItems().add(none);
+        }
+        for (SearchResult result : results) {
+            MenuItem item = new MenuItem(searchResultLabel(result));
+            item.setOnAction(e -> openSearchResult(result));
+            searchResultsMenu.getItems().add(item);
+        }
+        if (!searchResultsMenu.isShowing()) {
+            searchResultsMenu.show(globalSearchField, Side.BOTTOM, 0, 0);
+        }
+    }
+
+    private String searchResultLabel(SearchResult result) {
+        String icon = switch (result.getType()) {
+            case TASK -> "📋 ";
+            case COMMENT -> "💬 ";
+            case TAG -> "🏷 ";
+            case EVENT -> "📅 ";
+        };
+        String label = icon + (result.getTitle() != null ? result.getTitle() : "(sans titre)");
+        String snippet = result.getSnippet();
+        if (result.getType() != SearchResult.Type.TASK && snippet != null && !snippet.isBlank()) {
+            label += " — " + (snippet.length() > SEARCH_SNIPPET_LENGTH
+                    ? snippet.substring(0, SEARCH_SNIPPET_LENGTH) + "…" : snippet);
+        }
+        return label;
+    }
+
+    /**
+     * Les événements ouvrent le calendrier ; tâches, commentaires et tags ouvrent le détail de la tâche.
+     */
+    private void openSearchResult(SearchResult result) {
+        globalSearchField.clear();
+        if (result.getType() == SearchResult.Type.EVENT) {
+            showCalendar();
+            return;
+        }
+        RequestScheduler.getInstance()
+                .submit(RequestScheduler.Priority.VIEW, () -> taskService.getTaskById(result.getTaskId()))
+                .thenAccept(task -> Platform.runLater(() -> openTaskDetail(task)));
+    }
+
+    private void openTaskDetail(Task task) {
+        if (task == null) return;
+        try {
+            FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/projects/task-detail-view.fxml"));
+            Parent root = loader.load();
+            TaskDetailController controller = loader.getController();
+            controller.setTask(task);
+
+            Stage stage = new Stage();
+            stage.setTitle(task.getTitle());
+            stage.setScene(new Scene(root));
+            stage.show();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
     /**
      * Charge une vue FXML dans le contentPane et injecte l'utilisateur courant.
      */
     private boolean loadView(String fxmlPath) {
+        // La vue précédente disparaît : ses requêtes en cours ne servent plus
+        RequestScheduler.getInstance().cancelViewRequests();
         try {
             FXMLLoader loader = new FXMLLoader(getClass().getResource(fxmlPath));
             Parent view = loader.load();
@@ -292,7 +427,7 @@ public class MainLayoutController {
     }
 
     private void connectWebSocket() {
-        java.net.http.HttpClient.newHttpClient()
+        SharedHttpClient.get()
         .newWebSocketBuilder()
         .buildAsync(
             java.net.URI.create("ws://localhost:8887"),
@@ -1,10 +1,13 @@
 package com.smarttask.client.view.controller;
 
 import com.smarttask.client.service.NotificationService;
+import com.smarttask.client.util.RequestScheduler;
+import com.smarttask.client.util.RequestScheduler.Priority;
 import com.smarttask.model.Notification;
 import com.smarttask.model.User;
 import javafx.application.Platform;
 import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.layout.HBox;
@@ -12,32 +15,70 @@ import javafx.scene.layout.VBox;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.Circle;
 
-import java.util.List;
-
 public class NotificationsController {
 
+    private static final int PAGE_SIZE = 20;
+
     @FXML private ListView<Notification> notificationsListView;
     
     private User currentUser;
     private final NotificationService notificationService = new NotificationService();
+    private final ObservableList<Notification> notifications = FXCollections.observableArrayList();
+
+    // Pagination state (only touched on the FX thread)
+    private String nextCursor;
+    private boolean hasMore = true;
+    private boolean loading = false;
+    private int generation = 0;
+
+    @FXML
+    public void initialize() {
+        notificationsListView.setItems(notifications);
+        setupListView();
+    }
 
     public void setCurrentUser(User user) {
         this.currentUser = user;
         loadNotifications();
     }
 
+    /**
+     * Resets the list and loads the first page.
+     */
     private void loadNotifications() {
         if (currentUser == null) return;
 
-        new Thread(() -> {
-            List<Notification> notifications = notificationService.getUserNotifications(currentUser.getId());
-            Platform.runLater(() -> {
-                if (notifications != null) {
-                    notificationsListView.setItems(FXCollections.observableArrayList(notifications));
-                    setupListView();
-                }
-            });
-        }).start();
+        generation++;
+        notifications.clear();
+        nextCursor = null;
+        hasMore = true;
+        loading = false;
+        loadNextPage();
+    }
+
+    /**
+     * Appends the next page; called again when the last loaded cell becomes visible.
+     */
+    private void loadNextPage() {
+        if (currentUser == null || loading || !hasMore) return;
+
+        loading = true;
+        final int requestGeneration = generation;
+        final String cursor = nextCursor;
+        final String userId = currentUser.getId();
+
+        RequestScheduler.getInstance()
+                .fetch("notifications:" + userId + ":" + cursor, Priority.VIEW,
+                        () -> notificationService.getUserNotificationsPage(userId, cursor, PAGE_SIZE))
+                .whenComplete((page, ex) -> Platform.runLater(() -> {
+                    if (requestGeneration != generation) return; // list was reset meanwhile
+                    loading = false;
+                    if (page != null) {
+                        notifications.addAll(page.getItems());
+                        nextCursor = page.getNextCursor();
+                        hasMore = page.hasMore();
+                    }
+                }));
     }
 
     private void setupListView() {
@@ -51,6 +92,10 @@ public class NotificationsController {
                     setStyle("-fx-background-color: transparent;");
                 } else {
                     renderNotificationCell(this, notif);
+                    // Infinite scroll: the last loaded row is on screen, fetch the next page
+                    if (getIndex() == notifications.size() - 1) {
+                        loadNextPage();
+                    }
                 }
             }
         });
@@ -100,20 +145,22 @@ public class NotificationsController {
 
     private void handleMarkRead(Notification notif) {
         if (notificationService.markAsRead(notif.getId())) {
-            loadNotifications();
+            notif.setIsRead(true);
+            notificationsListView.refresh();
         }
     }
 
     @FXML
     private void handleMarkAllAsRead() {
         if (currentUser != null && notificationService.markAllAsRead(currentUser.getId())) {
-            loadNotifications();
+            notifications.forEach(n -> n.setIsRead(true));
+            notificationsListView.refresh();
         }
     }
 
     private void handleDelete(Notification notif) {
         if (notificationService.deleteNotification(notif.getId())) {
-            loadNotifications();
+            notifications.remove(notif);
         }
     }
 
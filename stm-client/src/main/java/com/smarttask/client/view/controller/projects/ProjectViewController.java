@@ -8,9 +8,11 @@ import com.smarttask.client.service.TimeTrackingService;
 import com.smarttask.client.service.CommentAttachmentService;
 import com.smarttask.client.service.TaskDependencyService;
 import com.smarttask.client.service.SharedTaskService;
+import com.smarttask.client.util.RequestScheduler;
 import com.smarttask.client.util.SessionManager;
 import com.smarttask.client.view.controller.MainLayoutController;
 import com.smarttask.model.*;
+import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -73,7 +75,18 @@ public class ProjectViewController {
     private Project project = null;
     private ObservableList<Task> tasks = FXCollections.observableArrayList();
     private ObservableList<TaskTag> tags = FXCollections.observableArrayList();
+
+    // Fil de commentaires paginé (état touché uniquement sur le thread FX)
+    private static final int COMMENTS_PAGE_SIZE = 30;
+    private String commentsTaskId;
+    private String commentsNextCursor;
+    private String commentsLatestCursor;
+    private boolean commentsHasMore = true;
+    private boolean commentsLoading = false;
+    private int commentsGeneration = 0;
     private ObservableList<Comment> comments = FXCollections.observableArrayList();
+    // Niveau de chaque sous-tâche affichée (1 = enfant direct de la tâche sélectionnée)
+    private final java.util.Map<String, Integer> subTaskDepths = new java.util.HashMap<>();
 
     private User currentUser;
     private Task selectedTask = null;
@@ -207,6 +220,8 @@ public class ProjectViewController {
 
     private void setupMainTable() {
         tasksTable.setItems(tasks);
+        // Sélection multiple : les tags s'appliquent à toutes les tâches sélectionnées
+        tasksTable.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
         colTitle.setCellValueFactory(c -> new SimpleStringProperty(c.getValue().getTitle()));
         colPriority.setCellValueFactory(c -> new SimpleStringProperty(c.getValue().getPriority() != null ? c.getValue().getPriority().name() : ""));
         colDueDate.setCellValueFactory(c -> new SimpleStringProperty(
@@ -244,7 +259,11 @@ public class ProjectViewController {
     }
 
     private void setupSubTasksTable() {
-        subTitleCol.setCellValueFactory(c -> new SimpleStringProperty(c.getValue().getTitle()));
+        subTitleCol.setCellValueFactory(c -> {
+            int depth = subTaskDepths.getOrDefault(c.getValue().getId(), 1);
+            String prefix = depth > 1 ? "    ".repeat(depth - 1) + "↳ " : "";
+            return new SimpleStringProperty(prefix + c.getValue().getTitle());
+        });
         subStatusCol.setCellValueFactory(c -> new SimpleStringProperty(c.getValue().getStatus().name()));
         subPriorityCol.setCellValueFactory(c -> new SimpleStringProperty(c.getValue().getPriority().name()));
         subAssigneeCol.setCellValueFactory(c -> new SimpleStringProperty(
@@ -279,9 +298,14 @@ public class ProjectViewController {
                     String authorName = item.getUser() != null ? item.getUser().getUsername() : "Anonyme";
                     String timestamp = item.getCreatedAt() != null ? " · " + item.getCreatedAt().toString() : "";
                     String text = authorName + timestamp + "\n" + item.getContent();
+                    if (item.getAttachments() != null) {
+                        for (CommentAttachment a : item.getAttachments()) text += "\n📎 " + a.getFileName();
+                    }
                     setText(text);
                     setStyle("-fx-padding: 5px; -fx-border-color: #ccc; -fx-border-radius: 3; -fx-wrap-text: true;");
                     setWrapText(true);
+                    // Défilement infini : la dernière cellule chargée est visible, on charge la suite
+                    if (getIndex() == comments.size() - 1) loadOlderComments();
                 }
             }
         });
@@ -330,29 +354,114 @@ public class ProjectViewController {
 
     private void loadSubTasksFor(Task parentTask) {
         try {
-            List<Task> subTasks = taskService.getSubTasks(parentTask.getId());
+            // Toute la descendance en une requête, affichée à plat et indentée par niveau
+            Task tree = taskService.getTaskTree(parentTask.getId());
+            subTaskDepths.clear();
+            List<Task> subTasks = new java.util.ArrayList<>();
+            if (tree != null) flattenSubTasks(tree, 1, subTasks);
             subTasksTable.setItems(FXCollections.observableArrayList(subTasks));
         } catch (Exception e) {
             System.err.println("Erreur chargement sous-tâches: " + e.getMessage());
         }
     }
 
+    private void flattenSubTasks(Task parent, int depth, List<Task> out) {
+        for (Task sub : parent.getSubTasks()) {
+            subTaskDepths.put(sub.getId(), depth);
+            out.add(sub);
+            flattenSubTasks(sub, depth + 1, out);
+        }
+    }
+
     private void loadTags(Task task) {
-        try {
-            List<TaskTag> t = tagService.listByTaskId(task.getId());
-            tags.setAll(t);
-        } catch (Exception e) {
-            System.err.println("Warning: Tags non disponibles");
+        // Les tags arrivent avec la liste des tâches, pas d'appel réseau par tâche
+        tags.setAll(task.getTags().stream().map(name -> new TaskTag(task, name)).toList());
+    }
+
+    /**
+     * Tâches visées par une opération de tag : toute la sélection du tableau principal
+     * si plusieurs tâches sont sélectionnées, sinon la tâche courante.
+     */
+    private List<Task> tagTargets(Task current) {
+        List<Task> selected = List.copyOf(tasksTable.getSelectionModel().getSelectedItems());
+        return selected.size() > 1 && selected.contains(current) ? selected : List.of(current);
+    }
+
+    private void applyTagLocally(List<Task> targets, List<String> changedIds, String tagName, boolean add) {
+        for (Task target : targets) {
+            if (!changedIds.contains(target.getId())) continue;
+            if (add) target.getTags().add(tagName);
+            else target.getTags().remove(tagName);
         }
     }
 
+    /**
+     * Réinitialise le fil et charge la première page.
+     */
     private void loadComments(Task task) {
-        try {
-            List<Comment> c = commentService.getTaskComments(task.getId());
-            if (c != null) comments.setAll(c);
-        } catch (Exception e) {
-            System.err.println("Warning: Commentaires non disponibles");
+        commentsGeneration++;
+        commentsTaskId = task.getId();
+        comments.clear();
+        commentsNextCursor = null;
+        commentsLatestCursor = null;
+        commentsHasMore = true;
+        commentsLoading = false;
+        loadOlderComments();
+    }
+
+    /**
+     * Ajoute la page suivante (plus ancienne) ; rappelée quand la dernière cellule devient visible.
+     */
+    private void loadOlderComments() {
+        if (commentsTaskId == null || commentsLoading || !commentsHasMore) return;
+
+        commentsLoading = true;
+        final int requestGeneration = commentsGeneration;
+        final String taskId = commentsTaskId;
+        final String cursor = commentsNextCursor;
+
+        RequestScheduler.getInstance()
+                .fetch("comments:" + taskId + ":" + cursor, RequestScheduler.Priority.VIEW,
+                        () -> commentService.getThreadPage(taskId, cursor, COMMENTS_PAGE_SIZE))
+                .whenComplete((page, ex) -> Platform.runLater(() -> {
+                    if (requestGeneration != commentsGeneration) return; // autre tâche sélectionnée
+                    commentsLoading = false;
+                    if (page == null) {
+                        System.err.println("Warning: Commentaires non disponibles");
+                        return;
+                    }
+                    comments.addAll(page.getItems());
+                    if (cursor == null) commentsLatestCursor = page.getLatestCursor();
+                    commentsNextCursor = page.getNextCursor();
+                    commentsHasMore = page.hasMore();
+                }));
+    }
+
+    /**
+     * Ajoute en tête du fil les commentaires postés depuis le dernier chargement.
+     */
+    private void loadNewerComments() {
+        if (commentsTaskId == null) return;
+        if (commentsLatestCursor == null) {
+            // Fil vide ou pas encore chargé : la première page suffit
+            loadComments(selectedTask != null ? selectedTask : tasksTable.getSelectionModel().getSelectedItem());
+            return;
         }
+
+        final int requestGeneration = commentsGeneration;
+        final String taskId = commentsTaskId;
+        final String cursor = commentsLatestCursor;
+
+        RequestScheduler.getInstance()
+                .fetch("comments-newer:" + taskId + ":" + cursor, RequestScheduler.Priority.VIEW,
+                        () -> commentService.getNewerComments(taskId, cursor, COMMENTS_PAGE_SIZE))
+                .whenComplete((page, ex) -> Platform.runLater(() -> {
+                    if (page == null || requestGeneration != commentsGeneration) return;
+                    // Reçus du plus ancien au plus récent, le fil est affiché du plus récent au plus ancien
+                    for (Comment c : page.getItems()) comments.add(0, c);
+                    commentsLatestCursor = page.getLatestCursor();
+                    if (page.hasMore()) loadNewerComments();
+                }));
     }
 
     // --- EVENEMENTS UI ---
@@ -488,10 +597,12 @@ public class ProjectViewController {
         d.showAndWait().ifPresent(tagName -> {
             if (!tagName.trim().isEmpty()) {
                 try {
-                    TaskTag tag = new TaskTag(t, tagName);
-                    tagService.add(tag);
+                    String name = tagName.trim();
+                    List<Task> targets = tagTargets(t);
+                    List<String> changed = tagService.addToTasks(targets.stream().map(Task::getId).toList(), name);
+                    applyTagLocally(targets, changed, name, true);
                     loadTags(t);
-                    System.out.println("[DEBUG] Tag ajouté: " + tagName);
+                    System.out.println("[DEBUG] Tag ajouté: " + name + " (" + changed.size() + " tâche(s))");
                 } catch (Exception e) {
                     System.err.println("[ERROR] Erreur ajout tag: " + e.getMessage());
                 }
@@ -507,10 +618,10 @@ public class ProjectViewController {
         if (confirmAction("Supprimer ce tag?")) {
             try {
                 Task t = selectedTask != null ? selectedTask : tasksTable.getSelectionModel().getSelectedItem();
-                if (t != null && tag.getId() != null) {
-                    String taskId = tag.getId().getTaskId();
-                    String tagName = tag.getId().getTagName();
-                    tagService.delete(taskId, tagName);
+                if (t != null) {
+                    List<Task> targets = tagTargets(t);
+                    List<String> changed = tagService.removeFromTasks(targets.stream().map(Task::getId).toList(), tag.getTagName());
+                    applyTagLocally(targets, changed, tag.getTagName(), false);
                     loadTags(t);
                     System.out.println("[DEBUG] Tag supprimé: " + tag.getTagName());
                 }
@@ -536,7 +647,7 @@ public class ProjectViewController {
             comment.setCreatedAt(new java.util.Date());
             commentService.addComment(comment);
             commentField.clear();
-            loadComments(t);
+            loadNewerComments();
             System.out.println("[DEBUG] Commentaire ajouté");
         } catch (Exception e) {
             System.err.println("[ERROR] Erreur ajout commentaire: " + e.getMessage());
@@ -639,7 +750,7 @@ public class ProjectViewController {
                 System.out.println("[DEBUG] Dépendance ajoutée: " + predecessor.getTitle() + " -> " + currentTask.getTitle());
             } catch (Exception e) {
                 System.err.println("[ERROR] Erreur ajout dépendance: " + e.getMessage());
-                showAlert("Erreur", "Erreur lors de l'ajout de la dépendance");
+                showAlert("Erreur", "Erreur lors de l'ajout de la dépendance: " + e.getMessage());
             }
         }
     }
@@ -655,21 +766,23 @@ public class ProjectViewController {
         java.io.File selectedFile = fileChooser.showOpenDialog(new Stage());
         
         if (selectedFile != null) {
-            try {
-                CommentAttachment attachment = new CommentAttachment(
-                    selectedComment.getId(),
-                    selectedFile.getName(),
-                    getFileExtension(selectedFile.getName()),
-                    selectedFile.length(),
-                    selectedFile.getAbsolutePath()
-                );
-                attachmentService.addAttachment(attachment);
-                showAlert("Succès", "Fichier attaché au commentaire");
-                System.out.println("[DEBUG] Fichier attaché: " + selectedFile.getName());
-            } catch (Exception e) {
-                System.err.println("[ERROR] Erreur attachement: " + e.getMessage());
-                showAlert("Erreur", "Erreur lors de l'attachement du fichier");
-            }
+            // Le contenu part vers le serveur en arrière-plan ; l'attachment est créé une fois l'envoi terminé
+            RequestScheduler.getInstance()
+                    .submit(RequestScheduler.Priority.BACKGROUND,
+                            () -> attachmentService.upload(selectedComment.getId(), selectedFile))
+                    .whenComplete((saved, error) -> Platform.runLater(() -> {
+                        if (error != null) {
+                            System.err.println("[ERROR] Erreur attachement: " + error.getMessage());
+                            showAlert("Erreur", "Erreur lors de l'attachement du fichier");
+                            return;
+                        }
+                        List<CommentAttachment> attached = new java.util.ArrayList<>(
+                                selectedComment.getAttachments() != null ? selectedComment.getAttachments() : List.of());
+                        attached.add(saved);
+                        selectedComment.setAttachments(attached);
+                        commentsList.refresh();
+                        showAlert("Succès", "Fichier attaché au commentaire");
+                    }));
         }
     }
 
@@ -747,11 +860,6 @@ public class ProjectViewController {
     }
 
     // --- UTILITAIRES ---
-    private String getFileExtension(String fileName) {
-        int lastDot = fileName.lastIndexOf('.');
-        return (lastDot > 0) ? fileName.substring(lastDot + 1) : "";
-    }
-
     private void showAlert(String title, String msg) {
         Alert a = new Alert(Alert.AlertType.INFORMATION, msg, ButtonType.OK);
         a.setTitle(title);
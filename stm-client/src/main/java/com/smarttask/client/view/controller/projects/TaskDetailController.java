@@ -3,20 +3,29 @@ package com.smarttask.client.view.controller.projects;
 import com.smarttask.client.service.*;
 import com.smarttask.model.*;
 import com.smarttask.client.util.GsonUtils;
+import com.smarttask.client.util.RequestScheduler;
+import com.smarttask.client.util.RequestScheduler.Priority;
+import javafx.animation.PauseTransition;
 import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
 import javafx.scene.layout.BorderPane;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 import com.smarttask.client.config.AppConfig;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public class TaskDetailController {
@@ -56,6 +65,16 @@ public class TaskDetailController {
     private final AttachmentService attachmentService = new AttachmentService(BASE_URL);
     private final TimeTrackingService timeTrackingService = new TimeTrackingService(BASE_URL);
     private final DependencyService dependencyService = new DependencyService();
+    private final RequestScheduler scheduler = RequestScheduler.getInstance();
+
+    // Miniatures par hash de contenu (null = chargement en cours ou pas de miniature), les plus anciennes sortent
+    private static final int THUMBNAIL_SIZE = 40;
+    private final Map<String, Image> thumbnails = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Image> eldest) {
+            return size() > 200;
+        }
+    };
 
     private Task currentTask;
     private TimeTracking activeTimeLog;
@@ -261,8 +280,7 @@ public class TaskDetailController {
                     javafx.scene.layout.HBox row = new javafx.scene.layout.HBox(10);
                     row.setAlignment(javafx.geometry.Pos.CENTER_LEFT);
 
-                    Label icon = new Label("📎");
-                    icon.setStyle("-fx-font-size: 16px; -fx-text-fill: #6366f1;");
+                    javafx.scene.Node icon = thumbnailOrIcon(item);
 
                     javafx.scene.layout.VBox textContainer = new javafx.scene.layout.VBox(0);
                     Label nameLabel = new Label(item.getFileName());
@@ -282,6 +300,11 @@ public class TaskDetailController {
                 }
             }
         });
+        // Double-clic : télécharger le fichier
+        attachmentsList.setOnMouseClicked(event -> {
+            Attachment selected = attachmentsList.getSelectionModel().getSelectedItem();
+            if (event.getClickCount() == 2 && selected != null) downloadAttachment(selected);
+        });
 
         // --- 5. LOGS DE TEMPS (Style Timer) ---
         timeLogsList.setCellFactory(lv -> new ListCell<>() {
@@ -365,68 +388,40 @@ public class TaskDetailController {
         if (currentTask == null) return;
         String tId = currentTask.getId(); // currentTask.getId() returns String
 
-        // Load Subtasks (Note: TreeView ou ListView à utiliser temporairement)
-        // TableView sera implémentée après synchronisation du FXML
-        /*
-        new Thread(() -> {
-            try {
-                List<Task> all = taskService.getTasksByUser(currentTask.getUser().getId());
-                List<Task> subs = all.stream()
-                    .filter(t -> t.getParentTask() != null && tId.equals(t.getParentTask().getId()))
-                    .toList();
-                Platform.runLater(() -> subtasksTable.setItems(FXCollections.observableArrayList(subs)));
-            } catch (Exception e) { e.printStackTrace(); }
-        }).start();
-        */
-
-        // Load Tags
-        new Thread(() -> {
-            try {
-                List<TaskTag> list = tagService.listByTaskId(tId);
-                Platform.runLater(() -> tagsList.setItems(FXCollections.observableArrayList(list)));
-            } catch (Exception e) { e.printStackTrace(); }
-        }).start();
-
-        // Load Comments
-        new Thread(() -> {
-            try {
-                List<Comment> list = commentService.getTaskComments(tId);
-                Platform.runLater(() -> commentsList.setItems(FXCollections.observableArrayList(list)));
-            } catch (Exception e) { e.printStackTrace(); }
-        }).start();
-
-        // Load Attachments
-        new Thread(() -> {
-            try {
-                List<Attachment> list = attachmentService.getAttachments(tId);
-                Platform.runLater(() -> attachmentsList.setItems(FXCollections.observableArrayList(list)));
-            } catch (Exception e) { e.printStackTrace(); }
-        }).start();
-
-        // Load Time Logs
-        new Thread(() -> {
-            try {
-                List<TimeTracking> list = timeTrackingService.getTimeLogs(tId);
-                Platform.runLater(() -> {
-                    timeLogsList.setItems(FXCollections.observableArrayList(list));
-                    // Check if any is running
-                    Optional<TimeTracking> running = list.stream().filter(tt -> tt.getEndTime() == null).findFirst();
-                    if (running.isPresent()) {
-                        activeTimeLog = running.get();
-                        startTimerBtn.setDisable(true);
-                        stopTimerBtn.setDisable(false);
-                        timerLabel.setText("Tracking...");
-                    } else {
-                        activeTimeLog = null;
-                        startTimerBtn.setDisable(false);
-                        stopTimerBtn.setDisable(true);
-                        timerLabel.setText("00:00:00");
-                    }
+        // Un seul appel pour la tâche, ses sous-tâches, tags, commentaires, pièces jointes, temps et dépendances
+        scheduler.fetch("detail:task:" + tId, Priority.VIEW, () -> taskService.getTaskDetail(tId))
+                .thenAccept(detail -> {
+                    if (detail != null) Platform.runLater(() -> showDetail(detail));
                 });
-            } catch (Exception e) { e.printStackTrace(); }
-        }).start();
-        
-        // TODO: Load Dependencies
+    }
+
+    private void showDetail(TaskDetail detail) {
+        subtasksTable.setItems(FXCollections.observableArrayList(detail.getSubTasks()));
+        tagsList.setItems(FXCollections.observableArrayList(detail.getTags()));
+        commentsList.setItems(FXCollections.observableArrayList(detail.getComments()));
+        attachmentsList.setItems(FXCollections.observableArrayList(detail.getAttachments()));
+
+        // Seules les tâches dont celle-ci dépend sont affichées
+        String tId = currentTask.getId();
+        dependenciesList.setItems(FXCollections.observableArrayList(detail.getDependencies().stream()
+                .filter(d -> d.getSuccessor() != null && tId.equals(d.getSuccessor().getId()))
+                .toList()));
+
+        List<TimeTracking> list = detail.getTimeLogs();
+        timeLogsList.setItems(FXCollections.observableArrayList(list));
+        // Check if any is running
+        Optional<TimeTracking> running = list.stream().filter(tt -> tt.getEndTime() == null).findFirst();
+        if (running.isPresent()) {
+            activeTimeLog = running.get();
+            startTimerBtn.setDisable(true);
+            stopTimerBtn.setDisable(false);
+            timerLabel.setText("Tracking...");
+        } else {
+            activeTimeLog = null;
+            startTimerBtn.setDisable(false);
+            stopTimerBtn.setDisable(true);
+            timerLabel.setText("00:00:00");
+        }
     }
 
     @FXML
@@ -547,53 +542,127 @@ public class TaskDetailController {
         
         // Créer un attachement s'il y a un fichier sélectionné
         if (selectedAttachmentFile != null) {
-            try {
-                Attachment att = new Attachment();
-                att.setTask(currentTask);
-                att.setFileName(selectedAttachmentFile.getName());
-                att.setFilePath(selectedAttachmentFile.getAbsolutePath());
-                att.setFileSize(selectedAttachmentFile.length());
-                
-                attachmentService.addAttachment(att);
-                selectedAttachmentFile = null;
-                attachmentInfoLabel.setText("");
-                attachmentStatusLabel.setText("✓ Fichier attaché avec succès");
-                
-                // Masquer le message après 3 secondes
-                new Thread(() -> {
-                    try {
-                        Thread.sleep(3000);
-                        Platform.runLater(() -> attachmentStatusLabel.setText(""));
-                    } catch (InterruptedException e) { /* Ignorer */ }
-                }).start();
-                
-                refreshAll();
-            } catch (Exception e) {
-                Alert a = new Alert(Alert.AlertType.ERROR, "Erreur lors de l'upload: " + e.getMessage(), ButtonType.OK);
-                a.setTitle("Erreur");
-                a.showAndWait();
-            }
+            File file = selectedAttachmentFile;
+            selectedAttachmentFile = null;
+            attachmentInfoLabel.setText("");
+            attachmentStatusLabel.setText("⏳ Envoi de " + file.getName() + "...");
+            uploadAttachment(file);
         } else {
             refreshAll();
         }
     }
 
+    /**
+     * Envoie le contenu du fichier en arrière-plan, puis recharge la tâche.
+     */
+    private void uploadAttachment(File file) {
+        Task task = currentTask;
+        scheduler.submit(Priority.BACKGROUND, () -> attachmentService.upload(task, file))
+                .whenComplete((att, error) -> Platform.runLater(() -> {
+                    if (error != null) {
+                        attachmentStatusLabel.setText("");
+                        Alert a = new Alert(Alert.AlertType.ERROR, "Erreur lors de l'upload: " + rootMessage(error), ButtonType.OK);
+                        a.setTitle("Erreur");
+                        a.showAndWait();
+                        return;
+                    }
+                    attachmentStatusLabel.setText("✓ Fichier attaché avec succès");
+
+                    // Masquer le message après 3 secondes
+                    PauseTransition hideStatus = new PauseTransition(Duration.seconds(3));
+                    hideStatus.setOnFinished(e -> attachmentStatusLabel.setText(""));
+                    hideStatus.play();
+
+                    refreshAll();
+                }));
+    }
+
+    /**
+     * Miniature de l'image si elle est déjà chargée, sinon l'icône trombone (et on lance le chargement).
+     */
+    private javafx.scene.Node thumbnailOrIcon(Attachment item) {
+        String hash = item.getContentHash();
+        if (hash != null && isImage(item.getFileType())) {
+            Image image = thumbnails.get(hash);
+            if (image != null) {
+                ImageView view = new ImageView(image);
+                view.setFitWidth(THUMBNAIL_SIZE);
+                view.setFitHeight(THUMBNAIL_SIZE);
+                view.setPreserveRatio(true);
+                return view;
+            }
+            if (!thumbnails.containsKey(hash)) loadThumbnail(item);
+        }
+        Label icon = new Label("📎");
+        icon.setStyle("-fx-font-size: 16px; -fx-text-fill: #6366f1;");
+        return icon;
+    }
+
+    private void loadThumbnail(Attachment item) {
+        String hash = item.getContentHash();
+        // Une seule requête par contenu, même affiché par plusieurs cellules
+        thumbnails.put(hash, null);
+        scheduler.fetch("thumbnail:" + hash, Priority.BACKGROUND, () -> attachmentService.getThumbnail(item.getId()))
+                .whenComplete((bytes, error) -> {
+                    if (error != null || bytes == null) return;
+                    Image image = new Image(new ByteArrayInputStream(bytes));
+                    Platform.runLater(() -> {
+                        thumbnails.put(hash, image);
+                        attachmentsList.refresh();
+                    });
+                });
+    }
+
+    private static boolean isImage(String fileType) {
+        if (fileType == null) return false;
+        String type = fileType.toLowerCase();
+        return type.startsWith("image/") || List.of("jpg", "jpeg", "png", "gif", "bmp", "tif", "tiff").contains(type);
+    }
+
+    /**
+     * Enregistre le contenu d'une pièce jointe à l'endroit choisi par l'utilisateur.
+     */
+    private void downloadAttachment(Attachment attachment) {
+        if (attachment.getContentHash() == null) {
+            // Anciennes pièces jointes : seul le chemin local de l'auteur a été enregistré
+            Alert a = new Alert(Alert.AlertType.INFORMATION, "Le contenu de ce fichier n'est pas disponible sur le serveur", ButtonType.OK);
+            a.setTitle("Info");
+            a.showAndWait();
+            return;
+        }
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Enregistrer la pièce jointe");
+        fileChooser.setInitialFileName(attachment.getFileName());
+        File target = fileChooser.showSaveDialog(mainPane.getScene().getWindow());
+        if (target == null) return;
+
+        attachmentStatusLabel.setText("⏳ Téléchargement de " + attachment.getFileName() + "...");
+        scheduler.submit(Priority.BACKGROUND, () -> {
+            attachmentService.download(attachment, target.toPath());
+            return null;
+        }).whenComplete((v, error) -> Platform.runLater(() -> {
+            attachmentStatusLabel.setText(error == null ? "✓ Fichier enregistré" : "");
+            if (error != null) {
+                Alert a = new Alert(Alert.AlertType.ERROR, "Erreur lors du téléchargement: " + rootMessage(error), ButtonType.OK);
+                a.setTitle("Erreur");
+                a.showAndWait();
+            }
+        }));
+    }
+
+    private static String rootMessage(Throwable error) {
+        while (error.getCause() != null) error = error.getCause();
+        return error.getMessage();
+    }
+
     @FXML
     private void handleUploadAttachment() {
         FileChooser fileChooser = new FileChooser();
         fileChooser.setTitle("Select Attachment");
         File file = fileChooser.showOpenDialog(mainPane.getScene().getWindow());
-        if (file != null) {
-            Attachment a = new Attachment();
-            a.setTask(currentTask);
-            a.setFileName(file.getName());
-            a.setFilePath(file.getAbsolutePath()); // In real app, upload file content
-            a.setFileSize(file.length());
-            
-            try {
-                attachmentService.addAttachment(a);
-                refreshAll();
-            } catch (Exception e) { e.printStackTrace(); }
+        if (file != null && currentTask != null) {
+            attachmentStatusLabel.setText("⏳ Envoi de " + file.getName() + "...");
+            uploadAttachment(file);
         }
     }
 
@@ -2,6 +2,7 @@ package com.smarttask.client.view.controller.projects;
 
 import com.smarttask.client.service.UserService;
 import com.smarttask.client.service.TaskService;
+import com.smarttask.client.util.RequestScheduler;
 import com.smarttask.client.util.SessionManager;
 import com.smarttask.model.Priority;
 import com.smarttask.model.Status;
@@ -72,7 +73,7 @@ public class TaskFormController {
         // Charger les tâches existantes du projet
         if (projectId[0] != null) {
             final String pId = projectId[0]; // Créer une copie finale pour la lambda
-            new Thread(() -> {
+            RequestScheduler.getInstance().run(RequestScheduler.Priority.VIEW, () -> {
                 try {
                     List<Task> tasks = taskService.getTasksByProject(pId);
                     // Exclure la tâche actuelle des dépendances
@@ -88,7 +89,7 @@ public class TaskFormController {
                 } catch (Exception e) {
                     System.err.println("Erreur chargement dépendances: " + e.getMessage());
                 }
-            }).start();
+            });
         }
     }
 
@@ -1,6 +1,8 @@
 package com.smarttask.client.view.controller.teams;
 
 import com.smarttask.client.service.TeamService;
+import com.smarttask.client.util.RequestScheduler;
+import com.smarttask.client.util.RequestScheduler.Priority;
 import com.smarttask.client.util.SessionManager;
 import com.smarttask.model.Team;
 import com.smarttask.model.User;
@@ -45,8 +47,7 @@ public class CreateTeamDialogController {
     }
 
     private void loadUsers() {
-        new Thread(() -> {
-            List<User> allUsers = teamService.getAllUsers();
+        RequestScheduler.getInstance().fetch("users:all", Priority.VIEW, teamService::getAllUsers).thenAccept(allUsers -> {
             // Allow including everyone in the selection list
 
             javafx.application.Platform.runLater(() -> {
@@ -66,7 +67,7 @@ public class CreateTeamDialogController {
                     }
                 });
             });
-        }).start();
+        });
     }
 
     @FXML
@@ -1,9 +1,11 @@
 package com.smarttask.client.view.controller.teams;
 
 import com.smarttask.client.service.TeamService;
+import com.smarttask.client.util.RequestScheduler;
+import com.smarttask.client.util.RequestScheduler.Priority;
 import com.smarttask.client.util.SessionManager;
 import com.smarttask.model.Team;
-import com.smarttask.model.TeamMember;
+import com.smarttask.model.TeamWithMembers;
 import com.smarttask.model.User;
 import com.smarttask.client.view.model.TeamDisplayWrapper;
 import javafx.application.Platform;
@@ -23,7 +25,6 @@ import javafx.stage.Stage;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.stream.Collectors;
 
 public class TeamsController {
@@ -159,39 +160,26 @@ public class TeamsController {
 		if (currentUser == null)
 			return;
 
-		new Thread(() -> {
-			List<Team> teams = teamService.getTeamsByUser(currentUser.getId());
-			List<User> allUsers = teamService.getAllUsers();
-			Map<String, User> userMap = allUsers.stream()
-					.collect(Collectors.toMap(User::getId, u -> u, (a, b) -> a));
-
-			List<TeamDisplayWrapper> listData = new ArrayList<>();
-
-			Platform.runLater(() -> {
-				teamsFlow.getChildren().clear();
-				tableData.clear();
-			});
-
-			for (Team team : teams) {
-				List<TeamMember> members = teamService.getTeamMembers(team.getId());
-				List<User> membersList = members.stream()
-						.map(m -> userMap.get(m.getUserId()))
-						.filter(java.util.Objects::nonNull)
-						.collect(Collectors.toList());
-
-				String memberNames = membersList.stream()
-						.map(User::getUsername)
-						.collect(Collectors.joining(", "));
-
-				int memberCount = members.size();
-
-				listData.add(new TeamDisplayWrapper(team, memberNames, membersList));
-
-				Platform.runLater(() -> addTeamCard(team, memberCount));
-			}
+		RequestScheduler.getInstance()
+				.fetch("teams:user:" + currentUser.getId(), Priority.VIEW,
+						() -> teamService.getTeamsWithMembers(currentUser.getId()))
+				.thenAccept(teams -> {
+					List<TeamDisplayWrapper> listData = new ArrayList<>();
+					for (TeamWithMembers entry : teams) {
+						String memberNames = entry.getMembers().stream()
+								.map(User::getUsername)
+								.collect(Collectors.joining(", "));
+						listData.add(new TeamDisplayWrapper(entry.getTeam(), memberNames, entry.getMembers()));
+					}
 
-			Platform.runLater(() -> tableData.addAll(listData));
-		}).start();
+					Platform.runLater(() -> {
+						teamsFlow.getChildren().clear();
+						tableData.setAll(listData);
+						for (TeamWithMembers entry : teams) {
+							addTeamCard(entry.getTeam(), entry.getMembers().size());
+						}
+					});
+				});
 	}
 
 	private void addTeamCard(Team team, int memberCount) {
@@ -245,12 +233,12 @@ public class TeamsController {
 		alert.setContentText("Are you sure you want to delete this team?");
 
 		if (alert.showAndWait().orElse(ButtonType.CANCEL) == ButtonType.OK) {
-			new Thread(() -> {
+			RequestScheduler.getInstance().run(Priority.BACKGROUND, () -> {
 				boolean success = teamService.deactivateTeam(team.getId());
 				if (success) {
 					Platform.runLater(this::loadTeams);
 				}
-			}).start();
+			});
 		}
 	}
 
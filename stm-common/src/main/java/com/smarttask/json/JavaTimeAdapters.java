@@ -0,0 +1,115 @@
+package com.smarttask.json;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * ISO-8601 adapters for LocalDateTime and LocalDate ("2024-05-01T09:30:00", "2024-05-01").
+ *
+ * Streaming adapters: the value is written to and read from the JSON stream directly,
+ * without the JsonPrimitive a JsonSerializer / JsonDeserializer pair builds for each value.
+ * Timestamps to the second, what the database returns, are formatted and parsed by
+ * hand; anything else (fractions of a second, years past 9999) goes through
+ * DateTimeFormatter, with the same output.
+ */
+public final class JavaTimeAdapters {
+
+    public static final TypeAdapter<LocalDateTime> LOCAL_DATE_TIME = new TypeAdapter<LocalDateTime>() {
+        @Override
+        public void write(JsonWriter out, LocalDateTime value) throws IOException {
+            if (value.getNano() != 0 || !fourDigitYear(value.getYear())) {
+                out.value(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(value));
+                return;
+            }
+            char[] c = new char[19];
+            date(c, value.getYear(), value.getMonthValue(), value.getDayOfMonth());
+            c[10] = 'T';
+            twoDigits(c, 11, value.getHour());
+            c[13] = ':';
+            twoDigits(c, 14, value.getMinute());
+            c[16] = ':';
+            twoDigits(c, 17, value.getSecond());
+            out.value(new String(c));
+        }
+
+        @Override
+        public LocalDateTime read(JsonReader in) throws IOException {
+            String text = in.nextString();
+            if (text.length() == 19 && text.charAt(10) == 'T' && text.charAt(13) == ':' && text.charAt(16) == ':'
+                    && isDate(text)) {
+                int hour = number(text, 11, 2), minute = number(text, 14, 2), second = number(text, 17, 2);
+                if (hour >= 0 && minute >= 0 && second >= 0) {
+                    // of() validates the ranges like the formatter does
+                    return LocalDateTime.of(number(text, 0, 4), number(text, 5, 2), number(text, 8, 2), hour, minute, second);
+                }
+            }
+            return LocalDateTime.parse(text, DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        }
+    }.nullSafe();
+
+    public static final TypeAdapter<LocalDate> LOCAL_DATE = new TypeAdapter<LocalDate>() {
+        @Override
+        public void write(JsonWriter out, LocalDate value) throws IOException {
+            if (!fourDigitYear(value.getYear())) {
+                out.value(DateTimeFormatter.ISO_LOCAL_DATE.format(value));
+                return;
+            }
+            char[] c = new char[10];
+            date(c, value.getYear(), value.getMonthValue(), value.getDayOfMonth());
+            out.value(new String(c));
+        }
+
+        @Override
+        public LocalDate read(JsonReader in) throws IOException {
+            String text = in.nextString();
+            if (text.length() == 10 && isDate(text)) {
+                return LocalDate.of(number(text, 0, 4), number(text, 5, 2), number(text, 8, 2));
+            }
+            return LocalDate.parse(text, DateTimeFormatter.ISO_LOCAL_DATE);
+        }
+    }.nullSafe();
+
+    private JavaTimeAdapters() {}
+
+    private static boolean fourDigitYear(int year) {
+        return year >= 0 && year <= 9999;
+    }
+
+    /** yyyy-MM-dd at the start of the buffer. */
+    private static void date(char[] c, int year, int month, int day) {
+        twoDigits(c, 0, year / 100);
+        twoDigits(c, 2, year % 100);
+        c[4] = '-';
+        twoDigits(c, 5, month);
+        c[7] = '-';
+        twoDigits(c, 8, day);
+    }
+
+    private static void twoDigits(char[] c, int at, int value) {
+        c[at] = (char) ('0' + value / 10);
+        c[at + 1] = (char) ('0' + value % 10);
+    }
+
+    /** yyyy-MM-dd with digits where digits are expected. */
+    private static boolean isDate(String text) {
+        return text.charAt(4) == '-' && text.charAt(7) == '-'
+                && number(text, 0, 4) >= 0 && number(text, 5, 2) >= 0 && number(text, 8, 2) >= 0;
+    }
+
+    /** Decimal value of the digits, or -1 if one of them is not an ASCII digit. */
+    private static int number(String text, int from, int length) {
+        int value = 0;
+        for (int i = from; i < from + length; i++) {
+            char ch = text.charAt(i);
+            if (ch < '0' || ch > '9') return -1;
+            value = value * 10 + (ch - '0');
+        }
+        return value;
+    }
+}
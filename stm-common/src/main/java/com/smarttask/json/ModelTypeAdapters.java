@@ -0,0 +1,383 @@
+package com.smarttask.json;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.smarttask.model.Notification;
+import com.smarttask.model.Priority;
+import com.smarttask.model.Project;
+import com.smarttask.model.Status;
+import com.smarttask.model.Task;
+import com.smarttask.model.Team;
+import com.smarttask.model.User;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Streaming adapters for the models that make up the large payloads
+ * (task lists, projects, teams, notifications), used by the client and the server.
+ *
+ * They produce and accept exactly the JSON of Gson's reflective adapters: field
+ * names, declaration order, nulls written only when the Gson serializes nulls,
+ * unknown names skipped, absent fields left at the constructor's defaults. What
+ * changes is the cost: no reflection per field, no bound-field lookup per name.
+ *
+ * Dates, enums and java.util.Date go through the adapters registered on the Gson
+ * instance, so its date format applies. A field added to one of these models
+ * must be added here as well, or it is not transferred.
+ */
+public final class ModelTypeAdapters implements TypeAdapterFactory {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        Class<? super T> raw = type.getRawType();
+        if (raw == Task.class) return (TypeAdapter<T>) new TaskAdapter(gson).nullSafe();
+        if (raw == User.class) return (TypeAdapter<T>) new UserAdapter().nullSafe();
+        if (raw == Project.class) return (TypeAdapter<T>) new ProjectAdapter(gson).nullSafe();
+        if (raw == Team.class) return (TypeAdapter<T>) new TeamAdapter(gson).nullSafe();
+        if (raw == Notification.class) return (TypeAdapter<T>) new NotificationAdapter(gson).nullSafe();
+        return null;
+    }
+
+    private static final class TaskAdapter extends TypeAdapter<Task> {
+        private final TypeAdapter<LocalDateTime> dateTime;
+        private final TypeAdapter<Priority> priority;
+        private final TypeAdapter<Status> status;
+        private final TypeAdapter<User> user;
+
+        TaskAdapter(Gson gson) {
+            dateTime = gson.getAdapter(LocalDateTime.class);
+            priority = gson.getAdapter(Priority.class);
+            status = gson.getAdapter(Status.class);
+            user = gson.getAdapter(User.class);
+        }
+
+        @Override
+        public void write(JsonWriter out, Task t) throws IOException {
+            if (t == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("id").value(t.getId());
+            out.name("title").value(t.getTitle());
+            out.name("description").value(t.getDescription());
+            out.name("priority");
+            priority.write(out, t.getPriority());
+            out.name("status");
+            status.write(out, t.getStatus());
+            out.name("dueDate");
+            dateTime.write(out, t.getDueDate());
+            out.name("createdAt");
+            dateTime.write(out, t.getCreatedAt());
+            out.name("user");
+            user.write(out, t.getUser());
+            out.name("projectId").value(t.getProjectId());
+            out.name("parentTask");
+            write(out, t.getParentTask());
+            out.name("subTasks");
+            writeTasks(out, t.getSubTasks());
+            out.name("recurrenceType").value(t.getRecurrenceType());
+            out.name("recurrenceInterval").value(t.getRecurrenceInterval());
+            out.name("recurrenceEndDate");
+            dateTime.write(out, t.getRecurrenceEndDate());
+            out.name("dependentTaskId").value(t.getDependentTaskId());
+            out.name("dependentTask");
+            write(out, t.getDependentTask());
+            out.name("tags");
+            writeStrings(out, t.getTags());
+            out.endObject();
+        }
+
+        @Override
+        public Task read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            Task t = new Task();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "id" -> t.setId(readString(in));
+                    case "title" -> t.setTitle(readString(in));
+                    case "description" -> t.setDescription(readString(in));
+                    case "priority" -> t.setPriority(priority.read(in));
+                    case "status" -> t.setStatus(status.read(in));
+                    case "dueDate" -> t.setDueDate(dateTime.read(in));
+                    case "createdAt" -> t.setCreatedAt(dateTime.read(in));
+                    case "user" -> t.setUser(user.read(in));
+                    case "projectId" -> t.setProjectId(readString(in));
+                    case "parentTask" -> t.setParentTask(read(in));
+                    case "subTasks" -> t.setSubTasks(readTasks(in));
+                    case "recurrenceType" -> t.setRecurrenceType(readString(in));
+                    case "recurrenceInterval" -> t.setRecurrenceInterval(readInteger(in));
+                    case "recurrenceEndDate" -> t.setRecurrenceEndDate(dateTime.read(in));
+                    case "dependentTaskId" -> t.setDependentTaskId(readString(in));
+                    case "dependentTask" -> t.setDependentTask(read(in));
+                    case "tags" -> t.setTags(readStrings(in));
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return t;
+        }
+
+        private void writeTasks(JsonWriter out, List<Task> tasks) throws IOException {
+            if (tasks == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginArray();
+            for (Task task : tasks) write(out, task);
+            out.endArray();
+        }
+
+        private List<Task> readTasks(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            List<Task> tasks = new ArrayList<>();
+            in.beginArray();
+            while (in.hasNext()) tasks.add(read(in));
+            in.endArray();
+            return tasks;
+        }
+    }
+
+    private static final class UserAdapter extends TypeAdapter<User> {
+
+        @Override
+        public void write(JsonWriter out, User u) throws IOException {
+            out.beginObject();
+            out.name("id").value(u.getId());
+            out.name("username").value(u.getUsername());
+            out.name("password").value(u.getPassword());
+            out.name("email").value(u.getEmail());
+            out.name("firstName").value(u.getFirstName());
+            out.name("lastName").value(u.getLastName());
+            out.endObject();
+        }
+
+        @Override
+        public User read(JsonReader in) throws IOException {
+            User u = new User();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "id" -> u.setId(readString(in));
+                    case "username" -> u.setUsername(readString(in));
+                    case "password" -> u.setPassword(readString(in));
+                    case "email" -> u.setEmail(readString(in));
+                    case "firstName" -> u.setFirstName(readString(in));
+                    case "lastName" -> u.setLastName(readString(in));
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return u;
+        }
+    }
+
+    private static final class ProjectAdapter extends TypeAdapter<Project> {
+        private final TypeAdapter<LocalDateTime> dateTime;
+
+        ProjectAdapter(Gson gson) {
+            dateTime = gson.getAdapter(LocalDateTime.class);
+        }
+
+        @Override
+        public void write(JsonWriter out, Project p) throws IOException {
+            out.beginObject();
+            out.name("id").value(p.getId());
+            out.name("name").value(p.getName());
+            out.name("description").value(p.getDescription());
+            out.name("userId").value(p.getUserId());
+            out.name("color").value(p.getColor());
+            out.name("createdAt");
+            dateTime.write(out, p.getCreatedAt());
+            out.name("updatedAt");
+            dateTime.write(out, p.getUpdatedAt());
+            out.name("isActive").value(p.isActive());
+            out.endObject();
+        }
+
+        @Override
+        public Project read(JsonReader in) throws IOException {
+            Project p = new Project();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "id" -> p.setId(readString(in));
+                    case "name" -> p.setName(readString(in));
+                    case "description" -> p.setDescription(readString(in));
+                    case "userId" -> p.setUserId(readString(in));
+                    case "color" -> p.setColor(readString(in));
+                    case "createdAt" -> p.setCreatedAt(dateTime.read(in));
+                    case "updatedAt" -> p.setUpdatedAt(dateTime.read(in));
+                    case "isActive" -> {
+                        Boolean active = readBoolean(in);
+                        if (active != null) p.setActive(active);
+                    }
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return p;
+        }
+    }
+
+    private static final class TeamAdapter extends TypeAdapter<Team> {
+        private final TypeAdapter<LocalDateTime> dateTime;
+
+        TeamAdapter(Gson gson) {
+            dateTime = gson.getAdapter(LocalDateTime.class);
+        }
+
+        @Override
+        public void write(JsonWriter out, Team t) throws IOException {
+            out.beginObject();
+            out.name("id").value(t.getId());
+            out.name("name").value(t.getName());
+            out.name("description").value(t.getDescription());
+            out.name("color").value(t.getColor());
+            out.name("ownerId").value(t.getOwnerId());
+            out.name("active").value(t.isActive());
+            out.name("createdAt");
+            dateTime.write(out, t.getCreatedAt());
+            out.endObject();
+        }
+
+        @Override
+        public Team read(JsonReader in) throws IOException {
+            Team t = new Team();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "id" -> t.setId(readString(in));
+                    case "name" -> t.setName(readString(in));
+                    case "description" -> t.setDescription(readString(in));
+                    case "color" -> t.setColor(readString(in));
+                    case "ownerId" -> t.setOwnerId(readString(in));
+                    case "active" -> {
+                        Boolean active = readBoolean(in);
+                        if (active != null) t.setActive(active);
+                    }
+                    case "createdAt" -> t.setCreatedAt(dateTime.read(in));
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return t;
+        }
+    }
+
+    private static final class NotificationAdapter extends TypeAdapter<Notification> {
+        private final TypeAdapter<User> user;
+        private final TypeAdapter<Date> date;
+
+        NotificationAdapter(Gson gson) {
+            user = gson.getAdapter(User.class);
+            date = gson.getAdapter(Date.class);
+        }
+
+        @Override
+        public void write(JsonWriter out, Notification n) throws IOException {
+            out.beginObject();
+            out.name("id").value(n.getId());
+            out.name("user");
+            user.write(out, n.getUser());
+            out.name("type").value(n.getType());
+            out.name("title").value(n.getTitle());
+            out.name("message").value(n.getMessage());
+            out.name("isRead").value(n.getIsRead());
+            out.name("createdAt");
+            date.write(out, n.getCreatedAt());
+            out.endObject();
+        }
+
+        @Override
+        public Notification read(JsonReader in) throws IOException {
+            Notification n = new Notification();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "id" -> n.setId(readString(in));
+                    case "user" -> n.setUser(user.read(in));
+                    case "type" -> n.setType(readString(in));
+                    case "title" -> n.setTitle(readString(in));
+                    case "message" -> n.setMessage(readString(in));
+                    case "isRead" -> n.setIsRead(readBoolean(in));
+                    case "createdAt" -> n.setCreatedAt(date.read(in));
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return n;
+        }
+    }
+
+    private static String readString(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        // Like Gson's String adapter: a number or boolean is read as its text
+        return in.peek() == JsonToken.BOOLEAN ? Boolean.toString(in.nextBoolean()) : in.nextString();
+    }
+
+    private static Integer readInteger(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        try {
+            return in.nextInt();
+        } catch (NumberFormatException e) {
+            throw new JsonSyntaxException(e);
+        }
+    }
+
+    private static Boolean readBoolean(JsonReader in) throws IOException {
+        JsonToken token = in.peek();
+        if (token == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        // Like Gson's Boolean adapter, "true" in quotes is accepted
+        return token == JsonToken.STRING ? Boolean.parseBoolean(in.nextString()) : in.nextBoolean();
+    }
+
+    private static void writeStrings(JsonWriter out, List<String> values) throws IOException {
+        if (values == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginArray();
+        for (String value : values) out.value(value);
+        out.endArray();
+    }
+
+    private static List<String> readStrings(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        List<String> values = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext()) values.add(readString(in));
+        in.endArray();
+        return values;
+    }
+}
@@ -10,6 +10,7 @@ public class Attachment {
     private String filePath; // Or URL
     private long fileSize;
     private LocalDateTime uploadedAt;
+    private String contentHash; // SHA-256 of the body in the server blob store, null for metadata-only rows
 
     public Attachment() {
         this.uploadedAt = LocalDateTime.now();
@@ -35,4 +36,7 @@ public class Attachment {
 
     public LocalDateTime getUploadedAt() { return uploadedAt; }
     public void setUploadedAt(LocalDateTime uploadedAt) { this.uploadedAt = uploadedAt; }
+
+    public String getContentHash() { return contentHash; }
+    public void setContentHash(String contentHash) { this.contentHash = contentHash; }
 }
@@ -1,6 +1,7 @@
 package com.smarttask.model;
 
 import java.util.Date;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -20,6 +21,9 @@ public class Comment {
 
     private Date updatedAt;
 
+    // Filled by the paginated thread endpoint only
+    private List<CommentAttachment> attachments;
+
     // Constructeurs
     public Comment() {
         this.id = UUID.randomUUID().toString();
@@ -65,6 +69,9 @@ public class Comment {
     public Date getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(Date updatedAt) { this.updatedAt = updatedAt; }
 
+    public List<CommentAttachment> getAttachments() { return attachments; }
+    public void setAttachments(List<CommentAttachment> attachments) { this.attachments = attachments; }
+
     @Override
     public String toString() {
         return "Comment{" +
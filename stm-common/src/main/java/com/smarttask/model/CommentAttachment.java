@@ -15,6 +15,7 @@ public class CommentAttachment {
     private Long fileSize;
     private String filePath;
     private Date uploadedAt;
+    private String contentHash; // SHA-256 of the body in the server blob store, null for metadata-only rows
 
     // Constructeurs
     public CommentAttachment() {
@@ -53,6 +54,9 @@ public class CommentAttachment {
     public Date getUploadedAt() { return uploadedAt; }
     public void setUploadedAt(Date uploadedAt) { this.uploadedAt = uploadedAt; }
 
+    public String getContentHash() { return contentHash; }
+    public void setContentHash(String contentHash) { this.contentHash = contentHash; }
+
     @Override
     public String toString() {
         return "CommentAttachment{" +
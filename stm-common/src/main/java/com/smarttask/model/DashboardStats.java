@@ -0,0 +1,65 @@
+package com.smarttask.model;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pre-aggregated dashboard metrics, returned by GET /api/analytics/dashboard/{userId}.
+ * Shared between client and server.
+ */
+public class DashboardStats {
+
+    private long totalTasks;
+    private long completedTasks;
+    private long overdueTasks;
+    private double hoursWorked;
+
+    // Completion rate (%) of tasks due this week (Monday -> today) and last week
+    private double thisWeekScore;
+    private double lastWeekScore;
+
+    // Completed tasks per due day for the last 5 days, oldest first (ISO date -> count)
+    private Map<String, Long> completedPerDay = new LinkedHashMap<>();
+
+    // Task count per project name
+    private Map<String, Long> tasksPerProject = new LinkedHashMap<>();
+
+    // The next open tasks by due date
+    private List<Task> upcomingTasks = new ArrayList<>();
+
+    public DashboardStats() {
+    }
+
+    public int getProductivityScore() {
+        return totalTasks > 0 ? (int) ((completedTasks * 100) / totalTasks) : 0;
+    }
+
+    public long getTotalTasks() { return totalTasks; }
+    public void setTotalTasks(long totalTasks) { this.totalTasks = totalTasks; }
+
+    public long getCompletedTasks() { return completedTasks; }
+    public void setCompletedTasks(long completedTasks) { this.completedTasks = completedTasks; }
+
+    public long getOverdueTasks() { return overdueTasks; }
+    public void setOverdueTasks(long overdueTasks) { this.overdueTasks = overdueTasks; }
+
+    public double getHoursWorked() { return hoursWorked; }
+    public void setHoursWorked(double hoursWorked) { this.hoursWorked = hoursWorked; }
+
+    public double getThisWeekScore() { return thisWeekScore; }
+    public void setThisWeekScore(double thisWeekScore) { this.thisWeekScore = thisWeekScore; }
+
+    public double getLastWeekScore() { return lastWeekScore; }
+    public void setLastWeekScore(double lastWeekScore) { this.lastWeekScore = lastWeekScore; }
+
+    public Map<String, Long> getCompletedPerDay() { return completedPerDay; }
+    public void setCompletedPerDay(Map<String, Long> completedPerDay) { this.completedPerDay = completedPerDay; }
+
+    public Map<String, Long> getTasksPerProject() { return tasksPerProject; }
+    public void setTasksPerProject(Map<String, Long> tasksPerProject) { this.tasksPerProject = tasksPerProject; }
+
+    public List<Task> getUpcomingTasks() { return upcomingTasks; }
+    public void setUpcomingTasks(List<Task> upcomingTasks) { this.upcomingTasks = upcomingTasks; }
+}
@@ -0,0 +1,50 @@
+package com.smarttask.model;
+
+/**
+ * One hit of GET /api/search.
+ * Shared between client and server.
+ */
+public class SearchResult {
+
+    public enum Type { TASK, COMMENT, TAG, EVENT }
+
+    private Type type;
+    private String id;
+
+    // Task to open for TASK, COMMENT and TAG hits; null for events
+    private String taskId;
+
+    private String title;
+    private String snippet;
+    private double score;
+
+    public SearchResult() {
+    }
+
+    public SearchResult(Type type, String id, String taskId, String title, String snippet, double score) {
+        this.type = type;
+        this.id = id;
+        this.taskId = taskId;
+        this.title = title;
+        this.snippet = snippet;
+        this.score = score;
+    }
+
+    public Type getType() { return type; }
+    public void setType(Type type) { this.type = type; }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getTaskId() { return taskId; }
+    public void setTaskId(String taskId) { this.taskId = taskId; }
+
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+
+    public String getSnippet() { return snippet; }
+    public void setSnippet(String snippet) { this.snippet = snippet; }
+
+    public double getScore() { return score; }
+    public void setScore(double score) { this.score = score; }
+}
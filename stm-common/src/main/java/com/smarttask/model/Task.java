@@ -31,6 +31,9 @@ public class Task {
     private String dependentTaskId; // ID of the task this depends on (predecessor)
     private Task dependentTask; // The actual task object this depends on
 
+    // Tag names, filled by the list endpoints
+    private List<String> tags = new ArrayList<>();
+
     // Constructeurs
     public Task() {
         this.createdAt = LocalDateTime.now();
@@ -173,6 +176,14 @@ public class Task {
         this.dependentTask = dependentTask;
     }
 
+    public List<String> getTags() {
+        return tags;
+    }
+
+    public void setTags(List<String> tags) {
+        this.tags = tags;
+    }
+
     @Override
     public String toString() {
         return "Task{" +
@@ -0,0 +1,51 @@
+package com.smarttask.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Everything the task detail screen shows, returned by GET /api/tasks/{id}/detail.
+ * Shared between client and server.
+ */
+public class TaskDetail {
+
+    private Task task;
+    private List<Task> subTasks = new ArrayList<>();
+    private List<TaskTag> tags = new ArrayList<>();
+    private List<Comment> comments = new ArrayList<>();
+    private List<Attachment> attachments = new ArrayList<>();
+    private List<TimeTracking> timeLogs = new ArrayList<>();
+    private List<TaskDependency> dependencies = new ArrayList<>();
+    private List<SharedTask> shares = new ArrayList<>();
+
+    public TaskDetail() {
+    }
+
+    public TaskDetail(Task task) {
+        this.task = task;
+    }
+
+    public Task getTask() { return task; }
+    public void setTask(Task task) { this.task = task; }
+
+    public List<Task> getSubTasks() { return subTasks; }
+    public void setSubTasks(List<Task> subTasks) { this.subTasks = subTasks; }
+
+    public List<TaskTag> getTags() { return tags; }
+    public void setTags(List<TaskTag> tags) { this.tags = tags; }
+
+    public List<Comment> getComments() { return comments; }
+    public void setComments(List<Comment> comments) { this.comments = comments; }
+
+    public List<Attachment> getAttachments() { return attachments; }
+    public void setAttachments(List<Attachment> attachments) { this.attachments = attachments; }
+
+    public List<TimeTracking> getTimeLogs() { return timeLogs; }
+    public void setTimeLogs(List<TimeTracking> timeLogs) { this.timeLogs = timeLogs; }
+
+    public List<TaskDependency> getDependencies() { return dependencies; }
+    public void setDependencies(List<TaskDependency> dependencies) { this.dependencies = dependencies; }
+
+    public List<SharedTask> getShares() { return shares; }
+    public void setShares(List<SharedTask> shares) { this.shares = shares; }
+}
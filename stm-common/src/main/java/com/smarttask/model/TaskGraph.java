@@ -0,0 +1,29 @@
+package com.smarttask.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Dependency graph of a project, returned by GET /api/dependencies/project/{id}.
+ * Dependencies may link to tasks of other projects; those are not in {@code tasks}.
+ * Shared between client and server.
+ */
+public class TaskGraph {
+
+    private List<Task> tasks = new ArrayList<>();
+    private List<TaskDependency> dependencies = new ArrayList<>();
+
+    public TaskGraph() {
+    }
+
+    public TaskGraph(List<Task> tasks, List<TaskDependency> dependencies) {
+        this.tasks = tasks;
+        this.dependencies = dependencies;
+    }
+
+    public List<Task> getTasks() { return tasks; }
+    public void setTasks(List<Task> tasks) { this.tasks = tasks; }
+
+    public List<TaskDependency> getDependencies() { return dependencies; }
+    public void setDependencies(List<TaskDependency> dependencies) { this.dependencies = dependencies; }
+}
@@ -0,0 +1,28 @@
+package com.smarttask.model;
+
+/**
+ * One row of a subtask tree, returned by GET /api/tasks/{id}/tree.
+ * Rows come parents first; the task's parentTask only carries the parent id.
+ * Shared between client and server.
+ */
+public class TaskTreeNode {
+
+    private Task task;
+
+    // 0 for the requested task, 1 for its subtasks, ...
+    private int depth;
+
+    public TaskTreeNode() {
+    }
+
+    public TaskTreeNode(Task task, int depth) {
+        this.task = task;
+        this.depth = depth;
+    }
+
+    public Task getTask() { return task; }
+    public void setTask(Task task) { this.task = task; }
+
+    public int getDepth() { return depth; }
+    public void setDepth(int depth) { this.depth = depth; }
+}
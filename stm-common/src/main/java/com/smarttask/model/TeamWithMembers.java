@@ -0,0 +1,27 @@
+package com.smarttask.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A team together with its members, returned by GET /api/teams?userId=...&include=members.
+ * Shared between client and server.
+ */
+public class TeamWithMembers {
+
+    private Team team;
+    private List<User> members = new ArrayList<>();
+
+    public TeamWithMembers() {
+    }
+
+    public TeamWithMembers(Team team) {
+        this.team = team;
+    }
+
+    public Team getTeam() { return team; }
+    public void setTeam(Team team) { this.team = team; }
+
+    public List<User> getMembers() { return members; }
+    public void setMembers(List<User> members) { this.members = members; }
+}
@@ -0,0 +1,50 @@
+package com.smarttask.model;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Tracked time over a date range, returned by GET /api/timetracking/totals/...
+ * Shared between client and server.
+ */
+public class TimeTotals {
+
+    // "task", "user" or "project"
+    private String scope;
+    private String id;
+
+    // Inclusive ISO dates, null for task totals (all time)
+    private String from;
+    private String to;
+
+    private long totalMs;
+
+    // ISO date of the day (user) or of the Monday of the week (project) -> milliseconds
+    private Map<String, Long> buckets = new LinkedHashMap<>();
+
+    public TimeTotals() {
+    }
+
+    public TimeTotals(String scope, String id) {
+        this.scope = scope;
+        this.id = id;
+    }
+
+    public String getScope() { return scope; }
+    public void setScope(String scope) { this.scope = scope; }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getFrom() { return from; }
+    public void setFrom(String from) { this.from = from; }
+
+    public String getTo() { return to; }
+    public void setTo(String to) { this.to = to; }
+
+    public long getTotalMs() { return totalMs; }
+    public void setTotalMs(long totalMs) { this.totalMs = totalMs; }
+
+    public Map<String, Long> getBuckets() { return buckets; }
+    public void setBuckets(Map<String, Long> buckets) { this.buckets = buckets; }
+}
@@ -0,0 +1,196 @@
+package com.smarttask.wire;
+
+import com.smarttask.model.Priority;
+import com.smarttask.model.Status;
+import com.smarttask.model.Task;
+import com.smarttask.model.User;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary encoding of task lists, the largest payloads of the API.
+ *
+ * Offered by the client in its Accept header and chosen by the server through
+ * Content-Type; JSON stays the default for every other caller. The layout follows
+ * the fields of {@link Task} in a fixed order, so no field names are sent:
+ *
+ * - header "STM" + version byte, then the task count (varint)
+ * - per task: a presence byte, then its fields; nested tasks (parent, subtasks,
+ *   dependent task) use the same layout
+ * - ids, enum names, usernames, e-mails and tags go through a string table built
+ *   in order of appearance: a user id repeated on 10 000 tasks is sent once, then
+ *   as a one- or two-byte reference
+ * - timestamps are seconds since 1970 as zigzag varints
+ *
+ * Any change to the layout bumps VERSION; a reader refuses other versions.
+ */
+public final class TaskListCodec {
+
+    public static final String MEDIA_TYPE = "application/x-smarttask-tasks";
+
+    private static final byte[] MAGIC = {'S', 'T', 'M'};
+    private static final int VERSION = 1;
+    // Bounds the recursion on parent / dependent / sub tasks of a corrupt payload
+    private static final int MAX_DEPTH = 64;
+
+    private TaskListCodec() {}
+
+    /** True when an Accept header lists the binary format. */
+    public static boolean isAccepted(String acceptHeader) {
+        return acceptHeader != null && acceptHeader.contains(MEDIA_TYPE);
+    }
+
+    /** True when a Content-Type header is the binary format. */
+    public static boolean isBinary(String contentType) {
+        return contentType != null && contentType.startsWith(MEDIA_TYPE);
+    }
+
+    public static byte[] encode(List<Task> tasks) {
+        WireWriter out = new WireWriter();
+        for (byte b : MAGIC) out.writeByte(b);
+        out.writeByte(VERSION);
+        out.writeVarInt(tasks.size());
+        for (Task task : tasks) writeTask(out, task, 0);
+        return out.toByteArray();
+    }
+
+    public static List<Task> decode(byte[] payload) throws IOException {
+        WireReader in = new WireReader(payload);
+        for (byte b : MAGIC) {
+            if (in.readByte() != b) throw in.malformed("not a task list");
+        }
+        int version = in.readByte();
+        if (version != VERSION) throw in.malformed("unsupported version " + version);
+        int count = in.readVarInt();
+        // Every task takes at least one byte: a larger count is a corrupt header
+        if (count > payload.length) throw in.malformed("task count " + count);
+        List<Task> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) tasks.add(readTask(in, 0));
+        if (!in.atEnd()) throw in.malformed("trailing bytes");
+        return tasks;
+    }
+
+    private static void writeTask(WireWriter out, Task t, int depth) {
+        if (t == null) {
+            out.writeByte(0);
+            return;
+        }
+        if (depth > MAX_DEPTH) throw new IllegalArgumentException("Task nesting deeper than " + MAX_DEPTH);
+        out.writeByte(1);
+        out.writeShared(t.getId());
+        out.writeText(t.getTitle());
+        out.writeText(t.getDescription());
+        out.writeShared(t.getPriority() == null ? null : t.getPriority().name());
+        out.writeShared(t.getStatus() == null ? null : t.getStatus().name());
+        out.writeDateTime(t.getDueDate());
+        out.writeDateTime(t.getCreatedAt());
+        writeUser(out, t.getUser());
+        out.writeShared(t.getProjectId());
+        writeTask(out, t.getParentTask(), depth + 1);
+        List<Task> subTasks = t.getSubTasks();
+        if (subTasks == null) {
+            out.writeVarInt(0);
+        } else {
+            out.writeVarInt(subTasks.size() + 1);
+            for (Task sub : subTasks) writeTask(out, sub, depth + 1);
+        }
+        out.writeShared(t.getRecurrenceType());
+        Integer interval = t.getRecurrenceInterval();
+        if (interval == null) {
+            out.writeVarInt(0);
+        } else {
+            out.writeVarInt(1);
+            out.writeSignedVarLong(interval);
+        }
+        out.writeDateTime(t.getRecurrenceEndDate());
+        out.writeShared(t.getDependentTaskId());
+        writeTask(out, t.getDependentTask(), depth + 1);
+        List<String> tags = t.getTags();
+        if (tags == null) {
+            out.writeVarInt(0);
+        } else {
+            out.writeVarInt(tags.size() + 1);
+            for (String tag : tags) out.writeShared(tag);
+        }
+    }
+
+    private static Task readTask(WireReader in, int depth) throws IOException {
+        int presence = in.readByte();
+        if (presence == 0) return null;
+        if (presence != 1) throw in.malformed("bad task marker " + presence);
+        if (depth > MAX_DEPTH) throw in.malformed("task nesting deeper than " + MAX_DEPTH);
+        Task t = new Task();
+        t.setId(in.readShared());
+        t.setTitle(in.readText());
+        t.setDescription(in.readText());
+        t.setPriority(enumValue(Priority.class, in.readShared()));
+        t.setStatus(enumValue(Status.class, in.readShared()));
+        t.setDueDate(in.readDateTime());
+        t.setCreatedAt(in.readDateTime());
+        t.setUser(readUser(in));
+        t.setProjectId(in.readShared());
+        t.setParentTask(readTask(in, depth + 1));
+        int subTasks = in.readVarInt();
+        if (subTasks == 0) {
+            t.setSubTasks(null);
+        } else {
+            List<Task> list = new ArrayList<>(Math.min(subTasks - 1, 1024));
+            for (int i = 0; i < subTasks - 1; i++) list.add(readTask(in, depth + 1));
+            t.setSubTasks(list);
+        }
+        t.setRecurrenceType(in.readShared());
+        t.setRecurrenceInterval(in.readVarInt() == 0 ? null : Math.toIntExact(in.readSignedVarLong()));
+        t.setRecurrenceEndDate(in.readDateTime());
+        t.setDependentTaskId(in.readShared());
+        t.setDependentTask(readTask(in, depth + 1));
+        int tags = in.readVarInt();
+        if (tags == 0) {
+            t.setTags(null);
+        } else {
+            List<String> list = new ArrayList<>(Math.min(tags - 1, 1024));
+            for (int i = 0; i < tags - 1; i++) list.add(in.readShared());
+            t.setTags(list);
+        }
+        return t;
+    }
+
+    private static void writeUser(WireWriter out, User u) {
+        if (u == null) {
+            out.writeByte(0);
+            return;
+        }
+        out.writeByte(1);
+        out.writeShared(u.getId());
+        out.writeShared(u.getUsername());
+        out.writeText(u.getPassword());
+        out.writeShared(u.getEmail());
+        out.writeShared(u.getFirstName());
+        out.writeShared(u.getLastName());
+    }
+
+    private static User readUser(WireReader in) throws IOException {
+        int presence = in.readByte();
+        if (presence == 0) return null;
+        if (presence != 1) throw in.malformed("bad user marker " + presence);
+        User u = new User();
+        u.setId(in.readShared());
+        u.setUsername(in.readShared());
+        u.setPassword(in.readText());
+        u.setEmail(in.readShared());
+        u.setFirstName(in.readShared());
+        u.setLastName(in.readShared());
+        return u;
+    }
+
+    /** Like Gson's enum adapter: an unknown name reads as null. */
+    private static <E extends Enum<E>> E enumValue(Class<E> type, String name) {
+        if (name == null) return null;
+        try {
+            return Enum.valueOf(type, name);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
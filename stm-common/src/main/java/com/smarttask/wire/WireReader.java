@@ -0,0 +1,94 @@
+package com.smarttask.wire;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads what {@link WireWriter} wrote. Every read checks the bounds of the payload,
+ * so a truncated or corrupt body fails with an IOException rather than garbage.
+ */
+final class WireReader {
+
+    private final byte[] buf;
+    private int pos;
+    private final List<String> table = new ArrayList<>();
+
+    WireReader(byte[] buf) {
+        this.buf = buf;
+    }
+
+    int readByte() throws IOException {
+        if (pos >= buf.length) throw malformed("unexpected end of payload");
+        return buf[pos++] & 0xFF;
+    }
+
+    long readVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw malformed("varint too long");
+    }
+
+    int readVarInt() throws IOException {
+        long value = readVarLong();
+        if (value > Integer.MAX_VALUE) throw malformed("value out of range");
+        return (int) value;
+    }
+
+    long readSignedVarLong() throws IOException {
+        long value = readVarLong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    String readText() throws IOException {
+        int length = readVarInt();
+        if (length == 0) return null;
+        length--;
+        if (length > buf.length - pos) throw malformed("string past the end of payload");
+        String value = new String(buf, pos, length, StandardCharsets.UTF_8);
+        pos += length;
+        return value;
+    }
+
+    String readShared() throws IOException {
+        int ref = readVarInt();
+        if (ref == 0) return null;
+        if (ref == 1) {
+            String value = readText();
+            if (value == null) throw malformed("null table entry");
+            table.add(value);
+            return value;
+        }
+        int index = ref - 2;
+        if (index >= table.size()) throw malformed("unknown table entry " + index);
+        return table.get(index);
+    }
+
+    LocalDateTime readDateTime() throws IOException {
+        int kind = readVarInt();
+        if (kind == 0) return null;
+        if (kind > 2) throw malformed("unknown timestamp kind " + kind);
+        long seconds = readSignedVarLong();
+        int nanos = kind == 2 ? readVarInt() : 0;
+        try {
+            return LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+        } catch (java.time.DateTimeException e) {
+            throw malformed(e.getMessage());
+        }
+    }
+
+    boolean atEnd() {
+        return pos == buf.length;
+    }
+
+    IOException malformed(String reason) {
+        return new IOException("Malformed binary payload at byte " + pos + ": " + reason);
+    }
+}
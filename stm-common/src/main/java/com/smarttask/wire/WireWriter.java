@@ -0,0 +1,98 @@
+package com.smarttask.wire;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Growable byte buffer with the primitives of the binary format: varints, inline
+ * strings, table strings and timestamps. Not thread-safe; one per payload.
+ */
+final class WireWriter {
+
+    private byte[] buf = new byte[8192];
+    private int pos;
+    private final Map<String, Integer> table = new HashMap<>();
+
+    void writeByte(int b) {
+        ensure(1);
+        buf[pos++] = (byte) b;
+    }
+
+    /** Unsigned LEB128: 7 bits per byte, high bit set while more bytes follow. */
+    void writeVarLong(long value) {
+        ensure(10);
+        while ((value & ~0x7FL) != 0) {
+            buf[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buf[pos++] = (byte) value;
+    }
+
+    void writeVarInt(int value) {
+        writeVarLong(value & 0xFFFFFFFFL);
+    }
+
+    /** Signed value, zigzag-encoded so small negative numbers stay short. */
+    void writeSignedVarLong(long value) {
+        writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    /** 0 = null, otherwise length + 1 and the UTF-8 bytes. For text that rarely repeats. */
+    void writeText(String value) {
+        if (value == null) {
+            writeVarInt(0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(bytes.length + 1);
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, buf, pos, bytes.length);
+        pos += bytes.length;
+    }
+
+    /**
+     * For values that repeat across the payload (ids, enum names, tags): 0 = null,
+     * 1 = first occurrence followed by the text, n >= 2 = same value as table entry n - 2.
+     * The table is built in order of appearance on both sides, so it is never sent.
+     */
+    void writeShared(String value) {
+        if (value == null) {
+            writeVarInt(0);
+            return;
+        }
+        Integer index = table.get(value);
+        if (index != null) {
+            writeVarInt(index + 2);
+            return;
+        }
+        table.put(value, table.size());
+        writeVarInt(1);
+        writeText(value);
+    }
+
+    /** 0 = null, 1 = whole seconds, 2 = with nanoseconds; seconds since 1970 read as UTC. */
+    void writeDateTime(LocalDateTime value) {
+        if (value == null) {
+            writeVarInt(0);
+            return;
+        }
+        int nanos = value.getNano();
+        writeVarInt(nanos == 0 ? 1 : 2);
+        writeSignedVarLong(value.toEpochSecond(ZoneOffset.UTC));
+        if (nanos != 0) writeVarInt(nanos);
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(buf, pos);
+    }
+
+    private void ensure(int extra) {
+        if (pos + extra > buf.length) {
+            buf = Arrays.copyOf(buf, Math.max(buf.length * 2, pos + extra));
+        }
+    }
+}
@@ -1,17 +1,32 @@
 package com.smarttask.server;
 
+import com.smarttask.server.auth.RequestScopeFilter;
+import com.smarttask.server.auth.SessionFilter;
+import com.smarttask.server.blob.BlobStore;
 import com.smarttask.server.config.DatabaseConnection;
+import com.smarttask.server.dao.TimeRollupDAO;
+import com.smarttask.server.dao.UserAccessDAO;
+import com.smarttask.server.http.CorsFilter;
+import com.smarttask.server.http.TimingFilter;
+import com.smarttask.server.metrics.Metrics;
+import com.smarttask.server.metrics.MetricsHandler;
+import com.smarttask.server.migration.MigrationRunner;
+import com.smarttask.server.search.SearchIndex;
 import com.smarttask.server.socket.NotificationWebSocketServer;
 import com.smarttask.server.handler.AuthHandler;
 import com.smarttask.server.handler.TaskHandler;
 import com.smarttask.server.handler.TeamHandler;
+import com.smarttask.server.scheduler.NotificationRetentionScheduler;
 
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpHandler;
 import com.sun.net.httpserver.HttpServer;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.List;
 
 /**
  * HTTP server entry point.
@@ -20,13 +35,42 @@ import java.sql.SQLException;
 public class MainServer {
     private static final int PORT = Integer.parseInt(System.getenv().getOrDefault("PORT", "8080"));
     private static final int WS_PORT = Integer.parseInt(System.getenv().getOrDefault("WS_PORT", "8887"));
+    private static final RequestScopeFilter REQUEST_SCOPE_FILTER = new RequestScopeFilter();
+    private static final TimingFilter TIMING_FILTER = new TimingFilter();
+    private static final CorsFilter CORS_FILTER = new CorsFilter();
+    private static final SessionFilter SESSION_FILTER = new SessionFilter();
 
     public static void main(String[] args) {
         try {
             // Test database connection
             try (Connection conn = DatabaseConnection.getConnection()) {
                 System.out.println("Database connection successful!");
-                com.smarttask.server.config.SchemaUpdater.checkAndUpdateSchema();
+                if (args.length > 0 && "--migration-status".equals(args[0])) {
+                    MigrationRunner.printStatus();
+                    return;
+                }
+                if (args.length > 0 && "--migrate".equals(args[0])) {
+                    MigrationRunner.migrate();
+                    return;
+                }
+                if (!MigrationRunner.migrateOnStartup()) {
+                    System.err.println("Schema migration failed, server not started");
+                    return;
+                }
+                if (args.length > 0 && "--rebuild-time-rollups".equals(args[0])) {
+                    System.out.println("Rebuilding time rollups...");
+                    new TimeRollupDAO().rebuild();
+                    System.out.println("Time rollups rebuilt.");
+                    return;
+                }
+                if (args.length > 0 && "--rebuild-access".equals(args[0])) {
+                    System.out.println("Rebuilding project/team access...");
+                    new UserAccessDAO().rebuild();
+                    System.out.println("Project/team access rebuilt.");
+                    return;
+                }
+                SearchIndex.rebuild();
+                BlobStore.collectGarbage();
             } catch (SQLException e) {
                 System.err.println("Database connection failed: " + e.getMessage());
                 System.err.println("Please check your database configuration in database.properties");
@@ -37,20 +81,26 @@ public class MainServer {
             // HttpServer server = HttpServer.create(new InetSocketAddress(PORT), 0);
             HttpServer server = HttpServer.create(new InetSocketAddress("0.0.0.0", PORT), 0);
 
-            // Configure routes
-            server.createContext("/api/auth", new AuthHandler());
-            server.createContext("/api/tasks", new TaskHandler());
-            server.createContext("/api/users", new com.smarttask.server.handler.UserHandler());
-            server.createContext("/api/projects", new com.smarttask.server.handler.ProjectsHandler());
-            server.createContext("/api/comments", new com.smarttask.server.handler.CommentHandler());
-            server.createContext("/api/comment-attachments", new com.smarttask.server.handler.CommentAttachmentHandler());
-            server.createContext("/api/tags", new com.smarttask.server.handler.TaskTagHandler());
-            server.createContext("/api/dependencies", new com.smarttask.server.handler.DependencyHandler());
-            server.createContext("/api/shared-tasks", new com.smarttask.server.handler.SharedTaskHandler());
-            server.createContext("/api/notifications", new com.smarttask.server.handler.NotificationHandler());
-            server.createContext("/api/attachments", new com.smarttask.server.handler.AttachmentHandler());
-            server.createContext("/api/timetracking", new com.smarttask.server.handler.TimeTrackingHandler());
-            server.createContext("/api/teams", new TeamHandler());
+            // Configure routes (every context goes through the timing, CORS and session filters)
+            route(server, "/api/auth", new AuthHandler());
+            route(server, "/api/tasks", new TaskHandler());
+            route(server, "/api/users", new com.smarttask.server.handler.UserHandler());
+            route(server, "/api/projects", new com.smarttask.server.handler.ProjectsHandler());
+            route(server, "/api/comments", new com.smarttask.server.handler.CommentHandler());
+            route(server, "/api/comment-attachments", new com.smarttask.server.handler.CommentAttachmentHandler());
+            route(server, "/api/tags", new com.smarttask.server.handler.TaskTagHandler());
+            route(server, "/api/dependencies", new com.smarttask.server.handler.DependencyHandler());
+            route(server, "/api/shared-tasks", new com.smarttask.server.handler.SharedTaskHandler());
+            route(server, "/api/notifications", new com.smarttask.server.handler.NotificationHandler());
+            route(server, "/api/attachments", new com.smarttask.server.handler.AttachmentHandler());
+            route(server, "/api/blobs", new com.smarttask.server.handler.BlobHandler());
+            route(server, "/api/timetracking", new com.smarttask.server.handler.TimeTrackingHandler());
+            route(server, "/api/teams", new TeamHandler());
+            route(server, "/api/analytics", new com.smarttask.server.handler.AnalyticsHandler());
+            route(server, "/api/search", new com.smarttask.server.handler.SearchHandler());
+            if (Metrics.ENABLED) {
+                server.createContext("/metrics", new MetricsHandler());
+            }
 
             // Start server
             server.setExecutor(null); // Uses default thread pool
@@ -59,14 +109,19 @@ public class MainServer {
             NotificationWebSocketServer wsServer = new NotificationWebSocketServer(WS_PORT);
             wsServer.start();
 
+            NotificationRetentionScheduler retentionScheduler = new NotificationRetentionScheduler();
+            retentionScheduler.start();
+
             System.out.println("=== SmartTaskManager Server ===");
             System.out.println("Server started on port " + PORT);
             System.out.println("API available at: http://localhost:" + PORT);
             System.out.println("Endpoints:");
             System.out.println("  POST /api/auth/register - Registration");
-            System.out.println("  POST /api/auth/login - Login");
+            System.out.println("  POST /api/auth/login - Login (returns a signed session token for Authorization: Bearer)");
             System.out.println("  GET  /api/tasks - List all tasks");
             System.out.println("  GET  /api/tasks/{id} - Task details");
+            System.out.println("  GET  /api/tasks/{id}/tree - Task with all its subtasks (depth-ordered)");
+            System.out.println("  GET  /api/tasks/{id}/detail - Task with subtasks, tags, comments, attachments, time logs, dependencies and shares");
             System.out.println("  GET  /api/tasks/{id}/user - User's tasks");
             System.out.println("  POST /api/tasks - Create a task");
             System.out.println("  PUT  /api/tasks/{id} - Update a task");
@@ -78,11 +133,13 @@ public class MainServer {
             System.out.println("  PUT  /api/projects/{id} - Update a project");
             System.out.println("  DELETE /api/projects/{id} - Delete a project");
             System.out.println("  GET  /api/comments/task/{id} - Task comments");
+            System.out.println("  GET  /api/comments/task/{id}?before=|after=&limit= - Task comments (paginated, with attachments)");
             System.out.println("  POST /api/comments - Add comment");
             System.out.println("  PUT  /api/comments/{id} - Update comment");
             System.out.println("  DELETE /api/comments/{id} - Delete comment");
             System.out.println("  GET  /api/dependencies/successor/{id} - Predecessor tasks");
             System.out.println("  GET  /api/dependencies/predecessor/{id} - Successor tasks");
+            System.out.println("  GET  /api/dependencies/project/{id}[/order|/critical-path|/blockers/{taskId}] - Project dependency graph");
             System.out.println("  POST /api/dependencies - Add dependency");
             System.out.println("  DELETE /api/dependencies/{id} - Remove dependency");
             System.out.println("  POST /api/shared-tasks - Share task");
@@ -90,16 +147,31 @@ public class MainServer {
             System.out.println("  GET  /api/shared-tasks/user/{id} - User shared tasks");
             System.out.println("  PUT  /api/shared-tasks/{taskId}/{userId} - Update permission");
             System.out.println("  DELETE /api/shared-tasks/{taskId}/{userId} - Revoke sharing");
+            System.out.println("  GET  /api/analytics/dashboard/{userId} - Dashboard stats (cached)");
+            System.out.println("  GET  /api/search?q=&userId=[&types=&limit=] - Full-text search over tasks, comments, tags and events");
+            System.out.println("  GET  /api/timetracking/totals/task/{id} - Tracked time of a task");
+            System.out.println("  GET  /api/timetracking/totals/user/{id}?from=&to= - Tracked time per day");
+            System.out.println("  GET  /api/timetracking/totals/project/{id}?from=&to= - Tracked time per week");
             System.out.println("  GET  /api/notifications/user/{id} - User notifications");
+            System.out.println("  GET  /api/notifications/user/{id}?before=&limit= - User notifications (paginated)");
             System.out.println("  GET  /api/notifications/user/{id}/unread - Unread notifications");
             System.out.println("  POST /api/notifications - Create notification");
             System.out.println("  PUT  /api/notifications/{id}/read - Mark as read");
             System.out.println("  PUT  /api/notifications/read-all - Mark all as read");
             System.out.println("  DELETE /api/notifications/{id} - Delete notification");
+            System.out.println("  POST /api/blobs - Upload a file body in one request");
+            System.out.println("  POST /api/blobs/uploads - Start a resumable upload (GET/PATCH/DELETE /api/blobs/uploads/{id}, POST .../complete)");
+            System.out.println("  GET  /api/attachments/{id}/content - Download an attachment (Range supported)");
+            System.out.println("  GET  /api/attachments/{id}/thumbnail - Image attachment thumbnail (202 while rendering)");
+            System.out.println("  GET  /api/comment-attachments/{id}/content - Download a comment attachment (Range supported)");
+            if (Metrics.ENABLED) {
+                System.out.println("  GET  /metrics - Request, DAO, JDBC and WebSocket metrics (Prometheus text format)");
+            }
 
             // Add shutdown hook
             Runtime.getRuntime().addShutdownHook(new Thread(() -> {
                 System.out.println("\nShutting down server...");
+                retentionScheduler.stop();
                 server.stop(0);
                 System.out.println("Server stopped.");
             }));
@@ -109,6 +181,14 @@ public class MainServer {
             e.printStackTrace();
         }
     }
+
+    private static void route(HttpServer server, String path, HttpHandler handler) {
+        List<Filter> filters = server.createContext(path, handler).getFilters();
+        filters.add(REQUEST_SCOPE_FILTER);
+        filters.add(TIMING_FILTER);
+        filters.add(CORS_FILTER);
+        filters.add(SESSION_FILTER);
+    }
 }
 
 
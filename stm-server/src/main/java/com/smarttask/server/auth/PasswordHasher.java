@@ -0,0 +1,153 @@
+package com.smarttask.server.auth;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Password hashing with PBKDF2-HMAC-SHA256 and a tunable cost.
+ *
+ * Hashes are stored as pbkdf2-sha256$iterations$salt$hash (base64), so the cost
+ * can be raised at any time: a row hashed with fewer iterations, or a legacy row
+ * still holding the plain password, verifies once more and is reported as
+ * needing a rehash, which the login does with the password it just checked.
+ *
+ * Each hash costs tens of milliseconds of CPU by design. Logins and registrations
+ * therefore run on their own small pool behind a bounded queue ({@link #submit}):
+ * a burst of logins waits there or is turned away, instead of occupying the
+ * threads that serve the rest of the API.
+ *
+ * Configuration (environment variables):
+ * - PASSWORD_HASH_ITERATIONS: PBKDF2 iterations for new hashes (default 600000)
+ * - PASSWORD_HASH_THREADS: verification threads (default half the cores, at least 1)
+ * - PASSWORD_HASH_QUEUE: logins waiting for a thread before new ones get 503 (default 64)
+ *
+ * PasswordHashBenchmark (stm-benchmarks) prints logins per second per core for
+ * the configured cost, to help choose it on the target machine.
+ */
+public final class PasswordHasher {
+
+    private static final String PREFIX = "pbkdf2-sha256";
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    static final int ITERATIONS = Integer.parseInt(System.getenv().getOrDefault("PASSWORD_HASH_ITERATIONS", "600000"));
+    static final int THREADS = Integer.parseInt(System.getenv().getOrDefault("PASSWORD_HASH_THREADS",
+            String.valueOf(Math.max(1, Runtime.getRuntime().availableProcessors() / 2))));
+    private static final int QUEUE = Integer.parseInt(System.getenv().getOrDefault("PASSWORD_HASH_QUEUE", "64"));
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final Base64.Encoder ENCODER = Base64.getEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getDecoder();
+
+    private static final ThreadPoolExecutor EXECUTOR = new ThreadPoolExecutor(
+            THREADS, THREADS, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(QUEUE), new ThreadFactory());
+
+    static {
+        EXECUTOR.allowCoreThreadTimeOut(true);
+    }
+
+    /** Outcome of a verification. */
+    public enum Result {
+        MISMATCH,
+        MATCH,
+        /** Correct password, but stored in plain text or with a lower cost than configured. */
+        MATCH_NEEDS_REHASH;
+
+        public boolean matches() {
+            return this != MISMATCH;
+        }
+    }
+
+    private PasswordHasher() {}
+
+    /** Hashes a password with a fresh salt and the configured cost. */
+    public static String hash(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        RANDOM.nextBytes(salt);
+        byte[] hash = pbkdf2(password, salt, ITERATIONS);
+        return PREFIX + "$" + ITERATIONS + "$" + ENCODER.encodeToString(salt) + "$" + ENCODER.encodeToString(hash);
+    }
+
+    /**
+     * Checks a password against what the users table holds (null for an unknown user).
+     * Every branch compares in constant time.
+     */
+    public static Result verify(String password, String stored) {
+        if (password == null) return Result.MISMATCH;
+        if (stored == null) {
+            // Unknown user: spend the same time, so response times do not reveal which usernames exist
+            pbkdf2(password, new byte[SALT_BYTES], ITERATIONS);
+            return Result.MISMATCH;
+        }
+        if (!isHashed(stored)) {
+            // Row written before hashing: plain text
+            boolean equal = MessageDigest.isEqual(password.getBytes(StandardCharsets.UTF_8), stored.getBytes(StandardCharsets.UTF_8));
+            return equal ? Result.MATCH_NEEDS_REHASH : Result.MISMATCH;
+        }
+        String[] parts = stored.split("\\$");
+        if (parts.length != 4) return Result.MISMATCH;
+        try {
+            int iterations = Integer.parseInt(parts[1]);
+            byte[] salt = DECODER.decode(parts[2]);
+            byte[] expected = DECODER.decode(parts[3]);
+            if (!MessageDigest.isEqual(pbkdf2(password, salt, iterations), expected)) return Result.MISMATCH;
+            return iterations < ITERATIONS ? Result.MATCH_NEEDS_REHASH : Result.MATCH;
+        } catch (IllegalArgumentException e) {
+            return Result.MISMATCH;
+        }
+    }
+
+    public static boolean isHashed(String stored) {
+        return stored != null && stored.startsWith(PREFIX + "$");
+    }
+
+    /**
+     * Runs hashing work (login, registration) on the password pool.
+     * @throws RejectedExecutionException when the queue is full; the caller answers 503
+     */
+    public static <T> CompletableFuture<T> submit(Callable<T> job) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        EXECUTOR.execute(() -> {
+            try {
+                result.complete(job.call());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    private static byte[] pbkdf2(String password, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+
+    private static class ThreadFactory implements java.util.concurrent.ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "password-hash-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }
+    }
+}
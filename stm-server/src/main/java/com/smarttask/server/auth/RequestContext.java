@@ -0,0 +1,42 @@
+package com.smarttask.server.auth;
+
+import com.sun.net.httpserver.HttpExchange;
+
+/**
+ * Identity of the user behind a request.
+ *
+ * Logged-in clients send a signed session token, checked by {@link SessionFilter}
+ * before the handler runs; the identity then comes from the token and the
+ * X-User-Id header is ignored. Requests without a token carry no identity.
+ *
+ * The X-User-Id header sent by older clients is only believed when the server is
+ * told to: anyone can set it to any id, so this is meant for a trusted network
+ * while the last clients move to tokens.
+ *
+ * Configuration (environment variables):
+ * - TRUST_USER_ID_HEADER: take X-User-Id as the identity of requests without a
+ *   token (default false; ignored when SESSION_REQUIRED is set)
+ */
+public final class RequestContext {
+
+    public static final String USER_HEADER = "X-User-Id";
+
+    private static final boolean TRUST_USER_HEADER =
+            Boolean.parseBoolean(System.getenv().getOrDefault("TRUST_USER_ID_HEADER", "false"));
+
+    private RequestContext() {}
+
+    /** Id of the calling user, or null when the request does not say. */
+    public static String userId(HttpExchange exchange) {
+        SessionTokens.Session session = session(exchange);
+        if (session != null) return session.userId();
+        if (!TRUST_USER_HEADER || SessionFilter.isRequired()) return null;
+        String userId = exchange.getRequestHeaders().getFirst(USER_HEADER);
+        return userId == null || userId.isBlank() ? null : userId.trim();
+    }
+
+    /** Session verified by {@link SessionFilter}, or null for requests without a token. */
+    public static SessionTokens.Session session(HttpExchange exchange) {
+        return (SessionTokens.Session) exchange.getAttribute(SessionFilter.SESSION_ATTRIBUTE);
+    }
+}
@@ -0,0 +1,142 @@
+package com.smarttask.server.auth;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpPrincipal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Gives every request its own attributes.
+ *
+ * HttpServer keeps exchange attributes on the context, so a value set while
+ * serving one request is visible to every other request of the same context,
+ * the next ones as well as concurrent ones. The session stored by
+ * {@link SessionFilter} would thus identify callers that sent no token as the
+ * last user who did. The rest of the chain is handed a view of the exchange whose
+ * attributes live and die with the request.
+ *
+ * First filter of every context, so that everything set along the chain (session,
+ * matched route) is scoped; {@link SessionFilter} also scopes the exchange itself
+ * when it is used without this filter.
+ */
+public class RequestScopeFilter extends Filter {
+
+    @Override
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+        chain.doFilter(scope(exchange));
+    }
+
+    @Override
+    public String description() {
+        return "Scopes exchange attributes to the request";
+    }
+
+    /** The exchange itself when already scoped, a scoped view of it otherwise. */
+    static HttpExchange scope(HttpExchange exchange) {
+        return exchange instanceof ScopedExchange ? exchange : new ScopedExchange(exchange);
+    }
+
+    private static final class ScopedExchange extends HttpExchange {
+        private final HttpExchange delegate;
+        private final Map<String, Object> attributes = new HashMap<>(4);
+
+        ScopedExchange(HttpExchange delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Object getAttribute(String name) {
+            return attributes.get(name);
+        }
+
+        @Override
+        public void setAttribute(String name, Object value) {
+            if (value == null) attributes.remove(name);
+            else attributes.put(name, value);
+        }
+
+        @Override
+        public Headers getRequestHeaders() {
+            return delegate.getRequestHeaders();
+        }
+
+        @Override
+        public Headers getResponseHeaders() {
+            return delegate.getResponseHeaders();
+        }
+
+        @Override
+        public URI getRequestURI() {
+            return delegate.getRequestURI();
+        }
+
+        @Override
+        public String getRequestMethod() {
+            return delegate.getRequestMethod();
+        }
+
+        @Override
+        public HttpContext getHttpContext() {
+            return delegate.getHttpContext();
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+
+        @Override
+        public InputStream getRequestBody() {
+            return delegate.getRequestBody();
+        }
+
+        @Override
+        public OutputStream getResponseBody() {
+            return delegate.getResponseBody();
+        }
+
+        @Override
+        public void sendResponseHeaders(int rCode, long responseLength) throws IOException {
+            delegate.sendResponseHeaders(rCode, responseLength);
+        }
+
+        @Override
+        public InetSocketAddress getRemoteAddress() {
+            return delegate.getRemoteAddress();
+        }
+
+        @Override
+        public int getResponseCode() {
+            return delegate.getResponseCode();
+        }
+
+        @Override
+        public InetSocketAddress getLocalAddress() {
+            return delegate.getLocalAddress();
+        }
+
+        @Override
+        public String getProtocol() {
+            return delegate.getProtocol();
+        }
+
+        @Override
+        public void setStreams(InputStream i, OutputStream o) {
+            delegate.setStreams(i, o);
+        }
+
+        @Override
+        public HttpPrincipal getPrincipal() {
+            return delegate.getPrincipal();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.smarttask.server.auth;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Resolves the caller of every request from its Authorization: Bearer token,
+ * before the handler runs. The session is stored on the exchange and read back
+ * through {@link RequestContext}.
+ *
+ * - A valid token past half its lifetime gets a fresh one in the X-Session-Token
+ *   response header, so an open client never sees its session expire.
+ * - A forged or expired token is answered with 401.
+ * - Without a token the request goes through without identity (or with the
+ *   legacy X-User-Id header when TRUST_USER_ID_HEADER=true, see {@link RequestContext}),
+ *   unless SESSION_REQUIRED=true, in which case only /api/auth is reachable.
+ *
+ * The session is stored on a request-scoped view of the exchange
+ * ({@link RequestScopeFilter}): exchange attributes of HttpServer are shared by
+ * the whole context.
+ */
+public class SessionFilter extends Filter {
+
+    public static final String RENEWED_TOKEN_HEADER = "X-Session-Token";
+    static final String SESSION_ATTRIBUTE = "stm.session";
+
+    private static final boolean REQUIRED = Boolean.parseBoolean(System.getenv().getOrDefault("SESSION_REQUIRED", "false"));
+    private static final String BEARER = "Bearer ";
+
+    @Override
+    public void doFilter(HttpExchange context, Chain chain) throws IOException {
+        HttpExchange exchange = RequestScopeFilter.scope(context);
+        if ("OPTIONS".equalsIgnoreCase(exchange.getRequestMethod())) {
+            chain.doFilter(exchange);
+            return;
+        }
+
+        String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+        if (authorization != null && authorization.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+            SessionTokens.Session session = SessionTokens.verify(authorization.substring(BEARER.length()).trim());
+            if (session == null) {
+                reject(exchange, "Invalid or expired session");
+                return;
+            }
+            exchange.setAttribute(SESSION_ATTRIBUTE, session);
+            if (session.shouldRenew()) {
+                exchange.getResponseHeaders().set(RENEWED_TOKEN_HEADER, SessionTokens.renew(session));
+            }
+        } else if (REQUIRED && !exchange.getRequestURI().getPath().startsWith("/api/auth/")) {
+            reject(exchange, "Authentication required");
+            return;
+        }
+        chain.doFilter(exchange);
+    }
+
+    /** Whether requests without a token are refused. */
+    static boolean isRequired() {
+        return REQUIRED;
+    }
+
+    @Override
+    public String description() {
+        return "Resolves the calling user from a signed session token";
+    }
+
+    private void reject(HttpExchange exchange, String message) throws IOException {
+        byte[] bytes = ("{\"error\":\"" + message + "\"}").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.getResponseHeaders().set("WWW-Authenticate", "Bearer");
+        exchange.sendResponseHeaders(401, bytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+}
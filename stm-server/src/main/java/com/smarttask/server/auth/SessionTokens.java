@@ -0,0 +1,118 @@
+package com.smarttask.server.auth;
+
+import com.smarttask.model.User;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Stateless session tokens: the identity is carried by the token and checked
+ * with an HMAC, so resolving the caller of a request never touches the database.
+ *
+ * A token is base64url(userId \n expiresAt \n username) "." base64url(HMAC-SHA256).
+ * The signature covers the whole payload, so no field can be changed without the secret.
+ *
+ * Configuration (environment variables):
+ * - SESSION_SECRET: HMAC key. Without it a random key is generated at startup,
+ *   and sessions do not survive a restart or span several server instances.
+ * - SESSION_TTL_HOURS: lifetime of a token (default 24). Tokens past half their
+ *   lifetime are renewed by {@link SessionFilter}.
+ */
+public final class SessionTokens {
+
+    private static final long TTL_SECONDS = Long.parseLong(System.getenv().getOrDefault("SESSION_TTL_HOURS", "24")) * 3600;
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final SecretKeySpec KEY = new SecretKeySpec(secret(), ALGORITHM);
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    // Mac is not thread-safe; one per request thread instead of one per call
+    private static final ThreadLocal<Mac> MAC = ThreadLocal.withInitial(() -> {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(KEY);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    /** Identity carried by a valid token. */
+    public record Session(String userId, String username, long expiresAt) {
+
+        /** Past half its lifetime: worth handing the client a fresh token. */
+        public boolean shouldRenew() {
+            return expiresAt - now() < TTL_SECONDS / 2;
+        }
+    }
+
+    private SessionTokens() {}
+
+    /** Signs a new token for the user. */
+    public static String issue(User user) {
+        return issue(user.getId(), user.getUsername());
+    }
+
+    /** Signs a new token for the same user as an existing session. */
+    public static String renew(Session session) {
+        return issue(session.userId(), session.username());
+    }
+
+    /**
+     * Checks the signature and expiry.
+     * @return the session, or null if the token is malformed, forged or expired
+     */
+    public static Session verify(String token) {
+        if (token == null) return null;
+        int dot = token.indexOf('.');
+        if (dot <= 0 || dot == token.length() - 1) return null;
+        String payload = token.substring(0, dot);
+        try {
+            byte[] signature = DECODER.decode(token.substring(dot + 1));
+            if (!MessageDigest.isEqual(signature, sign(payload))) return null;
+
+            // The username comes last: whatever it contains stays in the last field
+            String[] fields = new String(DECODER.decode(payload), StandardCharsets.UTF_8).split("\n", 3);
+            if (fields.length != 3) return null;
+            long expiresAt = Long.parseLong(fields[1]);
+            if (expiresAt <= now()) return null;
+            return new Session(fields[0], fields[2], expiresAt);
+        } catch (IllegalArgumentException e) {
+            // Bad base64 or expiry
+            return null;
+        }
+    }
+
+    public static long ttlSeconds() {
+        return TTL_SECONDS;
+    }
+
+    private static String issue(String userId, String username) {
+        String fields = userId + "\n" + (now() + TTL_SECONDS) + "\n" + (username == null ? "" : username);
+        String payload = ENCODER.encodeToString(fields.getBytes(StandardCharsets.UTF_8));
+        return payload + "." + ENCODER.encodeToString(sign(payload));
+    }
+
+    private static byte[] sign(String payload) {
+        return MAC.get().doFinal(payload.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static long now() {
+        return System.currentTimeMillis() / 1000;
+    }
+
+    private static byte[] secret() {
+        String configured = System.getenv("SESSION_SECRET");
+        if (configured != null && !configured.isBlank()) return configured.getBytes(StandardCharsets.UTF_8);
+        System.err.println("⚠️ SESSION_SECRET not set: using a random key, sessions end when the server restarts");
+        byte[] random = new byte[32];
+        new SecureRandom().nextBytes(random);
+        return random;
+    }
+}
@@ -0,0 +1,263 @@
+package com.smarttask.server.auth;
+
+import com.smarttask.server.config.DatabaseConnection;
+import com.smarttask.server.http.HttpError;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.sql.*;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Resolves and caches what a user may do on a task.
+ *
+ * The level is the highest granted by: owning the task or its project (ADMIN),
+ * reaching the project through a team (WRITE, from project_access) and an entry
+ * in shared_tasks (its own level). It is resolved with one query on a miss and
+ * cached per (task, user).
+ *
+ * Entries are dropped precisely by the DAOs that change an input: sharing
+ * changes drop (task, user), team membership and team/project links drop the
+ * users concerned, task updates and deletions drop the task. The TTL only covers
+ * writes made outside the server.
+ *
+ * Lists of tasks are filtered in SQL with {@link #VISIBLE_TASK}, which reads the
+ * same sources, so a task is listed exactly when {@link #check} lets the caller
+ * read it. Requests without an identity are refused both ways.
+ *
+ * Configuration (environment variables):
+ * - PERMISSION_CACHE_TTL_SECONDS: maximum age of an entry (default 600)
+ * - PERMISSION_CACHE_MAX_TASKS: tasks kept before the cache is cleared (default 10000)
+ */
+public final class TaskPermissions {
+
+    public enum Level {
+        NONE, READ, WRITE, ADMIN;
+
+        public boolean allows(Level required) {
+            return compareTo(required) >= 0;
+        }
+    }
+
+    private static final long TTL_MS = Long.parseLong(System.getenv().getOrDefault("PERMISSION_CACHE_TTL_SECONDS", "600")) * 1000;
+    private static final int MAX_TASKS = Integer.parseInt(System.getenv().getOrDefault("PERMISSION_CACHE_MAX_TASKS", "10000"));
+
+    private static final String RESOLVE_SQL = """
+                SELECT t.user_id AS owner_id, p.user_id AS project_owner_id,
+                       EXISTS (SELECT 1 FROM project_access a
+                               WHERE a.user_id = ? AND a.project_id = t.project_id) AS via_team,
+                       (SELECT s.permission_level FROM shared_tasks s
+                        WHERE s.task_id = t.id AND s.user_id = ?) AS shared_level
+                FROM tasks t
+                LEFT JOIN projects p ON p.id = t.project_id
+                WHERE t.id = ?
+            """;
+
+    /**
+     * Condition on a tasks row aliased t: the user has at least READ on it. Owned
+     * projects and projects reached through a team are both rows of project_access.
+     * Bind the user with {@link #bindVisible}.
+     */
+    public static final String VISIBLE_TASK = """
+                (t.user_id = ?
+                 OR EXISTS (SELECT 1 FROM project_access a
+                            WHERE a.user_id = ? AND a.project_id = t.project_id)
+                 OR EXISTS (SELECT 1 FROM shared_tasks s
+                            WHERE s.task_id = t.id AND s.user_id = ?))
+            """;
+
+    // Task id -> user id -> entry
+    private static final Map<String, Map<String, Entry>> ENTRIES = new ConcurrentHashMap<>();
+    // Bumped on every invalidation so a resolution that raced with a write is not cached
+    private static final AtomicLong GENERATION = new AtomicLong();
+
+    private record Entry(Level level, long createdAt) {
+        boolean isFresh() {
+            return System.currentTimeMillis() - createdAt < TTL_MS;
+        }
+    }
+
+    private TaskPermissions() {}
+
+    /**
+     * Whether the caller of the request may act on the task at the given level.
+     * Requests without a user are denied; unknown tasks pass (left to the handler's 404).
+     */
+    public static boolean check(HttpExchange exchange, String taskId, Level required) {
+        String userId = RequestContext.userId(exchange);
+        if (userId == null) return false;
+        if (taskId == null) return true;
+        Level level = levelOf(userId, taskId);
+        return level == null || level.allows(required);
+    }
+
+    /**
+     * Ends the route with 401 when the request has no identity, 403 when the caller
+     * lacks the level on the task.
+     */
+    public static void require(HttpExchange exchange, String taskId, Level required) {
+        if (check(exchange, taskId, required)) return;
+        throw RequestContext.userId(exchange) == null
+                ? new HttpError(401, "Authentication required")
+                : new HttpError(403, "Forbidden");
+    }
+
+    /**
+     * Id of the caller, for routes that list tasks; 401 when the request has none.
+     */
+    public static String requireUser(HttpExchange exchange) {
+        String userId = RequestContext.userId(exchange);
+        if (userId == null) throw new HttpError(401, "Authentication required");
+        return userId;
+    }
+
+    /**
+     * Ends the route with 401 when the request has no identity, 403 when the caller
+     * does not see the project (owning it or reaching it through a team).
+     */
+    public static String requireProject(HttpExchange exchange, String projectId) {
+        String userId = requireUser(exchange);
+        if (!hasProjectAccess(userId, projectId)) throw new HttpError(403, "Forbidden");
+        return userId;
+    }
+
+    /**
+     * Binds the user to the parameters of {@link #VISIBLE_TASK} starting at index;
+     * returns the index of the next parameter.
+     */
+    public static int bindVisible(PreparedStatement stmt, int index, String userId) throws SQLException {
+        for (int i = 0; i < 3; i++) {
+            stmt.setString(index++, userId);
+        }
+        return index;
+    }
+
+    /**
+     * Level of the user on the task, or null if the task does not exist.
+     */
+    public static Level levelOf(String userId, String taskId) {
+        Map<String, Entry> byUser = ENTRIES.get(taskId);
+        Entry entry = byUser != null ? byUser.get(userId) : null;
+        if (entry != null && entry.isFresh()) {
+            return entry.level();
+        }
+
+        long generation = GENERATION.get();
+        Level level = resolve(userId, taskId);
+        if (level != null && generation == GENERATION.get()) {
+            if (ENTRIES.size() >= MAX_TASKS) ENTRIES.clear();
+            ENTRIES.computeIfAbsent(taskId, k -> new ConcurrentHashMap<>())
+                    .put(userId, new Entry(level, System.currentTimeMillis()));
+        }
+        return level;
+    }
+
+    // --- INVALIDATION ---
+
+    /** Sharing of the task with the user changed. */
+    public static void invalidate(String taskId, String userId) {
+        GENERATION.incrementAndGet();
+        Map<String, Entry> byUser = ENTRIES.get(taskId);
+        if (byUser != null) byUser.remove(userId);
+    }
+
+    /** Owner or project of the task changed, or it was deleted. */
+    public static void invalidateTask(String taskId) {
+        GENERATION.incrementAndGet();
+        ENTRIES.remove(taskId);
+    }
+
+    /** Team or project access of the users changed. */
+    public static void invalidateUsers(List<String> userIds) {
+        if (userIds.isEmpty()) return;
+        GENERATION.incrementAndGet();
+        for (Map<String, Entry> byUser : ENTRIES.values()) {
+            byUser.keySet().removeAll(userIds);
+        }
+    }
+
+    public static void invalidateAll() {
+        GENERATION.incrementAndGet();
+        ENTRIES.clear();
+    }
+
+    // --- OWNING TASK OF CHILD RESOURCES ---
+
+    public static String taskOfComment(String commentId) {
+        return lookupTaskId("SELECT task_id FROM comments WHERE id = ?", commentId);
+    }
+
+    public static String taskOfAttachment(String attachmentId) {
+        return lookupTaskId("SELECT task_id FROM attachments WHERE id = ?", attachmentId);
+    }
+
+    public static String taskOfCommentAttachment(String attachmentId) {
+        return lookupTaskId("""
+                    SELECT c.task_id FROM comment_attachments ca
+                    INNER JOIN comments c ON c.id = ca.comment_id
+                    WHERE ca.id = ?
+                """, attachmentId);
+    }
+
+    // --- INTERNALS ---
+
+    private static Level resolve(String userId, String taskId) {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(RESOLVE_SQL)) {
+            stmt.setString(1, userId);
+            stmt.setString(2, userId);
+            stmt.setString(3, taskId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) return null;
+                if (userId.equals(rs.getString("owner_id")) || userId.equals(rs.getString("project_owner_id"))) {
+                    return Level.ADMIN;
+                }
+                Level level = rs.getBoolean("via_team") ? Level.WRITE : Level.NONE;
+                String shared = rs.getString("shared_level");
+                if (shared != null) {
+                    try {
+                        Level sharedLevel = Level.valueOf(shared);
+                        if (sharedLevel.allows(level)) level = sharedLevel;
+                    } catch (IllegalArgumentException e) {
+                        // Unknown level stored: same fallback as SharedTaskDAO
+                        if (level == Level.NONE) level = Level.READ;
+                    }
+                }
+                return level;
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            throw new RuntimeException("Error resolving task permission", e);
+        }
+    }
+
+    private static boolean hasProjectAccess(String userId, String projectId) {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                     "SELECT 1 FROM project_access WHERE user_id = ? AND project_id = ?")) {
+            stmt.setString(1, userId);
+            stmt.setString(2, projectId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next();
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            throw new RuntimeException("Error resolving project permission", e);
+        }
+    }
+
+    private static String lookupTaskId(String sql, String id) {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, id);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            throw new RuntimeException("Error loading task of resource", e);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.smarttask.server.blob;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Sends a blob as an HTTP response, with single-range support so an interrupted
+ * download can resume and large files can be read in parts.
+ *
+ * The content hash is a strong ETag: a blob never changes, so If-None-Match
+ * answers 304 and If-Range is honoured as-is.
+ */
+public final class BlobDownload {
+
+    private BlobDownload() {}
+
+    /**
+     * Streams the blob, or a 404 if it is not in the store.
+     */
+    public static void send(HttpExchange exchange, String sha256, String fileName, String contentType) throws IOException {
+        long size = BlobStore.size(sha256);
+        if (size < 0) {
+            sendError(exchange, 404, "Content not found");
+            return;
+        }
+
+        Headers requestHeaders = exchange.getRequestHeaders();
+        Headers headers = exchange.getResponseHeaders();
+        String etag = "\"" + sha256 + "\"";
+        headers.set("ETag", etag);
+        headers.set("Accept-Ranges", "bytes");
+        headers.set("Cache-Control", "private, max-age=31536000, immutable");
+        headers.set("Access-Control-Allow-Origin", "*");
+
+        if (etag.equals(requestHeaders.getFirst("If-None-Match"))) {
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+
+        // file_type holds a MIME type or, for older rows, a bare extension
+        headers.set("Content-Type", contentType != null && contentType.contains("/") ? contentType : "application/octet-stream");
+        if (fileName != null) {
+            headers.set("Content-Disposition", "attachment; filename*=UTF-8''"
+                    + URLEncoder.encode(fileName, StandardCharsets.UTF_8).replace("+", "%20"));
+        }
+
+        long start = 0;
+        long end = size - 1;
+        int status = 200;
+        String range = requestHeaders.getFirst("Range");
+        String ifRange = requestHeaders.getFirst("If-Range");
+        if (range != null && (ifRange == null || ifRange.equals(etag))) {
+            long[] bounds = parseRange(range, size);
+            if (bounds == null) {
+                headers.set("Content-Range", "bytes */" + size);
+                sendError(exchange, 416, "Range not satisfiable");
+                return;
+            }
+            if (bounds.length == 2) {
+                start = bounds[0];
+                end = bounds[1];
+                status = 206;
+                headers.set("Content-Range", "bytes " + start + "-" + end + "/" + size);
+            }
+        }
+
+        long length = end - start + 1;
+        if (length <= 0) {
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+            return;
+        }
+        exchange.sendResponseHeaders(status, length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            BlobStore.transfer(sha256, start, length, os);
+        }
+    }
+
+    /**
+     * Sends a rendered thumbnail. Like the blob it comes from it never changes, so
+     * clients keep it for a year and revalidate with If-None-Match.
+     */
+    public static void sendThumbnail(HttpExchange exchange, String sha256, Path thumbnail) throws IOException {
+        Headers headers = exchange.getResponseHeaders();
+        String etag = "\"" + sha256 + "-thumb\"";
+        headers.set("ETag", etag);
+        headers.set("Cache-Control", "private, max-age=31536000, immutable");
+        headers.set("Access-Control-Allow-Origin", "*");
+
+        if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+
+        headers.set("Content-Type", "image/jpeg");
+        exchange.sendResponseHeaders(200, Files.size(thumbnail));
+        try (OutputStream os = exchange.getResponseBody()) {
+            Files.copy(thumbnail, os);
+        }
+    }
+
+    /**
+     * Parses "bytes=a-b", "bytes=a-" or "bytes=-n".
+     * @return {start, end} inclusive, an empty array to ignore the header
+     *         (multiple ranges, other units), or null if unsatisfiable
+     */
+    static long[] parseRange(String header, long size) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) return new long[0];
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) return new long[0];
+        try {
+            long start;
+            long end;
+            if (dash == 0) {
+                // Suffix: the last n bytes
+                long suffix = Long.parseLong(spec.substring(1));
+                if (suffix <= 0) return null;
+                start = Math.max(0, size - suffix);
+                end = size - 1;
+            } else {
+                start = Long.parseLong(spec.substring(0, dash));
+                String last = spec.substring(dash + 1);
+                end = last.isEmpty() ? size - 1 : Math.min(Long.parseLong(last), size - 1);
+            }
+            if (start >= size || start > end) return null;
+            return new long[] {start, end};
+        } catch (NumberFormatException e) {
+            return new long[0];
+        }
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        byte[] bytes = ("{\"error\":\"" + message + "\"}").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.smarttask.server.blob;
+
+import com.smarttask.server.auth.TaskPermissions;
+import com.smarttask.server.config.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Which blobs a user may reference from a new attachment.
+ *
+ * Blobs are shared by content, so knowing a hash must not be enough: a caller
+ * naming someone else's hash would learn that the file exists, then download it
+ * through its own attachment. A user may attach a blob it uploaded itself
+ * (remembered here until BLOB_UPLOAD_TTL_HOURS, like an unfinished upload), or
+ * one an attachment it can already read points at.
+ */
+public final class BlobGrants {
+
+    private static final long TTL_MS = Long.parseLong(System.getenv().getOrDefault("BLOB_UPLOAD_TTL_HOURS", "24")) * 3600_000;
+    private static final int PRUNE_ABOVE = 10_000;
+
+    // "userId sha256" -> expiry (epoch ms)
+    private static final Map<String, Long> GRANTS = new ConcurrentHashMap<>();
+
+    private BlobGrants() {}
+
+    /** Records that the user uploaded the blob. */
+    public static void grant(String userId, String sha256) {
+        long now = System.currentTimeMillis();
+        if (GRANTS.size() > PRUNE_ABOVE) GRANTS.values().removeIf(expiry -> expiry < now);
+        GRANTS.put(key(userId, sha256), now + TTL_MS);
+    }
+
+    /**
+     * Whether the user may attach the blob. Unknown and forbidden hashes answer
+     * the same, so the caller cannot tell them apart.
+     */
+    public static boolean mayAttach(String userId, String sha256) {
+        if (userId == null || sha256 == null) return false;
+        Long expiry = GRANTS.get(key(userId, sha256));
+        if (expiry != null && expiry >= System.currentTimeMillis()) return true;
+        return readableByUser(userId, sha256);
+    }
+
+    private static boolean readableByUser(String userId, String sha256) {
+        String sql = """
+                    SELECT EXISTS (SELECT 1 FROM attachments x JOIN tasks t ON t.id = x.task_id
+                                   WHERE x.content_hash = ? AND %1$s)
+                        OR EXISTS (SELECT 1 FROM comment_attachments x JOIN comments c ON c.id = x.comment_id
+                                   JOIN tasks t ON t.id = c.task_id
+                                   WHERE x.content_hash = ? AND %1$s)
+                """.formatted(TaskPermissions.VISIBLE_TASK);
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, sha256);
+            int index = TaskPermissions.bindVisible(stmt, 2, userId);
+            stmt.setString(index++, sha256);
+            TaskPermissions.bindVisible(stmt, index, userId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    private static String key(String userId, String sha256) {
+        return userId + ' ' + sha256;
+    }
+}
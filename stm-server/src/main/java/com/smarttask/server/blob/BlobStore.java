@@ -0,0 +1,357 @@
+package com.smarttask.server.blob;
+
+import com.smarttask.server.config.DatabaseConnection;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed file store for attachment bodies.
+ *
+ * A blob lives at objects/ab/abcdef... under the store root, named by the SHA-256
+ * of its content, so the same file uploaded twice is stored once. Bodies are
+ * streamed to a temporary file under uploads/ while being hashed, then moved into
+ * place; nothing is buffered in memory.
+ *
+ * Large files can be sent in chunks through a resumable upload: the part file
+ * keeps what was received, a client that lost the connection asks for the offset
+ * and continues from there, and completing the upload hashes the part and moves
+ * it into place like a one-shot upload.
+ *
+ * Attachments reference blobs through their content_hash column. A blob no row
+ * references any more is deleted when its last attachment goes, or by
+ * {@link #collectGarbage()} at startup for rows removed by cascades.
+ *
+ * Configuration (environment variables):
+ * - BLOB_STORE_DIR: store root (default data/blobs)
+ * - BLOB_MAX_MB: largest accepted blob (default 200)
+ * - BLOB_UPLOAD_TTL_HOURS: age after which an unfinished upload is dropped (default 24)
+ */
+public final class BlobStore {
+
+    static final Path ROOT = Paths.get(System.getenv().getOrDefault("BLOB_STORE_DIR", "data/blobs"));
+    private static final Path OBJECTS = ROOT.resolve("objects");
+    private static final Path UPLOADS = ROOT.resolve("uploads");
+    private static final long MAX_BYTES = Long.parseLong(System.getenv().getOrDefault("BLOB_MAX_MB", "200")) * 1024 * 1024;
+    private static final long UPLOAD_TTL_MS = Long.parseLong(System.getenv().getOrDefault("BLOB_UPLOAD_TTL_HOURS", "24")) * 3600_000;
+
+    // A blob written or re-uploaded this recently is never collected: its row may not be inserted yet
+    private static final long GRACE_MS = 3600_000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final Pattern SHA256 = Pattern.compile("[0-9a-f]{64}");
+
+    /** Hash and size of a stored blob. */
+    public record Stored(String sha256, long size) {}
+
+    /** The chunk does not start where the upload currently ends. */
+    public static class OffsetMismatchException extends IOException {
+        private final long offset;
+
+        public OffsetMismatchException(long offset) {
+            super("Upload is at offset " + offset);
+            this.offset = offset;
+        }
+
+        public long getOffset() { return offset; }
+    }
+
+    /** The body exceeds BLOB_MAX_MB. */
+    public static class TooLargeException extends IOException {
+        public TooLargeException() {
+            super("Blob exceeds " + MAX_BYTES + " bytes");
+        }
+    }
+
+    private BlobStore() {}
+
+    // --- ONE-SHOT UPLOAD ---
+
+    /**
+     * Streams the body to disk while hashing it and stores it under its hash.
+     */
+    public static Stored store(InputStream body) throws IOException {
+        Path tmp = newPartFile(UUID.randomUUID().toString());
+        try {
+            MessageDigest digest = sha256();
+            long size;
+            try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                size = copy(Channels.newChannel(body), out, 0, digest);
+            }
+            return commit(tmp, HexFormat.of().formatHex(digest.digest()), size);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    // --- RESUMABLE UPLOAD ---
+
+    /** Starts an empty upload and returns its id. */
+    public static String startUpload() throws IOException {
+        String uploadId = UUID.randomUUID().toString();
+        newPartFile(uploadId);
+        return uploadId;
+    }
+
+    /** Bytes received so far, or -1 if the upload does not exist. */
+    public static long uploadedBytes(String uploadId) throws IOException {
+        Path part = partFile(uploadId);
+        return part != null && Files.exists(part) ? Files.size(part) : -1;
+    }
+
+    /**
+     * Appends a chunk that must start at the current end of the upload.
+     * A chunk cut short by a dropped connection keeps what arrived; the client
+     * resumes from {@link #uploadedBytes(String)}.
+     * @return the new size of the upload
+     */
+    public static long appendChunk(String uploadId, long offset, InputStream body) throws IOException {
+        Path part = partFile(uploadId);
+        if (part == null || !Files.exists(part)) throw new NoSuchFileException(uploadId);
+
+        try (FileChannel out = FileChannel.open(part, StandardOpenOption.WRITE)) {
+            FileLock lock;
+            try {
+                lock = out.tryLock();
+            } catch (OverlappingFileLockException e) {
+                lock = null;
+            }
+            // Another chunk of the same upload is being written
+            if (lock == null) throw new OffsetMismatchException(out.size());
+            try {
+                if (out.size() != offset) throw new OffsetMismatchException(out.size());
+                return offset + copy(Channels.newChannel(body), out, offset, null);
+            } finally {
+                lock.release();
+            }
+        }
+    }
+
+    /**
+     * Hashes the received bytes and stores them as a blob.
+     * @param expectedSha256 hash computed by the client, checked when not null
+     */
+    public static Stored completeUpload(String uploadId, String expectedSha256) throws IOException {
+        Path part = partFile(uploadId);
+        if (part == null || !Files.exists(part)) throw new NoSuchFileException(uploadId);
+        try {
+            MessageDigest digest = sha256();
+            long size;
+            try (FileChannel in = FileChannel.open(part, StandardOpenOption.READ)) {
+                size = in.size();
+                ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+                while (in.read(buffer) != -1) {
+                    buffer.flip();
+                    digest.update(buffer);
+                    buffer.clear();
+                }
+            }
+            String sha = HexFormat.of().formatHex(digest.digest());
+            if (expectedSha256 != null && !expectedSha256.equalsIgnoreCase(sha)) {
+                throw new IllegalArgumentException("Content hash mismatch");
+            }
+            return commit(part, sha, size);
+        } finally {
+            Files.deleteIfExists(part);
+        }
+    }
+
+    public static void cancelUpload(String uploadId) throws IOException {
+        Path part = partFile(uploadId);
+        if (part != null) Files.deleteIfExists(part);
+    }
+
+    // --- READ ---
+
+    public static boolean exists(String sha256) {
+        Path path = objectPath(sha256);
+        return path != null && Files.exists(path);
+    }
+
+    /** Size of the blob, or -1 if it does not exist. */
+    public static long size(String sha256) throws IOException {
+        Path path = objectPath(sha256);
+        return path != null && Files.exists(path) ? Files.size(path) : -1;
+    }
+
+    /**
+     * Writes length bytes of the blob starting at start, letting the channel move
+     * the data (sendfile where the target allows it).
+     */
+    public static void transfer(String sha256, long start, long length, OutputStream target) throws IOException {
+        Path path = objectPath(sha256);
+        if (path == null) throw new NoSuchFileException(sha256);
+        try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(target);
+            long position = start;
+            long end = start + length;
+            while (position < end) {
+                long sent = in.transferTo(position, end - position, out);
+                if (sent <= 0) break;
+                position += sent;
+            }
+        }
+    }
+
+    // --- CLEANUP ---
+
+    /**
+     * Deletes the blob if no attachment references it any more.
+     */
+    public static void releaseIfUnreferenced(String sha256) {
+        Path path = objectPath(sha256);
+        if (path == null) return;
+        String sql = """
+                    SELECT EXISTS (SELECT 1 FROM attachments WHERE content_hash = ?)
+                        OR EXISTS (SELECT 1 FROM comment_attachments WHERE content_hash = ?)
+                """;
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, sha256);
+            stmt.setString(2, sha256);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next() && !rs.getBoolean(1)) deleteIfOld(path);
+            }
+        } catch (SQLException | IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Drops unfinished uploads older than BLOB_UPLOAD_TTL_HOURS and blobs no
+     * attachment references (rows removed with their task or comment).
+     */
+    public static void collectGarbage() {
+        try {
+            Files.createDirectories(UPLOADS);
+            Files.createDirectories(OBJECTS);
+            long cutoff = System.currentTimeMillis() - UPLOAD_TTL_MS;
+            int uploads = 0;
+            try (DirectoryStream<Path> parts = Files.newDirectoryStream(UPLOADS)) {
+                for (Path part : parts) {
+                    if (Files.getLastModifiedTime(part).toMillis() < cutoff && Files.deleteIfExists(part)) uploads++;
+                }
+            }
+
+            Set<String> referenced = referencedHashes();
+            int blobs = 0;
+            try (Stream<Path> files = Files.walk(OBJECTS, 2)) {
+                for (Path path : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                    if (!referenced.contains(path.getFileName().toString()) && deleteIfOld(path)) blobs++;
+                }
+            }
+            System.out.println("✅ Blob store: " + uploads + " stale upload(s), " + blobs + " orphan blob(s) removed");
+        } catch (IOException | SQLException e) {
+            System.err.println("⚠️ Blob store cleanup failed: " + e.getMessage());
+        }
+    }
+
+    // --- INTERNALS ---
+
+    private static Stored commit(Path tmp, String sha, long size) throws IOException {
+        Path target = objectPath(sha);
+        Files.createDirectories(target.getParent());
+        if (Files.exists(target)) {
+            // Same content already stored: keep it, and restart its grace period for the GC
+            Files.setLastModifiedTime(target, FileTime.fromMillis(System.currentTimeMillis()));
+        } else {
+            try {
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                // Stored meanwhile by a concurrent upload of the same content
+            }
+        }
+        return new Stored(sha, size);
+    }
+
+    private static long copy(ReadableByteChannel in, FileChannel out, long position, MessageDigest digest) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        long written = 0;
+        while (in.read(buffer) != -1) {
+            buffer.flip();
+            if (position + written + buffer.remaining() > MAX_BYTES) throw new TooLargeException();
+            if (digest != null) {
+                digest.update(buffer);
+                buffer.rewind();
+            }
+            while (buffer.hasRemaining()) {
+                written += out.write(buffer, position + written);
+            }
+            buffer.clear();
+        }
+        return written;
+    }
+
+    private static Path newPartFile(String uploadId) throws IOException {
+        Files.createDirectories(UPLOADS);
+        return Files.createFile(UPLOADS.resolve(uploadId + ".part"));
+    }
+
+    /** Part file of an upload, or null if the id is not a UUID (no path tricks). */
+    private static Path partFile(String uploadId) {
+        try {
+            return UPLOADS.resolve(UUID.fromString(uploadId) + ".part");
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    static Path objectPath(String sha256) {
+        if (sha256 == null || !SHA256.matcher(sha256).matches()) return null;
+        return OBJECTS.resolve(sha256.substring(0, 2)).resolve(sha256);
+    }
+
+    private static boolean deleteIfOld(Path path) throws IOException {
+        if (System.currentTimeMillis() - Files.getLastModifiedTime(path).toMillis() < GRACE_MS) return false;
+        if (!Files.deleteIfExists(path)) return false;
+        Thumbnails.discard(path.getFileName().toString());
+        return true;
+    }
+
+    private static Set<String> referencedHashes() throws SQLException {
+        Set<String> hashes = new HashSet<>();
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement()) {
+            for (String sql : List.of(
+                    "SELECT DISTINCT content_hash FROM attachments WHERE content_hash IS NOT NULL",
+                    "SELECT DISTINCT content_hash FROM comment_attachments WHERE content_hash IS NOT NULL")) {
+                try (ResultSet rs = stmt.executeQuery(sql)) {
+                    while (rs.next()) hashes.add(rs.getString(1));
+                }
+            }
+        }
+        return hashes;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
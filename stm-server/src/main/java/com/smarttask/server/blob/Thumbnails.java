@@ -0,0 +1,232 @@
+package com.smarttask.server.blob;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Downscaled previews of image blobs, rendered in the background and cached on disk.
+ *
+ * A thumbnail is keyed by the hash of its source, so it is rendered once per
+ * content whatever the number of attachments pointing at it, and never goes
+ * stale. Jobs run on a small fixed pool behind a bounded queue: an upload burst
+ * cannot take CPU from API threads, and a request for a thumbnail already being
+ * rendered joins the running job instead of starting another.
+ *
+ * Large sources are decoded with subsampling, so a 6000px photo never sits in
+ * memory at full size.
+ *
+ * Configuration (environment variables):
+ * - THUMBNAIL_SIZE: longest side of a thumbnail in pixels (default 256)
+ * - THUMBNAIL_WORKERS: rendering threads (default 2)
+ * - THUMBNAIL_QUEUE: jobs waiting beyond the busy workers (default 100)
+ */
+public final class Thumbnails {
+
+    private static final int MAX_SIZE = Integer.parseInt(System.getenv().getOrDefault("THUMBNAIL_SIZE", "256"));
+    private static final int WORKERS = Integer.parseInt(System.getenv().getOrDefault("THUMBNAIL_WORKERS", "2"));
+    private static final int QUEUE = Integer.parseInt(System.getenv().getOrDefault("THUMBNAIL_QUEUE", "100"));
+    private static final Path DIR = BlobStore.ROOT.resolve("thumbnails");
+
+    // Past this the decode costs too much CPU even subsampled (and is likely hostile)
+    private static final long MAX_SOURCE_PIXELS = 100_000_000L;
+    private static final float JPEG_QUALITY = 0.85f;
+
+    private static final Set<String> IMAGE_EXTENSIONS = Set.of("jpg", "jpeg", "png", "gif", "bmp", "tif", "tiff");
+
+    private static final ThreadPoolExecutor EXECUTOR = new ThreadPoolExecutor(
+            WORKERS, WORKERS, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(QUEUE), new ThreadFactory());
+
+    private static final ConcurrentHashMap<String, CompletableFuture<Path>> PENDING = new ConcurrentHashMap<>();
+    // Blobs that turned out not to be decodable images; not retried until restart
+    private static final Set<String> UNSUPPORTED = ConcurrentHashMap.newKeySet();
+
+    static {
+        // Rendering only, no display on the server
+        System.setProperty("java.awt.headless", "true");
+        EXECUTOR.allowCoreThreadTimeOut(true);
+    }
+
+    private Thumbnails() {}
+
+    /**
+     * Whether the file type (MIME type or, for older rows, a bare extension) is one we render.
+     */
+    public static boolean isImage(String fileType) {
+        if (fileType == null) return false;
+        String type = fileType.toLowerCase();
+        if (type.startsWith("image/")) return IMAGE_EXTENSIONS.contains(type.substring("image/".length()).replace("x-ms-", ""));
+        return IMAGE_EXTENSIONS.contains(type.startsWith(".") ? type.substring(1) : type);
+    }
+
+    /**
+     * Queues the thumbnail of a freshly uploaded blob so it is ready before the first listing.
+     */
+    public static void enqueue(String sha256, String fileType) {
+        if (isImage(fileType)) request(sha256);
+    }
+
+    /**
+     * The cached thumbnail, or the job rendering it.
+     * Completes with null when the blob is not a decodable image, and exceptionally
+     * with RejectedExecutionException when the queue is full (the caller retries later).
+     */
+    public static CompletableFuture<Path> request(String sha256) {
+        Path thumbnail = thumbnailPath(sha256);
+        if (thumbnail == null || !BlobStore.exists(sha256)) {
+            return CompletableFuture.failedFuture(new NoSuchFileException(String.valueOf(sha256)));
+        }
+        if (Files.exists(thumbnail)) return CompletableFuture.completedFuture(thumbnail);
+        if (UNSUPPORTED.contains(sha256)) return CompletableFuture.completedFuture(null);
+
+        CompletableFuture<Path> job = new CompletableFuture<>();
+        CompletableFuture<Path> running = PENDING.putIfAbsent(sha256, job);
+        if (running != null) return running;
+        try {
+            EXECUTOR.execute(() -> {
+                try {
+                    job.complete(render(sha256, thumbnail));
+                } catch (Throwable e) {
+                    job.completeExceptionally(e);
+                } finally {
+                    PENDING.remove(sha256, job);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            PENDING.remove(sha256, job);
+            job.completeExceptionally(e);
+        }
+        return job;
+    }
+
+    /** Removes the thumbnail of a deleted blob. */
+    static void discard(String sha256) {
+        Path thumbnail = thumbnailPath(sha256);
+        if (thumbnail == null) return;
+        try {
+            Files.deleteIfExists(thumbnail);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static Path render(String sha256, Path target) throws IOException {
+        // Rendered meanwhile by a job that finished just before this one was queued
+        if (Files.exists(target)) return target;
+
+        BufferedImage source = decode(BlobStore.objectPath(sha256));
+        if (source == null) {
+            UNSUPPORTED.add(sha256);
+            return null;
+        }
+
+        double scale = Math.min(1.0, (double) MAX_SIZE / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+
+        // JPEG has no alpha: transparent areas are flattened on white
+        BufferedImage thumbnail = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = thumbnail.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(source, 0, 0, width, height, Color.WHITE, null);
+        } finally {
+            g.dispose();
+        }
+
+        Files.createDirectories(target.getParent());
+        Path tmp = target.resolveSibling(UUID.randomUUID() + ".tmp");
+        try {
+            writeJpeg(thumbnail, tmp);
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        return target;
+    }
+
+    /**
+     * Decodes the image, skipping pixels so the result is about twice the thumbnail size.
+     * @return null if no reader understands the file or it is too large
+     */
+    private static BufferedImage decode(Path source) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(source.toFile())) {
+            if (in == null) return null;
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) return null;
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > MAX_SOURCE_PIXELS) return null;
+
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(1, Math.max(width, height) / (MAX_SIZE * 2));
+                if (step > 1) param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } catch (IOException | RuntimeException e) {
+                // Corrupt or unsupported variant (e.g. CMYK JPEG)
+                return null;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static void writeJpeg(BufferedImage image, Path target) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(target.toFile())) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private static Path thumbnailPath(String sha256) {
+        Path object = BlobStore.objectPath(sha256);
+        if (object == null) return null;
+        return DIR.resolve(sha256.substring(0, 2)).resolve(sha256 + "-" + MAX_SIZE + ".jpg");
+    }
+
+    private static class ThreadFactory implements java.util.concurrent.ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "thumbnail-" + count.incrementAndGet());
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.smarttask.server.cache;
+
+import com.smarttask.model.DashboardStats;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Per-user cache of computed dashboard stats.
+ *
+ * Entries are dropped by the task and time-tracking handlers whenever they write
+ * data of that user. The TTL only covers writes that bypass those handlers
+ * (e.g. cascades from project deletion) and the day rolling over.
+ *
+ * Configuration (environment variables):
+ * - DASHBOARD_CACHE_TTL_SECONDS: maximum age of an entry (default 300)
+ */
+public final class DashboardStatsCache {
+
+    private static final long TTL_MS = Long.parseLong(System.getenv().getOrDefault("DASHBOARD_CACHE_TTL_SECONDS", "300")) * 1000;
+
+    private static final Map<String, Entry> ENTRIES = new ConcurrentHashMap<>();
+    // Bumped on every invalidation so a load that raced with a write is not cached
+    private static final AtomicLong GENERATION = new AtomicLong();
+
+    private record Entry(DashboardStats stats, long createdAt) {
+        boolean isFresh() {
+            return System.currentTimeMillis() - createdAt < TTL_MS;
+        }
+    }
+
+    private DashboardStatsCache() {}
+
+    public static DashboardStats get(String userId, Function<String, DashboardStats> loader) {
+        Entry entry = ENTRIES.get(userId);
+        if (entry != null && entry.isFresh()) {
+            return entry.stats();
+        }
+        long generation = GENERATION.get();
+        DashboardStats stats = loader.apply(userId);
+        if (generation == GENERATION.get()) {
+            ENTRIES.put(userId, new Entry(stats, System.currentTimeMillis()));
+        }
+        return stats;
+    }
+
+    public static void invalidate(String userId) {
+        if (userId != null) {
+            GENERATION.incrementAndGet();
+            ENTRIES.remove(userId);
+        }
+    }
+
+    public static void invalidateAll() {
+        GENERATION.incrementAndGet();
+        ENTRIES.clear();
+    }
+}
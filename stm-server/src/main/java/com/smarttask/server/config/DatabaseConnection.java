@@ -1,5 +1,8 @@
 package com.smarttask.server.config;
 
+import com.smarttask.server.metrics.MeteredJdbc;
+import com.smarttask.server.metrics.Metrics;
+
 import java.io.InputStream;
 import java.sql.Connection;
 import java.sql.DriverManager;
@@ -55,7 +58,9 @@ public class DatabaseConnection {
      * @throws SQLException if a database access error occurs
      */
     public static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(url, username, password);
+        if (!Metrics.ENABLED) return DriverManager.getConnection(url, username, password);
+        // Timed per calling DAO method, see MeteredJdbc
+        return MeteredJdbc.connect(() -> DriverManager.getConnection(url, username, password));
     }
 
     public static DatabaseConnection getInstance() {
@@ -0,0 +1,180 @@
+package com.smarttask.server.dao;
+
+import com.smarttask.model.DashboardStats;
+import com.smarttask.server.config.DatabaseConnection;
+
+import java.sql.*;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Aggregate queries behind the dashboard.
+ * Everything is computed in SQL so the client never downloads the full task history.
+ */
+public class AnalyticsDAO {
+
+    private static final int CHART_DAYS = 5;
+    private static final int UPCOMING_LIMIT = 4;
+
+    public DashboardStats computeDashboard(String userId) {
+        LocalDate today = LocalDate.now();
+        LocalDate startOfThisWeek = today.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        LocalDate startOfLastWeek = startOfThisWeek.minusWeeks(1);
+
+        DashboardStats stats = new DashboardStats();
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setReadOnly(true);
+            loadTotals(conn, userId, today, startOfThisWeek, startOfLastWeek, stats);
+            stats.setCompletedPerDay(loadCompletedPerDay(conn, userId, today));
+            stats.setTasksPerProject(loadTasksPerProject(conn, userId));
+            loadUpcoming(conn, userId, stats);
+            stats.setHoursWorked(loadHoursWorked(conn, userId));
+        } catch (SQLException e) {
+            e.printStackTrace();
+            throw new RuntimeException("Error computing dashboard stats", e);
+        }
+        return stats;
+    }
+
+    /**
+     * Totals, overdue count and the completion rate of this week and last week, in one pass.
+     * A week is scored on the tasks due in it, as the dashboard always did.
+     */
+    private void loadTotals(Connection conn, String userId, LocalDate today, LocalDate startOfThisWeek,
+                            LocalDate startOfLastWeek, DashboardStats stats) throws SQLException {
+        String sql = """
+                    SELECT COUNT(*) AS total,
+                           COALESCE(SUM(status = 'COMPLETED'), 0) AS done,
+                           COALESCE(SUM(status <> 'COMPLETED' AND due_date < ?), 0) AS overdue,
+                           COALESCE(SUM(due_date >= ? AND due_date < ?), 0) AS this_week_total,
+                           COALESCE(SUM(due_date >= ? AND due_date < ? AND status = 'COMPLETED'), 0) AS this_week_done,
+                           COALESCE(SUM(due_date >= ? AND due_date < ?), 0) AS last_week_total,
+                           COALESCE(SUM(due_date >= ? AND due_date < ? AND status = 'COMPLETED'), 0) AS last_week_done
+                    FROM tasks
+                    WHERE user_id = ?
+                """;
+
+        Timestamp todayStart = startOf(today);
+        Timestamp tomorrowStart = startOf(today.plusDays(1));
+        Timestamp thisWeekStart = startOf(startOfThisWeek);
+        Timestamp lastWeekStart = startOf(startOfLastWeek);
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setTimestamp(1, todayStart);
+            stmt.setTimestamp(2, thisWeekStart);
+            stmt.setTimestamp(3, tomorrowStart);
+            stmt.setTimestamp(4, thisWeekStart);
+            stmt.setTimestamp(5, tomorrowStart);
+            stmt.setTimestamp(6, lastWeekStart);
+            stmt.setTimestamp(7, thisWeekStart);
+            stmt.setTimestamp(8, lastWeekStart);
+            stmt.setTimestamp(9, thisWeekStart);
+            stmt.setString(10, userId);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    stats.setTotalTasks(rs.getLong("total"));
+                    stats.setCompletedTasks(rs.getLong("done"));
+                    stats.setOverdueTasks(rs.getLong("overdue"));
+                    stats.setThisWeekScore(percent(rs.getLong("this_week_done"), rs.getLong("this_week_total")));
+                    stats.setLastWeekScore(percent(rs.getLong("last_week_done"), rs.getLong("last_week_total")));
+                }
+            }
+        }
+    }
+
+    private Map<String, Long> loadCompletedPerDay(Connection conn, String userId, LocalDate today) throws SQLException {
+        String sql = """
+                    SELECT DATE(due_date) AS day, COUNT(*) AS cnt
+                    FROM tasks
+                    WHERE user_id = ? AND status = 'COMPLETED' AND due_date >= ? AND due_date < ?
+                    GROUP BY DATE(due_date)
+                """;
+
+        LocalDate firstDay = today.minusDays(CHART_DAYS - 1);
+        Map<String, Long> perDay = new LinkedHashMap<>();
+        for (int i = 0; i < CHART_DAYS; i++) {
+            perDay.put(firstDay.plusDays(i).toString(), 0L);
+        }
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, userId);
+            stmt.setTimestamp(2, startOf(firstDay));
+            stmt.setTimestamp(3, startOf(today.plusDays(1)));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    perDay.put(rs.getDate("day").toLocalDate().toString(), rs.getLong("cnt"));
+                }
+            }
+        }
+        return perDay;
+    }
+
+    private Map<String, Long> loadTasksPerProject(Connection conn, String userId) throws SQLException {
+        String sql = """
+                    SELECT CASE WHEN t.project_id IS NULL THEN 'No Project'
+                                ELSE COALESCE(p.name, 'Unknown') END AS project_name,
+                           COUNT(*) AS cnt
+                    FROM tasks t
+                    LEFT JOIN projects p ON t.project_id = p.id
+                    WHERE t.user_id = ?
+                    GROUP BY project_name
+                    ORDER BY cnt DESC
+                """;
+
+        Map<String, Long> perProject = new LinkedHashMap<>();
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, userId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    perProject.put(rs.getString("project_name"), rs.getLong("cnt"));
+                }
+            }
+        }
+        return perProject;
+    }
+
+    private void loadUpcoming(Connection conn, String userId, DashboardStats stats) throws SQLException {
+        String sql = """
+                    SELECT t.*, u.username
+                    FROM tasks t
+                    LEFT JOIN users u ON t.user_id = u.id
+                    WHERE t.user_id = ? AND t.status <> 'COMPLETED' AND t.due_date IS NOT NULL
+                    ORDER BY t.due_date
+                    LIMIT ?
+                """;
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, userId);
+            stmt.setInt(2, UPCOMING_LIMIT);
+            try (ResultSet rs = stmt.executeQuery()) {
+                TaskRowMapper mapper = new TaskRowMapper();
+                while (rs.next()) {
+                    stats.getUpcomingTasks().add(mapper.map(rs));
+                }
+            }
+        }
+    }
+
+    private double loadHoursWorked(Connection conn, String userId) throws SQLException {
+        String sql = "SELECT COALESCE(SUM(total_ms), 0) AS total_ms FROM time_rollup_user_day WHERE user_id = ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, userId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getLong("total_ms") / 3600000.0 : 0.0;
+            }
+        }
+    }
+
+    private static Timestamp startOf(LocalDate day) {
+        return Timestamp.valueOf(day.atStartOfDay());
+    }
+
+    private static double percent(long part, long total) {
+        return total == 0 ? 0.0 : (part * 100.0) / total;
+    }
+}
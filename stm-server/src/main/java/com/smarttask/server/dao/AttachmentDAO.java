@@ -7,12 +7,13 @@ import com.smarttask.server.config.DatabaseConnection;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 public class AttachmentDAO {
 
     public String save(Attachment attachment) {
-        String sql = "INSERT INTO attachments (id, task_id, file_name, file_type, file_path, file_size, uploaded_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+        String sql = "INSERT INTO attachments (id, task_id, file_name, file_type, file_path, file_size, uploaded_at, content_hash) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
         String id = UUID.randomUUID().toString();
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
@@ -23,6 +24,7 @@ public class AttachmentDAO {
             pstmt.setString(5, attachment.getFilePath());
             pstmt.setLong(6, attachment.getFileSize());
             pstmt.setTimestamp(7, Timestamp.valueOf(attachment.getUploadedAt()));
+            pstmt.setString(8, attachment.getContentHash());
             
             pstmt.executeUpdate();
             attachment.setId(id);
@@ -33,6 +35,20 @@ public class AttachmentDAO {
         }
     }
 
+    public Optional<Attachment> findById(String id) {
+        String sql = "SELECT * FROM attachments WHERE id = ?";
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, id);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) return Optional.of(map(rs));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return Optional.empty();
+    }
+
     public List<Attachment> findByTask(String taskId) {
         String sql = "SELECT * FROM attachments WHERE task_id = ? ORDER BY uploaded_at DESC";
         List<Attachment> list = new ArrayList<>();
@@ -41,17 +57,7 @@ public class AttachmentDAO {
             pstmt.setString(1, taskId);
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    Attachment a = new Attachment();
-                    a.setId(rs.getString("id"));
-                    Task t = new Task(); t.setId(taskId);
-                    a.setTask(t);
-                    a.setFileName(rs.getString("file_name"));
-                    a.setFileType(rs.getString("file_type"));
-                    a.setFilePath(rs.getString("file_path"));
-                    a.setFileSize(rs.getLong("file_size"));
-                    Timestamp ts = rs.getTimestamp("uploaded_at");
-                    if (ts != null) a.setUploadedAt(ts.toLocalDateTime());
-                    list.add(a);
+                    list.add(map(rs));
                 }
             }
         } catch (SQLException e) {
@@ -71,4 +77,19 @@ public class AttachmentDAO {
             return false;
         }
     }
+
+    static Attachment map(ResultSet rs) throws SQLException {
+        Attachment a = new Attachment();
+        a.setId(rs.getString("id"));
+        Task t = new Task(); t.setId(rs.getString("task_id"));
+        a.setTask(t);
+        a.setFileName(rs.getString("file_name"));
+        a.setFileType(rs.getString("file_type"));
+        a.setFilePath(rs.getString("file_path"));
+        a.setFileSize(rs.getLong("file_size"));
+        Timestamp ts = rs.getTimestamp("uploaded_at");
+        if (ts != null) a.setUploadedAt(ts.toLocalDateTime());
+        a.setContentHash(rs.getString("content_hash"));
+        return a;
+    }
 }
@@ -2,6 +2,7 @@ package com.smarttask.server.dao;
 
 import com.smarttask.model.CalendarEvent;
 import com.smarttask.server.config.DatabaseConnection;
+import com.smarttask.server.search.SearchIndex;
 
 import java.sql.*;
 import java.time.LocalDate;
@@ -42,6 +43,7 @@ public class CalendarEventDAO {
             int rowsAffected = pstmt.executeUpdate();
 
             if (rowsAffected > 0) {
+                SearchIndex.indexEvent(event);
                 System.out.println("✅ Event created: " + event.getTitle() +
                         " (Visibility: " + event.getVisibility() +
                         ", Has Meeting: " + event.hasMeetingLink() + ")");
@@ -100,6 +102,7 @@ public class CalendarEventDAO {
             int rowsAffected = pstmt.executeUpdate();
 
             if (rowsAffected > 0) {
+                SearchIndex.indexEvent(event);
                 System.out.println("✅ Event updated: " + event.getTitle());
                 return true;
             }
@@ -123,6 +126,7 @@ public class CalendarEventDAO {
 
             pstmt.setString(1, eventId);
             int rowsAffected = pstmt.executeUpdate();
+            if (rowsAffected > 0) SearchIndex.removeEvent(eventId);
             return rowsAffected > 0;
 
         } catch (SQLException e) {
@@ -145,7 +149,7 @@ public class CalendarEventDAO {
             ResultSet rs = pstmt.executeQuery();
 
             if (rs.next()) {
-                return mapResultSetToEvent(rs);
+                return new CalendarEventRowMapper().map(rs);
             }
 
         } catch (SQLException e) {
@@ -166,8 +170,9 @@ public class CalendarEventDAO {
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
 
+            CalendarEventRowMapper mapper = new CalendarEventRowMapper();
             while (rs.next()) {
-                events.add(mapResultSetToEvent(rs));
+                events.add(mapper.map(rs));
             }
 
         } catch (SQLException e) {
@@ -199,8 +204,9 @@ public class CalendarEventDAO {
 
             ResultSet rs = pstmt.executeQuery();
 
+            CalendarEventRowMapper mapper = new CalendarEventRowMapper();
             while (rs.next()) {
-                CalendarEvent event = mapResultSetToEvent(rs);
+                CalendarEvent event = mapper.map(rs);
                 // Double-check if user is in shared list (SQL LIKE can have false positives)
                 if (event.getVisibility() == CalendarEvent.EventVisibility.SHARED) {
                     if (event.getCreatorUserId().equals(userId) ||
@@ -233,8 +239,9 @@ public class CalendarEventDAO {
             pstmt.setString(1, userId);
             ResultSet rs = pstmt.executeQuery();
 
+            CalendarEventRowMapper mapper = new CalendarEventRowMapper();
             while (rs.next()) {
-                events.add(mapResultSetToEvent(rs));
+                events.add(mapper.map(rs));
             }
 
         } catch (SQLException e) {
@@ -259,8 +266,9 @@ public class CalendarEventDAO {
             pstmt.setString(1, "%" + userId + "%");
             ResultSet rs = pstmt.executeQuery();
 
+            CalendarEventRowMapper mapper = new CalendarEventRowMapper();
             while (rs.next()) {
-                CalendarEvent event = mapResultSetToEvent(rs);
+                CalendarEvent event = mapper.map(rs);
                 // Verify user is actually in the list
                 if (event.getSharedWithUserIds().contains(userId)) {
                     events.add(event);
@@ -286,8 +294,9 @@ public class CalendarEventDAO {
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
 
+            CalendarEventRowMapper mapper = new CalendarEventRowMapper();
             while (rs.next()) {
-                events.add(mapResultSetToEvent(rs));
+                events.add(mapper.map(rs));
             }
 
         } catch (SQLException e) {
@@ -310,8 +319,9 @@ public class CalendarEventDAO {
             pstmt.setDate(1, Date.valueOf(date));
             ResultSet rs = pstmt.executeQuery();
 
+            CalendarEventRowMapper mapper = new CalendarEventRowMapper();
             while (rs.next()) {
-                events.add(mapResultSetToEvent(rs));
+                events.add(mapper.map(rs));
             }
 
         } catch (SQLException e) {
@@ -336,8 +346,9 @@ public class CalendarEventDAO {
             pstmt.setDate(2, Date.valueOf(endDate));
             ResultSet rs = pstmt.executeQuery();
 
+            CalendarEventRowMapper mapper = new CalendarEventRowMapper();
             while (rs.next()) {
-                events.add(mapResultSetToEvent(rs));
+                events.add(mapper.map(rs));
             }
 
         } catch (SQLException e) {
@@ -360,8 +371,9 @@ public class CalendarEventDAO {
             pstmt.setString(1, priority.name());
             ResultSet rs = pstmt.executeQuery();
 
+            CalendarEventRowMapper mapper = new CalendarEventRowMapper();
             while (rs.next()) {
-                events.add(mapResultSetToEvent(rs));
+                events.add(mapper.map(rs));
             }
 
         } catch (SQLException e) {
@@ -382,8 +394,9 @@ public class CalendarEventDAO {
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
 
+            CalendarEventRowMapper mapper = new CalendarEventRowMapper();
             while (rs.next()) {
-                events.add(mapResultSetToEvent(rs));
+                events.add(mapper.map(rs));
             }
 
         } catch (SQLException e) {
@@ -404,8 +417,9 @@ public class CalendarEventDAO {
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
 
+            CalendarEventRowMapper mapper = new CalendarEventRowMapper();
             while (rs.next()) {
-                events.add(mapResultSetToEvent(rs));
+                events.add(mapper.map(rs));
             }
 
         } catch (SQLException e) {
@@ -426,8 +440,9 @@ public class CalendarEventDAO {
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
 
+            CalendarEventRowMapper mapper = new CalendarEventRowMapper();
             while (rs.next()) {
-                events.add(mapResultSetToEvent(rs));
+                events.add(mapper.map(rs));
             }
 
         } catch (SQLException e) {
@@ -450,8 +465,9 @@ public class CalendarEventDAO {
             pstmt.setString(1, "%" + query + "%");
             ResultSet rs = pstmt.executeQuery();
 
+            CalendarEventRowMapper mapper = new CalendarEventRowMapper();
             while (rs.next()) {
-                events.add(mapResultSetToEvent(rs));
+                events.add(mapper.map(rs));
             }
 
         } catch (SQLException e) {
@@ -472,6 +488,7 @@ public class CalendarEventDAO {
 
             int rowsAffected = stmt.executeUpdate(sql);
             System.out.println("🗑️ Deleted " + rowsAffected + " completed events");
+            if (rowsAffected > 0) SearchIndex.reloadEvents();
             return true;
 
         } catch (SQLException e) {
@@ -491,6 +508,7 @@ public class CalendarEventDAO {
              Statement stmt = conn.createStatement()) {
 
             stmt.executeUpdate(sql);
+            SearchIndex.reloadEvents();
             return true;
 
         } catch (SQLException e) {
@@ -558,89 +576,6 @@ public class CalendarEventDAO {
         pstmt.setString(24, event.getLocation());
     }
 
-    /**
-     * Map ResultSet to CalendarEvent object
-     * UPDATED: Now includes new fields
-     */
-    private CalendarEvent mapResultSetToEvent(ResultSet rs) throws SQLException {
-        CalendarEvent event = new CalendarEvent();
-
-        event.setId(rs.getString("id"));
-        event.setTitle(rs.getString("title"));
-        event.setDescription(rs.getString("description"));
-
-        Date eventDate = rs.getDate("event_date");
-        if (eventDate != null) {
-            event.setDate(eventDate.toLocalDate());
-        }
-
-        Time startTime = rs.getTime("start_time");
-        if (startTime != null) {
-            event.setStartTime(startTime.toLocalTime());
-        }
-
-        Time endTime = rs.getTime("end_time");
-        if (endTime != null) {
-            event.setEndTime(endTime.toLocalTime());
-        }
-
-        String priority = rs.getString("priority");
-        if (priority != null) {
-            event.setPriority(CalendarEvent.Priority.valueOf(priority));
-        }
-
-        event.setCompleted(rs.getBoolean("completed"));
-
-        String eventType = rs.getString("event_type");
-        if (eventType != null) {
-            event.setEventType(CalendarEvent.EventType.valueOf(eventType));
-        }
-
-        String periodicType = rs.getString("periodic_type");
-        if (periodicType != null && !periodicType.isEmpty()) {
-            event.setPeriodicType(CalendarEvent.PeriodicType.valueOf(periodicType));
-        }
-
-        event.setDaysInWeek(rs.getString("days_in_week"));
-
-        String placeInMonth = rs.getString("place_in_month");
-        if (placeInMonth != null && !placeInMonth.isEmpty()) {
-            event.setPlaceInMonth(CalendarEvent.MonthPlace.valueOf(placeInMonth));
-        }
-
-        Date yearlyDate = rs.getDate("yearly_date");
-        if (yearlyDate != null) {
-            event.setYearlyDate(yearlyDate.toLocalDate());
-        }
-
-        Date createdAt = rs.getDate("created_at");
-        if (createdAt != null) {
-            event.setCreatedAt(createdAt.toLocalDate());
-        }
-
-        Date lastModified = rs.getDate("last_modified");
-        if (lastModified != null) {
-            event.setLastModified(lastModified.toLocalDate());
-        }
-
-        // NEW FIELDS:
-        String visibility = rs.getString("visibility");
-        if (visibility != null && !visibility.isEmpty()) {
-            event.setVisibility(CalendarEvent.EventVisibility.valueOf(visibility));
-        }
-
-        event.setSharedWithUserIds(stringToList(rs.getString("shared_with_user_ids")));
-        event.setSharedWithEmails(stringToList(rs.getString("shared_with_emails")));
-        event.setCreatorUserId(rs.getString("creator_user_id"));
-        event.setHasMeetingLink(rs.getBoolean("has_meeting_link"));
-        event.setMeetingLink(rs.getString("meeting_link"));
-        event.setMeetingPlatform(rs.getString("meeting_platform"));
-        event.setMeetingPassword(rs.getString("meeting_password"));
-        event.setLocation(rs.getString("location"));
-
-        return event;
-    }
-
     /**
      * Convert List<String> to comma-separated string for database storage
      */
@@ -654,7 +589,7 @@ public class CalendarEventDAO {
     /**
      * Convert comma-separated string to List<String>
      */
-    private List<String> stringToList(String str) {
+    static List<String> stringToList(String str) {
         if (str == null || str.isEmpty()) {
             return new ArrayList<>();
         }
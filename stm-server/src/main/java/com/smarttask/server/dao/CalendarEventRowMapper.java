@@ -0,0 +1,118 @@
+package com.smarttask.server.dao;
+
+import com.smarttask.model.CalendarEvent;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * Maps calendar_event rows (SELECT * FROM calendar_event).
+ *
+ * One instance per query. Column positions are resolved on the first row;
+ * creator and shared user ids that repeat across rows share one String instance.
+ * An enum value this version does not know leaves the model's default in place.
+ */
+final class CalendarEventRowMapper implements RowMapper<CalendarEvent> {
+
+    private static final EnumLookup<CalendarEvent.Priority> PRIORITIES = EnumLookup.of(CalendarEvent.Priority.class);
+    private static final EnumLookup<CalendarEvent.EventType> EVENT_TYPES = EnumLookup.of(CalendarEvent.EventType.class);
+    private static final EnumLookup<CalendarEvent.PeriodicType> PERIODIC_TYPES = EnumLookup.of(CalendarEvent.PeriodicType.class);
+    private static final EnumLookup<CalendarEvent.MonthPlace> MONTH_PLACES = EnumLookup.of(CalendarEvent.MonthPlace.class);
+    private static final EnumLookup<CalendarEvent.EventVisibility> VISIBILITIES = EnumLookup.of(CalendarEvent.EventVisibility.class);
+
+    private final StringDeduplicator strings = new StringDeduplicator();
+
+    private ResultSet bound;
+    private int id, title, description, eventDate, startTime, endTime, priority, completed,
+            eventType, periodicType, daysInWeek, placeInMonth, yearlyDate, createdAt, lastModified,
+            visibility, sharedWithUserIds, sharedWithEmails, creatorUserId,
+            hasMeetingLink, meetingLink, meetingPlatform, meetingPassword, location;
+
+    @Override
+    public CalendarEvent map(ResultSet rs) throws SQLException {
+        if (rs != bound) bind(rs);
+
+        CalendarEvent event = new CalendarEvent();
+        event.setId(rs.getString(id));
+        event.setTitle(Columns.string(rs, title));
+        event.setDescription(Columns.string(rs, description));
+
+        LocalDate date = Columns.date(rs, eventDate);
+        if (date != null) event.setDate(date);
+        LocalTime start = Columns.time(rs, startTime);
+        if (start != null) event.setStartTime(start);
+        LocalTime end = Columns.time(rs, endTime);
+        if (end != null) event.setEndTime(end);
+
+        CalendarEvent.Priority p = PRIORITIES.get(Columns.string(rs, priority), null);
+        if (p != null) event.setPriority(p);
+
+        event.setCompleted(Columns.bool(rs, completed));
+
+        CalendarEvent.EventType type = EVENT_TYPES.get(Columns.string(rs, eventType), null);
+        if (type != null) event.setEventType(type);
+        CalendarEvent.PeriodicType periodic = PERIODIC_TYPES.get(Columns.string(rs, periodicType), null);
+        if (periodic != null) event.setPeriodicType(periodic);
+
+        event.setDaysInWeek(strings.dedupe(Columns.string(rs, daysInWeek)));
+
+        CalendarEvent.MonthPlace place = MONTH_PLACES.get(Columns.string(rs, placeInMonth), null);
+        if (place != null) event.setPlaceInMonth(place);
+
+        LocalDate yearly = Columns.date(rs, yearlyDate);
+        if (yearly != null) event.setYearlyDate(yearly);
+        LocalDate created = Columns.date(rs, createdAt);
+        if (created != null) event.setCreatedAt(created);
+        LocalDate modified = Columns.date(rs, lastModified);
+        if (modified != null) event.setLastModified(modified);
+
+        CalendarEvent.EventVisibility v = VISIBILITIES.get(Columns.string(rs, visibility), null);
+        if (v != null) event.setVisibility(v);
+
+        List<String> userIds = CalendarEventDAO.stringToList(Columns.string(rs, sharedWithUserIds));
+        userIds.replaceAll(strings::dedupe);
+        event.setSharedWithUserIds(userIds);
+        event.setSharedWithEmails(CalendarEventDAO.stringToList(Columns.string(rs, sharedWithEmails)));
+        event.setCreatorUserId(strings.dedupe(Columns.string(rs, creatorUserId)));
+        event.setHasMeetingLink(Columns.bool(rs, hasMeetingLink));
+        event.setMeetingLink(Columns.string(rs, meetingLink));
+        event.setMeetingPlatform(strings.dedupe(Columns.string(rs, meetingPlatform)));
+        event.setMeetingPassword(Columns.string(rs, meetingPassword));
+        event.setLocation(Columns.string(rs, location));
+
+        return event;
+    }
+
+    private void bind(ResultSet rs) throws SQLException {
+        Columns columns = new Columns(rs);
+        id = columns.of("id");
+        if (id == 0) throw new SQLException("Calendar event query does not select the id column");
+        title = columns.of("title");
+        description = columns.of("description");
+        eventDate = columns.of("event_date");
+        startTime = columns.of("start_time");
+        endTime = columns.of("end_time");
+        priority = columns.of("priority");
+        completed = columns.of("completed");
+        eventType = columns.of("event_type");
+        periodicType = columns.of("periodic_type");
+        daysInWeek = columns.of("days_in_week");
+        placeInMonth = columns.of("place_in_month");
+        yearlyDate = columns.of("yearly_date");
+        createdAt = columns.of("created_at");
+        lastModified = columns.of("last_modified");
+        visibility = columns.of("visibility");
+        sharedWithUserIds = columns.of("shared_with_user_ids");
+        sharedWithEmails = columns.of("shared_with_emails");
+        creatorUserId = columns.of("creator_user_id");
+        hasMeetingLink = columns.of("has_meeting_link");
+        meetingLink = columns.of("meeting_link");
+        meetingPlatform = columns.of("meeting_platform");
+        meetingPassword = columns.of("meeting_password");
+        location = columns.of("location");
+        bound = rs;
+    }
+}
@@ -0,0 +1,66 @@
+package com.smarttask.server.dao;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Positions of the columns of a result set, read once from its metadata.
+ *
+ * getString("name") makes the driver look the label up on every call, for every
+ * row; a mapper resolves its columns here when it sees the first row and reads
+ * by position afterwards. A column the query does not select has position 0,
+ * and the readers below return null for it, so optional columns need no
+ * try/catch around each read.
+ */
+final class Columns {
+
+    private final Map<String, Integer> positions = new HashMap<>();
+
+    Columns(ResultSet rs) throws SQLException {
+        ResultSetMetaData meta = rs.getMetaData();
+        for (int i = meta.getColumnCount(); i >= 1; i--) {
+            // Iterated backwards so the first of two identical labels wins, as with findColumn
+            positions.put(meta.getColumnLabel(i).toLowerCase(), i);
+        }
+    }
+
+    /** Position of the column, or 0 when the query does not select it. */
+    int of(String label) {
+        return positions.getOrDefault(label.toLowerCase(), 0);
+    }
+
+    static String string(ResultSet rs, int column) throws SQLException {
+        return column == 0 ? null : rs.getString(column);
+    }
+
+    static boolean bool(ResultSet rs, int column) throws SQLException {
+        return column != 0 && rs.getBoolean(column);
+    }
+
+    static LocalDateTime dateTime(ResultSet rs, int column) throws SQLException {
+        if (column == 0) return null;
+        Timestamp ts = rs.getTimestamp(column);
+        return ts == null ? null : ts.toLocalDateTime();
+    }
+
+    static LocalDate date(ResultSet rs, int column) throws SQLException {
+        if (column == 0) return null;
+        Date date = rs.getDate(column);
+        return date == null ? null : date.toLocalDate();
+    }
+
+    static LocalTime time(ResultSet rs, int column) throws SQLException {
+        if (column == 0) return null;
+        Time time = rs.getTime(column);
+        return time == null ? null : time.toLocalTime();
+    }
+}
@@ -5,13 +5,17 @@ import com.smarttask.server.config.DatabaseConnection;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public class CommentAttachmentDAO {
 
     public String save(CommentAttachment attachment) {
-        String sql = "INSERT INTO comment_attachments (id, comment_id, file_name, file_type, file_size, file_path, uploaded_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+        String sql = "INSERT INTO comment_attachments (id, comment_id, file_name, file_type, file_size, file_path, uploaded_at, content_hash) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
         try (Connection conn = DatabaseConnection.getConnection(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, attachment.getId());
             pstmt.setString(2, attachment.getCommentId());
@@ -20,6 +24,7 @@ public class CommentAttachmentDAO {
             pstmt.setLong(5, attachment.getFileSize() != null ? attachment.getFileSize() : 0);
             pstmt.setString(6, attachment.getFilePath());
             pstmt.setTimestamp(7, new Timestamp(attachment.getUploadedAt().getTime()));
+            pstmt.setString(8, attachment.getContentHash());
             int rows = pstmt.executeUpdate();
             if (rows == 0) throw new SQLException("Failed to insert attachment");
             return attachment.getId();
@@ -56,6 +61,30 @@ public class CommentAttachmentDAO {
         return list;
     }
 
+    /**
+     * Attachments of several comments in one IN query, grouped by comment id.
+     * Comments without attachments are absent from the map.
+     */
+    public Map<String, List<CommentAttachment>> findByCommentIds(Collection<String> commentIds) {
+        if (commentIds.isEmpty()) return Collections.emptyMap();
+        String placeholders = String.join(", ", Collections.nCopies(commentIds.size(), "?"));
+        String sql = "SELECT * FROM comment_attachments WHERE comment_id IN (" + placeholders + ") ORDER BY uploaded_at";
+        Map<String, List<CommentAttachment>> byComment = new HashMap<>();
+        try (Connection conn = DatabaseConnection.getConnection(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            int i = 1;
+            for (String commentId : commentIds) pstmt.setString(i++, commentId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    CommentAttachment attachment = map(rs);
+                    byComment.computeIfAbsent(attachment.getCommentId(), k -> new ArrayList<>()).add(attachment);
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return byComment;
+    }
+
     public boolean deleteById(String id) {
         String sql = "DELETE FROM comment_attachments WHERE id = ?";
         try (Connection conn = DatabaseConnection.getConnection(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
@@ -89,6 +118,7 @@ public class CommentAttachmentDAO {
         attachment.setFileSize(rs.getLong("file_size"));
         attachment.setFilePath(rs.getString("file_path"));
         attachment.setUploadedAt(new java.util.Date(rs.getTimestamp("uploaded_at").getTime()));
+        attachment.setContentHash(rs.getString("content_hash"));
         return attachment;
     }
 }
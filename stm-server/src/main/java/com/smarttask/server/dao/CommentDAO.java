@@ -4,6 +4,7 @@ import com.smarttask.model.Comment;
 import com.smarttask.model.Task;
 import com.smarttask.model.User;
 import com.smarttask.server.config.DatabaseConnection;
+import com.smarttask.server.search.SearchIndex;
 
 import java.sql.*;
 import java.util.ArrayList;
@@ -25,6 +26,7 @@ public class CommentDAO {
             int rows = pstmt.executeUpdate();
             if (rows == 0) throw new SQLException("Failed to insert comment");
             comment.setId(id);
+            SearchIndex.indexComment(comment);
             return id;
         } catch (SQLException e) {
             e.printStackTrace();
@@ -59,6 +61,50 @@ public class CommentDAO {
         return list;
     }
 
+    /** A comment of a thread with its position, the cursor of the paginated endpoint. */
+    public record ThreadEntry(long seq, Comment comment) {}
+
+    /**
+     * Returns one page of a task's thread, newest first, strictly older than the
+     * beforeSeq cursor. Pass a null cursor for the first page.
+     * seq follows insertion order (V5), unlike created_at which is to the second;
+     * served by idx_task_seq, so the cost depends on the page size only.
+     */
+    public List<ThreadEntry> findPageByTaskId(String taskId, Long beforeSeq, int limit) {
+        String sql = "SELECT c.*, u.username, u.email FROM comments c INNER JOIN users u ON c.user_id = u.id " +
+                "WHERE c.task_id = ? " +
+                (beforeSeq != null ? "AND c.seq < ? " : "") +
+                "ORDER BY c.seq DESC LIMIT ?";
+        return findThread(sql, taskId, beforeSeq, limit);
+    }
+
+    /**
+     * Returns the comments posted after the afterSeq cursor, oldest first, so a
+     * client can append them to the thread it already shows.
+     */
+    public List<ThreadEntry> findNewerByTaskId(String taskId, long afterSeq, int limit) {
+        String sql = "SELECT c.*, u.username, u.email FROM comments c INNER JOIN users u ON c.user_id = u.id " +
+                "WHERE c.task_id = ? AND c.seq > ? " +
+                "ORDER BY c.seq ASC LIMIT ?";
+        return findThread(sql, taskId, afterSeq, limit);
+    }
+
+    private List<ThreadEntry> findThread(String sql, String taskId, Long cursorSeq, int limit) {
+        List<ThreadEntry> list = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getConnection(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            int i = 1;
+            pstmt.setString(i++, taskId);
+            if (cursorSeq != null) pstmt.setLong(i++, cursorSeq);
+            pstmt.setInt(i, limit);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) list.add(new ThreadEntry(rs.getLong("seq"), map(rs)));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return list;
+    }
+
     public void update(Comment comment) {
         String sql = "UPDATE comments SET content = ?, updated_at = ? WHERE id = ?";
         try (Connection conn = DatabaseConnection.getConnection(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
@@ -66,6 +112,7 @@ public class CommentDAO {
             pstmt.setTimestamp(2, new Timestamp(new java.util.Date().getTime()));
             pstmt.setString(3, comment.getId());
             pstmt.executeUpdate();
+            SearchIndex.indexComment(comment);
         } catch (SQLException e) {
             e.printStackTrace();
             throw new RuntimeException(e);
@@ -77,6 +124,7 @@ public class CommentDAO {
         try (Connection conn = DatabaseConnection.getConnection(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, id);
             int affected = pstmt.executeUpdate();
+            if (affected > 0) SearchIndex.removeComment(id);
             return affected > 0;
         } catch (SQLException e) {
             e.printStackTrace();
@@ -84,7 +132,7 @@ public class CommentDAO {
         }
     }
 
-    private Comment map(ResultSet rs) throws SQLException {
+    static Comment map(ResultSet rs) throws SQLException {
         Comment c = new Comment();
         c.setId(rs.getString("id"));
         c.setContent(rs.getString("content"));
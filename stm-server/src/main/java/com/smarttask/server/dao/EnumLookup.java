@@ -0,0 +1,30 @@
+package com.smarttask.server.dao;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Name → constant table for an enum stored as text, built once per enum.
+ *
+ * Unlike valueOf, an unknown or empty value gives the fallback instead of an
+ * exception, so a row written by another version of the schema costs no stack trace.
+ */
+final class EnumLookup<E extends Enum<E>> {
+
+    private final Map<String, E> byName = new HashMap<>();
+
+    private EnumLookup(Class<E> type) {
+        for (E constant : type.getEnumConstants()) {
+            byName.put(constant.name(), constant);
+        }
+    }
+
+    static <E extends Enum<E>> EnumLookup<E> of(Class<E> type) {
+        return new EnumLookup<>(type);
+    }
+
+    E get(String name, E fallback) {
+        if (name == null) return fallback;
+        return byName.getOrDefault(name, fallback);
+    }
+}
@@ -60,6 +60,35 @@ public class NotificationDAO {
         return list;
     }
 
+    /**
+     * Returns one page of a user's notifications, newest first, strictly older than
+     * the (beforeCreatedAt, beforeId) cursor. Pass a null cursor for the first page.
+     * Served by idx_user_created, so the cost depends on the page size only.
+     */
+    public List<Notification> findPageByUserId(String userId, Timestamp beforeCreatedAt, String beforeId, int limit) {
+        String sql = "SELECT n.*, u.id as user_id, u.username, u.email FROM notifications n INNER JOIN users u ON n.user_id = u.id " +
+                "WHERE n.user_id = ? " +
+                (beforeCreatedAt != null ? "AND (n.created_at < ? OR (n.created_at = ? AND n.id < ?)) " : "") +
+                "ORDER BY n.created_at DESC, n.id DESC LIMIT ?";
+        List<Notification> list = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getConnection(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            int i = 1;
+            pstmt.setString(i++, userId);
+            if (beforeCreatedAt != null) {
+                pstmt.setTimestamp(i++, beforeCreatedAt);
+                pstmt.setTimestamp(i++, beforeCreatedAt);
+                pstmt.setString(i++, beforeId != null ? beforeId : "");
+            }
+            pstmt.setInt(i, limit);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) list.add(map(rs));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return list;
+    }
+
     public List<Notification> findUnreadByUserId(String userId) {
         String sql = "SELECT n.*, u.id as user_id, u.username, u.email FROM notifications n INNER JOIN users u ON n.user_id = u.id WHERE n.user_id = ? AND n.is_read = FALSE ORDER BY n.created_at DESC";
         List<Notification> list = new ArrayList<>();
@@ -108,6 +137,60 @@ public class NotificationDAO {
         }
     }
 
+    /**
+     * Moves one batch of read notifications created before {@code cutoff} into
+     * notifications_archive. The copy and the delete run in a single transaction
+     * so a batch is either fully archived or left untouched.
+     *
+     * @return the number of notifications archived (0 when nothing is left)
+     */
+    public int archiveReadBefore(Timestamp cutoff, int batchSize) {
+        String selectSql = "SELECT id FROM notifications WHERE is_read = TRUE AND created_at < ? ORDER BY created_at LIMIT ?";
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                List<String> ids = new ArrayList<>();
+                try (PreparedStatement pstmt = conn.prepareStatement(selectSql)) {
+                    pstmt.setTimestamp(1, cutoff);
+                    pstmt.setInt(2, batchSize);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) ids.add(rs.getString("id"));
+                    }
+                }
+
+                if (ids.isEmpty()) {
+                    conn.commit();
+                    return 0;
+                }
+
+                String placeholders = String.join(",", java.util.Collections.nCopies(ids.size(), "?"));
+                String copySql = "INSERT IGNORE INTO notifications_archive (id, user_id, type, title, message, created_at, archived_at) " +
+                        "SELECT id, user_id, type, title, message, created_at, ? FROM notifications WHERE id IN (" + placeholders + ")";
+                String deleteSql = "DELETE FROM notifications WHERE id IN (" + placeholders + ")";
+
+                try (PreparedStatement copy = conn.prepareStatement(copySql);
+                     PreparedStatement delete = conn.prepareStatement(deleteSql)) {
+                    copy.setTimestamp(1, new Timestamp(System.currentTimeMillis()));
+                    for (int i = 0; i < ids.size(); i++) {
+                        copy.setString(i + 2, ids.get(i));
+                        delete.setString(i + 1, ids.get(i));
+                    }
+                    copy.executeUpdate();
+                    int deleted = delete.executeUpdate();
+                    conn.commit();
+                    return deleted;
+                }
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            throw new RuntimeException("Error archiving notifications", e);
+        }
+    }
+
     public void createAndSend(String userId, String type, String title, String message) {
         Notification notif = new Notification();
         User recipient = new User();
@@ -1,6 +1,7 @@
 package com.smarttask.server.dao;
 
 import com.smarttask.model.Project;
+import com.smarttask.server.auth.TaskPermissions;
 import com.smarttask.server.config.DatabaseConnection;
 
 import java.sql.*;
@@ -16,6 +17,7 @@ public class ProjectDAO {
         String id = java.util.UUID.randomUUID().toString();
 
         try (Connection conn = DatabaseConnection.getConnection(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            conn.setAutoCommit(false);
             pstmt.setString(1, id);
             pstmt.setString(2, project.getName());
             pstmt.setString(3, project.getDescription());
@@ -27,6 +29,8 @@ public class ProjectDAO {
 
             int rows = pstmt.executeUpdate();
             if (rows == 0) throw new SQLException("Creating project failed");
+            UserAccessDAO.grantProject(conn, project.getUserId(), id);
+            conn.commit();
             project.setId(id);
             return id;
         } catch (SQLException e) {
@@ -49,10 +53,10 @@ public class ProjectDAO {
     }
 
     public List<Project> findByUserId(String userId) {
-        String sql = "SELECT DISTINCT p.* FROM projects p " +
-                    "LEFT JOIN team_projects tp ON p.id = tp.project_id " +
-                    "LEFT JOIN team_members tm ON tp.team_id = tm.team_id " +
-                    "WHERE p.user_id = ? OR tm.user_id = ? " +
+        // Owned or reached through a team: see UserAccessDAO
+        String sql = "SELECT p.* FROM project_access a " +
+                    "INNER JOIN projects p ON p.id = a.project_id " +
+                    "WHERE a.user_id = ? " +
                     "ORDER BY p.created_at DESC";
         
         List<Project> list = new ArrayList<>();
@@ -60,7 +64,6 @@ public class ProjectDAO {
             PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
             pstmt.setString(1, userId);
-            pstmt.setString(2, userId);
             
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
@@ -132,6 +135,8 @@ public class ProjectDAO {
         try (Connection conn = DatabaseConnection.getConnection(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, id);
             int affected = pstmt.executeUpdate();
+            // Owner and team access to every task of the project are gone
+            if (affected > 0) TaskPermissions.invalidateAll();
             return affected > 0;
         } catch (SQLException e) {
             e.printStackTrace();
@@ -144,14 +149,17 @@ public class ProjectDAO {
         try (Connection conn = DatabaseConnection.getConnection(); 
             PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
+            conn.setAutoCommit(false);
             pstmt.setString(1, projectId);
             pstmt.setString(2, teamId);
             int affected = pstmt.executeUpdate();
+            List<String> memberIds = UserAccessDAO.memberIds(conn, teamId);
+            if (affected > 0) UserAccessDAO.refresh(conn, memberIds);
+            conn.commit();
+            if (affected > 0) TaskPermissions.invalidateUsers(memberIds);
 
             if (affected > 0) {
-                TeamDAO teamDAO = new TeamDAO();
                 String projectName = getProjectNameById(projectId);
-                List<String> memberIds = teamDAO.getTeamMemberIds(teamId);
                 
                 NotificationDAO notifDAO = new NotificationDAO();
                 for (String memberId : memberIds) {
@@ -190,9 +198,16 @@ public class ProjectDAO {
         String sql = "DELETE FROM team_projects WHERE project_id = ? AND team_id = ?";
         try (Connection conn = DatabaseConnection.getConnection(); 
             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            conn.setAutoCommit(false);
             pstmt.setString(1, projectId);
             pstmt.setString(2, teamId);
-            pstmt.executeUpdate();
+            List<String> memberIds = List.of();
+            if (pstmt.executeUpdate() > 0) {
+                memberIds = UserAccessDAO.memberIds(conn, teamId);
+                UserAccessDAO.refresh(conn, memberIds);
+            }
+            conn.commit();
+            TaskPermissions.invalidateUsers(memberIds);
         } catch (SQLException e) {
             e.printStackTrace();
             throw new RuntimeException("Error removing team from project", e);
@@ -0,0 +1,15 @@
+package com.smarttask.server.dao;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps the current row of a ResultSet.
+ *
+ * Mappers that bind column positions ({@link TaskRowMapper}, {@link CalendarEventRowMapper})
+ * are created once per query, before the loop over the rows.
+ */
+@FunctionalInterface
+interface RowMapper<T> {
+    T map(ResultSet rs) throws SQLException;
+}
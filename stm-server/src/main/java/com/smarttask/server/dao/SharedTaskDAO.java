@@ -3,7 +3,9 @@ package com.smarttask.server.dao;
 import com.smarttask.model.SharedTask;
 import com.smarttask.model.Task;
 import com.smarttask.model.User;
+import com.smarttask.server.auth.TaskPermissions;
 import com.smarttask.server.config.DatabaseConnection;
+import com.smarttask.server.search.SearchIndex;
 
 import java.sql.*;
 import java.util.ArrayList;
@@ -19,6 +21,8 @@ public class SharedTaskDAO {
             pstmt.setString(3, shared.getPermissionLevel().name());
             pstmt.setTimestamp(4, new Timestamp(shared.getSharedAt().getTime()));
             pstmt.executeUpdate();
+            SearchIndex.shareTask(shared.getTask().getId(), shared.getUser().getId());
+            TaskPermissions.invalidate(shared.getTask().getId(), shared.getUser().getId());
         } catch (SQLException e) {
             e.printStackTrace();
             throw new RuntimeException(e);
@@ -59,6 +63,10 @@ public class SharedTaskDAO {
             pstmt.setString(1, taskId);
             pstmt.setString(2, userId);
             int affected = pstmt.executeUpdate();
+            if (affected > 0) {
+                SearchIndex.unshareTask(taskId, userId);
+                TaskPermissions.invalidate(taskId, userId);
+            }
             return affected > 0;
         } catch (SQLException e) {
             e.printStackTrace();
@@ -73,13 +81,14 @@ public class SharedTaskDAO {
             pstmt.setString(2, taskId);
             pstmt.setString(3, userId);
             pstmt.executeUpdate();
+            TaskPermissions.invalidate(taskId, userId);
         } catch (SQLException e) {
             e.printStackTrace();
             throw new RuntimeException(e);
         }
     }
 
-    private SharedTask map(ResultSet rs) throws SQLException {
+    static SharedTask map(ResultSet rs) throws SQLException {
         SharedTask st = new SharedTask();
         
         Task task = new Task();
@@ -0,0 +1,28 @@
+package com.smarttask.server.dao;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Shares one String instance per distinct value within a query.
+ *
+ * The driver builds a new String for every cell: a listing of 10 000 tasks
+ * carries 10 000 copies of a handful of user and project ids. Values that repeat
+ * go through here, and the mapped objects point to the same instance. Scoped to
+ * one mapper (one query), so nothing outlives the result; past MAX_ENTRIES
+ * distinct values the column is evidently not repetitive and values pass through.
+ */
+final class StringDeduplicator {
+
+    private static final int MAX_ENTRIES = 4096;
+
+    private final Map<String, String> seen = new HashMap<>();
+
+    String dedupe(String value) {
+        if (value == null) return null;
+        String previous = seen.get(value);
+        if (previous != null) return previous;
+        if (seen.size() < MAX_ENTRIES) seen.put(value, value);
+        return value;
+    }
+}
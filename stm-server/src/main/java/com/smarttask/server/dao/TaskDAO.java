@@ -1,10 +1,11 @@
 package com.smarttask.server.dao;
 
-import com.smarttask.model.Priority;
-import com.smarttask.model.Status;
 import com.smarttask.model.Task;
+import com.smarttask.model.TaskTreeNode;
 import com.smarttask.model.User;
+import com.smarttask.server.auth.TaskPermissions;
 import com.smarttask.server.config.DatabaseConnection;
+import com.smarttask.server.search.SearchIndex;
 
 import java.sql.*;
 import java.time.LocalDateTime;
@@ -18,17 +19,24 @@ import java.util.UUID;
  *
  * Database schema:
  * - id, title, description, priority, status, due_date,
- * - created_at, updated_at, completed_at, user_id, project_id, recurrence_type
+ * - created_at, updated_at, completed_at, user_id, project_id, parent_task_id, recurrence_type
  */
 public class TaskDAO {
 
+    // Garde-fou contre un cycle parent_task_id dans les données
+    private static final int MAX_TREE_DEPTH = 32;
+
+    // Tags of each row in the same query: LEFT JOIN task_tags tt + GROUP BY t.id
+    private static final String TAG_NAMES =
+            "GROUP_CONCAT(tt.tag_name ORDER BY tt.tag_name SEPARATOR '\\n') AS tag_names";
+
     /**
      * Saves a new task to the database.
      */
     public void save(Task task) throws SQLException {
         String sql = "INSERT INTO tasks (id, title, description, priority, status, due_date, " +
-                "user_id, project_id, created_at, recurrence_type) " +
-                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+                "user_id, project_id, created_at, recurrence_type, parent_task_id) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
 
         if (task.getId() == null) task.setId(UUID.randomUUID().toString());
 
@@ -51,9 +59,11 @@ public class TaskDAO {
             stmt.setString(8, task.getProjectId());
             stmt.setTimestamp(9, Timestamp.valueOf(LocalDateTime.now()));
             stmt.setString(10, task.getRecurrenceType() != null ? task.getRecurrenceType() : "NONE");
+            stmt.setString(11, task.getParentTask() != null ? task.getParentTask().getId() : null);
 
             stmt.executeUpdate();
         }
+        SearchIndex.indexTask(task);
     }
 
     /**
@@ -69,7 +79,7 @@ public class TaskDAO {
 
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    return Optional.of(mapResultSetToTask(rs));
+                    return Optional.of(new TaskRowMapper().map(rs));
                 }
             }
         } catch (SQLException e) {
@@ -92,37 +102,46 @@ public class TaskDAO {
      * Retrieves all tasks for a user by user ID.
      */
     public List<Task> findByUserId(String userId) {
-        // ⚡ OPTIMISÉ: Utilise l'index idx_user_created (user_id, created_at)
-        // Pas de SELECT * - uniquement les colonnes nécessaires
+        return findByUserId(userId, userId);
+    }
+
+    /**
+     * Tasks of a user that the viewer may read (all of them when the viewer is the user).
+     */
+    public List<Task> findByUserId(String userId, String viewerId) {
+        boolean filtered = !userId.equals(viewerId);
+        // ⚡ OPTIMISÉ: Utilise l'index idx_user_id (user_id)
+        // Pas de SELECT * - uniquement les colonnes lues par TaskRowMapper
         String sql = "SELECT t.id, t.title, t.description, t.priority, t.status, t.due_date, " +
                      "t.created_at, t.user_id, t.project_id, t.parent_task_id, " +
-                     "t.recurrence_type, t.recurrence_interval, u.username, u.email " +
+                     "t.recurrence_type, u.username, u.email, " + TAG_NAMES + " " +
                      "FROM tasks t " +
                      "FORCE INDEX (idx_user_id) " +  // Force utilisation index
                      "LEFT JOIN users u ON t.user_id = u.id " +
+                     "LEFT JOIN task_tags tt ON tt.task_id = t.id " +
                      "WHERE t.user_id = ? " +
-                     "ORDER BY t.created_at DESC " +
-                     "LIMIT 1000";  // Limite de sécurité
+                     (filtered ? "AND " + TaskPermissions.VISIBLE_TASK : "") +
+                     "GROUP BY t.id " +
+                     "ORDER BY t.created_at DESC";
 
         List<Task> tasks = new ArrayList<>();
-        long startTime = System.currentTimeMillis();
 
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
             pstmt.setString(1, userId);
+            if (filtered) TaskPermissions.bindVisible(pstmt, 2, viewerId);
             pstmt.setFetchSize(100);  // ⚡ Fetch par batch de 100
 
             try (ResultSet rs = pstmt.executeQuery()) {
+                TaskRowMapper mapper = new TaskRowMapper();
                 while (rs.next()) {
                     try {
-                        tasks.add(mapResultSetToTask(rs));
+                        tasks.add(mapper.map(rs));
                     } catch (Exception e) {
                         System.err.println("❌ Failed to map task: " + e.getMessage());
                     }
                 }
-                long duration = System.currentTimeMillis() - startTime;
-                System.out.println("⚡ Tasks loaded in " + duration + "ms for user " + userId + ": " + tasks.size());
             }
         } catch (SQLException e) {
             System.err.println("❌ SQL Error in findByUserId: " + e.getMessage());
@@ -143,8 +162,35 @@ public class TaskDAO {
              PreparedStatement stmt = conn.prepareStatement(sql);
              ResultSet rs = stmt.executeQuery()) {
 
+            TaskRowMapper mapper = new TaskRowMapper();
             while (rs.next()) {
-                tasks.add(mapResultSetToTask(rs));
+                tasks.add(mapper.map(rs));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return tasks;
+    }
+
+    /**
+     * Retrieves the tasks the user may read: own tasks, tasks of the projects in
+     * project_access and tasks shared with the user.
+     */
+    public List<Task> findVisibleTo(String userId) {
+        List<Task> tasks = new ArrayList<>();
+        String sql = "SELECT t.*, u.username FROM tasks t LEFT JOIN users u ON t.user_id = u.id " +
+                "WHERE " + TaskPermissions.VISIBLE_TASK;
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            TaskPermissions.bindVisible(stmt, 1, userId);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                TaskRowMapper mapper = new TaskRowMapper();
+                while (rs.next()) {
+                    tasks.add(mapper.map(rs));
+                }
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -180,6 +226,8 @@ public class TaskDAO {
 
             stmt.executeUpdate();
         }
+        SearchIndex.indexTask(task);
+        TaskPermissions.invalidateTask(task.getId());
     }
 
     /**
@@ -190,17 +238,33 @@ public class TaskDAO {
     }
 
     /**
-     * Deletes a task by ID.
+     * Deletes a task by ID, together with its sub-tasks (deepest first, since
+     * parent_task_id has no ON DELETE CASCADE). Returns the deleted tasks, root
+     * first, or an empty list when the task does not exist.
      */
-    public boolean deleteById(String id) {
+    public List<TaskTreeNode> deleteById(String id) {
         String sql = "DELETE FROM tasks WHERE id = ?";
-
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setString(1, id);
-            int affectedRows = pstmt.executeUpdate();
-            return affectedRows > 0;
+        List<TaskTreeNode> subtree = findSubTree(id);
+        if (subtree.isEmpty()) return subtree;
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                int affectedRows = 0;
+                for (int i = subtree.size() - 1; i >= 0; i--) {
+                    pstmt.setString(1, subtree.get(i).getTask().getId());
+                    affectedRows = pstmt.executeUpdate();
+                }
+                conn.commit();
+                for (TaskTreeNode node : subtree) {
+                    SearchIndex.removeTask(node.getTask().getId());
+                    TaskPermissions.invalidateTask(node.getTask().getId());
+                }
+                return affectedRows > 0 ? subtree : List.of();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
         } catch (SQLException e) {
             e.printStackTrace();
             throw new RuntimeException("Error deleting task", e);
@@ -208,22 +272,26 @@ public class TaskDAO {
     }
 
     /**
-     * Récupère les tâches liées à un projet spécifique.
+     * Récupère les tâches liées à un projet spécifique, parmi celles que le lecteur peut lire.
      */
-    public List<Task> findByProjectId(String projectId) {
+    public List<Task> findByProjectId(String projectId, String viewerId) {
         List<Task> tasks = new ArrayList<>();
-        String sql = "SELECT t.*, u.username FROM tasks t " +
+        String sql = "SELECT t.*, u.username, " + TAG_NAMES + " FROM tasks t " +
                 "LEFT JOIN users u ON t.user_id = u.id " +
-                "WHERE t.project_id = ? ORDER BY t.created_at DESC";
+                "LEFT JOIN task_tags tt ON tt.task_id = t.id " +
+                "WHERE t.project_id = ? AND " + TaskPermissions.VISIBLE_TASK +
+                "GROUP BY t.id ORDER BY t.created_at DESC";
 
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, projectId);
+            TaskPermissions.bindVisible(stmt, 2, viewerId);
 
             try (ResultSet rs = stmt.executeQuery()) {
+                TaskRowMapper mapper = new TaskRowMapper();
                 while (rs.next()) {
-                    tasks.add(mapResultSetToTask(rs));
+                    tasks.add(mapper.map(rs));
                 }
             }
         } catch (SQLException e) {
@@ -233,77 +301,109 @@ public class TaskDAO {
     }
 
     /**
-     * Finds sub-tasks for a given parent task ID.
-     * @deprecated Parent task functionality removed from database schema
+     * Tâches d'un projet portant un tag donné, parmi celles que le lecteur peut lire.
+     * Part de idx_tag_name puis rejoint les tâches par clé primaire.
      */
-    public List<Task> findSubTasks(String parentId) {
-        // Return empty list - parent_task_id column no longer exists
-        return new ArrayList<>();
-    }
+    public List<Task> findByProjectAndTag(String projectId, String tagName, String viewerId) {
+        String sql = """
+                    SELECT t.*, u.username, %s
+                    FROM task_tags tagged
+                    INNER JOIN tasks t ON t.id = tagged.task_id
+                    LEFT JOIN users u ON t.user_id = u.id
+                    LEFT JOIN task_tags tt ON tt.task_id = t.id
+                    WHERE tagged.tag_name = ? AND t.project_id = ? AND %s
+                    GROUP BY t.id
+                    ORDER BY t.created_at DESC
+                """.formatted(TAG_NAMES, TaskPermissions.VISIBLE_TASK);
+
+        List<Task> tasks = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-    // =================================================================================
-    // PRIVATE HELPER METHODS
-    // =================================================================================
+            stmt.setString(1, tagName);
+            stmt.setString(2, projectId);
+            TaskPermissions.bindVisible(stmt, 3, viewerId);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                TaskRowMapper mapper = new TaskRowMapper();
+                while (rs.next()) {
+                    tasks.add(mapper.map(rs));
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return tasks;
+    }
 
     /**
-     * Maps a ResultSet row to a Task object.
+     * Finds the direct sub-tasks of a task.
      */
-    private Task mapResultSetToTask(ResultSet rs) throws SQLException {
-        Task t = new Task();
-        t.setId(rs.getString("id"));
-        t.setTitle(rs.getString("title"));
-        t.setDescription(rs.getString("description"));
-        t.setProjectId(rs.getString("project_id"));
-
-        // Priority with fallback
-        try {
-            String p = rs.getString("priority");
-            t.setPriority(p != null ? Priority.valueOf(p) : Priority.MEDIUM);
-        } catch (IllegalArgumentException e) {
-            t.setPriority(Priority.MEDIUM);
-        }
+    public List<Task> findSubTasks(String parentId) {
+        List<Task> tasks = new ArrayList<>();
+        String sql = "SELECT t.*, u.username, u.email, " + TAG_NAMES + " FROM tasks t " +
+                "LEFT JOIN users u ON t.user_id = u.id " +
+                "LEFT JOIN task_tags tt ON tt.task_id = t.id " +
+                "WHERE t.parent_task_id = ? GROUP BY t.id ORDER BY t.created_at";
 
-        // Status with fallback
-        try {
-            String s = rs.getString("status");
-            t.setStatus(s != null ? Status.valueOf(s) : Status.TODO);
-        } catch (IllegalArgumentException e) {
-            t.setStatus(Status.TODO);
-        }
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-        // Project ID
-        try {
-            t.setProjectId(rs.getString("project_id"));
+            stmt.setString(1, parentId);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                TaskRowMapper mapper = new TaskRowMapper();
+                while (rs.next()) {
+                    tasks.add(mapper.map(rs));
+                }
+            }
         } catch (SQLException e) {
-            // Column might not be selected in some queries
+            e.printStackTrace();
         }
+        return tasks;
+    }
 
-        // Due Date
-        Timestamp ts = rs.getTimestamp("due_date");
-        if (ts != null) t.setDueDate(ts.toLocalDateTime());
-
-        // Created At
-        Timestamp created = rs.getTimestamp("created_at");
-        if (created != null) t.setCreatedAt(created.toLocalDateTime());
-
-        // User Mapping
-        String userId = rs.getString("user_id");
-        if (userId != null) {
-            User u = new User();
-            u.setId(userId);
-            try { u.setUsername(rs.getString("username")); } catch (SQLException e) {}
-            try { u.setEmail(rs.getString("email")); } catch (SQLException e) {}
-            t.setUser(u);
-        }
+    /**
+     * Finds a task and all its descendants in one recursive query.
+     * Rows are ordered by depth, so every parent comes before its sub-tasks.
+     * Empty if the task does not exist.
+     */
+    public List<TaskTreeNode> findSubTree(String rootId) {
+        String sql = """
+                    WITH RECURSIVE subtree (id, depth) AS (
+                        SELECT id, 0 FROM tasks WHERE id = ?
+                        UNION ALL
+                        SELECT t.id, s.depth + 1
+                        FROM tasks t
+                        INNER JOIN subtree s ON t.parent_task_id = s.id
+                        WHERE s.depth < ?
+                    )
+                    SELECT t.*, u.username, u.email, s.depth, %s
+                    FROM subtree s
+                    INNER JOIN tasks t ON t.id = s.id
+                    LEFT JOIN users u ON t.user_id = u.id
+                    LEFT JOIN task_tags tt ON tt.task_id = t.id
+                    GROUP BY t.id, s.depth
+                    ORDER BY s.depth, t.created_at
+                """.formatted(TAG_NAMES);
+
+        List<TaskTreeNode> nodes = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, rootId);
+            stmt.setInt(2, MAX_TREE_DEPTH);
 
-        // Recurrence Type
-        try {
-            String recurrenceType = rs.getString("recurrence_type");
-            t.setRecurrenceType(recurrenceType != null ? recurrenceType : "NONE");
+            try (ResultSet rs = stmt.executeQuery()) {
+                TaskRowMapper mapper = new TaskRowMapper();
+                while (rs.next()) {
+                    nodes.add(new TaskTreeNode(mapper.map(rs), rs.getInt("depth")));
+                }
+            }
         } catch (SQLException e) {
-            t.setRecurrenceType("NONE");
+            e.printStackTrace();
+            throw new RuntimeException("Error loading task tree", e);
         }
-
-        return t;
+        return nodes;
     }
 }
\ No newline at end of file
@@ -83,7 +83,7 @@ public class TaskDependencyDAO {
         }
     }
 
-    private TaskDependency map(ResultSet rs) throws SQLException {
+    public static TaskDependency map(ResultSet rs) throws SQLException {
         TaskDependency d = new TaskDependency();
         d.setId(rs.getString("id"));
         Task predecessor = new Task();
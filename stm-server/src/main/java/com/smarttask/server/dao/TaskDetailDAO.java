@@ -0,0 +1,92 @@
+package com.smarttask.server.dao;
+
+import com.smarttask.model.Task;
+import com.smarttask.model.TaskDependency;
+import com.smarttask.model.TaskDetail;
+import com.smarttask.server.config.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Read-only DAO assembling the task detail view.
+ *
+ * All sections are read on one connection, one query per section, instead of
+ * one connection and one HTTP round trip per section. Row mapping is shared
+ * with the entity DAOs so both paths return identical objects.
+ */
+public class TaskDetailDAO {
+
+    private static final String TASK_SQL =
+            "SELECT t.*, u.username, u.email FROM tasks t LEFT JOIN users u ON t.user_id = u.id WHERE t.id = ?";
+    private static final String SUBTASKS_SQL =
+            "SELECT t.*, u.username, u.email FROM tasks t LEFT JOIN users u ON t.user_id = u.id " +
+            "WHERE t.parent_task_id = ? ORDER BY t.created_at";
+    private static final String TAGS_SQL =
+            "SELECT * FROM task_tags WHERE task_id = ? ORDER BY created_at DESC";
+    private static final String COMMENTS_SQL =
+            "SELECT c.*, u.username, u.email FROM comments c INNER JOIN users u ON c.user_id = u.id " +
+            "WHERE c.task_id = ? ORDER BY c.created_at DESC";
+    private static final String ATTACHMENTS_SQL =
+            "SELECT * FROM attachments WHERE task_id = ? ORDER BY uploaded_at DESC";
+    private static final String TIME_LOGS_SQL =
+            "SELECT * FROM time_tracking WHERE task_id = ? ORDER BY start_time DESC";
+    private static final String DEPENDENCIES_SQL =
+            "SELECT d.*, p.title AS predecessor_title, s.title AS successor_title FROM task_dependencies d " +
+            "INNER JOIN tasks p ON d.predecessor_id = p.id " +
+            "INNER JOIN tasks s ON d.successor_id = s.id " +
+            "WHERE d.predecessor_id = ? OR d.successor_id = ?";
+    private static final String SHARES_SQL =
+            "SELECT s.*, u.username, u.email FROM shared_tasks s INNER JOIN users u ON s.user_id = u.id WHERE s.task_id = ?";
+
+    public Optional<TaskDetail> findByTaskId(String taskId) {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setReadOnly(true);
+
+            List<Task> found = query(conn, TASK_SQL, taskId, new TaskRowMapper());
+            if (found.isEmpty()) return Optional.empty();
+
+            TaskDetail detail = new TaskDetail(found.get(0));
+            detail.setSubTasks(query(conn, SUBTASKS_SQL, taskId, new TaskRowMapper()));
+            detail.setTags(query(conn, TAGS_SQL, taskId, TaskTagDAO::map));
+            detail.setComments(query(conn, COMMENTS_SQL, taskId, CommentDAO::map));
+            detail.setAttachments(query(conn, ATTACHMENTS_SQL, taskId, AttachmentDAO::map));
+            detail.setTimeLogs(query(conn, TIME_LOGS_SQL, taskId, TimeTrackingDAO::mapResultSetToTimeTracking));
+            detail.setDependencies(query(conn, DEPENDENCIES_SQL, taskId, TaskDetailDAO::mapDependency));
+            detail.setShares(query(conn, SHARES_SQL, taskId, SharedTaskDAO::map));
+            return Optional.of(detail);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            throw new RuntimeException("Error loading task detail", e);
+        }
+    }
+
+    /**
+     * Runs a query whose placeholders all take the task id.
+     */
+    private <T> List<T> query(Connection conn, String sql, String taskId, RowMapper<T> mapper) throws SQLException {
+        List<T> list = new ArrayList<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            int params = pstmt.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= params; i++) {
+                pstmt.setString(i, taskId);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) list.add(mapper.map(rs));
+            }
+        }
+        return list;
+    }
+
+    private static TaskDependency mapDependency(ResultSet rs) throws SQLException {
+        TaskDependency d = TaskDependencyDAO.map(rs);
+        d.getPredecessor().setTitle(rs.getString("predecessor_title"));
+        d.getSuccessor().setTitle(rs.getString("successor_title"));
+        return d;
+    }
+}
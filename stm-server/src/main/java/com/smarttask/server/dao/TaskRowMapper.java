@@ -0,0 +1,94 @@
+package com.smarttask.server.dao;
+
+import com.smarttask.model.Priority;
+import com.smarttask.model.Status;
+import com.smarttask.model.Task;
+import com.smarttask.model.User;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Maps task rows: t.* plus, when the query selects them, u.username / u.email
+ * and the tag_names aggregate.
+ *
+ * One instance per query. Column positions are resolved on the first row; ids,
+ * usernames and tag names that repeat across rows share one String instance.
+ */
+final class TaskRowMapper implements RowMapper<Task> {
+
+    private static final EnumLookup<Priority> PRIORITIES = EnumLookup.of(Priority.class);
+    private static final EnumLookup<Status> STATUSES = EnumLookup.of(Status.class);
+
+    private final StringDeduplicator strings = new StringDeduplicator();
+
+    private ResultSet bound;
+    private int id, title, description, projectId, priority, status, parentTaskId,
+            dueDate, createdAt, userId, username, email, recurrenceType, tagNames;
+
+    @Override
+    public Task map(ResultSet rs) throws SQLException {
+        if (rs != bound) bind(rs);
+
+        Task t = new Task();
+        t.setId(rs.getString(id));
+        t.setTitle(Columns.string(rs, title));
+        t.setDescription(Columns.string(rs, description));
+        t.setProjectId(strings.dedupe(Columns.string(rs, projectId)));
+        t.setPriority(PRIORITIES.get(Columns.string(rs, priority), Priority.MEDIUM));
+        t.setStatus(STATUSES.get(Columns.string(rs, status), Status.TODO));
+
+        // Parent (id only)
+        String parentId = Columns.string(rs, parentTaskId);
+        if (parentId != null) {
+            Task parent = new Task();
+            parent.setId(parentId);
+            t.setParentTask(parent);
+        }
+
+        t.setDueDate(Columns.dateTime(rs, dueDate));
+        LocalDateTime created = Columns.dateTime(rs, createdAt);
+        if (created != null) t.setCreatedAt(created);
+
+        String owner = Columns.string(rs, userId);
+        if (owner != null) {
+            User u = new User();
+            u.setId(strings.dedupe(owner));
+            u.setUsername(strings.dedupe(Columns.string(rs, username)));
+            u.setEmail(strings.dedupe(Columns.string(rs, email)));
+            t.setUser(u);
+        }
+
+        String recurrence = Columns.string(rs, recurrenceType);
+        t.setRecurrenceType(recurrence != null ? strings.dedupe(recurrence) : "NONE");
+
+        if (tagNames != 0) {
+            List<String> tags = TaskTagDAO.splitTagNames(rs.getString(tagNames));
+            tags.replaceAll(strings::dedupe);
+            t.setTags(tags);
+        }
+        return t;
+    }
+
+    private void bind(ResultSet rs) throws SQLException {
+        Columns columns = new Columns(rs);
+        id = columns.of("id");
+        if (id == 0) throw new SQLException("Task query does not select the id column");
+        title = columns.of("title");
+        description = columns.of("description");
+        projectId = columns.of("project_id");
+        priority = columns.of("priority");
+        status = columns.of("status");
+        parentTaskId = columns.of("parent_task_id");
+        dueDate = columns.of("due_date");
+        createdAt = columns.of("created_at");
+        userId = columns.of("user_id");
+        username = columns.of("username");
+        email = columns.of("email");
+        recurrenceType = columns.of("recurrence_type");
+        tagNames = columns.of("tag_names");
+        bound = rs;
+    }
+}
@@ -3,9 +3,11 @@ package com.smarttask.server.dao;
 import com.smarttask.model.Task;
 import com.smarttask.model.TaskTag;
 import com.smarttask.server.config.DatabaseConnection;
+import com.smarttask.server.search.SearchIndex;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,6 +22,7 @@ public class TaskTagDAO {
             pstmt.setTimestamp(3, new Timestamp(new java.util.Date().getTime()));
             int rows = pstmt.executeUpdate();
             if (rows == 0) throw new SQLException("Failed to insert tag");
+            SearchIndex.indexTag(taskId, tag.getTagName());
             return taskId + "::" + tag.getTagName();
         } catch (SQLException e) {
             e.printStackTrace();
@@ -34,11 +37,7 @@ public class TaskTagDAO {
             pstmt.setString(1, taskId);
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    TaskTag t = new TaskTag();
-                    Task task = new Task(); task.setId(rs.getString("task_id"));
-                    t.setTask(task);
-                    t.setTagName(rs.getString("tag_name"));
-                    list.add(t);
+                    list.add(map(rs));
                 }
             }
         } catch (SQLException e) {
@@ -53,10 +52,77 @@ public class TaskTagDAO {
             pstmt.setString(1, taskId);
             pstmt.setString(2, tagName);
             int affected = pstmt.executeUpdate();
+            if (affected > 0) SearchIndex.removeTag(taskId, tagName);
             return affected > 0;
         } catch (SQLException e) {
             e.printStackTrace();
             throw new RuntimeException(e);
         }
     }
+
+    /**
+     * Adds the tag to every task in one transaction and one batch.
+     * Tasks that already carry it are left as they are.
+     * @return the ids of the tasks that were actually tagged
+     */
+    public List<String> addToTasks(List<String> taskIds, String tagName) {
+        String sql = "INSERT IGNORE INTO task_tags (task_id, tag_name, created_at) VALUES (?, ?, ?)";
+        return applyToTasks(sql, taskIds, tagName, true);
+    }
+
+    /**
+     * Removes the tag from every task in one transaction and one batch.
+     * @return the ids of the tasks that carried it
+     */
+    public List<String> removeFromTasks(List<String> taskIds, String tagName) {
+        String sql = "DELETE FROM task_tags WHERE task_id = ? AND tag_name = ?";
+        return applyToTasks(sql, taskIds, tagName, false);
+    }
+
+    private List<String> applyToTasks(String sql, List<String> taskIds, String tagName, boolean insert) {
+        if (taskIds.isEmpty()) return Collections.emptyList();
+        List<String> changed = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                Timestamp now = new Timestamp(System.currentTimeMillis());
+                for (String taskId : taskIds) {
+                    pstmt.setString(1, taskId);
+                    pstmt.setString(2, tagName);
+                    if (insert) pstmt.setTimestamp(3, now);
+                    pstmt.addBatch();
+                }
+                int[] counts = pstmt.executeBatch();
+                conn.commit();
+                for (int i = 0; i < counts.length; i++) {
+                    if (counts[i] > 0) changed.add(taskIds.get(i));
+                }
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            throw new RuntimeException(e);
+        }
+
+        for (String taskId : changed) {
+            if (insert) SearchIndex.indexTag(taskId, tagName);
+            else SearchIndex.removeTag(taskId, tagName);
+        }
+        return changed;
+    }
+
+    /**
+     * Tag names of a task list row, as aggregated by the TAG_NAMES column of TaskDAO.
+     */
+    static List<String> splitTagNames(String tagNames) {
+        if (tagNames == null || tagNames.isEmpty()) return new ArrayList<>();
+        return new ArrayList<>(List.of(tagNames.split("\n")));
+    }
+
+    static TaskTag map(ResultSet rs) throws SQLException {
+        Task task = new Task(); task.setId(rs.getString("task_id"));
+        return new TaskTag(task, rs.getString("tag_name"));
+    }
 }
@@ -2,13 +2,17 @@ package com.smarttask.server.dao;
 
 import com.smarttask.model.Team;
 import com.smarttask.model.TeamMember;
+import com.smarttask.model.TeamWithMembers;
 import com.smarttask.model.User;
+import com.smarttask.server.auth.TaskPermissions;
 import com.smarttask.server.config.DatabaseConnection;
 
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -29,6 +33,7 @@ public class TeamDAO {
                 """;
 
         try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
             try (PreparedStatement teamStmt = conn.prepareStatement(teamSql)) {
 
                 teamStmt.setString(1, teamId);
@@ -37,6 +42,8 @@ public class TeamDAO {
                 teamStmt.setString(4, team.getColor());
                 teamStmt.setString(5, team.getOwnerId());
                 teamStmt.executeUpdate();
+                UserAccessDAO.grantTeam(conn, team.getOwnerId(), teamId);
+                conn.commit();
 
                 team.setId(teamId);
                 return teamId;
@@ -74,10 +81,10 @@ public class TeamDAO {
      */
     public List<Team> findByUser(String userId) {
         String sql = """
-                    SELECT DISTINCT t.*
-                    FROM teams t
-                    LEFT JOIN team_members tm ON t.id = tm.team_id
-                    WHERE (tm.user_id = ? OR t.owner_id = ?) AND t.is_active = TRUE
+                    SELECT t.*
+                    FROM team_access a
+                    INNER JOIN teams t ON t.id = a.team_id
+                    WHERE a.user_id = ? AND t.is_active = TRUE
                 """;
 
         List<Team> teams = new ArrayList<>();
@@ -86,7 +93,6 @@ public class TeamDAO {
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, userId);
-            stmt.setString(2, userId);
 
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
@@ -99,6 +105,52 @@ public class TeamDAO {
         return teams;
     }
 
+    /**
+     * Get all active teams of a user (member or owner) with their members, in a single query.
+     */
+    public List<TeamWithMembers> findByUserWithMembers(String userId) {
+        String sql = """
+                    SELECT t.*, u.id AS member_id, u.username, u.email
+                    FROM team_access a
+                    INNER JOIN teams t ON t.id = a.team_id
+                    LEFT JOIN team_members tm ON t.id = tm.team_id
+                    LEFT JOIN users u ON tm.user_id = u.id
+                    WHERE a.user_id = ? AND t.is_active = TRUE
+                    ORDER BY t.created_at, t.id, tm.joined_at
+                """;
+
+        Map<String, TeamWithMembers> teams = new LinkedHashMap<>();
+
+        try (Connection conn = DatabaseConnection.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, userId);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    String teamId = rs.getString("id");
+                    TeamWithMembers entry = teams.get(teamId);
+                    if (entry == null) {
+                        entry = new TeamWithMembers(mapTeam(rs, "id"));
+                        teams.put(teamId, entry);
+                    }
+
+                    String memberId = rs.getString("member_id");
+                    if (memberId != null) {
+                        User user = new User();
+                        user.setId(memberId);
+                        user.setUsername(rs.getString("username"));
+                        user.setEmail(rs.getString("email"));
+                        entry.getMembers().add(user);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return new ArrayList<>(teams.values());
+    }
+
     /**
      * Update team info.
      */
@@ -132,8 +184,14 @@ public class TeamDAO {
         try (Connection conn = DatabaseConnection.getConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
+            conn.setAutoCommit(false);
+            // Members lose the team's projects; team_access rows go with the cascade
+            List<String> memberIds = UserAccessDAO.memberIds(conn, teamId);
             stmt.setString(1, teamId);
             int affectedRows = stmt.executeUpdate();
+            UserAccessDAO.refresh(conn, memberIds);
+            conn.commit();
+            TaskPermissions.invalidateUsers(memberIds);
             
             if (affectedRows == 0) {
                 System.out.println("[WARN] Aucune équipe trouvée avec l'ID: " + teamId);
@@ -153,10 +211,15 @@ public class TeamDAO {
         try (Connection conn = DatabaseConnection.getConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
+            conn.setAutoCommit(false);
             stmt.setString(1, teamId);
             stmt.setString(2, userId);
+            stmt.setString(3, "MEMBER");
 
             stmt.executeUpdate();
+            UserAccessDAO.refresh(conn, List.of(userId));
+            conn.commit();
+            TaskPermissions.invalidateUsers(List.of(userId));
 
             String teamName = getTeamNameById(teamId); 
         
@@ -179,9 +242,13 @@ public class TeamDAO {
         try (Connection conn = DatabaseConnection.getConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
+            conn.setAutoCommit(false);
             stmt.setString(1, teamId);
             stmt.setString(2, userId);
             stmt.executeUpdate();
+            UserAccessDAO.refresh(conn, List.of(userId));
+            conn.commit();
+            TaskPermissions.invalidateUsers(List.of(userId));
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -0,0 +1,207 @@
+package com.smarttask.server.dao;
+
+import com.smarttask.model.TimeTotals;
+import com.smarttask.server.config.DatabaseConnection;
+
+import java.sql.*;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Map;
+
+/**
+ * Pre-summed tracked time, so totals never scan time_tracking.
+ *
+ * Three rollups are kept: per task, per user per day and per project per week.
+ * TimeTrackingDAO applies the duration of an interval to them in the same
+ * transaction that closes (or corrects) it. An interval counts for the day and
+ * the week (starting Monday) of its start time, and for the project its task
+ * belongs to when it is closed. {@link #rebuild()} recomputes everything from
+ * time_tracking, e.g. after a back-fill or after tasks moved between projects.
+ */
+public class TimeRollupDAO {
+
+    private static final String UPSERT_TASK = """
+                INSERT INTO time_rollup_task (task_id, total_ms, entries) VALUES (?, ?, ?)
+                ON DUPLICATE KEY UPDATE total_ms = total_ms + VALUES(total_ms), entries = entries + VALUES(entries)
+            """;
+    private static final String UPSERT_USER_DAY = """
+                INSERT INTO time_rollup_user_day (user_id, day, total_ms) VALUES (?, ?, ?)
+                ON DUPLICATE KEY UPDATE total_ms = total_ms + VALUES(total_ms)
+            """;
+    private static final String UPSERT_PROJECT_WEEK = """
+                INSERT INTO time_rollup_project_week (project_id, week_start, total_ms)
+                SELECT project_id, ?, ? FROM tasks WHERE id = ? AND project_id IS NOT NULL
+                ON DUPLICATE KEY UPDATE total_ms = total_ms + VALUES(total_ms)
+            """;
+
+    /**
+     * Adds a duration change to every rollup. Runs on the caller's connection so it
+     * commits or rolls back together with the time_tracking write.
+     *
+     * @param deltaMs      change of the interval's duration (negative when shortened or reopened)
+     * @param entriesDelta +1 when the interval gets closed, -1 when it is reopened, else 0
+     */
+    static void apply(Connection conn, String taskId, String userId, Timestamp startTime,
+                      long deltaMs, int entriesDelta) throws SQLException {
+        if (deltaMs == 0 && entriesDelta == 0) return;
+        LocalDate day = startTime.toLocalDateTime().toLocalDate();
+
+        if (taskId != null) {
+            try (PreparedStatement stmt = conn.prepareStatement(UPSERT_TASK)) {
+                stmt.setString(1, taskId);
+                stmt.setLong(2, deltaMs);
+                stmt.setInt(3, entriesDelta);
+                stmt.executeUpdate();
+            }
+        }
+        if (userId != null) {
+            try (PreparedStatement stmt = conn.prepareStatement(UPSERT_USER_DAY)) {
+                stmt.setString(1, userId);
+                stmt.setDate(2, Date.valueOf(day));
+                stmt.setLong(3, deltaMs);
+                stmt.executeUpdate();
+            }
+        }
+        if (taskId != null) {
+            try (PreparedStatement stmt = conn.prepareStatement(UPSERT_PROJECT_WEEK)) {
+                stmt.setDate(1, Date.valueOf(weekStart(day)));
+                stmt.setLong(2, deltaMs);
+                stmt.setString(3, taskId);
+                stmt.executeUpdate();
+            }
+        }
+    }
+
+    /**
+     * Recomputes all rollups from time_tracking in one transaction.
+     */
+    public void rebuild() {
+        String[] statements = {
+                "DELETE FROM time_rollup_task",
+                "DELETE FROM time_rollup_user_day",
+                "DELETE FROM time_rollup_project_week",
+                """
+                    INSERT INTO time_rollup_task (task_id, total_ms, entries)
+                    SELECT task_id, SUM(duration_ms), COUNT(*)
+                    FROM time_tracking
+                    WHERE duration_ms IS NOT NULL
+                    GROUP BY task_id
+                """,
+                """
+                    INSERT INTO time_rollup_user_day (user_id, day, total_ms)
+                    SELECT user_id, DATE(start_time), SUM(duration_ms)
+                    FROM time_tracking
+                    WHERE duration_ms IS NOT NULL
+                    GROUP BY user_id, DATE(start_time)
+                """,
+                """
+                    INSERT INTO time_rollup_project_week (project_id, week_start, total_ms)
+                    SELECT t.project_id, DATE_SUB(DATE(tt.start_time), INTERVAL WEEKDAY(tt.start_time) DAY) AS week_start,
+                           SUM(tt.duration_ms)
+                    FROM time_tracking tt
+                    INNER JOIN tasks t ON tt.task_id = t.id
+                    WHERE tt.duration_ms IS NOT NULL AND t.project_id IS NOT NULL
+                    GROUP BY t.project_id, week_start
+                """
+        };
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement()) {
+                for (String sql : statements) {
+                    stmt.executeUpdate(sql);
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            throw new RuntimeException("Error rebuilding time rollups", e);
+        }
+    }
+
+    public TimeTotals totalsForTask(String taskId) {
+        TimeTotals totals = new TimeTotals("task", taskId);
+        String sql = "SELECT total_ms FROM time_rollup_task WHERE task_id = ?";
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, taskId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) totals.setTotalMs(rs.getLong("total_ms"));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            throw new RuntimeException("Error loading task time totals", e);
+        }
+        return totals;
+    }
+
+    /**
+     * Time per day of a user, for every day of [from, to] (days without time are 0).
+     */
+    public TimeTotals totalsForUser(String userId, LocalDate from, LocalDate to) {
+        String sql = """
+                    SELECT day, total_ms FROM time_rollup_user_day
+                    WHERE user_id = ? AND day BETWEEN ? AND ?
+                """;
+        TimeTotals totals = new TimeTotals("user", userId);
+        for (LocalDate d = from; !d.isAfter(to); d = d.plusDays(1)) {
+            totals.getBuckets().put(d.toString(), 0L);
+        }
+        fillBuckets(sql, userId, from, to, totals);
+        return withRange(totals, from, to);
+    }
+
+    /**
+     * Time per week of a project, for every week overlapping [from, to]. Weeks are
+     * the unit of this rollup, so partial weeks at both ends count in full.
+     */
+    public TimeTotals totalsForProject(String projectId, LocalDate from, LocalDate to) {
+        String sql = """
+                    SELECT week_start AS day, total_ms FROM time_rollup_project_week
+                    WHERE project_id = ? AND week_start BETWEEN ? AND ?
+                """;
+        LocalDate firstWeek = weekStart(from);
+        TimeTotals totals = new TimeTotals("project", projectId);
+        for (LocalDate d = firstWeek; !d.isAfter(to); d = d.plusWeeks(1)) {
+            totals.getBuckets().put(d.toString(), 0L);
+        }
+        fillBuckets(sql, projectId, firstWeek, to, totals);
+        return withRange(totals, from, to);
+    }
+
+    private void fillBuckets(String sql, String id, LocalDate from, LocalDate to, TimeTotals totals) {
+        Map<String, Long> buckets = totals.getBuckets();
+        long sum = 0;
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, id);
+            stmt.setDate(2, Date.valueOf(from));
+            stmt.setDate(3, Date.valueOf(to));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    long ms = rs.getLong("total_ms");
+                    buckets.put(rs.getDate("day").toLocalDate().toString(), ms);
+                    sum += ms;
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            throw new RuntimeException("Error loading time totals", e);
+        }
+        totals.setTotalMs(sum);
+    }
+
+    private static TimeTotals withRange(TimeTotals totals, LocalDate from, LocalDate to) {
+        totals.setFrom(from.toString());
+        totals.setTo(to.toString());
+        return totals;
+    }
+
+    private static LocalDate weekStart(LocalDate day) {
+        return day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+}
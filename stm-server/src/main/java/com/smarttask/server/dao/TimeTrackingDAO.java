@@ -49,55 +49,106 @@ public class TimeTrackingDAO {
         return list;
     }
 
+    /**
+     * Inserts an interval. A closed interval (duration set) is added to the
+     * time rollups in the same transaction.
+     */
     public String save(TimeTracking tt) {
         String sql = "INSERT INTO time_tracking (id, task_id, user_id, start_time, end_time, duration_ms, notes) VALUES (?, ?, ?, ?, ?, ?, ?)";
         if (tt.getId() == null) tt.setId(UUID.randomUUID().toString());
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setString(1, tt.getId());
-            pstmt.setString(2, tt.getTask() != null ? tt.getTask().getId() : null);
-            pstmt.setString(3, tt.getUser() != null ? tt.getUser().getId() : null);
-            
-            // FIX: Convert java.util.Date to java.sql.Timestamp using constructor or getTime()
-            pstmt.setTimestamp(4, tt.getStartTime() != null ? new Timestamp(tt.getStartTime().getTime()) : null);
-            pstmt.setTimestamp(5, tt.getEndTime() != null ? new Timestamp(tt.getEndTime().getTime()) : null);
-            
-            if (tt.getDurationMs() != null) pstmt.setLong(6, tt.getDurationMs()); 
-            else pstmt.setNull(6, Types.BIGINT);
-            
-            pstmt.setString(7, tt.getNotes());
-            
-            pstmt.executeUpdate();
-            return tt.getId();
+        String taskId = tt.getTask() != null ? tt.getTask().getId() : null;
+        String userId = tt.getUser() != null ? tt.getUser().getId() : null;
+        Timestamp start = tt.getStartTime() != null ? new Timestamp(tt.getStartTime().getTime()) : null;
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setString(1, tt.getId());
+                pstmt.setString(2, taskId);
+                pstmt.setString(3, userId);
+
+                // FIX: Convert java.util.Date to java.sql.Timestamp using constructor or getTime()
+                pstmt.setTimestamp(4, start);
+                pstmt.setTimestamp(5, tt.getEndTime() != null ? new Timestamp(tt.getEndTime().getTime()) : null);
+
+                if (tt.getDurationMs() != null) pstmt.setLong(6, tt.getDurationMs());
+                else pstmt.setNull(6, Types.BIGINT);
+
+                pstmt.setString(7, tt.getNotes());
+
+                pstmt.executeUpdate();
+
+                if (tt.getDurationMs() != null && start != null) {
+                    TimeRollupDAO.apply(conn, taskId, userId, start, tt.getDurationMs(), 1);
+                }
+                conn.commit();
+                return tt.getId();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
         } catch (SQLException e) {
             e.printStackTrace();
             throw new RuntimeException("Error saving time tracking", e);
         }
     }
 
+    /**
+     * Closes or corrects an interval. The difference with the stored duration is
+     * applied to the time rollups in the same transaction.
+     */
     public void update(TimeTracking tt) {
+        String lockSql = "SELECT task_id, user_id, start_time, duration_ms FROM time_tracking WHERE id = ? FOR UPDATE";
         String sql = "UPDATE time_tracking SET end_time = ?, duration_ms = ?, notes = ? WHERE id = ?";
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            // FIX: Convert java.util.Date to java.sql.Timestamp
-            pstmt.setTimestamp(1, tt.getEndTime() != null ? new Timestamp(tt.getEndTime().getTime()) : null);
-            
-            if (tt.getDurationMs() != null) pstmt.setLong(2, tt.getDurationMs()); 
-            else pstmt.setNull(2, Types.BIGINT);
-            
-            pstmt.setString(3, tt.getNotes());
-            pstmt.setString(4, tt.getId());
-            
-            pstmt.executeUpdate();
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                String taskId = null;
+                String userId = null;
+                Timestamp start = null;
+                Long previousMs = null;
+                try (PreparedStatement lock = conn.prepareStatement(lockSql)) {
+                    lock.setString(1, tt.getId());
+                    try (ResultSet rs = lock.executeQuery()) {
+                        if (rs.next()) {
+                            taskId = rs.getString("task_id");
+                            userId = rs.getString("user_id");
+                            start = rs.getTimestamp("start_time");
+                            long ms = rs.getLong("duration_ms");
+                            if (!rs.wasNull()) previousMs = ms;
+                        }
+                    }
+                }
+
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    // FIX: Convert java.util.Date to java.sql.Timestamp
+                    pstmt.setTimestamp(1, tt.getEndTime() != null ? new Timestamp(tt.getEndTime().getTime()) : null);
+
+                    if (tt.getDurationMs() != null) pstmt.setLong(2, tt.getDurationMs());
+                    else pstmt.setNull(2, Types.BIGINT);
+
+                    pstmt.setString(3, tt.getNotes());
+                    pstmt.setString(4, tt.getId());
+
+                    pstmt.executeUpdate();
+                }
+
+                if (start != null) {
+                    long delta = (tt.getDurationMs() != null ? tt.getDurationMs() : 0L) - (previousMs != null ? previousMs : 0L);
+                    int entriesDelta = (tt.getDurationMs() != null ? 1 : 0) - (previousMs != null ? 1 : 0);
+                    TimeRollupDAO.apply(conn, taskId, userId, start, delta, entriesDelta);
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
         } catch (SQLException e) {
             e.printStackTrace();
         }
     }
 
-    private TimeTracking mapResultSetToTimeTracking(ResultSet rs) throws SQLException {
+    static TimeTracking mapResultSetToTimeTracking(ResultSet rs) throws SQLException {
         TimeTracking tt = new TimeTracking();
         tt.setId(rs.getString("id"));
         
@@ -0,0 +1,160 @@
+package com.smarttask.server.dao;
+
+import com.smarttask.server.config.DatabaseConnection;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Materialized "who can see what": one row per (user, project) in project_access
+ * and per (user, team) in team_access, so listing a user's projects or teams is
+ * a primary-key range scan instead of a DISTINCT over the membership joins.
+ *
+ * A user reaches a project by owning it or by being a member of a team linked to
+ * it, and a team by owning it or being a member. Rows disappear with the project,
+ * team or user through ON DELETE CASCADE; every other change recomputes the rows
+ * of the users concerned, on the caller's connection so it commits together with
+ * the membership write. {@link #rebuild()} recomputes everything.
+ */
+public class UserAccessDAO {
+
+    private static final String DELETE_USER_PROJECTS = "DELETE FROM project_access WHERE user_id = ?";
+    private static final String INSERT_USER_PROJECTS = """
+                INSERT IGNORE INTO project_access (user_id, project_id)
+                SELECT user_id, id FROM projects WHERE user_id = ?
+                UNION
+                SELECT tm.user_id, tp.project_id
+                FROM team_members tm
+                INNER JOIN team_projects tp ON tp.team_id = tm.team_id
+                WHERE tm.user_id = ?
+            """;
+    private static final String DELETE_USER_TEAMS = "DELETE FROM team_access WHERE user_id = ?";
+    private static final String INSERT_USER_TEAMS = """
+                INSERT IGNORE INTO team_access (user_id, team_id)
+                SELECT owner_id, id FROM teams WHERE owner_id = ?
+                UNION
+                SELECT user_id, team_id FROM team_members WHERE user_id = ?
+            """;
+
+    /**
+     * Projects the user reaches, owned or through a team: the projects whose tasks
+     * the user may read (see TaskPermissions).
+     */
+    public Set<String> findProjectIds(String userId) {
+        Set<String> ids = new HashSet<>();
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT project_id FROM project_access WHERE user_id = ?")) {
+            stmt.setString(1, userId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) ids.add(rs.getString("project_id"));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return ids;
+    }
+
+    /** The owner of a new project or team gets access right away. */
+    static void grantProject(Connection conn, String userId, String projectId) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "INSERT IGNORE INTO project_access (user_id, project_id) VALUES (?, ?)")) {
+            stmt.setString(1, userId);
+            stmt.setString(2, projectId);
+            stmt.executeUpdate();
+        }
+    }
+
+    static void grantTeam(Connection conn, String userId, String teamId) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "INSERT IGNORE INTO team_access (user_id, team_id) VALUES (?, ?)")) {
+            stmt.setString(1, userId);
+            stmt.setString(2, teamId);
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Recomputes the project and team rows of the given users from the source tables.
+     * A user can reach the same project through several teams, so revoking is not a
+     * plain delete; recomputing per user is a couple of indexed statements.
+     */
+    static void refresh(Connection conn, List<String> userIds) throws SQLException {
+        if (userIds.isEmpty()) return;
+        try (PreparedStatement delProjects = conn.prepareStatement(DELETE_USER_PROJECTS);
+             PreparedStatement insProjects = conn.prepareStatement(INSERT_USER_PROJECTS);
+             PreparedStatement delTeams = conn.prepareStatement(DELETE_USER_TEAMS);
+             PreparedStatement insTeams = conn.prepareStatement(INSERT_USER_TEAMS)) {
+            for (String userId : userIds) {
+                delProjects.setString(1, userId);
+                delProjects.addBatch();
+                insProjects.setString(1, userId);
+                insProjects.setString(2, userId);
+                insProjects.addBatch();
+                delTeams.setString(1, userId);
+                delTeams.addBatch();
+                insTeams.setString(1, userId);
+                insTeams.setString(2, userId);
+                insTeams.addBatch();
+            }
+            delProjects.executeBatch();
+            insProjects.executeBatch();
+            delTeams.executeBatch();
+            insTeams.executeBatch();
+        }
+    }
+
+    static List<String> memberIds(Connection conn, String teamId) throws SQLException {
+        List<String> ids = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT user_id FROM team_members WHERE team_id = ?")) {
+            stmt.setString(1, teamId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) ids.add(rs.getString("user_id"));
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Recomputes both tables from projects, teams, team_members and team_projects
+     * in one transaction.
+     */
+    public void rebuild() {
+        String[] statements = {
+                "DELETE FROM project_access",
+                "DELETE FROM team_access",
+                """
+                    INSERT IGNORE INTO project_access (user_id, project_id)
+                    SELECT user_id, id FROM projects
+                    UNION
+                    SELECT tm.user_id, tp.project_id
+                    FROM team_members tm
+                    INNER JOIN team_projects tp ON tp.team_id = tm.team_id
+                """,
+                """
+                    INSERT IGNORE INTO team_access (user_id, team_id)
+                    SELECT owner_id, id FROM teams
+                    UNION
+                    SELECT user_id, team_id FROM team_members
+                """
+        };
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement()) {
+                for (String sql : statements) {
+                    stmt.executeUpdate(sql);
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            throw new RuntimeException("Error rebuilding access tables", e);
+        }
+    }
+}
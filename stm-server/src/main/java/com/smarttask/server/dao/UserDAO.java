@@ -1,6 +1,7 @@
 package com.smarttask.server.dao;
 
 import com.smarttask.model.User;
+import com.smarttask.server.auth.PasswordHasher;
 import com.smarttask.server.config.DatabaseConnection;
 
 import java.sql.*;
@@ -11,6 +12,8 @@ import java.util.Optional;
 /**
  * Data Access Object for the User entity.
  * Manages all CRUD operations on users using JDBC.
+ * Passwords are hashed here on write (see PasswordHasher); the password field of a
+ * loaded user holds the stored hash.
  */
 public class UserDAO {
 
@@ -26,7 +29,7 @@ public class UserDAO {
 
             pstmt.setString(1, id);
             pstmt.setString(2, user.getUsername());
-            pstmt.setString(3, user.getPassword()); 
+            pstmt.setString(3, PasswordHasher.hash(user.getPassword()));
             pstmt.setString(4, user.getEmail());
             pstmt.setString(5, user.getFirstName());
             pstmt.setString(6, user.getLastName());
@@ -164,7 +167,7 @@ public class UserDAO {
             } else {
                 // Update with password
                 pstmt.setString(1, user.getUsername());
-                pstmt.setString(2, user.getPassword()); // hash
+                pstmt.setString(2, PasswordHasher.hash(user.getPassword()));
                 pstmt.setString(3, user.getEmail());
                 pstmt.setString(4, user.getFirstName());
                 pstmt.setString(5, user.getLastName());
@@ -178,6 +181,24 @@ public class UserDAO {
         }
     }
 
+    /**
+     * Replaces the stored hash (rehash on login of a plain-text or weaker row).
+     */
+    public void updatePasswordHash(String id, String passwordHash) {
+        String sql = "UPDATE users SET password_hash = ? WHERE id = ?";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, passwordHash);
+            pstmt.setString(2, id);
+            pstmt.executeUpdate();
+        } catch (SQLException e) {
+            e.printStackTrace();
+            throw new RuntimeException("Error updating password", e);
+        }
+    }
+
     /**
      * Deletes a user by ID.
      */
@@ -0,0 +1,21 @@
+package com.smarttask.server.graph;
+
+import java.util.List;
+
+/**
+ * Thrown when a dependency would close a cycle, or when stored data already has one.
+ */
+public class DependencyCycleException extends RuntimeException {
+
+    private final List<String> taskIds;
+
+    public DependencyCycleException(String message, List<String> taskIds) {
+        super(message);
+        this.taskIds = List.copyOf(taskIds);
+    }
+
+    /** Ids of the tasks forming (or stuck behind) the cycle. */
+    public List<String> getTaskIds() {
+        return taskIds;
+    }
+}
@@ -0,0 +1,177 @@
+package com.smarttask.server.graph;
+
+import com.smarttask.model.Status;
+import com.smarttask.model.Task;
+import com.smarttask.model.TaskDependency;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * In-memory dependency graph of one scope: the tasks of a project, or a single
+ * task that has no project.
+ *
+ * It holds every edge touching a task of the scope, so the predecessors and
+ * successors of those tasks are always complete. Tasks of other scopes reached
+ * by such an edge are kept as external nodes (with their own project id) so
+ * traversals know where to continue. Not thread-safe: {@link DependencyGraphRegistry}
+ * guards access.
+ */
+public class DependencyGraph {
+
+    /** Minimal task data needed by the graph algorithms. */
+    record Node(String id, String title, Status status, LocalDateTime dueDate, String projectId) {
+        boolean isOpen() {
+            return status != Status.COMPLETED;
+        }
+
+        Task toTask() {
+            Task t = new Task();
+            t.setId(id);
+            t.setTitle(title);
+            t.setStatus(status);
+            t.setDueDate(dueDate);
+            t.setProjectId(projectId);
+            return t;
+        }
+    }
+
+    private final String scope;
+    private final Map<String, Node> nodes = new LinkedHashMap<>();
+    private final Set<String> members = new LinkedHashSet<>();
+    private final Map<String, Set<String>> successors = new HashMap<>();
+    private final Map<String, Set<String>> predecessors = new HashMap<>();
+    private final Map<String, TaskDependency> edges = new LinkedHashMap<>();
+
+    DependencyGraph(String scope) {
+        this.scope = scope;
+    }
+
+    String scope() {
+        return scope;
+    }
+
+    void addMember(Node node) {
+        nodes.put(node.id(), node);
+        members.add(node.id());
+    }
+
+    boolean contains(String taskId) {
+        return nodes.containsKey(taskId);
+    }
+
+    boolean isMember(String taskId) {
+        return members.contains(taskId);
+    }
+
+    Node node(String taskId) {
+        return nodes.get(taskId);
+    }
+
+    void addEdge(TaskDependency dep, Node predecessor, Node successor) {
+        nodes.putIfAbsent(predecessor.id(), predecessor);
+        nodes.putIfAbsent(successor.id(), successor);
+        edges.put(dep.getId(), dep);
+        successors.computeIfAbsent(predecessor.id(), k -> new LinkedHashSet<>()).add(successor.id());
+        predecessors.computeIfAbsent(successor.id(), k -> new LinkedHashSet<>()).add(predecessor.id());
+    }
+
+    TaskDependency removeEdge(String dependencyId) {
+        TaskDependency dep = edges.remove(dependencyId);
+        if (dep == null) return null;
+        // (predecessor, successor) is unique in task_dependencies
+        successors.getOrDefault(dep.getPredecessor().getId(), new HashSet<>()).remove(dep.getSuccessor().getId());
+        predecessors.getOrDefault(dep.getSuccessor().getId(), new HashSet<>()).remove(dep.getPredecessor().getId());
+        return dep;
+    }
+
+    Set<String> successorsOf(String taskId) {
+        return successors.getOrDefault(taskId, Set.of());
+    }
+
+    Set<String> predecessorsOf(String taskId) {
+        return predecessors.getOrDefault(taskId, Set.of());
+    }
+
+    List<Task> tasks() {
+        return members.stream().map(id -> nodes.get(id).toTask()).toList();
+    }
+
+    List<TaskDependency> dependencies() {
+        return new ArrayList<>(edges.values());
+    }
+
+    /**
+     * Tasks of the scope ordered so that every task comes after the tasks it
+     * depends on (Kahn's algorithm). Ready tasks are taken by due date, then title.
+     *
+     * @throws DependencyCycleException if existing data already contains a cycle
+     */
+    List<Task> topologicalOrder() {
+        Map<String, Integer> inDegree = new HashMap<>();
+        for (String id : members) {
+            inDegree.put(id, (int) predecessorsOf(id).stream().filter(members::contains).count());
+        }
+
+        PriorityQueue<Node> ready = new PriorityQueue<>(READY_ORDER);
+        inDegree.forEach((id, degree) -> {
+            if (degree == 0) ready.add(nodes.get(id));
+        });
+
+        List<Task> order = new ArrayList<>(members.size());
+        while (!ready.isEmpty()) {
+            Node n = ready.poll();
+            order.add(n.toTask());
+            for (String next : successorsOf(n.id())) {
+                if (inDegree.containsKey(next) && inDegree.merge(next, -1, Integer::sum) == 0) {
+                    ready.add(nodes.get(next));
+                }
+            }
+        }
+
+        if (order.size() < members.size()) {
+            List<String> stuck = inDegree.entrySet().stream()
+                    .filter(e -> e.getValue() > 0).map(Map.Entry::getKey).toList();
+            throw new DependencyCycleException("Dependency cycle in project", stuck);
+        }
+        return order;
+    }
+
+    /**
+     * Longest chain of open tasks of the scope: the work that cannot be done in
+     * parallel. Tasks carry no estimate, so every open task weighs the same and
+     * completed tasks are left out (they no longer hold anything back).
+     */
+    List<Task> criticalPath() {
+        List<Task> order = topologicalOrder();
+        Map<String, Integer> length = new HashMap<>();
+        Map<String, String> previous = new HashMap<>();
+        String end = null;
+
+        for (Task t : order) {
+            Node n = nodes.get(t.getId());
+            if (!n.isOpen()) continue;
+            int best = 0;
+            for (String p : predecessorsOf(n.id())) {
+                Integer len = length.get(p);
+                if (len != null && len > best) {
+                    best = len;
+                    previous.put(n.id(), p);
+                }
+            }
+            length.put(n.id(), best + 1);
+            if (end == null || best + 1 > length.get(end)) end = n.id();
+        }
+
+        LinkedList<Task> path = new LinkedList<>();
+        for (String id = end; id != null; id = previous.get(id)) {
+            path.addFirst(nodes.get(id).toTask());
+        }
+        return path;
+    }
+
+    private static final Comparator<Node> READY_ORDER = Comparator
+            .comparing(Node::dueDate, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(Node::title, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(Node::id);
+}
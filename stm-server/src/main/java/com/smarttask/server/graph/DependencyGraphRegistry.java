@@ -0,0 +1,378 @@
+package com.smarttask.server.graph;
+
+import com.smarttask.model.Status;
+import com.smarttask.model.Task;
+import com.smarttask.model.TaskDependency;
+import com.smarttask.model.TaskGraph;
+import com.smarttask.server.config.DatabaseConnection;
+import com.smarttask.server.dao.TaskDependencyDAO;
+import com.smarttask.server.graph.DependencyGraph.Node;
+
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * Loads, caches and updates the dependency graphs, one per project.
+ *
+ * Graphs are loaded from task_dependencies on first use and kept up to date by
+ * {@link #addDependency} and {@link #removeDependency}, which write through the DAO.
+ * Task writes only drop the graphs that know the task, since they change titles,
+ * statuses or project membership.
+ *
+ * Reads share a lock and only touch cached graphs; updating the cache takes it
+ * exclusively, for a few map operations. No database work happens under it: a read
+ * missing a graph releases the lock, loads the graph and tries again. Every change
+ * bumps a generation, and a load started before a change is dropped instead of
+ * being cached, since it may not have seen it. Dependency writes are serialized
+ * among themselves, so the cycle check and the insert it guards cannot interleave
+ * with another insert.
+ */
+public final class DependencyGraphRegistry {
+
+    private static final String TASK_SCOPE_PREFIX = "task:";
+
+    private static final String NODE_SQL = "SELECT id, title, status, due_date, project_id FROM tasks";
+    private static final String EDGE_SQL = """
+                SELECT d.*,
+                       p.title AS p_title, p.status AS p_status, p.due_date AS p_due_date, p.project_id AS p_project_id,
+                       s.title AS s_title, s.status AS s_status, s.due_date AS s_due_date, s.project_id AS s_project_id
+                FROM task_dependencies d
+                INNER JOIN tasks p ON d.predecessor_id = p.id
+                INNER JOIN tasks s ON d.successor_id = s.id
+            """;
+
+    private static final Map<String, DependencyGraph> GRAPHS = new ConcurrentHashMap<>();
+    private static final ReadWriteLock LOCK = new ReentrantReadWriteLock();
+    // Bumped under the write lock by every change to the cache
+    private static final AtomicLong GENERATION = new AtomicLong();
+    // Serializes dependency writes (check, save, cache update), outside LOCK
+    private static final Object WRITES = new Object();
+    private static final TaskDependencyDAO DEPENDENCY_DAO = new TaskDependencyDAO();
+
+    private DependencyGraphRegistry() {}
+
+    // --- READS ---
+
+    public static TaskGraph projectGraph(String projectId) {
+        return read(view -> {
+            DependencyGraph graph = view.graph(projectId);
+            return new TaskGraph(graph.tasks(), graph.dependencies());
+        });
+    }
+
+    public static List<Task> topologicalOrder(String projectId) {
+        return read(view -> view.graph(projectId).topologicalOrder());
+    }
+
+    public static List<Task> criticalPath(String projectId) {
+        return read(view -> view.graph(projectId).criticalPath());
+    }
+
+    /**
+     * Open tasks that must be finished, directly or through other open tasks,
+     * before the task can proceed. Crosses project boundaries.
+     */
+    public static List<Task> transitiveBlockers(String taskId) {
+        return read(view -> {
+            List<Task> blockers = new ArrayList<>();
+            Set<String> seen = new HashSet<>(Set.of(taskId));
+            Deque<String> queue = new ArrayDeque<>(List.of(taskId));
+            while (!queue.isEmpty()) {
+                String current = queue.poll();
+                DependencyGraph graph = view.graphOf(current);
+                if (graph == null) continue;
+                for (String p : graph.predecessorsOf(current)) {
+                    Node n = graph.node(p);
+                    // A finished task no longer blocks, nor do the tasks behind it
+                    if (seen.add(p) && n.isOpen()) {
+                        blockers.add(n.toTask());
+                        queue.add(p);
+                    }
+                }
+            }
+            return blockers;
+        });
+    }
+
+    // --- WRITES ---
+
+    /**
+     * Saves the dependency unless it would close a cycle.
+     *
+     * @throws DependencyCycleException with the existing path from the successor back to the predecessor
+     * @throws IllegalArgumentException if one of the tasks does not exist
+     */
+    public static TaskDependency addDependency(TaskDependency dep) {
+        String from = dep.getPredecessor().getId();
+        String to = dep.getSuccessor().getId();
+
+        synchronized (WRITES) {
+            Node[] ends = read(view -> {
+                DependencyGraph fromGraph = view.graphOf(from);
+                DependencyGraph toGraph = view.graphOf(to);
+                if (fromGraph == null || toGraph == null) {
+                    throw new IllegalArgumentException("Unknown task");
+                }
+                if (from.equals(to)) {
+                    throw new DependencyCycleException("A task cannot depend on itself", List.of(from));
+                }
+                List<String> path = view.findPath(to, from);
+                if (path != null) {
+                    throw new DependencyCycleException("Dependency would create a cycle", path);
+                }
+                return new Node[] {fromGraph.node(from), toGraph.node(to)};
+            });
+
+            DEPENDENCY_DAO.save(dep);
+
+            dep.getPredecessor().setTitle(ends[0].title());
+            dep.getSuccessor().setTitle(ends[1].title());
+            // Graphs evicted meanwhile reload with the new row
+            write(() -> {
+                for (DependencyGraph graph : GRAPHS.values()) {
+                    if (graph.isMember(from) || graph.isMember(to)) graph.addEdge(dep, ends[0], ends[1]);
+                }
+            });
+            return dep;
+        }
+    }
+
+    public static boolean removeDependency(String dependencyId) {
+        synchronized (WRITES) {
+            boolean deleted = DEPENDENCY_DAO.deleteById(dependencyId);
+            if (deleted) {
+                write(() -> {
+                    for (DependencyGraph graph : GRAPHS.values()) {
+                        graph.removeEdge(dependencyId);
+                    }
+                });
+            }
+            return deleted;
+        }
+    }
+
+    /** A task of the project was created, so its graph is missing a node. */
+    public static void invalidateProject(String projectId) {
+        if (projectId == null) return;
+        write(() -> GRAPHS.remove(projectId));
+    }
+
+    /** A task changed or was deleted: drop every graph holding a copy of it. */
+    public static void invalidateTask(String taskId) {
+        write(() -> GRAPHS.values().removeIf(graph -> graph.contains(taskId)));
+    }
+
+    public static void invalidateAll() {
+        write(GRAPHS::clear);
+    }
+
+    // --- INTERNALS ---
+
+    /**
+     * Runs the action on the cached graphs under the read lock. A graph it needs
+     * and the cache lacks is loaded with the lock released, then the action runs again.
+     */
+    private static <T> T read(Function<View, T> action) {
+        View view = new View();
+        while (true) {
+            NotLoaded missing;
+            LOCK.readLock().lock();
+            try {
+                return action.apply(view);
+            } catch (NotLoaded e) {
+                missing = e;
+            } finally {
+                LOCK.readLock().unlock();
+            }
+            view.resolve(missing);
+        }
+    }
+
+    private static void write(Runnable change) {
+        LOCK.writeLock().lock();
+        try {
+            GENERATION.incrementAndGet();
+            change.run();
+        } finally {
+            LOCK.writeLock().unlock();
+        }
+    }
+
+    /** Caches a graph loaded from the given generation, unless something changed since. */
+    private static void install(DependencyGraph graph, long generation) {
+        LOCK.writeLock().lock();
+        try {
+            if (GENERATION.get() == generation) GRAPHS.putIfAbsent(graph.scope(), graph);
+        } finally {
+            LOCK.writeLock().unlock();
+        }
+    }
+
+    /** A graph (by scope) or the scope of a task (by id) the cache does not have yet. */
+    private static final class NotLoaded extends RuntimeException {
+        final String scope;
+        final String taskId;
+
+        NotLoaded(String scope, String taskId) {
+            super(null, null, false, false);
+            this.scope = scope;
+            this.taskId = taskId;
+        }
+    }
+
+    /**
+     * What one read has learned outside the cache: the scope of tasks, those that do
+     * not exist, and the graphs it loaded (used even when too stale to be cached, so
+     * a read always ends).
+     */
+    private static final class View {
+        private final Map<String, String> taskScopes = new HashMap<>();
+        private final Set<String> unknownTasks = new HashSet<>();
+        private final Map<String, DependencyGraph> loaded = new HashMap<>();
+
+        DependencyGraph graph(String scope) {
+            DependencyGraph graph = GRAPHS.get(scope);
+            if (graph == null) graph = loaded.get(scope);
+            if (graph == null) throw new NotLoaded(scope, null);
+            return graph;
+        }
+
+        /** Graph in which the task is a member; null for an unknown task. */
+        DependencyGraph graphOf(String taskId) {
+            for (DependencyGraph graph : GRAPHS.values()) {
+                if (graph.isMember(taskId)) return graph;
+                Node n = graph.node(taskId);
+                if (n != null) return graph(scopeOf(n.projectId(), taskId));
+            }
+            for (DependencyGraph graph : loaded.values()) {
+                if (graph.isMember(taskId)) return graph;
+            }
+            if (unknownTasks.contains(taskId)) return null;
+            String scope = taskScopes.get(taskId);
+            if (scope != null) return graph(scope);
+            throw new NotLoaded(null, taskId);
+        }
+
+        /**
+         * Depth-first search along successors, following edges into other scopes.
+         * Returns the task ids from start to target, or null if target is unreachable.
+         */
+        List<String> findPath(String start, String target) {
+            Map<String, String> parent = new HashMap<>();
+            Deque<String> stack = new ArrayDeque<>(List.of(start));
+            parent.put(start, null);
+            while (!stack.isEmpty()) {
+                String current = stack.pop();
+                if (current.equals(target)) {
+                    LinkedList<String> path = new LinkedList<>();
+                    for (String id = current; id != null; id = parent.get(id)) path.addFirst(id);
+                    return path;
+                }
+                DependencyGraph graph = graphOf(current);
+                if (graph == null) continue;
+                for (String next : graph.successorsOf(current)) {
+                    if (!parent.containsKey(next)) {
+                        parent.put(next, current);
+                        stack.push(next);
+                    }
+                }
+            }
+            return null;
+        }
+
+        /** Loads what the last attempt missed; no lock is held. */
+        void resolve(NotLoaded missing) {
+            long generation = GENERATION.get();
+            String scope = missing.scope;
+            if (scope == null) {
+                Node n = loadNode(missing.taskId);
+                if (n == null) {
+                    unknownTasks.add(missing.taskId);
+                    return;
+                }
+                scope = scopeOf(n.projectId(), missing.taskId);
+                taskScopes.put(missing.taskId, scope);
+            }
+            if (GRAPHS.containsKey(scope) || loaded.containsKey(scope)) return;
+            DependencyGraph graph = load(scope);
+            loaded.put(scope, graph);
+            install(graph, generation);
+        }
+    }
+
+    private static String scopeOf(String projectId, String taskId) {
+        return projectId != null ? projectId : TASK_SCOPE_PREFIX + taskId;
+    }
+
+    private static DependencyGraph load(String scope) {
+        boolean singleTask = scope.startsWith(TASK_SCOPE_PREFIX);
+        String key = singleTask ? scope.substring(TASK_SCOPE_PREFIX.length()) : scope;
+        String nodeSql = NODE_SQL + (singleTask ? " WHERE id = ?" : " WHERE project_id = ?");
+        String edgeSql = EDGE_SQL + (singleTask
+                ? "WHERE d.predecessor_id = ? OR d.successor_id = ?"
+                : "WHERE p.project_id = ? OR s.project_id = ?");
+
+        DependencyGraph graph = new DependencyGraph(scope);
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setReadOnly(true);
+            try (PreparedStatement stmt = conn.prepareStatement(nodeSql)) {
+                stmt.setString(1, key);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) graph.addMember(mapNode(rs, ""));
+                }
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(edgeSql)) {
+                stmt.setString(1, key);
+                stmt.setString(2, key);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        TaskDependency dep = TaskDependencyDAO.map(rs);
+                        dep.getPredecessor().setTitle(rs.getString("p_title"));
+                        dep.getSuccessor().setTitle(rs.getString("s_title"));
+                        graph.addEdge(dep, mapNode(rs, "p_"), mapNode(rs, "s_"));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            throw new RuntimeException("Error loading dependency graph", e);
+        }
+        return graph;
+    }
+
+    private static Node loadNode(String taskId) {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(NODE_SQL + " WHERE id = ?")) {
+            stmt.setString(1, taskId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? mapNode(rs, "") : null;
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            throw new RuntimeException("Error loading task", e);
+        }
+    }
+
+    /**
+     * Reads a node from the plain task columns (prefix "") or from the
+     * predecessor/successor columns of the edge query ("p_", "s_").
+     */
+    private static Node mapNode(ResultSet rs, String prefix) throws SQLException {
+        String id = prefix.isEmpty() ? rs.getString("id")
+                : rs.getString(prefix.equals("p_") ? "predecessor_id" : "successor_id");
+        Status status;
+        try {
+            status = Status.valueOf(rs.getString(prefix + "status"));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            status = Status.TODO;
+        }
+        Timestamp due = rs.getTimestamp(prefix + "due_date");
+        return new Node(id, rs.getString(prefix + "title"), status,
+                due != null ? due.toLocalDateTime() : null, rs.getString(prefix + "project_id"));
+    }
+}
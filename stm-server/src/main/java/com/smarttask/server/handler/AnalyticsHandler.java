@@ -0,0 +1,36 @@
+package com.smarttask.server.handler;
+
+import com.smarttask.model.DashboardStats;
+import com.smarttask.server.auth.TaskPermissions;
+import com.smarttask.server.cache.DashboardStatsCache;
+import com.smarttask.server.dao.AnalyticsDAO;
+import com.smarttask.server.http.ApiHandler;
+import com.smarttask.server.http.PathParams;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+
+/**
+ * Handler HTTP pour les statistiques agrégées (dashboard).
+ */
+public class AnalyticsHandler extends ApiHandler {
+
+    private final AnalyticsDAO analyticsDAO = new AnalyticsDAO();
+
+    public AnalyticsHandler() {
+        get("/api/analytics/dashboard/{userId}", this::handleGetDashboard);
+    }
+
+    /**
+     * Un utilisateur ne voit que son propre dashboard.
+     */
+    private void handleGetDashboard(HttpExchange exchange, PathParams params) throws IOException {
+        String userId = params.get("userId");
+        if (!TaskPermissions.requireUser(exchange).equals(userId)) {
+            sendError(exchange, 403, "Forbidden");
+            return;
+        }
+        DashboardStats stats = DashboardStatsCache.get(userId, analyticsDAO::computeDashboard);
+        sendJson(exchange, 200, stats);
+    }
+}
@@ -1,83 +1,128 @@
 package com.smarttask.server.handler;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import com.smarttask.model.Attachment;
+import com.smarttask.server.blob.BlobDownload;
+import com.smarttask.server.blob.BlobGrants;
+import com.smarttask.server.blob.BlobStore;
+import com.smarttask.server.blob.Thumbnails;
 import com.smarttask.server.dao.AttachmentDAO;
+import com.smarttask.server.auth.RequestContext;
+import com.smarttask.server.auth.TaskPermissions;
+import com.smarttask.server.auth.TaskPermissions.Level;
+import com.smarttask.server.http.ApiHandler;
+import com.smarttask.server.http.PathParams;
+import com.smarttask.server.http.Responses;
 import com.sun.net.httpserver.HttpExchange;
-import com.sun.net.httpserver.HttpHandler;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
-import java.nio.charset.StandardCharsets;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
-public class AttachmentHandler implements HttpHandler {
+public class AttachmentHandler extends ApiHandler {
     private final AttachmentDAO dao = new AttachmentDAO();
-    private final Gson gson;
 
     public AttachmentHandler() {
-        GsonBuilder gsonBuilder = new GsonBuilder();
-        gsonBuilder.registerTypeAdapter(LocalDateTime.class, new com.google.gson.JsonSerializer<LocalDateTime>() {
-            @Override
-            public com.google.gson.JsonElement serialize(LocalDateTime src, java.lang.reflect.Type typeOfSrc, com.google.gson.JsonSerializationContext context) {
-                return new com.google.gson.JsonPrimitive(src.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
-            }
-        });
-        gsonBuilder.registerTypeAdapter(LocalDateTime.class, new com.google.gson.JsonDeserializer<LocalDateTime>() {
-            @Override
-            public LocalDateTime deserialize(com.google.gson.JsonElement json, java.lang.reflect.Type typeOfSrc, com.google.gson.JsonDeserializationContext context) {
-                return LocalDateTime.parse(json.getAsString(), DateTimeFormatter.ISO_LOCAL_DATE_TIME);
-            }
-        });
-        this.gson = gsonBuilder.create();
+        get("/api/attachments/task/{taskId}", this::handleGetByTask);
+        get("/api/attachments/{id}/content", this::handleGetContent);
+        get("/api/attachments/{id}/thumbnail", this::handleGetThumbnail);
+        post("/api/attachments", this::handleCreate);
+        delete("/api/attachments/{id}", this::handleDelete);
     }
 
-    @Override
-    public void handle(HttpExchange exchange) throws IOException {
-        String method = exchange.getRequestMethod();
-        String path = exchange.getRequestURI().getPath();
+    private void handleGetByTask(HttpExchange exchange, PathParams params) throws IOException {
+        String taskId = params.get("taskId");
+        TaskPermissions.require(exchange, taskId, Level.READ);
+        List<Attachment> list = dao.findByTask(taskId);
+        sendJson(exchange, 200, list);
+    }
 
-        try {
-            if ("GET".equals(method) && path.startsWith("/api/attachments/task/")) {
-                String taskId = path.substring("/api/attachments/task/".length());
-                List<Attachment> list = dao.findByTask(taskId);
-                sendResponse(exchange, 200, gson.toJson(list));
-            } else if ("POST".equals(method) && path.equals("/api/attachments")) {
-                String body = readRequestBody(exchange);
-                Attachment a = gson.fromJson(body, Attachment.class);
-                dao.save(a);
-                sendResponse(exchange, 201, gson.toJson(a));
-            } else if ("DELETE".equals(method) && path.startsWith("/api/attachments/")) {
-                String id = path.substring("/api/attachments/".length());
-                if (dao.delete(id)) {
-                    sendResponse(exchange, 200, "{\"message\":\"Deleted\"}");
-                } else {
-                    sendResponse(exchange, 404, "{\"error\":\"Not found\"}");
-                }
-            } else {
-                sendResponse(exchange, 404, "{\"error\":\"Not Found\"}");
+    /**
+     * GET /api/attachments/{id}/content (Range accepté)
+     */
+    private void handleGetContent(HttpExchange exchange, PathParams params) throws IOException {
+        Attachment a = dao.findById(params.get("id")).orElse(null);
+        if (a == null || a.getContentHash() == null) {
+            sendError(exchange, 404, "No stored content");
+            return;
+        }
+        TaskPermissions.require(exchange, a.getTask().getId(), Level.READ);
+        BlobDownload.send(exchange, a.getContentHash(), a.getFileName(), a.getFileType());
+    }
+
+    private void handleCreate(HttpExchange exchange, PathParams params) throws IOException {
+        Attachment a = readJson(exchange, Attachment.class);
+        if (a.getTask() == null || a.getTask().getId() == null) {
+            sendError(exchange, 400, "Task ID is required");
+            return;
+        }
+        TaskPermissions.require(exchange, a.getTask().getId(), Level.WRITE);
+        if (a.getContentHash() != null) {
+            // Le contenu a été envoyé avant via /api/blobs, par l'appelant ou déjà lisible par lui :
+            // la taille fait foi côté serveur
+            long size = BlobGrants.mayAttach(RequestContext.userId(exchange), a.getContentHash())
+                    ? BlobStore.size(a.getContentHash()) : -1;
+            if (size < 0) {
+                sendError(exchange, 400, "Unknown content hash");
+                return;
             }
-        } catch (Exception e) {
-            e.printStackTrace();
-            sendResponse(exchange, 500, "{\"error\":\"" + e.getMessage() + "\"}");
+            a.setFileSize(size);
+            a.setFilePath("blob:" + a.getContentHash());
         }
+        dao.save(a);
+        if (a.getContentHash() != null) Thumbnails.enqueue(a.getContentHash(), a.getFileType());
+        sendJson(exchange, 201, a);
     }
 
-    private String readRequestBody(HttpExchange exchange) throws IOException {
-        InputStream is = exchange.getRequestBody();
-        return new String(is.readAllBytes(), StandardCharsets.UTF_8);
+    private void handleDelete(HttpExchange exchange, PathParams params) throws IOException {
+        String id = params.get("id");
+        TaskPermissions.require(exchange, TaskPermissions.taskOfAttachment(id), Level.WRITE);
+        String contentHash = dao.findById(id).map(Attachment::getContentHash).orElse(null);
+        if (dao.delete(id)) {
+            if (contentHash != null) BlobStore.releaseIfUnreferenced(contentHash);
+            sendMessage(exchange, 200, "Deleted");
+        } else {
+            sendError(exchange, 404, "Not found");
+        }
     }
 
-    private void sendResponse(HttpExchange exchange, int statusCode, String response) throws IOException {
-        exchange.getResponseHeaders().set("Content-Type", "application/json");
-        exchange.getResponseHeaders().set("Access-Control-Allow-Origin", "*");
-        exchange.sendResponseHeaders(statusCode, response.getBytes(StandardCharsets.UTF_8).length);
-        OutputStream os = exchange.getResponseBody();
-        os.write(response.getBytes(StandardCharsets.UTF_8));
-        os.close();
+    /**
+     * GET /api/attachments/{id}/thumbnail
+     * Le rendu se fait en arrière-plan : s'il n'est pas encore prêt, on répond 202
+     * tout de suite (sans occuper le thread du serveur) et le client redemande plus tard.
+     */
+    private void handleGetThumbnail(HttpExchange exchange, PathParams params) throws IOException {
+        Attachment a = dao.findById(params.get("id")).orElse(null);
+        if (a == null || a.getContentHash() == null || !Thumbnails.isImage(a.getFileType())) {
+            sendError(exchange, 404, "No thumbnail");
+            return;
+        }
+        TaskPermissions.require(exchange, a.getTask().getId(), Level.READ);
+
+        CompletableFuture<Path> render = Thumbnails.request(a.getContentHash());
+        if (!render.isDone()) {
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            Responses.json(exchange, 202, "{\"status\":\"pending\"}");
+            return;
+        }
+        Path thumbnail;
+        try {
+            thumbnail = render.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RejectedExecutionException) {
+                exchange.getResponseHeaders().set("Retry-After", "5");
+                sendError(exchange, 503, "Thumbnail queue full");
+            } else {
+                sendError(exchange, 404, "No thumbnail");
+            }
+            return;
+        }
+        if (thumbnail == null) {
+            sendError(exchange, 404, "No thumbnail");
+            return;
+        }
+        BlobDownload.sendThumbnail(exchange, a.getContentHash(), thumbnail);
     }
 }
@@ -1,135 +1,154 @@
 package com.smarttask.server.handler;
 
-import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
 import com.smarttask.model.User;
+import com.smarttask.server.auth.PasswordHasher;
+import com.smarttask.server.auth.SessionTokens;
 import com.smarttask.server.dao.UserDAO;
+import com.smarttask.server.http.ApiHandler;
+import com.smarttask.server.http.HttpError;
+import com.smarttask.server.http.PathParams;
+import com.smarttask.server.http.TimingFilter;
 import com.sun.net.httpserver.HttpExchange;
-import com.sun.net.httpserver.HttpHandler;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
-import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Handler HTTP pour gérer l'authentification (login, register).
+ * Le login renvoie, en plus de l'utilisateur, un jeton de session signé (voir SessionTokens).
+ * Les mots de passe sont hachés et vérifiés sur le pool dédié de PasswordHasher.
  */
-public class AuthHandler implements HttpHandler {
+public class AuthHandler extends ApiHandler {
     private final UserDAO userDAO = new UserDAO();
-    private final Gson gson = new Gson();
 
-    @Override
-    public void handle(HttpExchange exchange) throws IOException {
-        String method = exchange.getRequestMethod();
-        String path = exchange.getRequestURI().getPath();
+    public AuthHandler() {
+        post("/api/auth/register", (exchange, params) -> offload(exchange, () -> handleRegister(exchange)));
+        post("/api/auth/login", (exchange, params) -> offload(exchange, () -> handleLogin(exchange)));
+        post("/api/auth/verify-password", (exchange, params) -> offload(exchange, () -> handleVerifyPassword(exchange)));
+    }
 
+    /**
+     * Le hachage des mots de passe coûte cher en CPU : ces requêtes passent sur le pool de
+     * PasswordHasher et la réponse est envoyée depuis ce pool. Pool saturé -> 503.
+     * Les erreurs du pool ne remontent pas au routeur : on répond ici. La requête est
+     * chronométrée jusqu'à l'envoi de la réponse (TimingFilter.defer).
+     */
+    private void offload(HttpExchange exchange, AuthJob job) throws IOException {
+        Runnable timed = TimingFilter.defer(exchange);
         try {
-            if ("POST".equals(method)) {
-                if (path.equals("/api/auth/register")) {
-                    handleRegister(exchange);
-                } else if (path.equals("/api/auth/login")) {
-                    handleLogin(exchange);
-                } else if (path.equals("/api/auth/verify-password")) {
-                    handleVerifyPassword(exchange);
-                } else {
-                    sendResponse(exchange, 404, "{\"error\":\"Not Found\"}");
+            PasswordHasher.submit(() -> {
+                job.run();
+                return null;
+            }).exceptionally(e -> {
+                Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                try {
+                    if (cause instanceof HttpError error) {
+                        sendError(exchange, error.status(), error.getMessage());
+                    } else if (cause instanceof JsonParseException) {
+                        sendError(exchange, 400, "Invalid JSON");
+                    } else {
+                        cause.printStackTrace();
+                        sendError(exchange, 500, "Internal server error");
+                    }
+                } catch (IOException | RuntimeException ignored) {
+                    // Response already sent
+                    exchange.close();
                 }
-            } else {
-                sendResponse(exchange, 405, "{\"error\":\"Method Not Allowed\"}");
+                return null;
+            }).whenComplete((ignored, e) -> timed.run());
+        } catch (RejectedExecutionException e) {
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            try {
+                sendError(exchange, 503, "Too many login attempts, please retry");
+            } finally {
+                timed.run();
             }
-        } catch (Exception e) {
-            e.printStackTrace();
-            String errorMessage = e.getMessage() != null ? e.getMessage().replace("\"", "\\\"") : "Internal server error";
-            sendResponse(exchange, 500, "{\"error\":\"" + errorMessage + "\"}");
         }
     }
 
     private void handleRegister(HttpExchange exchange) throws IOException {
-        try {
-            String requestBody = readRequestBody(exchange);
-            User user = gson.fromJson(requestBody, User.class);
+        User user = readJson(exchange, User.class);
 
-            // Vérifier si l'utilisateur existe déjà
-            if (userDAO.existsByUsername(user.getUsername())) {
-                sendResponse(exchange, 400, "{\"error\":\"Username already exists\"}");
-                return;
-            }
-
-            // Créer le nouvel utilisateur
-            String userId = userDAO.save(user);
-            user.setId(userId);
-            user.setPassword(null); // Ne pas renvoyer le mot de passe
+        // Vérifier si l'utilisateur existe déjà
+        if (userDAO.existsByUsername(user.getUsername())) {
+            sendError(exchange, 400, "Username already exists");
+            return;
+        }
 
-            sendResponse(exchange, 201, gson.toJson(user));
+        // Créer le nouvel utilisateur
+        String userId;
+        try {
+            userId = userDAO.save(user);
         } catch (RuntimeException e) {
             e.printStackTrace();
-            sendResponse(exchange, 500, "{\"error\":\"Error saving user\"}");
-        } catch (Exception e) {
-            e.printStackTrace();
-            sendResponse(exchange, 500, "{\"error\":\"Error saving user\"}");
+            sendError(exchange, 500, "Error saving user");
+            return;
         }
+        user.setId(userId);
+        user.setPassword(null); // Ne pas renvoyer le mot de passe
+
+        sendJson(exchange, 201, user);
     }
 
     private void handleLogin(HttpExchange exchange) throws IOException {
-        String requestBody = readRequestBody(exchange);
-        LoginRequest loginRequest = gson.fromJson(requestBody, LoginRequest.class);
+        LoginRequest loginRequest = readJson(exchange, LoginRequest.class);
 
         // Trouver l'utilisateur
         User user = userDAO.findByUsername(loginRequest.username)
                 .orElse(null);
 
-        if (user == null || user.getPassword() == null || !user.getPassword().equals(loginRequest.password)) {
-            sendResponse(exchange, 401, "{\"error\":\"Invalid credentials\"}");
+        PasswordHasher.Result result = PasswordHasher.verify(loginRequest.password, user != null ? user.getPassword() : null);
+        if (!result.matches()) {
+            sendError(exchange, 401, "Invalid credentials");
             return;
         }
+        rehashIfNeeded(user, loginRequest.password, result);
 
         // Ne pas renvoyer le mot de passe
         user.setPassword(null);
-        sendResponse(exchange, 200, gson.toJson(user));
+        // Jeton de session signé : les requêtes suivantes l'envoient en Authorization: Bearer
+        JsonObject json = gson.toJsonTree(user).getAsJsonObject();
+        json.addProperty("token", SessionTokens.issue(user));
+        json.addProperty("expiresIn", SessionTokens.ttlSeconds());
+        sendJson(exchange, 200, json);
     }
 
     private void handleVerifyPassword(HttpExchange exchange) throws IOException {
-        String requestBody = readRequestBody(exchange);
-        LoginRequest verifyRequest = gson.fromJson(requestBody, LoginRequest.class);
-
-        System.out.println("=== DEBUG VERIFY PASSWORD ===");
-        System.out.println("Username from request: '" + verifyRequest.username + "'");
-        System.out.println("Password from request: '" + verifyRequest.password + "'");
+        LoginRequest verifyRequest = readJson(exchange, LoginRequest.class);
 
         // Trouver l'utilisateur
         User user = userDAO.findByUsername(verifyRequest.username)
                 .orElse(null);
 
-        if (user == null) {
-            System.out.println("User not found!");
-            sendResponse(exchange, 401, "{\"error\":\"Invalid password\"}");
-            return;
-        }
-
-        System.out.println("User found: " + user.getUsername());
-        System.out.println("Password in DB: '" + user.getPassword() + "'");
-        System.out.println("Passwords match: " + user.getPassword().equals(verifyRequest.password));
-
-        if (!user.getPassword().equals(verifyRequest.password)) {
-            sendResponse(exchange, 401, "{\"error\":\"Invalid password\"}");
+        PasswordHasher.Result result = PasswordHasher.verify(verifyRequest.password, user != null ? user.getPassword() : null);
+        if (!result.matches()) {
+            sendError(exchange, 401, "Invalid password");
             return;
         }
+        rehashIfNeeded(user, verifyRequest.password, result);
 
-        sendResponse(exchange, 200, "{\"message\":\"Password verified\"}");
+        sendMessage(exchange, 200, "Password verified");
     }
 
-    private String readRequestBody(HttpExchange exchange) throws IOException {
-        InputStream is = exchange.getRequestBody();
-        return new String(is.readAllBytes(), StandardCharsets.UTF_8);
+    /**
+     * Ligne en clair ou hachée avec un coût plus faible : on la réécrit avec le mot de passe qui vient d'être vérifié.
+     */
+    private void rehashIfNeeded(User user, String password, PasswordHasher.Result result) {
+        if (result != PasswordHasher.Result.MATCH_NEEDS_REHASH) return;
+        try {
+            userDAO.updatePasswordHash(user.getId(), PasswordHasher.hash(password));
+        } catch (RuntimeException e) {
+            // La connexion réussit quand même ; on réessaiera au prochain login
+            e.printStackTrace();
+        }
     }
 
-    private void sendResponse(HttpExchange exchange, int statusCode, String response) throws IOException {
-        exchange.getResponseHeaders().set("Content-Type", "application/json");
-        exchange.getResponseHeaders().set("Access-Control-Allow-Origin", "*");
-        exchange.sendResponseHeaders(statusCode, response.getBytes(StandardCharsets.UTF_8).length);
-        OutputStream os = exchange.getResponseBody();
-        os.write(response.getBytes(StandardCharsets.UTF_8));
-        os.close();
+    @FunctionalInterface
+    private interface AuthJob {
+        void run() throws IOException;
     }
 
     // Classe interne pour désérialiser la requête de login
@@ -138,5 +157,3 @@ public class AuthHandler implements HttpHandler {
         String password;
     }
 }
-
-
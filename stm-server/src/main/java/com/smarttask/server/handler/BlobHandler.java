@@ -0,0 +1,125 @@
+package com.smarttask.server.handler;
+
+import com.google.gson.JsonObject;
+import com.smarttask.server.auth.TaskPermissions;
+import com.smarttask.server.blob.BlobGrants;
+import com.smarttask.server.blob.BlobStore;
+import com.smarttask.server.http.ApiHandler;
+import com.smarttask.server.http.HttpError;
+import com.smarttask.server.http.PathParams;
+import com.smarttask.server.http.RouteHandler;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+
+/**
+ * Handler HTTP pour l'envoi des fichiers joints vers le blob store.
+ * Les corps sont bruts (application/octet-stream, chunked accepté) et écrits sur disque au fil de l'eau.
+ *
+ * POST   /api/blobs                          - envoi en une fois -> {"sha256","size"}
+ * POST   /api/blobs/uploads                  - démarre un envoi reprenable -> {"uploadId","offset"}
+ * GET    /api/blobs/uploads/{id}             - octets déjà reçus -> {"uploadId","offset"}
+ * PATCH  /api/blobs/uploads/{id}             - ajoute un morceau à partir de l'en-tête Upload-Offset
+ * POST   /api/blobs/uploads/{id}/complete    - termine l'envoi [en-tête X-Content-SHA256] -> {"sha256","size"}
+ * DELETE /api/blobs/uploads/{id}             - abandonne l'envoi
+ *
+ * Les fichiers se téléchargent via la pièce jointe qui les référence
+ * (/api/attachments/{id}/content, /api/comment-attachments/{id}/content),
+ * ce qui applique les droits de la tâche. Un envoi terminé est noté au nom de
+ * l'appelant (BlobGrants) : seul lui peut ensuite le joindre par son hash.
+ */
+public class BlobHandler extends ApiHandler {
+
+    public BlobHandler() {
+        post("/api/blobs", blob(this::handleStore));
+        post("/api/blobs/", blob(this::handleStore));
+        post("/api/blobs/uploads", blob(this::handleStartUpload));
+        get("/api/blobs/uploads/{id}", blob(this::handleGetOffset));
+        patch("/api/blobs/uploads/{id}", blob(this::handleChunk));
+        post("/api/blobs/uploads/{id}/complete", blob(this::handleComplete));
+        delete("/api/blobs/uploads/{id}", blob(this::handleCancel));
+    }
+
+    /**
+     * Erreurs du blob store -> statut HTTP.
+     */
+    private static RouteHandler blob(RouteHandler handler) {
+        return (exchange, params) -> {
+            try {
+                handler.handle(exchange, params);
+            } catch (NoSuchFileException e) {
+                throw new HttpError(404, "Upload not found");
+            } catch (BlobStore.TooLargeException e) {
+                throw new HttpError(413, "Blob too large");
+            } catch (IllegalArgumentException e) {
+                // Hash mismatch: the part is dropped, the client starts over
+                throw new HttpError(400, "Content hash mismatch");
+            }
+        };
+    }
+
+    private void handleStore(HttpExchange exchange, PathParams params) throws IOException {
+        String userId = TaskPermissions.requireUser(exchange);
+        sendStored(exchange, userId, BlobStore.store(exchange.getRequestBody()));
+    }
+
+    private void handleStartUpload(HttpExchange exchange, PathParams params) throws IOException {
+        TaskPermissions.requireUser(exchange);
+        sendJson(exchange, 201, uploadJson(BlobStore.startUpload(), 0));
+    }
+
+    private void handleGetOffset(HttpExchange exchange, PathParams params) throws IOException {
+        String uploadId = params.get("id");
+        long offset = BlobStore.uploadedBytes(uploadId);
+        if (offset < 0) sendError(exchange, 404, "Upload not found");
+        else sendJson(exchange, 200, uploadJson(uploadId, offset));
+    }
+
+    private void handleComplete(HttpExchange exchange, PathParams params) throws IOException {
+        String userId = TaskPermissions.requireUser(exchange);
+        String expected = exchange.getRequestHeaders().getFirst("X-Content-SHA256");
+        sendStored(exchange, userId, BlobStore.completeUpload(params.get("id"), expected));
+    }
+
+    private void handleCancel(HttpExchange exchange, PathParams params) throws IOException {
+        BlobStore.cancelUpload(params.get("id"));
+        sendMessage(exchange, 200, "Upload cancelled");
+    }
+
+    private void handleChunk(HttpExchange exchange, PathParams params) throws IOException {
+        String uploadId = params.get("id");
+        String offsetHeader = exchange.getRequestHeaders().getFirst("Upload-Offset");
+        long offset;
+        try {
+            offset = Long.parseLong(offsetHeader);
+        } catch (NumberFormatException e) {
+            sendError(exchange, 400, "Upload-Offset header required");
+            return;
+        }
+        try {
+            long size = BlobStore.appendChunk(uploadId, offset, exchange.getRequestBody());
+            sendJson(exchange, 200, uploadJson(uploadId, size));
+        } catch (BlobStore.OffsetMismatchException e) {
+            JsonObject body = new JsonObject();
+            body.addProperty("error", "Offset mismatch");
+            body.addProperty("offset", e.getOffset());
+            sendJson(exchange, 409, body);
+        }
+    }
+
+    private void sendStored(HttpExchange exchange, String userId, BlobStore.Stored stored) throws IOException {
+        BlobGrants.grant(userId, stored.sha256());
+        JsonObject body = new JsonObject();
+        body.addProperty("sha256", stored.sha256());
+        body.addProperty("size", stored.size());
+        sendJson(exchange, 201, body);
+    }
+
+    private static JsonObject uploadJson(String uploadId, long offset) {
+        JsonObject body = new JsonObject();
+        body.addProperty("uploadId", uploadId);
+        body.addProperty("offset", offset);
+        return body;
+    }
+}
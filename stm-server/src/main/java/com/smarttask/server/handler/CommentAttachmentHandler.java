@@ -1,118 +1,103 @@
 package com.smarttask.server.handler;
 
-import com.google.gson.Gson;
 import com.smarttask.model.CommentAttachment;
+import com.smarttask.server.blob.BlobDownload;
+import com.smarttask.server.blob.BlobGrants;
+import com.smarttask.server.blob.BlobStore;
 import com.smarttask.server.dao.CommentAttachmentDAO;
-import com.smarttask.server.util.GsonUtils;
+import com.smarttask.server.auth.RequestContext;
+import com.smarttask.server.auth.TaskPermissions;
+import com.smarttask.server.auth.TaskPermissions.Level;
+import com.smarttask.server.http.ApiHandler;
+import com.smarttask.server.http.PathParams;
+import com.smarttask.server.http.Responses;
 import com.sun.net.httpserver.HttpExchange;
-import com.sun.net.httpserver.HttpHandler;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
-import java.nio.charset.StandardCharsets;
 import java.util.List;
 
-public class CommentAttachmentHandler implements HttpHandler {
+public class CommentAttachmentHandler extends ApiHandler {
     private final CommentAttachmentDAO attachmentDAO = new CommentAttachmentDAO();
-    private final Gson gson = GsonUtils.getGson();
 
-    @Override
-    public void handle(HttpExchange exchange) throws IOException {
-        String method = exchange.getRequestMethod();
-        String path = exchange.getRequestURI().getPath();
-
-        try {
-            if ("GET".equals(method)) {
-                if (path.startsWith("/api/comment-attachments/comment/")) {
-                    String commentId = path.substring("/api/comment-attachments/comment/".length());
-                    handleGetByCommentId(exchange, commentId);
-                } else if (path.startsWith("/api/comment-attachments/")) {
-                    String id = path.substring("/api/comment-attachments/".length());
-                    handleGetById(exchange, id);
-                } else {
-                    sendResponse(exchange, 404, "{\"error\":\"Not Found\"}");
-                }
-            } else if ("POST".equals(method)) {
-                if (path.equals("/api/comment-attachments")) {
-                    handleCreate(exchange);
-                } else {
-                    sendResponse(exchange, 404, "{\"error\":\"Not Found\"}");
-                }
-            } else if ("DELETE".equals(method)) {
-                if (path.startsWith("/api/comment-attachments/")) {
-                    String id = path.substring("/api/comment-attachments/".length());
-                    handleDelete(exchange, id);
-                } else {
-                    sendResponse(exchange, 404, "{\"error\":\"Not Found\"}");
-                }
-            } else {
-                sendResponse(exchange, 405, "{\"error\":\"Method Not Allowed\"}");
-            }
-        } catch (Exception e) {
-            sendResponse(exchange, 500, "{\"error\":\"" + e.getMessage() + "\"}");
-        }
+    public CommentAttachmentHandler() {
+        get("/api/comment-attachments/comment/{commentId}", this::handleGetByCommentId);
+        get("/api/comment-attachments/{id}/content", this::handleGetContent);
+        get("/api/comment-attachments/{id}", this::handleGetById);
+        post("/api/comment-attachments", this::handleCreate);
+        delete("/api/comment-attachments/{id}", this::handleDelete);
     }
 
-    private void handleGetByCommentId(HttpExchange exchange, String commentId) throws IOException {
-        try {
-            List<CommentAttachment> attachments = attachmentDAO.findByCommentId(commentId);
-            String json = gson.toJson(attachments);
-            sendResponse(exchange, 200, json);
-        } catch (Exception e) {
-            sendResponse(exchange, 500, "{\"error\":\"" + e.getMessage() + "\"}");
-        }
+    private void handleGetByCommentId(HttpExchange exchange, PathParams params) throws IOException {
+        String commentId = params.get("commentId");
+        TaskPermissions.require(exchange, TaskPermissions.taskOfComment(commentId), Level.READ);
+        List<CommentAttachment> attachments = attachmentDAO.findByCommentId(commentId);
+        sendJson(exchange, 200, attachments);
     }
 
-    private void handleGetById(HttpExchange exchange, String id) throws IOException {
-        try {
-            var attachment = attachmentDAO.findById(id);
-            if (attachment.isPresent()) {
-                String json = gson.toJson(attachment.get());
-                sendResponse(exchange, 200, json);
-            } else {
-                sendResponse(exchange, 404, "{\"error\":\"Not Found\"}");
-            }
-        } catch (Exception e) {
-            sendResponse(exchange, 500, "{\"error\":\"" + e.getMessage() + "\"}");
+    private void handleGetById(HttpExchange exchange, PathParams params) throws IOException {
+        String id = params.get("id");
+        TaskPermissions.require(exchange, TaskPermissions.taskOfCommentAttachment(id), Level.READ);
+        var attachment = attachmentDAO.findById(id);
+        if (attachment.isPresent()) {
+            sendJson(exchange, 200, attachment.get());
+        } else {
+            sendError(exchange, 404, "Not Found");
         }
     }
 
-    private void handleCreate(HttpExchange exchange) throws IOException {
-        try {
-            InputStream is = exchange.getRequestBody();
-            String body = new String(is.readAllBytes(), StandardCharsets.UTF_8);
-            CommentAttachment attachment = gson.fromJson(body, CommentAttachment.class);
-            
-            String id = attachmentDAO.save(attachment);
-            attachment.setId(id);
-            
-            exchange.getResponseHeaders().set("Content-Type", "application/json");
-            sendResponse(exchange, 201, gson.toJson(attachment));
-        } catch (Exception e) {
-            sendResponse(exchange, 400, "{\"error\":\"" + e.getMessage() + "\"}");
+    /**
+     * GET /api/comment-attachments/{id}/content (Range accepté)
+     */
+    private void handleGetContent(HttpExchange exchange, PathParams params) throws IOException {
+        String id = params.get("id");
+        TaskPermissions.require(exchange, TaskPermissions.taskOfCommentAttachment(id), Level.READ);
+        CommentAttachment attachment = attachmentDAO.findById(id).orElse(null);
+        if (attachment == null || attachment.getContentHash() == null) {
+            sendError(exchange, 404, "No stored content");
+            return;
         }
+        BlobDownload.send(exchange, attachment.getContentHash(), attachment.getFileName(), attachment.getFileType());
     }
 
-    private void handleDelete(HttpExchange exchange, String id) throws IOException {
-        try {
-            if (attachmentDAO.deleteById(id)) {
-                sendResponse(exchange, 204, "");
-            } else {
-                sendResponse(exchange, 404, "{\"error\":\"Not Found\"}");
+    private void handleCreate(HttpExchange exchange, PathParams params) throws IOException {
+        CommentAttachment attachment = readJson(exchange, CommentAttachment.class);
+        if (attachment.getCommentId() == null) {
+            sendError(exchange, 400, "Comment ID is required");
+            return;
+        }
+        String taskId = TaskPermissions.taskOfComment(attachment.getCommentId());
+        if (taskId == null) {
+            sendError(exchange, 404, "Comment not found");
+            return;
+        }
+        TaskPermissions.require(exchange, taskId, Level.READ);
+        if (attachment.getContentHash() != null) {
+            // Le contenu a été envoyé avant via /api/blobs, par l'appelant ou déjà lisible par lui :
+            // la taille fait foi côté serveur
+            long size = BlobGrants.mayAttach(RequestContext.userId(exchange), attachment.getContentHash())
+                    ? BlobStore.size(attachment.getContentHash()) : -1;
+            if (size < 0) {
+                sendError(exchange, 400, "Unknown content hash");
+                return;
             }
-        } catch (Exception e) {
-            sendResponse(exchange, 500, "{\"error\":\"" + e.getMessage() + "\"}");
+            attachment.setFileSize(size);
+            attachment.setFilePath("blob:" + attachment.getContentHash());
         }
+
+        String id = attachmentDAO.save(attachment);
+        attachment.setId(id);
+        sendJson(exchange, 201, attachment);
     }
 
-    private void sendResponse(HttpExchange exchange, int statusCode, String body) throws IOException {
-        exchange.getResponseHeaders().set("Content-Type", "application/json");
-        exchange.getResponseHeaders().set("Access-Control-Allow-Origin", "*");
-        exchange.getResponseHeaders().set("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS");
-        exchange.sendResponseHeaders(statusCode, body.getBytes(StandardCharsets.UTF_8).length);
-        OutputStream os = exchange.getResponseBody();
-        os.write(body.getBytes(StandardCharsets.UTF_8));
-        os.close();
+    private void handleDelete(HttpExchange exchange, PathParams params) throws IOException {
+        String id = params.get("id");
+        TaskPermissions.require(exchange, TaskPermissions.taskOfCommentAttachment(id), Level.WRITE);
+        String contentHash = attachmentDAO.findById(id).map(CommentAttachment::getContentHash).orElse(null);
+        if (attachmentDAO.deleteById(id)) {
+            if (contentHash != null) BlobStore.releaseIfUnreferenced(contentHash);
+            Responses.empty(exchange, 204);
+        } else {
+            sendError(exchange, 404, "Not Found");
+        }
     }
 }
@@ -1,166 +1,205 @@
 package com.smarttask.server.handler;
 
-import com.google.gson.Gson;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
 import com.smarttask.model.Comment;
+import com.smarttask.model.CommentAttachment;
 import com.smarttask.model.Task;
 import com.smarttask.model.User;
+import com.smarttask.server.dao.CommentAttachmentDAO;
 import com.smarttask.server.dao.CommentDAO;
-import com.smarttask.server.dao.TaskDAO;
-import com.smarttask.server.dao.UserDAO;
+import com.smarttask.server.auth.TaskPermissions;
+import com.smarttask.server.auth.TaskPermissions.Level;
+import com.smarttask.server.auth.RequestContext;
+import com.smarttask.server.http.ApiHandler;
+import com.smarttask.server.http.PathParams;
 import com.sun.net.httpserver.HttpExchange;
-import com.sun.net.httpserver.HttpHandler;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
-import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
+
+public class CommentHandler extends ApiHandler {
+    private static final int DEFAULT_PAGE_SIZE = 30;
+    private static final int MAX_PAGE_SIZE = 100;
 
-public class CommentHandler implements HttpHandler {
     private final CommentDAO commentDAO = new CommentDAO();
-    private final TaskDAO taskDAO = new TaskDAO();
-    private final UserDAO userDAO = new UserDAO();
-    // Au lieu de new Gson(), on utilise votre configurateur
-    // On utilise le package server.util que vous venez de créer
-    private final Gson gson = com.smarttask.server.util.GsonUtils.getGson();
-
-    @Override
-    public void handle(HttpExchange exchange) throws IOException {
-        String method = exchange.getRequestMethod();
-        String path = exchange.getRequestURI().getPath();
-
-        try {
-            if ("GET".equals(method)) {
-                if (path.startsWith("/api/comments/task/")) {
-                    String taskId = path.substring("/api/comments/task/".length());
-                    handleGetByTask(exchange, taskId);
-                } else if (path.startsWith("/api/comments/")) {
-                    String id = path.substring("/api/comments/".length());
-                    handleGetById(exchange, id);
-                } else {
-                    sendResponse(exchange, 404, "{\"error\":\"Not Found\"}");
-                }
-            } else if ("POST".equals(method)) {
-                if (path.equals("/api/comments")) {
-                    handleCreate(exchange);
-                } else {
-                    sendResponse(exchange, 404, "{\"error\":\"Not Found\"}");
-                }
-            } else if ("PUT".equals(method)) {
-                if (path.startsWith("/api/comments/")) {
-                    String id = path.substring("/api/comments/".length());
-                    handleUpdate(exchange, id);
-                } else {
-                    sendResponse(exchange, 404, "{\"error\":\"Not Found\"}");
-                }
-            } else if ("DELETE".equals(method)) {
-                if (path.startsWith("/api/comments/")) {
-                    String id = path.substring("/api/comments/".length());
-                    handleDelete(exchange, id);
-                } else {
-                    sendResponse(exchange, 404, "{\"error\":\"Not Found\"}");
-                }
-            } else {
-                sendResponse(exchange, 405, "{\"error\":\"Method Not Allowed\"}");
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-            sendResponse(exchange, 500, "{\"error\":\"" + e.getMessage() + "\"}");
-        }
-    }
+    private final CommentAttachmentDAO attachmentDAO = new CommentAttachmentDAO();
 
-    private void handleGetByTask(HttpExchange exchange, String taskId) throws IOException {
-        List<Comment> comments = commentDAO.findByTaskId(taskId);
-        sendResponse(exchange, 200, gson.toJson(comments));
+    public CommentHandler() {
+        get("/api/comments/task/{taskId}", this::handleGetByTask);
+        get("/api/comments/{id}", this::handleGetById);
+        post("/api/comments", this::handleCreate);
+        put("/api/comments/{id}", this::handleUpdate);
+        delete("/api/comments/{id}", this::handleDelete);
     }
 
-    private void handleGetById(HttpExchange exchange, String id) throws IOException {
-        Comment c = commentDAO.findById(id).orElse(null);
-        if (c == null) sendResponse(exchange, 404, "{\"error\":\"Comment not found\"}");
-        else sendResponse(exchange, 200, gson.toJson(c));
+    private void handleGetByTask(HttpExchange exchange, PathParams params) throws IOException {
+        String taskId = params.get("taskId");
+        TaskPermissions.require(exchange, taskId, Level.READ);
+        if (exchange.getRequestURI().getRawQuery() != null) {
+            handleGetThreadPage(exchange, taskId);
+            return;
+        }
+        List<Comment> comments = commentDAO.findByTaskId(taskId);
+        sendJson(exchange, 200, comments);
     }
 
-    private void handleCreate(HttpExchange exchange) throws IOException {
-        String body = readRequestBody(exchange);
-        try {
-            com.google.gson.JsonObject obj = gson.fromJson(body, com.google.gson.JsonObject.class);
-            String taskId = null;
-            String userId = null;
-            if (obj.has("task") && obj.getAsJsonObject("task").has("id")) {
-                taskId = obj.getAsJsonObject("task").get("id").getAsString();
-            } else if (obj.has("taskId")) {
-                taskId = obj.get("taskId").getAsString();
-            }
-            if (obj.has("user") && obj.getAsJsonObject("user").has("id")) {
-                userId = obj.getAsJsonObject("user").get("id").getAsString();
-            } else if (obj.has("userId")) {
-                userId = obj.get("userId").getAsString();
+    /**
+     * GET /api/comments/task/{id}?before={cursor}&limit={n} : older comments, newest first.
+     * GET /api/comments/task/{id}?after={cursor}&limit={n}  : newer comments, oldest first.
+     * Returns {"items": [...], "nextCursor": "...", "latestCursor": "..."}. nextCursor
+     * continues in the same direction and is null when nothing is left; latestCursor is
+     * the newest comment seen so far, to pass as "after" on the next refresh.
+     * Each comment carries its attachments, loaded for the whole page in one query.
+     */
+    private void handleGetThreadPage(HttpExchange exchange, String taskId) throws IOException {
+        int limit = DEFAULT_PAGE_SIZE;
+        String limitParam = queryParam(exchange, "limit");
+        if (limitParam != null) {
+            try {
+                limit = Math.max(1, Math.min(MAX_PAGE_SIZE, Integer.parseInt(limitParam)));
+            } catch (NumberFormatException e) {
+                sendError(exchange, 400, "Invalid limit");
+                return;
             }
-            String content = obj.has("content") ? obj.get("content").getAsString() : null;
+        }
+
+        String after = queryParam(exchange, "after");
+        String before = queryParam(exchange, "before");
+        boolean newer = after != null && !after.isEmpty();
+        String cursor = newer ? after : before;
 
-            if (taskId == null || userId == null || content == null) {
-                sendResponse(exchange, 400, "{\"error\":\"taskId, userId and content required\"}");
+        Long cursorSeq = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            try {
+                cursorSeq = Long.parseLong(cursor);
+            } catch (NumberFormatException e) {
+                sendError(exchange, 400, "Invalid cursor");
                 return;
             }
+        }
+
+        // One extra row tells us whether another page exists without a COUNT query
+        List<CommentDAO.ThreadEntry> rows = newer
+                ? commentDAO.findNewerByTaskId(taskId, cursorSeq, limit + 1)
+                : commentDAO.findPageByTaskId(taskId, cursorSeq, limit + 1);
+        boolean hasMore = rows.size() > limit;
+        List<CommentDAO.ThreadEntry> entries = hasMore ? rows.subList(0, limit) : rows;
+        List<Comment> items = entries.stream().map(CommentDAO.ThreadEntry::comment).toList();
 
-            Comment c = new Comment();
-            com.smarttask.model.Task t = new com.smarttask.model.Task();
-            t.setId(taskId);
-            com.smarttask.model.User u = new com.smarttask.model.User();
-            u.setId(userId);
-            c.setTask(t);
-            c.setUser(u);
-            c.setContent(content);
-            c.touchOnCreate();
-
-            String id = commentDAO.save(c);
-            c.setId(id);
-            sendResponse(exchange, 201, gson.toJson(c));
-        } catch (com.google.gson.JsonSyntaxException ex) {
-            sendResponse(exchange, 400, "{\"error\":\"Invalid JSON\"}");
+        Map<String, List<CommentAttachment>> attachments =
+                attachmentDAO.findByCommentIds(items.stream().map(Comment::getId).toList());
+        for (Comment c : items) {
+            c.setAttachments(attachments.getOrDefault(c.getId(), List.of()));
+        }
+
+        JsonObject page = new JsonObject();
+        page.add("items", gson.toJsonTree(items));
+        if (hasMore) {
+            page.addProperty("nextCursor", Long.toString(entries.get(entries.size() - 1).seq()));
+        } else {
+            page.add("nextCursor", JsonNull.INSTANCE);
+        }
+        // Newest comment: last item going forward, first item of the first page going back
+        CommentDAO.ThreadEntry latest = null;
+        if (!entries.isEmpty()) {
+            if (newer) latest = entries.get(entries.size() - 1);
+            else if (cursorSeq == null) latest = entries.get(0);
+        }
+        if (latest != null) {
+            page.addProperty("latestCursor", Long.toString(latest.seq()));
+        } else if (newer) {
+            page.addProperty("latestCursor", after);
+        } else {
+            page.add("latestCursor", JsonNull.INSTANCE);
         }
+        sendJson(exchange, 200, page);
     }
 
-    private void handleUpdate(HttpExchange exchange, String id) throws IOException {
+    private void handleGetById(HttpExchange exchange, PathParams params) throws IOException {
+        String id = params.get("id");
+        TaskPermissions.require(exchange, TaskPermissions.taskOfComment(id), Level.READ);
+        Comment c = commentDAO.findById(id).orElse(null);
+        if (c == null) sendError(exchange, 404, "Comment not found");
+        else sendJson(exchange, 200, c);
+    }
+
+    /**
+     * POST /api/comments : the author is the caller; a user id in the body is ignored.
+     */
+    private void handleCreate(HttpExchange exchange, PathParams params) throws IOException {
+        String userId = TaskPermissions.requireUser(exchange);
+        JsonObject obj = readJson(exchange, JsonObject.class);
+        String taskId = null;
+        if (obj.has("task") && obj.getAsJsonObject("task").has("id")) {
+            taskId = obj.getAsJsonObject("task").get("id").getAsString();
+        } else if (obj.has("taskId")) {
+            taskId = obj.get("taskId").getAsString();
+        }
+        String content = obj.has("content") ? obj.get("content").getAsString() : null;
+
+        if (taskId == null || content == null) {
+            sendError(exchange, 400, "taskId and content required");
+            return;
+        }
+        // Anyone who can see the task may comment on it
+        TaskPermissions.require(exchange, taskId, Level.READ);
+
+        Comment c = new Comment();
+        Task t = new Task();
+        t.setId(taskId);
+        User u = new User();
+        u.setId(userId);
+        c.setTask(t);
+        c.setUser(u);
+        c.setContent(content);
+        c.touchOnCreate();
+
+        String id = commentDAO.save(c);
+        c.setId(id);
+        sendJson(exchange, 201, c);
+    }
+
+    private void handleUpdate(HttpExchange exchange, PathParams params) throws IOException {
+        String id = params.get("id");
         Comment existing = commentDAO.findById(id).orElse(null);
         if (existing == null) {
-            sendResponse(exchange, 404, "{\"error\":\"Comment not found\"}");
+            sendError(exchange, 404, "Comment not found");
             return;
         }
-        String body = readRequestBody(exchange);
-        try {
-            com.google.gson.JsonObject obj = gson.fromJson(body, com.google.gson.JsonObject.class);
-            String content = obj.has("content") ? obj.get("content").getAsString() : null;
-            if (content == null) {
-                sendResponse(exchange, 400, "{\"error\":\"content required\"}");
-                return;
-            }
-            existing.setContent(content);
-            existing.touchOnUpdate();
-            commentDAO.update(existing);
-            sendResponse(exchange, 200, gson.toJson(existing));
-        } catch (com.google.gson.JsonSyntaxException ex) {
-            sendResponse(exchange, 400, "{\"error\":\"Invalid JSON\"}");
+        if (!isAuthor(exchange, existing)) {
+            TaskPermissions.require(exchange, TaskPermissions.taskOfComment(id), Level.ADMIN);
         }
+        JsonObject obj = readJson(exchange, JsonObject.class);
+        String content = obj.has("content") ? obj.get("content").getAsString() : null;
+        if (content == null) {
+            sendError(exchange, 400, "content required");
+            return;
+        }
+        existing.setContent(content);
+        existing.touchOnUpdate();
+        commentDAO.update(existing);
+        sendJson(exchange, 200, existing);
     }
 
-    private void handleDelete(HttpExchange exchange, String id) throws IOException {
+    private void handleDelete(HttpExchange exchange, PathParams params) throws IOException {
+        String id = params.get("id");
+        Comment existing = commentDAO.findById(id).orElse(null);
+        if (existing != null && !isAuthor(exchange, existing)) {
+            TaskPermissions.require(exchange, TaskPermissions.taskOfComment(id), Level.ADMIN);
+        }
         boolean ok = commentDAO.deleteById(id);
-        if (ok) sendResponse(exchange, 200, "{\"message\":\"Comment deleted\"}");
-        else sendResponse(exchange, 404, "{\"error\":\"Comment not found\"}");
+        if (ok) sendMessage(exchange, 200, "Comment deleted");
+        else sendError(exchange, 404, "Comment not found");
     }
 
-    private String readRequestBody(HttpExchange exchange) throws IOException {
-        InputStream is = exchange.getRequestBody();
-        return new String(is.readAllBytes(), StandardCharsets.UTF_8);
-    }
 
-    private void sendResponse(HttpExchange exchange, int statusCode, String response) throws IOException {
-        exchange.getResponseHeaders().set("Content-Type", "application/json");
-        exchange.getResponseHeaders().set("Access-Control-Allow-Origin", "*");
-        exchange.sendResponseHeaders(statusCode, response.getBytes(StandardCharsets.UTF_8).length);
-        OutputStream os = exchange.getResponseBody();
-        os.write(response.getBytes(StandardCharsets.UTF_8));
-        os.close();
+    /**
+     * Authors may edit and delete their own comments; otherwise ADMIN on the task is required.
+     */
+    private boolean isAuthor(HttpExchange exchange, Comment comment) {
+        String userId = RequestContext.userId(exchange);
+        return userId != null && comment.getUser() != null && userId.equals(comment.getUser().getId());
     }
 }
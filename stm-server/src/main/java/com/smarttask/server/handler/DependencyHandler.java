@@ -1,110 +1,135 @@
 package com.smarttask.server.handler;
 
-import com.google.gson.Gson;
-import com.smarttask.model.TaskDependency;
+import com.google.gson.JsonObject;
 import com.smarttask.model.Task;
-import com.smarttask.server.dao.TaskDependencyDAO;
+import com.smarttask.model.TaskDependency;
+import com.smarttask.server.auth.TaskPermissions;
+import com.smarttask.server.auth.TaskPermissions.Level;
 import com.smarttask.server.dao.TaskDAO;
+import com.smarttask.server.dao.TaskDependencyDAO;
+import com.smarttask.server.graph.DependencyCycleException;
+import com.smarttask.server.graph.DependencyGraphRegistry;
+import com.smarttask.server.http.ApiHandler;
+import com.smarttask.server.http.PathParams;
+import com.smarttask.server.http.RouteHandler;
 import com.sun.net.httpserver.HttpExchange;
-import com.sun.net.httpserver.HttpHandler;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
-import java.nio.charset.StandardCharsets;
 import java.util.List;
 
-public class DependencyHandler implements HttpHandler {
+public class DependencyHandler extends ApiHandler {
     private final TaskDependencyDAO depDAO = new TaskDependencyDAO();
     private final TaskDAO taskDAO = new TaskDAO();
-    private final Gson gson = new Gson();
 
-    @Override
-    public void handle(HttpExchange exchange) throws IOException {
-        String method = exchange.getRequestMethod();
-        String path = exchange.getRequestURI().getPath();
+    /**
+     * /api/dependencies/project/{id}                   -> whole graph
+     * /api/dependencies/project/{id}/order             -> topological order
+     * /api/dependencies/project/{id}/critical-path     -> longest chain of open tasks
+     * /api/dependencies/project/{id}/blockers/{taskId} -> open tasks transitively blocking a task
+     */
+    public DependencyHandler() {
+        get("/api/dependencies/project/{projectId}", cycles((exchange, params) -> {
+            TaskPermissions.requireProject(exchange, params.get("projectId"));
+            sendJson(exchange, 200, DependencyGraphRegistry.projectGraph(params.get("projectId")));
+        }));
+        get("/api/dependencies/project/{projectId}/order", cycles((exchange, params) -> {
+            TaskPermissions.requireProject(exchange, params.get("projectId"));
+            sendJson(exchange, 200, DependencyGraphRegistry.topologicalOrder(params.get("projectId")));
+        }));
+        get("/api/dependencies/project/{projectId}/critical-path", cycles((exchange, params) -> {
+            TaskPermissions.requireProject(exchange, params.get("projectId"));
+            sendJson(exchange, 200, DependencyGraphRegistry.criticalPath(params.get("projectId")));
+        }));
+        get("/api/dependencies/project/{projectId}/blockers/{taskId}", cycles(this::handleGetBlockers));
+        get("/api/dependencies/successor/{taskId}", this::handleGetBySuccessor);
+        get("/api/dependencies/predecessor/{taskId}", this::handleGetByPredecessor);
+        get("/api/dependencies/{id}", this::handleGetById);
+        post("/api/dependencies", cycles(this::handleCreate));
+        delete("/api/dependencies/{id}", this::handleDelete);
+    }
 
-        try {
-            if ("GET".equals(method)) {
-                if (path.startsWith("/api/dependencies/successor/")) {
-                    String taskId = path.substring("/api/dependencies/successor/".length());
-                    handleGetBySuccessor(exchange, taskId);
-                } else if (path.startsWith("/api/dependencies/predecessor/")) {
-                    String taskId = path.substring("/api/dependencies/predecessor/".length());
-                    handleGetByPredecessor(exchange, taskId);
-                } else if (path.startsWith("/api/dependencies/")) {
-                    String id = path.substring("/api/dependencies/".length());
-                    handleGetById(exchange, id);
-                } else {
-                    sendResponse(exchange, 404, "{\"error\":\"Not Found\"}");
-                }
-            } else if ("POST".equals(method)) {
-                if (path.equals("/api/dependencies")) {
-                    handleCreate(exchange);
-                } else {
-                    sendResponse(exchange, 404, "{\"error\":\"Not Found\"}");
-                }
-            } else if ("DELETE".equals(method)) {
-                if (path.startsWith("/api/dependencies/")) {
-                    String id = path.substring("/api/dependencies/".length());
-                    handleDelete(exchange, id);
-                } else {
-                    sendResponse(exchange, 404, "{\"error\":\"Not Found\"}");
-                }
-            } else {
-                sendResponse(exchange, 405, "{\"error\":\"Method Not Allowed\"}");
+    /**
+     * A cycle (new dependency, or one already in the data) is a 409 listing the tasks involved.
+     */
+    private RouteHandler cycles(RouteHandler handler) {
+        return (exchange, params) -> {
+            try {
+                handler.handle(exchange, params);
+            } catch (DependencyCycleException e) {
+                JsonObject json = new JsonObject();
+                json.addProperty("error", e.getMessage());
+                json.add("cycle", gson.toJsonTree(e.getTaskIds()));
+                sendJson(exchange, 409, json);
             }
-        } catch (Exception e) {
-            e.printStackTrace();
-            sendResponse(exchange, 500, "{\"error\":\"" + e.getMessage() + "\"}");
-        }
+        };
     }
 
-    private void handleGetBySuccessor(HttpExchange exchange, String taskId) throws IOException {
-        List<TaskDependency> deps = depDAO.findBySuccessorId(taskId);
-        sendResponse(exchange, 200, gson.toJson(deps));
+    /**
+     * The caller must see the project, and the task must belong to it.
+     */
+    private void handleGetBlockers(HttpExchange exchange, PathParams params) throws IOException {
+        String projectId = params.get("projectId");
+        TaskPermissions.requireProject(exchange, projectId);
+        Task task = taskDAO.findById(params.get("taskId")).orElse(null);
+        if (task == null || !projectId.equals(task.getProjectId())) {
+            sendError(exchange, 404, "Task not found in project");
+            return;
+        }
+        sendJson(exchange, 200, DependencyGraphRegistry.transitiveBlockers(task.getId()));
     }
 
-    private void handleGetByPredecessor(HttpExchange exchange, String taskId) throws IOException {
-        List<TaskDependency> deps = depDAO.findByPredecessorId(taskId);
-        sendResponse(exchange, 200, gson.toJson(deps));
+    private void handleGetBySuccessor(HttpExchange exchange, PathParams params) throws IOException {
+        TaskPermissions.require(exchange, params.get("taskId"), Level.READ);
+        List<TaskDependency> deps = depDAO.findBySuccessorId(params.get("taskId"));
+        sendJson(exchange, 200, deps);
     }
 
-    private void handleGetById(HttpExchange exchange, String id) throws IOException {
-        TaskDependency d = depDAO.findById(id).orElse(null);
-        if (d == null) sendResponse(exchange, 404, "{\"error\":\"Dependency not found\"}");
-        else sendResponse(exchange, 200, gson.toJson(d));
+    private void handleGetByPredecessor(HttpExchange exchange, PathParams params) throws IOException {
+        TaskPermissions.require(exchange, params.get("taskId"), Level.READ);
+        List<TaskDependency> deps = depDAO.findByPredecessorId(params.get("taskId"));
+        sendJson(exchange, 200, deps);
     }
 
-    private void handleCreate(HttpExchange exchange) throws IOException {
-        String body = readRequestBody(exchange);
-        TaskDependency d = gson.fromJson(body, TaskDependency.class);
-        if (d.getPredecessor() == null || d.getSuccessor() == null) {
-            sendResponse(exchange, 400, "{\"error\":\"predecessor and successor required\"}");
+    private void handleGetById(HttpExchange exchange, PathParams params) throws IOException {
+        TaskDependency d = depDAO.findById(params.get("id")).orElse(null);
+        if (d == null) {
+            sendError(exchange, 404, "Dependency not found");
             return;
         }
-        String id = depDAO.save(d);
-        d.setId(id);
-        sendResponse(exchange, 201, gson.toJson(d));
+        requireOnBoth(exchange, d, Level.READ);
+        sendJson(exchange, 200, d);
     }
 
-    private void handleDelete(HttpExchange exchange, String id) throws IOException {
-        boolean ok = depDAO.deleteById(id);
-        if (ok) sendResponse(exchange, 200, "{\"message\":\"Dependency deleted\"}");
-        else sendResponse(exchange, 404, "{\"error\":\"Dependency not found\"}");
+    private void handleCreate(HttpExchange exchange, PathParams params) throws IOException {
+        TaskDependency d = readJson(exchange, TaskDependency.class);
+        if (d.getPredecessor() == null || d.getSuccessor() == null) {
+            sendError(exchange, 400, "predecessor and successor required");
+            return;
+        }
+        requireOnBoth(exchange, d, Level.WRITE);
+        try {
+            DependencyGraphRegistry.addDependency(d);
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, 404, "Task not found");
+            return;
+        }
+        sendJson(exchange, 201, d);
     }
 
-    private String readRequestBody(HttpExchange exchange) throws IOException {
-        InputStream is = exchange.getRequestBody();
-        return new String(is.readAllBytes(), StandardCharsets.UTF_8);
+    private void handleDelete(HttpExchange exchange, PathParams params) throws IOException {
+        TaskDependency d = depDAO.findById(params.get("id")).orElse(null);
+        if (d == null) {
+            sendError(exchange, 404, "Dependency not found");
+            return;
+        }
+        requireOnBoth(exchange, d, Level.WRITE);
+        boolean ok = DependencyGraphRegistry.removeDependency(d.getId());
+        if (ok) sendMessage(exchange, 200, "Dependency deleted");
+        else sendError(exchange, 404, "Dependency not found");
     }
 
-    private void sendResponse(HttpExchange exchange, int statusCode, String response) throws IOException {
-        exchange.getResponseHeaders().set("Content-Type", "application/json");
-        exchange.getResponseHeaders().set("Access-Control-Allow-Origin", "*");
-        exchange.sendResponseHeaders(statusCode, response.getBytes(StandardCharsets.UTF_8).length);
-        OutputStream os = exchange.getResponseBody();
-        os.write(response.getBytes(StandardCharsets.UTF_8));
-        os.close();
+    private static void requireOnBoth(HttpExchange exchange, TaskDependency d, Level level) {
+        TaskPermissions.require(exchange, d.getPredecessor().getId(), level);
+        TaskPermissions.require(exchange, d.getSuccessor().getId(), level);
     }
 }
@@ -1,135 +1,132 @@
 package com.smarttask.server.handler;
 
-import com.google.gson.Gson;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
 import com.smarttask.model.Notification;
 import com.smarttask.server.dao.NotificationDAO;
+import com.smarttask.server.http.ApiHandler;
+import com.smarttask.server.http.PathParams;
 import com.sun.net.httpserver.HttpExchange;
-import com.sun.net.httpserver.HttpHandler;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
-import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
 import java.util.List;
 
-public class NotificationHandler implements HttpHandler {
+public class NotificationHandler extends ApiHandler {
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final NotificationDAO notifDAO = new NotificationDAO();
-    private final Gson gson = new Gson();
-
-    @Override
-    public void handle(HttpExchange exchange) throws IOException {
-        String method = exchange.getRequestMethod();
-        String path = exchange.getRequestURI().getPath();
-
-        try {
-            if ("GET".equals(method)) {
-                if (path.startsWith("/api/notifications/user/")) {
-                    String userId = path.substring("/api/notifications/user/".length());
-                    String[] parts = userId.split("/");
-                    if (parts.length == 2 && "unread".equals(parts[1])) {
-                        handleGetUnread(exchange, parts[0]);
-                    } else {
-                        handleGetByUser(exchange, parts[0]);
-                    }
-                } else if (path.startsWith("/api/notifications/")) {
-                    String id = path.substring("/api/notifications/".length());
-                    handleGetById(exchange, id);
-                } else {
-                    sendResponse(exchange, 404, "{\"error\":\"Not Found\"}");
-                }
-            } else if ("POST".equals(method)) {
-                if (path.equals("/api/notifications")) {
-                    handleCreate(exchange);
-                } else {
-                    sendResponse(exchange, 404, "{\"error\":\"Not Found\"}");
-                }
-            } else if ("PUT".equals(method)) {
-                if (path.startsWith("/api/notifications/") && path.endsWith("/read")) {
-                    String id = path.substring("/api/notifications/".length(), path.length() - "/read".length());
-                    handleMarkAsRead(exchange, id);
-                } else if (path.startsWith("/api/notifications/")) {
-                    String userId = path.substring("/api/notifications/".length());
-                    if ("read-all".equals(userId)) {
-                        String body = readRequestBody(exchange);
-                        java.util.Map<String, String> req = gson.fromJson(body, java.util.Map.class);
-                        handleMarkAllAsRead(exchange, req.get("userId"));
-                    } else {
-                        sendResponse(exchange, 404, "{\"error\":\"Not Found\"}");
-                    }
-                } else {
-                    sendResponse(exchange, 404, "{\"error\":\"Not Found\"}");
-                }
-            } else if ("DELETE".equals(method)) {
-                if (path.startsWith("/api/notifications/")) {
-                    String id = path.substring("/api/notifications/".length());
-                    handleDelete(exchange, id);
-                } else {
-                    sendResponse(exchange, 404, "{\"error\":\"Not Found\"}");
-                }
-            } else {
-                sendResponse(exchange, 405, "{\"error\":\"Method Not Allowed\"}");
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-            sendResponse(exchange, 500, "{\"error\":\"" + e.getMessage() + "\"}");
-        }
+
+    public NotificationHandler() {
+        get("/api/notifications/user/{userId}", this::handleGetByUser);
+        get("/api/notifications/user/{userId}/unread", this::handleGetUnread);
+        get("/api/notifications/{id}", this::handleGetById);
+        post("/api/notifications", this::handleCreate);
+        put("/api/notifications/read-all", this::handleMarkAllAsRead);
+        put("/api/notifications/{id}/read", this::handleMarkAsRead);
+        delete("/api/notifications/{id}", this::handleDelete);
     }
 
-    private void handleGetById(HttpExchange exchange, String id) throws IOException {
-        Notification n = notifDAO.findById(id).orElse(null);
-        if (n == null) sendResponse(exchange, 404, "{\"error\":\"Notification not found\"}");
-        else sendResponse(exchange, 200, gson.toJson(n));
+    private void handleGetById(HttpExchange exchange, PathParams params) throws IOException {
+        Notification n = notifDAO.findById(params.get("id")).orElse(null);
+        if (n == null) sendError(exchange, 404, "Notification not found");
+        else sendJson(exchange, 200, n);
     }
 
-    private void handleGetByUser(HttpExchange exchange, String userId) throws IOException {
+    private void handleGetByUser(HttpExchange exchange, PathParams params) throws IOException {
+        String userId = params.get("userId");
+        if (exchange.getRequestURI().getRawQuery() != null) {
+            handleGetPageByUser(exchange, userId);
+            return;
+        }
         List<Notification> notifs = notifDAO.findByUserId(userId);
-        sendResponse(exchange, 200, gson.toJson(notifs));
+        sendJson(exchange, 200, notifs);
+    }
+
+    /**
+     * GET /api/notifications/user/{id}?before={cursor}&limit={n}
+     * Returns {"items": [...], "nextCursor": "..."}; nextCursor is null on the last page.
+     */
+    private void handleGetPageByUser(HttpExchange exchange, String userId) throws IOException {
+        int limit = DEFAULT_PAGE_SIZE;
+        String limitParam = queryParam(exchange, "limit");
+        if (limitParam != null) {
+            try {
+                limit = Math.max(1, Math.min(MAX_PAGE_SIZE, Integer.parseInt(limitParam)));
+            } catch (NumberFormatException e) {
+                sendError(exchange, 400, "Invalid limit");
+                return;
+            }
+        }
+
+        Timestamp beforeCreatedAt = null;
+        String beforeId = null;
+        String cursor = queryParam(exchange, "before");
+        if (cursor != null && !cursor.isEmpty()) {
+            int sep = cursor.indexOf('_');
+            try {
+                beforeCreatedAt = new Timestamp(Long.parseLong(sep > 0 ? cursor.substring(0, sep) : cursor));
+            } catch (NumberFormatException e) {
+                sendError(exchange, 400, "Invalid cursor");
+                return;
+            }
+            beforeId = sep > 0 ? cursor.substring(sep + 1) : null;
+        }
+
+        // One extra row tells us whether another page exists without a COUNT query
+        List<Notification> rows = notifDAO.findPageByUserId(userId, beforeCreatedAt, beforeId, limit + 1);
+        boolean hasMore = rows.size() > limit;
+        List<Notification> items = hasMore ? rows.subList(0, limit) : rows;
+
+        JsonObject page = new JsonObject();
+        page.add("items", gson.toJsonTree(items));
+        if (hasMore) {
+            Notification last = items.get(items.size() - 1);
+            page.addProperty("nextCursor", last.getCreatedAt().getTime() + "_" + last.getId());
+        } else {
+            page.add("nextCursor", JsonNull.INSTANCE);
+        }
+        sendJson(exchange, 200, page);
     }
 
-    private void handleGetUnread(HttpExchange exchange, String userId) throws IOException {
-        List<Notification> notifs = notifDAO.findUnreadByUserId(userId);
-        sendResponse(exchange, 200, gson.toJson(notifs));
+    private void handleGetUnread(HttpExchange exchange, PathParams params) throws IOException {
+        List<Notification> notifs = notifDAO.findUnreadByUserId(params.get("userId"));
+        sendJson(exchange, 200, notifs);
     }
 
-    private void handleCreate(HttpExchange exchange) throws IOException {
-        String body = readRequestBody(exchange);
-        Notification n = gson.fromJson(body, Notification.class);
+    private void handleCreate(HttpExchange exchange, PathParams params) throws IOException {
+        Notification n = readJson(exchange, Notification.class);
         if (n.getUser() == null) {
-            sendResponse(exchange, 400, "{\"error\":\"user required\"}");
+            sendError(exchange, 400, "user required");
             return;
         }
         String id = notifDAO.save(n);
         n.setId(id);
-        sendResponse(exchange, 201, gson.toJson(n));
+        sendJson(exchange, 201, n);
     }
 
-    private void handleMarkAsRead(HttpExchange exchange, String id) throws IOException {
-        notifDAO.markAsRead(id);
-        sendResponse(exchange, 200, "{\"message\":\"Notification marked as read\"}");
+    private void handleMarkAsRead(HttpExchange exchange, PathParams params) throws IOException {
+        notifDAO.markAsRead(params.get("id"));
+        sendMessage(exchange, 200, "Notification marked as read");
     }
 
-    private void handleMarkAllAsRead(HttpExchange exchange, String userId) throws IOException {
-        notifDAO.markAllAsRead(userId);
-        sendResponse(exchange, 200, "{\"message\":\"All notifications marked as read\"}");
-    }
-
-    private void handleDelete(HttpExchange exchange, String id) throws IOException {
-        boolean ok = notifDAO.deleteById(id);
-        if (ok) sendResponse(exchange, 200, "{\"message\":\"Notification deleted\"}");
-        else sendResponse(exchange, 404, "{\"error\":\"Notification not found\"}");
-    }
-
-    private String readRequestBody(HttpExchange exchange) throws IOException {
-        InputStream is = exchange.getRequestBody();
-        return new String(is.readAllBytes(), StandardCharsets.UTF_8);
+    /**
+     * PUT /api/notifications/read-all {"userId": "..."}
+     */
+    private void handleMarkAllAsRead(HttpExchange exchange, PathParams params) throws IOException {
+        JsonObject req = readJson(exchange, JsonObject.class);
+        if (!req.has("userId") || req.get("userId").isJsonNull()) {
+            sendError(exchange, 400, "userId required");
+            return;
+        }
+        notifDAO.markAllAsRead(req.get("userId").getAsString());
+        sendMessage(exchange, 200, "All notifications marked as read");
     }
 
-    private void sendResponse(HttpExchange exchange, int statusCode, String response) throws IOException {
-        exchange.getResponseHeaders().set("Content-Type", "application/json");
-        exchange.getResponseHeaders().set("Access-Control-Allow-Origin", "*");
-        exchange.sendResponseHeaders(statusCode, response.getBytes(StandardCharsets.UTF_8).length);
-        OutputStream os = exchange.getResponseBody();
-        os.write(response.getBytes(StandardCharsets.UTF_8));
-        os.close();
+    private void handleDelete(HttpExchange exchange, PathParams params) throws IOException {
+        boolean ok = notifDAO.deleteById(params.get("id"));
+        if (ok) sendMessage(exchange, 200, "Notification deleted");
+        else sendError(exchange, 404, "Notification not found");
     }
 }
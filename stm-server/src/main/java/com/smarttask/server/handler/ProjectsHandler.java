@@ -1,167 +1,94 @@
 package com.smarttask.server.handler;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonDeserializer;
-import com.google.gson.JsonParseException;
-import com.google.gson.JsonPrimitive;
-import com.google.gson.JsonSerializer;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonSerializationContext;
-import com.google.gson.JsonDeserializationContext;
-import java.lang.reflect.Type;
-import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import com.smarttask.model.Project;
+import com.smarttask.model.Team;
 import com.smarttask.server.dao.ProjectDAO;
-import com.smarttask.server.util.GsonUtils;
+import com.smarttask.server.graph.DependencyGraphRegistry;
+import com.smarttask.server.http.ApiHandler;
+import com.smarttask.server.http.PathParams;
 import com.sun.net.httpserver.HttpExchange;
-import com.sun.net.httpserver.HttpHandler;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
-import java.nio.charset.StandardCharsets;
 import java.util.List;
 
-public class ProjectsHandler implements HttpHandler {
+public class ProjectsHandler extends ApiHandler {
     private final ProjectDAO projectDAO = new ProjectDAO();
-    private final Gson gson;
 
     public ProjectsHandler() {
-        this.gson = GsonUtils.getGson();
+        get("/api/projects", this::handleGetAll);
+        get("/api/projects/{id}", this::handleGetById);
+        get("/api/projects/{userId}/user", this::handleGetByUser);
+        get("/api/projects/{id}/teams", this::handleGetTeams);
+        post("/api/projects", this::handleCreate);
+        post("/api/projects/{id}/teams/{teamId}", this::handleAddTeam);
+        put("/api/projects/{id}", this::handleUpdate);
+        delete("/api/projects/{id}", this::handleDelete);
+        delete("/api/projects/{id}/teams/{teamId}", this::handleRemoveTeam);
     }
 
-    @Override
-    public void handle(HttpExchange exchange) throws IOException {
-        String method = exchange.getRequestMethod();
-        String path = exchange.getRequestURI().getPath();
-        String[] parts = path.split("/");
-
-        try {
-            if ("GET".equals(method)) {
-                if (path.equals("/api/projects")) {
-                    handleGetAll(exchange);
-                } else if (parts.length == 4) {
-                    handleGetById(exchange, parts[3]);
-                } else if (parts.length == 5) {
-                    if (parts[4].equals("user")) handleGetByUser(exchange, parts[3]);
-                    if (parts[4].equals("teams")) handleGetTeams(exchange, parts[3]);
-                } else {
-                    sendResponse(exchange, 404, "{\"error\":\"Not Found\"}");
-                }
-            } 
-            else if ("POST".equals(method)) {
-                if (path.equals("/api/projects")) {
-                    handleCreate(exchange);
-                } else if (parts.length == 6 && parts[4].equals("teams")) {
-                    handleAddTeam(exchange, parts[3], parts[5]);
-                } else {
-                    sendResponse(exchange, 404, "{\"error\":\"Not Found\"}");
-                }
-            } 
-            else if ("DELETE".equals(method)) {
-                if (parts.length == 4) {
-                    handleDelete(exchange, parts[3]);
-                } else if (parts.length == 6 && parts[4].equals("teams")) {
-                    handleRemoveTeam(exchange, parts[3], parts[5]);
-                } else {
-                    sendResponse(exchange, 404, "{\"error\":\"Not Found\"}");
-                }
-            } else if ("PUT".equals(method)) {
-                if (path.startsWith("/api/projects/")) {
-                    if (parts.length == 4) {
-                        String id = parts[3];
-                        handleUpdate(exchange, id);
-                    } else sendResponse(exchange, 404, "{\"error\":\"Not Found\"}");
-                } else sendResponse(exchange, 404, "{\"error\":\"Not Found\"}");
-            } else {
-                sendResponse(exchange, 405, "{\"error\":\"Method Not Allowed\"}");
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-            sendResponse(exchange, 500, "{\"error\":\"" + e.getMessage() + "\"}");
-        }
-    }
-
-    private void handleGetAll(HttpExchange exchange) throws IOException {
+    private void handleGetAll(HttpExchange exchange, PathParams params) throws IOException {
         List<Project> list = projectDAO.findAll();
-        sendResponse(exchange, 200, gson.toJson(list));
+        sendJson(exchange, 200, list);
     }
 
-    private void handleGetById(HttpExchange exchange, String id) throws IOException {
-        Project p = projectDAO.findById(id).orElse(null);
-        if (p == null) sendResponse(exchange, 404, "{\"error\":\"Project not found\"}");
-        else sendResponse(exchange, 200, gson.toJson(p));
+    private void handleGetById(HttpExchange exchange, PathParams params) throws IOException {
+        Project p = projectDAO.findById(params.get("id")).orElse(null);
+        if (p == null) sendError(exchange, 404, "Project not found");
+        else sendJson(exchange, 200, p);
     }
 
-    private void handleGetByUser(HttpExchange exchange, String userId) throws IOException {
-        List<Project> list = projectDAO.findByUserId(userId);
-        sendResponse(exchange, 200, gson.toJson(list));
+    private void handleGetByUser(HttpExchange exchange, PathParams params) throws IOException {
+        List<Project> list = projectDAO.findByUserId(params.get("userId"));
+        sendJson(exchange, 200, list);
     }
 
-    private void handleCreate(HttpExchange exchange) throws IOException {
-        String body = readRequestBody(exchange);
-        Project p = gson.fromJson(body, Project.class);
+    private void handleCreate(HttpExchange exchange, PathParams params) throws IOException {
+        Project p = readJson(exchange, Project.class);
         if (p.getUserId() == null) {
-            sendResponse(exchange, 400, "{\"error\":\"userId required\"}");
+            sendError(exchange, 400, "userId required");
             return;
         }
         String id = projectDAO.save(p);
         p.setId(id);
-        sendResponse(exchange, 201, gson.toJson(p));
+        sendJson(exchange, 201, p);
     }
 
-    private void handleUpdate(HttpExchange exchange, String id) throws IOException {
-        Project existing = projectDAO.findById(id).orElse(null);
+    private void handleUpdate(HttpExchange exchange, PathParams params) throws IOException {
+        Project existing = projectDAO.findById(params.get("id")).orElse(null);
         if (existing == null) {
-            sendResponse(exchange, 404, "{\"error\":\"Project not found\"}");
+            sendError(exchange, 404, "Project not found");
             return;
         }
-        String body = readRequestBody(exchange);
-        Project updated = gson.fromJson(body, Project.class);
+        Project updated = readJson(exchange, Project.class);
         existing.setName(updated.getName());
         existing.setDescription(updated.getDescription());
         existing.setColor(updated.getColor());
         existing.setUpdatedAt(updated.getUpdatedAt());
         existing.setActive(updated.isActive());
         projectDAO.update(existing);
-        sendResponse(exchange, 200, gson.toJson(existing));
-    }
-
-    private void handleDelete(HttpExchange exchange, String id) throws IOException {
-        boolean ok = projectDAO.deleteById(id);
-        if (ok) sendResponse(exchange, 200, "{\"message\":\"Project deleted\"}");
-        else sendResponse(exchange, 404, "{\"error\":\"Project not found\"}");
-    }
-
-    private String readRequestBody(HttpExchange exchange) throws IOException {
-        InputStream is = exchange.getRequestBody();
-        return new String(is.readAllBytes(), StandardCharsets.UTF_8);
+        sendJson(exchange, 200, existing);
     }
 
-    private void handleGetTeams(HttpExchange exchange, String projectId) throws IOException {
-        List<com.smarttask.model.Team> teams = projectDAO.findTeamsByProjectId(projectId);
-        sendResponse(exchange, 200, gson.toJson(teams));
+    private void handleDelete(HttpExchange exchange, PathParams params) throws IOException {
+        boolean ok = projectDAO.deleteById(params.get("id"));
+        // Ses tâches (et leurs dépendances) peuvent apparaître dans les graphes d'autres projets
+        if (ok) DependencyGraphRegistry.invalidateAll();
+        if (ok) sendMessage(exchange, 200, "Project deleted");
+        else sendError(exchange, 404, "Project not found");
     }
 
-    private void handleAddTeam(HttpExchange exchange, String projectId, String teamId) throws IOException {
-        projectDAO.addTeamToProject(projectId, teamId);
-        sendResponse(exchange, 200, "{\"message\":\"Team added to project\"}");
+    private void handleGetTeams(HttpExchange exchange, PathParams params) throws IOException {
+        List<Team> teams = projectDAO.findTeamsByProjectId(params.get("id"));
+        sendJson(exchange, 200, teams);
     }
 
-    private void handleRemoveTeam(HttpExchange exchange, String projectId, String teamId) throws IOException {
-        projectDAO.removeTeamFromProject(projectId, teamId);
-        sendResponse(exchange, 200, "{\"message\":\"Team removed from project\"}");
+    private void handleAddTeam(HttpExchange exchange, PathParams params) throws IOException {
+        projectDAO.addTeamToProject(params.get("id"), params.get("teamId"));
+        sendMessage(exchange, 200, "Team added to project");
     }
 
-    private void sendResponse(HttpExchange exchange, int statusCode, String response) throws IOException {
-        exchange.getResponseHeaders().set("Content-Type", "application/json");
-        exchange.getResponseHeaders().set("Access-Control-Allow-Origin", "*");
-        exchange.sendResponseHeaders(statusCode, response.getBytes(StandardCharsets.UTF_8).length);
-        OutputStream os = exchange.getResponseBody();
-        os.write(response.getBytes(StandardCharsets.UTF_8));
-        os.close();
+    private void handleRemoveTeam(HttpExchange exchange, PathParams params) throws IOException {
+        projectDAO.removeTeamFromProject(params.get("id"), params.get("teamId"));
+        sendMessage(exchange, 200, "Team removed from project");
     }
 }
@@ -0,0 +1,61 @@
+package com.smarttask.server.handler;
+
+import com.smarttask.model.SearchResult;
+import com.smarttask.server.auth.RequestContext;
+import com.smarttask.server.http.ApiHandler;
+import com.smarttask.server.http.PathParams;
+import com.smarttask.server.search.SearchIndex;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Handler HTTP pour la recherche plein texte.
+ * GET /api/search?q=[&types=TASK,COMMENT,TAG,EVENT][&limit=]
+ * Les résultats sont ceux que l'appelant (jeton de session) a le droit de voir.
+ */
+public class SearchHandler extends ApiHandler {
+
+    private static final int DEFAULT_LIMIT = 20;
+    private static final int MAX_LIMIT = 100;
+
+    public SearchHandler() {
+        get("/api/search", this::handleSearch);
+        get("/api/search/", this::handleSearch);
+    }
+
+    private void handleSearch(HttpExchange exchange, PathParams params) throws IOException {
+        String q = queryParam(exchange, "q");
+        String userId = RequestContext.userId(exchange);
+        if (userId == null) {
+            sendError(exchange, 401, "Authentication required");
+            return;
+        }
+
+        Set<SearchResult.Type> types = EnumSet.allOf(SearchResult.Type.class);
+        int limit = DEFAULT_LIMIT;
+        try {
+            String typesParam = queryParam(exchange, "types");
+            if (typesParam != null && !typesParam.isBlank()) {
+                types = EnumSet.noneOf(SearchResult.Type.class);
+                for (String t : typesParam.split(",")) {
+                    types.add(SearchResult.Type.valueOf(t.trim().toUpperCase()));
+                }
+            }
+            String limitParam = queryParam(exchange, "limit");
+            if (limitParam != null) {
+                limit = Math.max(1, Math.min(MAX_LIMIT, Integer.parseInt(limitParam)));
+            }
+        } catch (IllegalArgumentException e) {
+            // Unknown type or malformed limit (NumberFormatException)
+            sendError(exchange, 400, "Invalid types or limit");
+            return;
+        }
+
+        List<SearchResult> results = SearchIndex.search(userId, q, types, limit);
+        sendJson(exchange, 200, results);
+    }
+}
@@ -1,18 +1,25 @@
 package com.smarttask.server.handler;
 
-import com.google.gson.Gson;
 import com.smarttask.model.Task;
+import com.smarttask.model.TaskDetail;
+import com.smarttask.model.TaskTreeNode;
 import com.smarttask.model.User;
+import com.smarttask.server.cache.DashboardStatsCache;
 import com.smarttask.server.dao.TaskDAO;
+import com.smarttask.server.graph.DependencyGraphRegistry;
+import com.smarttask.server.dao.TaskDetailDAO;
 import com.smarttask.server.dao.UserDAO;
-import com.smarttask.server.util.GsonUtils;
+import com.smarttask.server.auth.RequestContext;
+import com.smarttask.server.auth.SessionTokens;
+import com.smarttask.server.auth.TaskPermissions;
+import com.smarttask.server.auth.TaskPermissions.Level;
+import com.smarttask.wire.TaskListCodec;
+import com.smarttask.server.http.ApiHandler;
+import com.smarttask.server.http.PathParams;
+import com.smarttask.server.http.Responses;
 import com.sun.net.httpserver.HttpExchange;
-import com.sun.net.httpserver.HttpHandler;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
-import java.nio.charset.StandardCharsets;
 import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -21,148 +28,101 @@ import java.util.Optional;
 /**
  * Handler HTTP pour gérer les opérations sur les tâches (CRUD).
  */
-public class TaskHandler implements HttpHandler {
+public class TaskHandler extends ApiHandler {
     private final TaskDAO taskDAO = new TaskDAO();
     private final UserDAO userDAO = new UserDAO();
-    private final Gson gson;
+    private final TaskDetailDAO taskDetailDAO = new TaskDetailDAO();
 
     public TaskHandler() {
-        this.gson = GsonUtils.getGson();
-    }
-
-    @Override
-    public void handle(HttpExchange exchange) throws IOException {
-        String method = exchange.getRequestMethod();
-        String path = exchange.getRequestURI().getPath();
-
-        // GESTION CORS
-        exchange.getResponseHeaders().add("Access-Control-Allow-Origin", "*");
-        exchange.getResponseHeaders().add("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS");
-        exchange.getResponseHeaders().add("Access-Control-Allow-Headers", "Content-Type, Authorization");
-
-        if ("OPTIONS".equalsIgnoreCase(method)) {
-            exchange.sendResponseHeaders(204, -1);
-            return;
-        }
-
-        try {
-            if ("GET".equals(method)) {
-                if (path.equals("/api/tasks")) {
-                    handleGetAllTasks(exchange);
-                }
-                // Route Sous-tâches
-                else if (path.startsWith("/api/tasks/sub/")) {
-                    String parentId = path.substring("/api/tasks/sub/".length());
-                    handleGetSubTasks(exchange, parentId);
-                }
-                else if (path.startsWith("/api/tasks/project/")) {
-                    String projectId = path.substring("/api/tasks/project/".length());
-                    handleGetTasksByProject(exchange, projectId);
-                }
-                else if (path.startsWith("/api/tasks/")) {
-                    String[] parts = path.split("/");
-                    // /api/tasks/{id}
-                    if (parts.length == 4) {
-                        String taskId = parts[3];
-                        handleGetTask(exchange, taskId);
-                    }
-                    // /api/tasks/{id}/user
-                    else if (parts.length == 5 && parts[4].equals("user")) {
-                        String userId = parts[3];
-                        handleGetTasksByUser(exchange, userId);
-                    } else {
-                        sendResponse(exchange, 404, "{\"error\":\"Not Found\"}");
-                    }
-                } else {
-                    sendResponse(exchange, 404, "{\"error\":\"Not Found\"}");
-                }
-            } else if ("POST".equals(method)) {
-                if (path.equals("/api/tasks")) {
-                    handleCreateTask(exchange);
-                } else {
-                    sendResponse(exchange, 404, "{\"error\":\"Not Found\"}");
-                }
-            } else if ("PUT".equals(method)) {
-                if (path.startsWith("/api/tasks/")) {
-                    String taskId = path.substring("/api/tasks/".length());
-                    handleUpdateTask(exchange, taskId);
-                } else {
-                    sendResponse(exchange, 404, "{\"error\":\"Not Found\"}");
-                }
-            } else if ("DELETE".equals(method)) {
-                if (path.startsWith("/api/tasks/")) {
-                    String taskId = path.substring("/api/tasks/".length());
-                    handleDeleteTask(exchange, taskId);
-                } else {
-                    sendResponse(exchange, 404, "{\"error\":\"Not Found\"}");
-                }
-            } else {
-                sendResponse(exchange, 405, "{\"error\":\"Method Not Allowed\"}");
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-            sendResponse(exchange, 500, "{\"error\":\"Database Error: " + e.getMessage() + "\"}");
-        } catch (Exception e) {
-            e.printStackTrace();
-            sendResponse(exchange, 500, "{\"error\":\"Internal Server Error: " + e.getMessage() + "\"}");
-        }
+        get("/api/tasks", this::handleGetAllTasks);
+        get("/api/tasks/sub/{parentId}", this::handleGetSubTasks);
+        get("/api/tasks/project/{projectId}", this::handleGetTasksByProject);
+        get("/api/tasks/{id}", this::handleGetTask);
+        get("/api/tasks/{id}/detail", this::handleGetTaskDetail);
+        get("/api/tasks/{id}/tree", this::handleGetTaskTree);
+        get("/api/tasks/{userId}/user", this::handleGetTasksByUser);
+        post("/api/tasks", this::handleCreateTask);
+        put("/api/tasks/{id}", this::handleUpdateTask);
+        delete("/api/tasks/{id}", this::handleDeleteTask);
     }
 
     // --- IMPLEMENTATION DES METHODES ---
 
-    private void handleGetAllTasks(HttpExchange exchange) throws IOException, SQLException {
-        List<Task> tasks = taskDAO.findAll();
-        sendResponse(exchange, 200, gson.toJson(tasks));
+    /**
+     * Listes : uniquement les tâches que l'appelant peut lire (voir TaskPermissions.VISIBLE_TASK).
+     */
+    private void handleGetAllTasks(HttpExchange exchange, PathParams params) throws IOException, SQLException {
+        List<Task> tasks = taskDAO.findVisibleTo(TaskPermissions.requireUser(exchange));
+        sendTasks(exchange, tasks);
     }
 
-    private void handleGetTask(HttpExchange exchange, String taskId) throws IOException, SQLException {
-        // Adaptation DAO : Si findById n'existe pas ou renvoie un objet différent, on filtre findAll temporairement
-        Task task = null;
-        try {
-            List<Task> all = taskDAO.findAll();
-            task = all.stream().filter(t -> t.getId().equals(taskId)).findFirst().orElse(null);
-        } catch (Exception e) { e.printStackTrace(); }
-
+    private void handleGetTask(HttpExchange exchange, PathParams params) throws IOException, SQLException {
+        String taskId = params.get("id");
+        TaskPermissions.require(exchange, taskId, Level.READ);
+        Task task = taskDAO.findById(taskId).orElse(null);
         if (task == null) {
-            sendResponse(exchange, 404, "{\"error\":\"Task not found\"}");
+            sendError(exchange, 404, "Task not found");
         } else {
-            sendResponse(exchange, 200, gson.toJson(task));
+            sendJson(exchange, 200, task);
         }
     }
 
-    private void handleGetTasksByUser(HttpExchange exchange, String userId) throws IOException, SQLException {
-        // On récupère toutes les tâches et on filtre par User ID
-        // (Idéalement, utilisez taskDAO.findByUserId(userId) si elle existe)
-        List<Task> tasks = taskDAO.findAll();
+    private void handleGetTaskDetail(HttpExchange exchange, PathParams params) throws IOException {
+        String taskId = params.get("id");
+        TaskPermissions.require(exchange, taskId, Level.READ);
+        Optional<TaskDetail> detail = taskDetailDAO.findByTaskId(taskId);
+        if (detail.isEmpty()) {
+            sendError(exchange, 404, "Task not found");
+        } else {
+            sendJson(exchange, 200, detail.get());
+        }
+    }
 
-        List<Task> userTasks = tasks.stream()
-                .filter(t -> t.getUser() != null && t.getUser().getId().equals(userId))
-                .toList();
+    private void handleGetTaskTree(HttpExchange exchange, PathParams params) throws IOException {
+        String taskId = params.get("id");
+        TaskPermissions.require(exchange, taskId, Level.READ);
+        List<TaskTreeNode> tree = taskDAO.findSubTree(taskId);
+        if (tree.isEmpty()) {
+            sendError(exchange, 404, "Task not found");
+        } else {
+            sendJson(exchange, 200, tree);
+        }
+    }
 
-        sendResponse(exchange, 200, gson.toJson(userTasks));
+    private void handleGetTasksByUser(HttpExchange exchange, PathParams params) throws IOException, SQLException {
+        // Index user_id, tags dans la même requête
+        List<Task> tasks = taskDAO.findByUserId(params.get("userId"), TaskPermissions.requireUser(exchange));
+        sendTasks(exchange, tasks);
     }
 
-    private void handleGetSubTasks(HttpExchange exchange, String parentId) throws IOException, SQLException {
-        // Appelle la méthode findSubTasks que nous avons ajoutée au DAO plus tôt
+    private void handleGetSubTasks(HttpExchange exchange, PathParams params) throws IOException, SQLException {
+        String parentId = params.get("parentId");
+        TaskPermissions.require(exchange, parentId, Level.READ);
         List<Task> subTasks = taskDAO.findSubTasks(parentId);
-        sendResponse(exchange, 200, gson.toJson(subTasks));
+        sendTasks(exchange, subTasks);
     }
 
-    private void handleCreateTask(HttpExchange exchange) throws IOException, SQLException {
-        String requestBody = readRequestBody(exchange);
-        Task task = gson.fromJson(requestBody, Task.class);
-
-        if (task.getUser() == null || task.getUser().getId() == null) {
-            sendResponse(exchange, 400, "{\"error\":\"User ID is required\"}");
-            return;
+    /**
+     * POST /api/tasks : the caller owns the task it creates; the user named in the
+     * body is ignored.
+     */
+    private void handleCreateTask(HttpExchange exchange, PathParams params) throws IOException, SQLException {
+        String userId = TaskPermissions.requireUser(exchange);
+        Task task = readJson(exchange, Task.class);
+
+        // L'identité vient du jeton de session, pas besoin de relire l'utilisateur
+        SessionTokens.Session session = RequestContext.session(exchange);
+        User user;
+        if (session != null && session.userId().equals(userId)) {
+            user = new User();
+            user.setId(session.userId());
+            user.setUsername(session.username());
+        } else {
+            user = userDAO.findById(userId).orElse(null);
         }
 
-        // --- CORRECTION ICI : Gestion de l'Optional ---
-        User user = userDAO.findById(task.getUser().getId()).orElse(null);
-        // ----------------------------------------------
-
         if (user == null) {
-            sendResponse(exchange, 404, "{\"error\":\"User not found\"}");
+            sendError(exchange, 404, "User not found");
             return;
         }
 
@@ -172,42 +132,73 @@ public class TaskHandler implements HttpHandler {
         }
 
         taskDAO.save(task);
-        sendResponse(exchange, 201, gson.toJson(task));
+        DashboardStatsCache.invalidate(user.getId());
+        DependencyGraphRegistry.invalidateProject(task.getProjectId());
+        sendJson(exchange, 201, task);
     }
 
-    private void handleUpdateTask(HttpExchange exchange, String taskId) throws IOException, SQLException {
-        String requestBody = readRequestBody(exchange);
-        Task updatedTask = gson.fromJson(requestBody, Task.class);
+    private void handleUpdateTask(HttpExchange exchange, PathParams params) throws IOException, SQLException {
+        String taskId = params.get("id");
+        TaskPermissions.require(exchange, taskId, Level.WRITE);
+        Task updatedTask = readJson(exchange, Task.class);
         updatedTask.setId(taskId);
 
+        // L'ancien et le nouveau propriétaire voient leurs statistiques changer
+        taskDAO.findById(taskId).ifPresent(this::invalidateStats);
         taskDAO.update(updatedTask);
-        sendResponse(exchange, 200, gson.toJson(updatedTask));
+        invalidateStats(updatedTask);
+        DependencyGraphRegistry.invalidateTask(taskId);
+        DependencyGraphRegistry.invalidateProject(updatedTask.getProjectId());
+        sendJson(exchange, 200, updatedTask);
     }
 
-    private void handleDeleteTask(HttpExchange exchange, String taskId) throws IOException, SQLException {
-        taskDAO.deleteById(taskId);
+    private void handleDeleteTask(HttpExchange exchange, PathParams params) throws IOException, SQLException {
+        String taskId = params.get("id");
+        TaskPermissions.require(exchange, taskId, Level.ADMIN);
+        // Les sous-tâches sont supprimées avec la tâche ; le DAO renvoie tout ce qu'il a supprimé
+        List<TaskTreeNode> deleted = taskDAO.deleteById(taskId);
+        if (deleted.isEmpty()) {
+            sendError(exchange, 404, "Task not found");
+            return;
+        }
+        for (TaskTreeNode node : deleted) {
+            invalidateStats(node.getTask());
+            DependencyGraphRegistry.invalidateTask(node.getTask().getId());
+        }
 
-        sendResponse(exchange, 200, "{\"message\":\"Task deleted\"}");
+        sendMessage(exchange, 200, "Task deleted");
     }
 
     // --- UTILITAIRES ---
 
-    private String readRequestBody(HttpExchange exchange) throws IOException {
-        try (InputStream is = exchange.getRequestBody()) {
-            return new String(is.readAllBytes(), StandardCharsets.UTF_8);
+    private void invalidateStats(Task task) {
+        if (task.getUser() != null) {
+            DashboardStatsCache.invalidate(task.getUser().getId());
         }
     }
 
-    private void sendResponse(HttpExchange exchange, int statusCode, String response) throws IOException {
-        exchange.getResponseHeaders().set("Content-Type", "application/json");
-        exchange.sendResponseHeaders(statusCode, response.getBytes(StandardCharsets.UTF_8).length);
-        try (OutputStream os = exchange.getResponseBody()) {
-            os.write(response.getBytes(StandardCharsets.UTF_8));
+    /**
+     * Task lists in the binary format when the client asks for it (Accept), JSON otherwise.
+     */
+    private void sendTasks(HttpExchange exchange, List<Task> tasks) throws IOException {
+        exchange.getResponseHeaders().set("Vary", "Accept");
+        if (!TaskListCodec.isAccepted(exchange.getRequestHeaders().getFirst("Accept"))) {
+            sendJson(exchange, 200, tasks);
+            return;
         }
+        Responses.send(exchange, 200, TaskListCodec.MEDIA_TYPE, TaskListCodec.encode(tasks));
     }
 
-    private void handleGetTasksByProject(HttpExchange exchange, String projectId) throws IOException, SQLException {
-        List<Task> tasks = taskDAO.findByProjectId(projectId);
-        sendResponse(exchange, 200, gson.toJson(tasks));
+    /**
+     * GET /api/tasks/project/{id}[?tag=] : chaque tâche porte ses tags.
+     */
+    private void handleGetTasksByProject(HttpExchange exchange, PathParams params) throws IOException, SQLException {
+        String viewerId = TaskPermissions.requireUser(exchange);
+        String projectId = params.get("projectId");
+        String tag = queryParam(exchange, "tag");
+        List<Task> tasks = tag == null || tag.isBlank()
+                ? taskDAO.findByProjectId(projectId, viewerId)
+                : taskDAO.findByProjectAndTag(projectId, tag, viewerId);
+        sendTasks(exchange, tasks);
     }
-}
\ No newline at end of file
+}
@@ -1,90 +1,84 @@
 package com.smarttask.server.handler;
 
-import com.google.gson.Gson;
-
-import com.smarttask.server.util.GsonUtils;
-import com.smarttask.model.Task;
 import com.smarttask.model.TaskTag;
 import com.smarttask.server.dao.TaskTagDAO;
+import com.smarttask.server.auth.TaskPermissions;
+import com.smarttask.server.auth.TaskPermissions.Level;
+import com.smarttask.server.http.ApiHandler;
+import com.smarttask.server.http.PathParams;
 import com.sun.net.httpserver.HttpExchange;
-import com.sun.net.httpserver.HttpHandler;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
-import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
 
-public class TaskTagHandler implements HttpHandler {
+public class TaskTagHandler extends ApiHandler {
     private final TaskTagDAO dao = new TaskTagDAO();
-    // Remplacez : private final Gson gson = new Gson();
-    private final Gson gson = GsonUtils.getGson();
-
-    @Override
-    public void handle(HttpExchange exchange) throws IOException {
-        String method = exchange.getRequestMethod();
-        String path = exchange.getRequestURI().getPath();
-
-        try {
-            if ("GET".equals(method) && path.startsWith("/api/tags/task/")) {
-                String taskId = path.substring("/api/tags/task/".length());
-                handleGetByTask(exchange, taskId);
-                return;
-            }
 
-            if ("POST".equals(method) && path.equals("/api/tags")) {
-                handleCreate(exchange);
-                return;
-            }
+    private static final int MAX_BULK_TASKS = 500;
 
-            if ("DELETE".equals(method) && path.startsWith("/api/tags/")) {
-                String suffix = path.substring("/api/tags/".length()); // taskId/tagName
-                String[] parts = suffix.split("/", 2);
-                if (parts.length == 2) handleDelete(exchange, parts[0], parts[1]);
-                else sendResponse(exchange, 400, "{\"error\":\"Bad request\"}");
-                return;
-            }
+    private static class BulkTagRequest {
+        List<String> taskIds;
+        String tagName;
+    }
 
-            sendResponse(exchange, 404, "{\"error\":\"Not Found\"}");
-        } catch (Exception e) {
-            e.printStackTrace();
-            sendResponse(exchange, 500, "{\"error\":\"" + e.getMessage() + "\"}");
-        }
+    public TaskTagHandler() {
+        get("/api/tags/task/{taskId}", this::handleGetByTask);
+        post("/api/tags", this::handleCreate);
+        // POST /api/tags/bulk et /api/tags/bulk/remove : {"taskIds":[...], "tagName":"..."}
+        post("/api/tags/bulk", (exchange, params) -> handleBulk(exchange, true));
+        post("/api/tags/bulk/remove", (exchange, params) -> handleBulk(exchange, false));
+        delete("/api/tags/{taskId}/{tagName}", this::handleDelete);
     }
 
-    private void handleGetByTask(HttpExchange exchange, String taskId) throws IOException {
+    private void handleGetByTask(HttpExchange exchange, PathParams params) throws IOException {
+        String taskId = params.get("taskId");
+        TaskPermissions.require(exchange, taskId, Level.READ);
         List<TaskTag> list = dao.findByTaskId(taskId);
-        sendResponse(exchange, 200, gson.toJson(list));
+        sendJson(exchange, 200, list);
     }
 
-    private void handleCreate(HttpExchange exchange) throws IOException {
-        String body = readRequestBody(exchange);
-        TaskTag t = gson.fromJson(body, TaskTag.class);
+    private void handleCreate(HttpExchange exchange, PathParams params) throws IOException {
+        TaskTag t = readJson(exchange, TaskTag.class);
         if (t.getTask() == null || t.getTask().getId() == null || t.getTagName() == null) {
-            sendResponse(exchange, 400, "{\"error\":\"taskId and tagName required\"}");
+            sendError(exchange, 400, "taskId and tagName required");
             return;
         }
+        TaskPermissions.require(exchange, t.getTask().getId(), Level.WRITE);
         dao.save(t);
-        sendResponse(exchange, 201, gson.toJson(t));
+        sendJson(exchange, 201, t);
     }
 
-    private void handleDelete(HttpExchange exchange, String taskId, String tagName) throws IOException {
-        boolean ok = dao.delete(taskId, tagName);
-        if (ok) sendResponse(exchange, 200, "{\"message\":\"Tag deleted\"}");
-        else sendResponse(exchange, 404, "{\"error\":\"Tag not found\"}");
-    }
+    /**
+     * Tags or untags every listed task in one transaction. All-or-nothing: a single
+     * task the caller may not edit rejects the whole request.
+     */
+    private void handleBulk(HttpExchange exchange, boolean add) throws IOException {
+        BulkTagRequest req = readJson(exchange, BulkTagRequest.class);
+        if (req.taskIds == null || req.taskIds.isEmpty() || req.tagName == null || req.tagName.isBlank()) {
+            sendError(exchange, 400, "taskIds and tagName required");
+            return;
+        }
+        if (req.taskIds.size() > MAX_BULK_TASKS) {
+            sendError(exchange, 400, "Too many tasks (max " + MAX_BULK_TASKS + ")");
+            return;
+        }
+        List<String> taskIds = req.taskIds.stream().distinct().toList();
+        for (String taskId : taskIds) {
+            TaskPermissions.require(exchange, taskId, Level.WRITE);
+        }
 
-    private String readRequestBody(HttpExchange exchange) throws IOException {
-        InputStream is = exchange.getRequestBody();
-        return new String(is.readAllBytes(), StandardCharsets.UTF_8);
+        List<String> changed = add
+                ? dao.addToTasks(taskIds, req.tagName)
+                : dao.removeFromTasks(taskIds, req.tagName);
+        sendJson(exchange, 200, Map.of("tagName", req.tagName, "changed", changed));
     }
 
-    private void sendResponse(HttpExchange exchange, int statusCode, String response) throws IOException {
-        exchange.getResponseHeaders().set("Content-Type", "application/json");
-        exchange.getResponseHeaders().set("Access-Control-Allow-Origin", "*");
-        exchange.sendResponseHeaders(statusCode, response.getBytes(StandardCharsets.UTF_8).length);
-        OutputStream os = exchange.getResponseBody();
-        os.write(response.getBytes(StandardCharsets.UTF_8));
-        os.close();
+    private void handleDelete(HttpExchange exchange, PathParams params) throws IOException {
+        String taskId = params.get("taskId");
+        TaskPermissions.require(exchange, taskId, Level.WRITE);
+        boolean ok = dao.delete(taskId, params.get("tagName"));
+        if (ok) sendMessage(exchange, 200, "Tag deleted");
+        else sendError(exchange, 404, "Tag not found");
     }
 }
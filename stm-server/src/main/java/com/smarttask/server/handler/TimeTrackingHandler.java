@@ -1,117 +1,104 @@
 package com.smarttask.server.handler;
 
-import com.google.gson.Gson;
+import com.smarttask.model.TimeTotals;
 import com.smarttask.model.TimeTracking;
+import com.smarttask.server.cache.DashboardStatsCache;
+import com.smarttask.server.dao.TimeRollupDAO;
 import com.smarttask.server.dao.TimeTrackingDAO;
-import com.smarttask.server.util.GsonUtils;
+import com.smarttask.server.http.ApiHandler;
+import com.smarttask.server.http.PathParams;
 import com.sun.net.httpserver.HttpExchange;
-import com.sun.net.httpserver.HttpHandler;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
-import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 
-public class TimeTrackingHandler implements HttpHandler {
-    
+public class TimeTrackingHandler extends ApiHandler {
+
     // On utilise une seule instance DAO
-    private final TimeTrackingDAO dao;
-    private final Gson gson;
+    private final TimeTrackingDAO dao = new TimeTrackingDAO();
+    private final TimeRollupDAO rollupDAO = new TimeRollupDAO();
+
+    private static final int DEFAULT_RANGE_DAYS = 30;
+    private static final int MAX_RANGE_DAYS = 366;
 
     public TimeTrackingHandler() {
-        this.dao = new TimeTrackingDAO();
-        this.gson = GsonUtils.getGson(); // Utiliser GsonUtils pour gérer les Dates correctement
+        // Tout récupérer : pas implémenté pour sécurité
+        get("/api/timetracking", (exchange, params) -> sendJson(exchange, 200, List.of()));
+        get("/api/timetracking/{userId}/user", this::handleGetByUser);
+        get("/api/timetracking/task/{taskId}", this::handleGetByTask);
+        // Totaux (depuis les rollups)
+        get("/api/timetracking/totals/task/{id}", this::handleGetTaskTotals);
+        get("/api/timetracking/totals/user/{id}", (exchange, params) -> handleGetRangeTotals(exchange, params, true));
+        get("/api/timetracking/totals/project/{id}", (exchange, params) -> handleGetRangeTotals(exchange, params, false));
+        post("/api/timetracking", this::handlePost);
+        put("/api/timetracking", this::handlePut);
+        put("/api/timetracking/{id}", this::handlePut);
     }
 
-    @Override
-    public void handle(HttpExchange exchange) throws IOException {
-        String method = exchange.getRequestMethod();
-        
-        // Ajout des headers CORS pour éviter les blocages navigateur/client
-        exchange.getResponseHeaders().add("Access-Control-Allow-Origin", "*");
-        exchange.getResponseHeaders().add("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS");
-        exchange.getResponseHeaders().add("Access-Control-Allow-Headers", "Content-Type, Authorization");
-
-        if ("OPTIONS".equalsIgnoreCase(method)) {
-            exchange.sendResponseHeaders(204, -1);
-            return;
-        }
+    private void handleGetByUser(HttpExchange exchange, PathParams params) throws IOException {
+        List<TimeTracking> logs = dao.findByUserId(params.get("userId"));
+        sendJson(exchange, 200, logs);
+    }
 
-        try {
-            if ("GET".equals(method)) {
-                handleGet(exchange);
-            } else if ("POST".equals(method)) {
-                handlePost(exchange);
-            } else if ("PUT".equals(method)) {
-                handlePut(exchange);
-            } else {
-                sendResponse(exchange, 405, "{\"error\":\"Method Not Allowed\"}");
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-            sendResponse(exchange, 500, "{\"error\":\"Internal Server Error: " + e.getMessage() + "\"}");
-        }
+    private void handleGetByTask(HttpExchange exchange, PathParams params) throws IOException {
+        List<TimeTracking> logs = dao.findByTaskId(params.get("taskId"));
+        sendJson(exchange, 200, logs);
     }
 
-    private void handleGet(HttpExchange exchange) throws IOException {
-        String path = exchange.getRequestURI().getPath();
-        
-        // Cas 1: Récupérer par USER ID -> /api/timetracking/{userId}/user
-        if (path.matches(".*/api/timetracking/[^/]+/user")) {
-            String[] segments = path.split("/");
-            // segments: ["", "api", "timetracking", "UUID", "user"]
-            String userId = segments[3];
-            
-            List<TimeTracking> logs = dao.findByUserId(userId);
-            sendResponse(exchange, 200, gson.toJson(logs));
-            return;
-        }
+    private void handleGetTaskTotals(HttpExchange exchange, PathParams params) throws IOException {
+        sendJson(exchange, 200, rollupDAO.totalsForTask(params.get("id")));
+    }
 
-        // Cas 2: Récupérer par Task ID -> /api/timetracking/task/{taskId}
-        if (path.matches(".*/api/timetracking/task/[^/]+")) {
-            String taskId = path.substring(path.lastIndexOf("/") + 1);
-            List<TimeTracking> logs = dao.findByTaskId(taskId);
-            sendResponse(exchange, 200, gson.toJson(logs));
+    /**
+     * /api/timetracking/totals/{user|project}/{id}[?from=YYYY-MM-DD&to=YYYY-MM-DD]
+     */
+    private void handleGetRangeTotals(HttpExchange exchange, PathParams params, boolean user) throws IOException {
+        String id = params.get("id");
+        LocalDate to;
+        LocalDate from;
+        try {
+            String toParam = queryParam(exchange, "to");
+            String fromParam = queryParam(exchange, "from");
+            to = toParam != null ? LocalDate.parse(toParam) : LocalDate.now();
+            from = fromParam != null ? LocalDate.parse(fromParam) : to.minusDays(DEFAULT_RANGE_DAYS - 1);
+        } catch (DateTimeParseException e) {
+            sendError(exchange, 400, "Invalid date, expected YYYY-MM-DD");
             return;
         }
-
-        // Cas 3: Tout récupérer
-        if (path.endsWith("/api/timetracking")) {
-            sendResponse(exchange, 200, "[]"); // Pas implémenté pour sécurité
+        if (from.isAfter(to) || from.plusDays(MAX_RANGE_DAYS).isBefore(to)) {
+            sendError(exchange, 400, "Invalid range (max " + MAX_RANGE_DAYS + " days)");
             return;
         }
 
-        sendResponse(exchange, 404, "{\"error\":\"Endpoint not found\"}");
+        TimeTotals totals = user
+                ? rollupDAO.totalsForUser(id, from, to)
+                : rollupDAO.totalsForProject(id, from, to);
+        sendJson(exchange, 200, totals);
     }
 
-    private void handlePost(HttpExchange exchange) throws IOException {
-        String body = readRequestBody(exchange);
-        TimeTracking tt = gson.fromJson(body, TimeTracking.class);
+    private void handlePost(HttpExchange exchange, PathParams params) throws IOException {
+        TimeTracking tt = readJson(exchange, TimeTracking.class);
         String newId = dao.save(tt);
         tt.setId(newId);
-        sendResponse(exchange, 201, gson.toJson(tt));
+        invalidateStats(tt);
+        sendJson(exchange, 201, tt);
     }
 
-    private void handlePut(HttpExchange exchange) throws IOException {
-        String body = readRequestBody(exchange);
-        TimeTracking tt = gson.fromJson(body, TimeTracking.class);
+    private void handlePut(HttpExchange exchange, PathParams params) throws IOException {
+        TimeTracking tt = readJson(exchange, TimeTracking.class);
+        if (tt.getId() == null && params.get("id") != null) tt.setId(params.get("id"));
         dao.update(tt);
-        sendResponse(exchange, 200, gson.toJson(tt));
-    }
-
-    private String readRequestBody(HttpExchange exchange) throws IOException {
-        try (InputStream is = exchange.getRequestBody()) {
-            return new String(is.readAllBytes(), StandardCharsets.UTF_8);
-        }
+        invalidateStats(tt);
+        sendJson(exchange, 200, tt);
     }
 
-    private void sendResponse(HttpExchange exchange, int statusCode, String response) throws IOException {
-        byte[] bytes = response.getBytes(StandardCharsets.UTF_8);
-        exchange.getResponseHeaders().set("Content-Type", "application/json");
-        exchange.sendResponseHeaders(statusCode, bytes.length);
-        try (OutputStream os = exchange.getResponseBody()) {
-            os.write(bytes);
+    private void invalidateStats(TimeTracking tt) {
+        if (tt.getUser() != null && tt.getUser().getId() != null) {
+            DashboardStatsCache.invalidate(tt.getUser().getId());
+        } else {
+            DashboardStatsCache.invalidateAll();
         }
     }
-}
\ No newline at end of file
+}
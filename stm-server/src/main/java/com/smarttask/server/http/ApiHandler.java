@@ -0,0 +1,86 @@
+package com.smarttask.server.http;
+
+import com.google.gson.Gson;
+import com.smarttask.server.util.GsonUtils;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Base of the handlers served through a {@link Router}: subclasses declare their
+ * routes in their constructor and use the helpers below to read requests and
+ * write responses. CORS, sessions and timing are filters of the context
+ * ({@code MainServer.route}), error responses come from the router.
+ */
+public abstract class ApiHandler implements HttpHandler {
+
+    protected final Gson gson = GsonUtils.getGson();
+    private final Router router = new Router();
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        router.handle(exchange);
+    }
+
+    protected final void get(String template, RouteHandler handler) {
+        router.get(template, handler);
+    }
+
+    protected final void post(String template, RouteHandler handler) {
+        router.post(template, handler);
+    }
+
+    protected final void put(String template, RouteHandler handler) {
+        router.put(template, handler);
+    }
+
+    protected final void patch(String template, RouteHandler handler) {
+        router.patch(template, handler);
+    }
+
+    protected final void delete(String template, RouteHandler handler) {
+        router.delete(template, handler);
+    }
+
+    protected static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream is = exchange.getRequestBody()) {
+            return new String(is.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /** Request body as JSON; an empty body is a 400. */
+    protected <T> T readJson(HttpExchange exchange, Class<T> type) throws IOException {
+        T value = gson.fromJson(readBody(exchange), type);
+        if (value == null) throw new HttpError(400, "Request body required");
+        return value;
+    }
+
+    protected void sendJson(HttpExchange exchange, int status, Object data) throws IOException {
+        Responses.json(exchange, status, gson.toJson(data));
+    }
+
+    protected static void sendMessage(HttpExchange exchange, int status, String message) throws IOException {
+        Responses.message(exchange, status, message);
+    }
+
+    protected static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        Responses.error(exchange, status, message);
+    }
+
+    /** Decoded value of a query parameter, or null. */
+    protected static String queryParam(HttpExchange exchange, String key) {
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) return null;
+        for (String param : query.split("&")) {
+            String[] parts = param.split("=", 2);
+            if (parts.length == 2 && parts[0].equals(key)) {
+                return URLDecoder.decode(parts[1], StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,37 @@
+package com.smarttask.server.http;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+
+/**
+ * CORS headers for every route, and the answer to preflight (OPTIONS) requests,
+ * which therefore never reach the session filter or the handlers.
+ */
+public class CorsFilter extends Filter {
+
+    private static final String METHODS = "GET, POST, PUT, PATCH, DELETE, OPTIONS";
+    private static final String HEADERS = "Content-Type, Authorization, Upload-Offset, X-Content-SHA256";
+
+    @Override
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+        Headers headers = exchange.getResponseHeaders();
+        headers.set("Access-Control-Allow-Origin", "*");
+        headers.set("Access-Control-Allow-Methods", METHODS);
+        headers.set("Access-Control-Allow-Headers", HEADERS);
+
+        if ("OPTIONS".equalsIgnoreCase(exchange.getRequestMethod())) {
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+            return;
+        }
+        chain.doFilter(exchange);
+    }
+
+    @Override
+    public String description() {
+        return "Adds CORS headers and answers preflight requests";
+    }
+}
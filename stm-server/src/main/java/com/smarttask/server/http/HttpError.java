@@ -0,0 +1,18 @@
+package com.smarttask.server.http;
+
+/**
+ * Ends a request with an error status; the router answers {"error": message}.
+ */
+public class HttpError extends RuntimeException {
+
+    private final int status;
+
+    public HttpError(int status, String message) {
+        super(message);
+        this.status = status;
+    }
+
+    public int status() {
+        return status;
+    }
+}
@@ -0,0 +1,42 @@
+package com.smarttask.server.http;
+
+/**
+ * Values of the {name} segments of a matched path template.
+ *
+ * Typed segments ({n:int}, {n:long}) were checked while matching, so their
+ * getters cannot fail on a request that reached the route.
+ */
+public final class PathParams {
+
+    static final PathParams NONE = new PathParams(new String[0], new String[0]);
+
+    private final String[] names;
+    private final String[] values;
+
+    PathParams(String[] names, String[] values) {
+        this.names = names;
+        this.values = values;
+    }
+
+    /** Value of a parameter of the template, or null when the template has none by that name. */
+    public String get(String name) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(name)) return values[i];
+        }
+        return null;
+    }
+
+    public int getInt(String name) {
+        return Integer.parseInt(require(name));
+    }
+
+    public long getLong(String name) {
+        return Long.parseLong(require(name));
+    }
+
+    private String require(String name) {
+        String value = get(name);
+        if (value == null) throw new IllegalArgumentException("No path parameter " + name);
+        return value;
+    }
+}
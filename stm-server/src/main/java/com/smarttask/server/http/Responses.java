@@ -0,0 +1,88 @@
+package com.smarttask.server.http;
+
+import com.google.gson.JsonObject;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes response bodies. Every body of a size worth it is gzipped for the
+ * callers that accept it, so handlers never deal with compression themselves.
+ *
+ * Configuration (environment variables):
+ * - GZIP_MIN_BYTES: smallest body sent compressed (default 1024; 0 disables compression)
+ */
+public final class Responses {
+
+    public static final String JSON = "application/json";
+
+    private static final int GZIP_MIN_BYTES = Integer.parseInt(System.getenv().getOrDefault("GZIP_MIN_BYTES", "1024"));
+
+    private Responses() {}
+
+    public static void json(HttpExchange exchange, int status, String json) throws IOException {
+        send(exchange, status, JSON, json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** {"error": message}, escaped whatever the message holds. */
+    public static void error(HttpExchange exchange, int status, String message) throws IOException {
+        JsonObject body = new JsonObject();
+        body.addProperty("error", message);
+        json(exchange, status, body.toString());
+    }
+
+    /** {"message": message}. */
+    public static void message(HttpExchange exchange, int status, String message) throws IOException {
+        JsonObject body = new JsonObject();
+        body.addProperty("message", message);
+        json(exchange, status, body.toString());
+    }
+
+    /** Status without a body (204, or an update acknowledged by its status). */
+    public static void empty(HttpExchange exchange, int status) throws IOException {
+        exchange.sendResponseHeaders(status, -1);
+        exchange.close();
+    }
+
+    public static void send(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {
+        if (contentType != null) exchange.getResponseHeaders().set("Content-Type", contentType);
+        if (GZIP_MIN_BYTES > 0 && body.length >= GZIP_MIN_BYTES) {
+            exchange.getResponseHeaders().add("Vary", "Accept-Encoding");
+            if (acceptsGzip(exchange.getRequestHeaders().getFirst("Accept-Encoding"))) {
+                body = gzip(body);
+                exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+            }
+        }
+        // 0 would mean a chunked body to HttpServer; -1 is "no body"
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(body);
+        }
+    }
+
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) return false;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            if (!parts[0].trim().equalsIgnoreCase("gzip")) continue;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].replace(" ", "");
+                if (param.matches("q=0(\\.0*)?")) return false;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gz = new GZIPOutputStream(out, 8192)) {
+            gz.write(body);
+        }
+        return out.toByteArray();
+    }
+}
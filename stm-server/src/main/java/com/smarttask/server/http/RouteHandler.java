@@ -0,0 +1,12 @@
+package com.smarttask.server.http;
+
+import com.sun.net.httpserver.HttpExchange;
+
+/**
+ * One route of a {@link Router}: receives the exchange and the parameters of its
+ * path template. Exceptions are mapped to an error response by the router.
+ */
+@FunctionalInterface
+public interface RouteHandler {
+    void handle(HttpExchange exchange, PathParams params) throws Exception;
+}
@@ -0,0 +1,200 @@
+package com.smarttask.server.http;
+
+import com.google.gson.JsonParseException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dispatches requests to routes declared as path templates:
+ *
+ * <pre>
+ * router.get("/api/tasks/{id}/tree", this::getTree);
+ * router.get("/api/notifications/user/{id}/page/{n:int}", this::getPage);
+ * </pre>
+ *
+ * Templates are compiled once into a trie of path segments, so a request is
+ * matched by walking its path segment by segment, whatever the number of routes.
+ * A literal segment wins over a parameter ("/api/tasks/sub/{id}" before
+ * "/api/tasks/{id}/user"); when the literal branch leads nowhere the parameter
+ * branch is tried, as the former startsWith chains did. Typed parameters
+ * ({name:int}, {name:long}) only match digits; {name} matches any non-empty segment.
+ *
+ * - no matching path: 404; matching path but not method: 405 with an Allow header
+ * - the matched template ("GET /api/tasks/{id}") is stored on the exchange under
+ *   {@link #ROUTE_ATTRIBUTE}, so filters can report per route rather than per URL
+ * - exceptions of a route become the error response: {@link HttpError} its status,
+ *   malformed JSON 400, SQLException and anything else 500 (logged; the response
+ *   never carries the exception message, which may expose SQL or internals)
+ */
+public final class Router implements HttpHandler {
+
+    public static final String ROUTE_ATTRIBUTE = "stm.route";
+
+    private final Node root = new Node();
+    private int maxParams;
+
+    public Router get(String template, RouteHandler handler) {
+        return add("GET", template, handler);
+    }
+
+    public Router post(String template, RouteHandler handler) {
+        return add("POST", template, handler);
+    }
+
+    public Router put(String template, RouteHandler handler) {
+        return add("PUT", template, handler);
+    }
+
+    public Router patch(String template, RouteHandler handler) {
+        return add("PATCH", template, handler);
+    }
+
+    public Router delete(String template, RouteHandler handler) {
+        return add("DELETE", template, handler);
+    }
+
+    public Router add(String method, String template, RouteHandler handler) {
+        if (!template.startsWith("/")) throw new IllegalArgumentException("Template must start with /: " + template);
+        Node node = root;
+        List<String> names = new ArrayList<>();
+        for (String segment : template.substring(1).split("/", -1)) {
+            if (segment.startsWith("{") && segment.endsWith("}")) {
+                String spec = segment.substring(1, segment.length() - 1);
+                int colon = spec.indexOf(':');
+                ParamType type = colon < 0 ? ParamType.STRING : ParamType.of(spec.substring(colon + 1), template);
+                names.add(colon < 0 ? spec : spec.substring(0, colon));
+                node = node.params.computeIfAbsent(type, t -> new Node());
+            } else {
+                node = node.literals.computeIfAbsent(segment, s -> new Node());
+            }
+        }
+        Route route = new Route(method + " " + template, names.toArray(new String[0]), handler);
+        if (node.routes.putIfAbsent(method, route) != null) {
+            throw new IllegalStateException("Duplicate route " + route.name());
+        }
+        maxParams = Math.max(maxParams, names.size());
+        return this;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        String[] values = new String[maxParams];
+        Node node = path.startsWith("/") ? match(root, path, 1, values, 0) : null;
+        if (node == null) {
+            Responses.error(exchange, 404, "Not Found");
+            return;
+        }
+        Route route = node.routes.get(exchange.getRequestMethod());
+        if (route == null) {
+            exchange.getResponseHeaders().set("Allow", String.join(", ", node.routes.keySet()));
+            Responses.error(exchange, 405, "Method Not Allowed");
+            return;
+        }
+        exchange.setAttribute(ROUTE_ATTRIBUTE, route.name());
+
+        PathParams params = route.names().length == 0 ? PathParams.NONE : new PathParams(route.names(), values);
+        try {
+            route.handler().handle(exchange, params);
+        } catch (HttpError e) {
+            fail(exchange, e.status(), e.getMessage());
+        } catch (JsonParseException e) {
+            fail(exchange, 400, "Invalid JSON");
+        } catch (SQLException e) {
+            e.printStackTrace();
+            fail(exchange, 500, "Database Error");
+        } catch (Exception e) {
+            e.printStackTrace();
+            fail(exchange, 500, "Internal Server Error");
+        }
+    }
+
+    /**
+     * Node reached by the path from {@code from} (just past a '/'), or null. Parameter
+     * values are written to {@code values} from index {@code count} on.
+     */
+    private static Node match(Node node, String path, int from, String[] values, int count) {
+        int end = path.indexOf('/', from);
+        boolean last = end < 0;
+        if (last) end = path.length();
+        String segment = path.substring(from, end);
+
+        Node literal = node.literals.get(segment);
+        if (literal != null) {
+            Node found = last ? (literal.routes.isEmpty() ? null : literal) : match(literal, path, end + 1, values, count);
+            if (found != null) return found;
+        }
+        if (segment.isEmpty() || node.params.isEmpty()) return null;
+        for (Map.Entry<ParamType, Node> entry : node.params.entrySet()) {
+            if (!entry.getKey().accepts(segment)) continue;
+            Node param = entry.getValue();
+            values[count] = segment;
+            Node found = last ? (param.routes.isEmpty() ? null : param) : match(param, path, end + 1, values, count + 1);
+            if (found != null) return found;
+        }
+        return null;
+    }
+
+    /** Error response, unless the route already started its own. */
+    private static void fail(HttpExchange exchange, int status, String message) throws IOException {
+        if (exchange.getResponseCode() != -1) {
+            exchange.close();
+            return;
+        }
+        Responses.error(exchange, status, message);
+    }
+
+    private record Route(String name, String[] names, RouteHandler handler) {}
+
+    private static final class Node {
+        final Map<String, Node> literals = new HashMap<>();
+        // Typed parameters first: "42" goes to {n:int} before {id}
+        final Map<ParamType, Node> params = new EnumMap<>(ParamType.class);
+        final Map<String, Route> routes = new LinkedHashMap<>();
+    }
+
+    private enum ParamType {
+        INT(9), LONG(18), STRING(0);
+
+        // Digits that always fit the type; longer values are parsed to check
+        private final int safeDigits;
+
+        ParamType(int safeDigits) {
+            this.safeDigits = safeDigits;
+        }
+
+        static ParamType of(String name, String template) {
+            return switch (name) {
+                case "int" -> INT;
+                case "long" -> LONG;
+                case "string" -> STRING;
+                default -> throw new IllegalArgumentException("Unknown parameter type " + name + " in " + template);
+            };
+        }
+
+        boolean accepts(String segment) {
+            if (this == STRING) return true;
+            for (int i = 0; i < segment.length(); i++) {
+                char c = segment.charAt(i);
+                if (c < '0' || c > '9') return false;
+            }
+            if (segment.length() <= safeDigits) return true;
+            try {
+                if (this == INT) Integer.parseInt(segment);
+                else Long.parseLong(segment);
+                return true;
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+    }
+}
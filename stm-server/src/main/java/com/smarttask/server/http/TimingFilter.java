@@ -0,0 +1,82 @@
+package com.smarttask.server.http;
+
+import com.smarttask.server.metrics.Metrics;
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Times every request, from the first filter to the end of the handler, into
+ * {@link Metrics#HTTP} by route template ("GET /api/tasks/{id}") when the handler
+ * goes through a {@link Router}, by context ("GET /api/comments/*") otherwise, so
+ * ids in paths never become series. 5xx responses count as errors. Slow requests
+ * are also logged.
+ *
+ * A handler that answers from another thread calls {@link #defer} before handing
+ * the exchange over, and runs the returned callback once the response is sent:
+ * the request is then timed until that point, with its real status.
+ *
+ * Configuration (environment variables):
+ * - SLOW_REQUEST_MS: duration from which a request is logged (default 1000; 0 logs every request)
+ */
+public class TimingFilter extends Filter {
+
+    private static final long SLOW_REQUEST_MS = Long.parseLong(System.getenv().getOrDefault("SLOW_REQUEST_MS", "1000"));
+    private static final String START_ATTRIBUTE = "stm.timing.start";
+    private static final String DEFERRED_ATTRIBUTE = "stm.timing.deferred";
+
+    @Override
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+        long start = System.nanoTime();
+        exchange.setAttribute(START_ATTRIBUTE, start);
+        try {
+            chain.doFilter(exchange);
+        } finally {
+            if (exchange.getAttribute(DEFERRED_ATTRIBUTE) == null) record(exchange, start);
+        }
+    }
+
+    /**
+     * Leaves the timing of the request to the returned callback, to run once the
+     * response has been sent from another thread. Runs at most once.
+     */
+    public static Runnable defer(HttpExchange exchange) {
+        Object start = exchange.getAttribute(START_ATTRIBUTE);
+        if (!(start instanceof Long started)) return () -> {};
+        exchange.setAttribute(DEFERRED_ATTRIBUTE, Boolean.TRUE);
+        AtomicBoolean done = new AtomicBoolean();
+        return () -> {
+            if (done.compareAndSet(false, true)) record(exchange, started);
+        };
+    }
+
+    private static void record(HttpExchange exchange, long start) {
+        long elapsed = System.nanoTime() - start;
+        int status = exchange.getResponseCode();
+        if (Metrics.ENABLED) {
+            Metrics.HTTP.timer(routeOf(exchange)).record(elapsed, status >= 500);
+        }
+        long millis = elapsed / 1_000_000;
+        if (millis >= SLOW_REQUEST_MS) {
+            Object route = exchange.getAttribute(Router.ROUTE_ATTRIBUTE);
+            String name = route != null ? route.toString()
+                    : exchange.getRequestMethod() + " " + exchange.getRequestURI().getPath();
+            System.out.println("Slow request: " + name + " -> " + status + " in " + millis + "ms");
+        }
+    }
+
+    private static String routeOf(HttpExchange exchange) {
+        Object route = exchange.getAttribute(Router.ROUTE_ATTRIBUTE);
+        if (route != null) return route.toString();
+        String context = exchange.getHttpContext().getPath();
+        boolean below = exchange.getRequestURI().getPath().length() > context.length();
+        return exchange.getRequestMethod() + " " + context + (below ? "/*" : "");
+    }
+
+    @Override
+    public String description() {
+        return "Records request durations per route";
+    }
+}
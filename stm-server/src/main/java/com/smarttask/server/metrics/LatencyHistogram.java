@@ -0,0 +1,73 @@
+package com.smarttask.server.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram in the manner of HdrHistogram: microsecond values are counted
+ * in buckets that double in width with every power of two, each power of two being
+ * split in 16 sub-buckets. Any value is thus known within 1/16 (6.25 %) from 1 us up
+ * to 12 days, with 608 counters and no allocation per value.
+ *
+ * Recording is one array increment and one add, without locks; readers take a
+ * snapshot of the counters, so a scrape never blocks the requests it measures.
+ */
+final class LatencyHistogram {
+
+    private static final int SUB_BITS = 4;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    // 2^40 us, about 12.7 days; longer values land in the last bucket
+    private static final int MAX_EXPONENT = 40;
+    static final int BUCKETS = (MAX_EXPONENT - SUB_BITS + 2) * SUB_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder sumNanos = new LongAdder();
+
+    void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        counts.incrementAndGet(index(nanos / 1000));
+        sumNanos.add(nanos);
+    }
+
+    long sumNanos() {
+        return sumNanos.sum();
+    }
+
+    long[] snapshot() {
+        long[] copy = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) copy[i] = counts.get(i);
+        return copy;
+    }
+
+    static int index(long micros) {
+        if (micros < SUB_COUNT) return (int) micros;
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        if (exponent > MAX_EXPONENT) return BUCKETS - 1;
+        int shift = exponent - SUB_BITS;
+        return ((shift + 1) << SUB_BITS) + (int) ((micros >>> shift) & (SUB_COUNT - 1));
+    }
+
+    /** Smallest value, in us, counted in a bucket. */
+    static long lowest(int index) {
+        if (index < SUB_COUNT) return index;
+        int shift = (index >>> SUB_BITS) - 1;
+        return (long) (SUB_COUNT + (index & (SUB_COUNT - 1))) << shift;
+    }
+
+    /** Largest value, in us, counted in a bucket. */
+    static long highest(int index) {
+        return index == BUCKETS - 1 ? Long.MAX_VALUE : lowest(index + 1) - 1;
+    }
+
+    /** Value, in us, under which a fraction q of a snapshot falls (its bucket's upper end). */
+    static long valueAtQuantile(long[] snapshot, long total, double q) {
+        if (total == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(q * total));
+        long seen = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) return highest(i);
+        }
+        return highest(snapshot.length - 1);
+    }
+}
@@ -0,0 +1,182 @@
+package com.smarttask.server.metrics;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Optional;
+
+/**
+ * Times database work without touching the DAOs: connections handed out by
+ * DatabaseConnection are wrapped so that
+ *
+ * - opening, and every execute* of their statements, feed {@link Metrics#JDBC}
+ * - the time from opening to close() feeds {@link Metrics#DAO}, under the method
+ *   that asked for the connection ("TaskDAO.findByUserId"); every DAO method opens
+ *   its own connection, so this is the duration of the method's database work
+ * - a statement failing marks the DAO call as failed, even when the DAO catches it
+ *
+ * The calling method is read from the stack once per connection, a few
+ * microseconds against the milliseconds of opening a connection.
+ */
+public final class MeteredJdbc {
+
+    /** Opens the real connection. */
+    @FunctionalInterface
+    public interface Connector {
+        Connection connect() throws SQLException;
+    }
+
+    private static final String SERVER_PACKAGE = "com.smarttask.server.";
+    private static final String OWN_PACKAGE = "com.smarttask.server.metrics.";
+    private static final String CONNECTION_FACTORY = "com.smarttask.server.config.DatabaseConnection";
+    private static final StackWalker STACK = StackWalker.getInstance();
+
+    private MeteredJdbc() {}
+
+    public static Connection connect(Connector connector) throws SQLException {
+        Timer dao = Metrics.DAO.timer(caller());
+        long start = System.nanoTime();
+        Connection connection;
+        try {
+            connection = connector.connect();
+        } catch (SQLException | RuntimeException e) {
+            long elapsed = System.nanoTime() - start;
+            Metrics.JDBC.timer("connect").record(elapsed, true);
+            dao.record(elapsed, true);
+            throw e;
+        }
+        Metrics.JDBC.timer("connect").record(System.nanoTime() - start, false);
+        return (Connection) Proxy.newProxyInstance(MeteredJdbc.class.getClassLoader(),
+                new Class<?>[] {Connection.class}, new ConnectionHandler(connection, dao, start));
+    }
+
+    /** "TaskDAO.findByUserId" for the first server frame outside the connection plumbing. */
+    private static String caller() {
+        Optional<String> caller = STACK.walk(frames -> frames
+                .filter(f -> f.getClassName().startsWith(SERVER_PACKAGE)
+                        && !f.getClassName().startsWith(OWN_PACKAGE)
+                        && !f.getClassName().equals(CONNECTION_FACTORY))
+                .findFirst()
+                .map(f -> simpleName(f.getClassName()) + "." + methodName(f.getMethodName())));
+        return caller.orElse("unknown");
+    }
+
+    private static String simpleName(String className) {
+        String name = className.substring(className.lastIndexOf('.') + 1);
+        int inner = name.indexOf('$');
+        return inner < 0 ? name : name.substring(0, inner);
+    }
+
+    /** lambda$findAll$3 is reported as findAll. */
+    private static String methodName(String name) {
+        if (!name.startsWith("lambda$")) return name;
+        int end = name.indexOf('$', 7);
+        return end < 0 ? name : name.substring(7, end);
+    }
+
+    private static Object call(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static final class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+        private final Timer dao;
+        private final long opened;
+        private boolean failed;
+        private boolean closed;
+
+        ConnectionHandler(Connection target, Timer dao, long opened) {
+            this.target = target;
+            this.dao = dao;
+            this.opened = opened;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        dao.record(System.nanoTime() - opened, failed);
+                    }
+                    return call(target, method, args);
+                default:
+                    break;
+            }
+            Object result;
+            try {
+                result = call(target, method, args);
+            } catch (SQLException e) {
+                failed = true;
+                throw e;
+            }
+            if (result instanceof Statement statement && Statement.class.isAssignableFrom(method.getReturnType())) {
+                return Proxy.newProxyInstance(MeteredJdbc.class.getClassLoader(),
+                        new Class<?>[] {method.getReturnType()}, new StatementHandler(statement, this, (Connection) proxy));
+            }
+            return result;
+        }
+    }
+
+    private static final class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final ConnectionHandler connection;
+        private final Connection connectionProxy;
+
+        StatementHandler(Statement target, ConnectionHandler connection, Connection connectionProxy) {
+            this.target = target;
+            this.connection = connection;
+            this.connectionProxy = connectionProxy;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "getConnection":
+                    return connectionProxy;
+                default:
+                    break;
+            }
+            String kind = kind(name);
+            if (kind == null) return call(target, method, args);
+
+            long start = System.nanoTime();
+            boolean error = true;
+            try {
+                Object result = call(target, method, args);
+                error = false;
+                return result;
+            } finally {
+                Metrics.JDBC.timer(kind).record(System.nanoTime() - start, error);
+                if (error) connection.failed = true;
+            }
+        }
+
+        private static String kind(String method) {
+            return switch (method) {
+                case "executeQuery" -> "query";
+                case "executeUpdate", "executeLargeUpdate" -> "update";
+                case "executeBatch", "executeLargeBatch" -> "batch";
+                case "execute" -> "execute";
+                default -> null;
+            };
+        }
+    }
+}
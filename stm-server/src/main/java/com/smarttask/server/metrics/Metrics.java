@@ -0,0 +1,89 @@
+package com.smarttask.server.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Server metrics, scraped from /metrics in the Prometheus text format.
+ *
+ * - HTTP: every request, by method and route template (TimingFilter)
+ * - DAO: every use of a database connection, by the method that opened it, from
+ *   opening to closing (DatabaseConnection)
+ * - JDBC: connection opening and statement executions, by kind
+ * - counters and gauges registered by the components (WebSocket sessions and
+ *   send queue, JVM)
+ *
+ * Recording costs a map lookup and a few atomic adds, without locks; everything
+ * else happens when /metrics is read.
+ *
+ * Configuration (environment variables):
+ * - METRICS_ENABLED: record and expose metrics (default true)
+ * - METRICS_TOKEN: when set, /metrics requires Authorization: Bearer &lt;token&gt;
+ */
+public final class Metrics {
+
+    public static final boolean ENABLED = Boolean.parseBoolean(System.getenv().getOrDefault("METRICS_ENABLED", "true"));
+
+    /** Keyed by "GET /api/tasks/{id}". */
+    public static final TimerFamily HTTP = new TimerFamily("stm_http_request", "HTTP requests by route",
+            new String[] {"method", "route"}, Metrics::methodAndRoute);
+    /** Keyed by "TaskDAO.findByUserId". */
+    public static final TimerFamily DAO = new TimerFamily("stm_dao_call", "Database work by calling method",
+            new String[] {"method"}, key -> new String[] {key});
+    /** Keyed by "connect", "query", "update", "batch" or "execute". */
+    public static final TimerFamily JDBC = new TimerFamily("stm_jdbc_statement", "JDBC operations by kind",
+            new String[] {"kind"}, key -> new String[] {key});
+
+    private static final Map<String, Scalar> SCALARS = new ConcurrentHashMap<>();
+
+    static {
+        gauge("process_uptime_seconds", "Seconds since the server started",
+                () -> ManagementFactory.getRuntimeMXBean().getUptime() / 1000);
+        gauge("jvm_memory_heap_used_bytes", "Heap in use",
+                () -> ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed());
+        gauge("jvm_threads_current", "Live threads",
+                () -> ManagementFactory.getThreadMXBean().getThreadCount());
+    }
+
+    private Metrics() {}
+
+    /** Registers (or replaces) a value read at each scrape. */
+    public static void gauge(String name, String help, LongSupplier value) {
+        SCALARS.put(name, new Scalar("gauge", help, value));
+    }
+
+    /** Counter registered under the name; the same one for every caller. */
+    public static LongAdder counter(String name, String help) {
+        LongAdder adder = new LongAdder();
+        Scalar existing = SCALARS.putIfAbsent(name, new Scalar("counter", help, adder::sum, adder));
+        return existing != null && existing.counter() != null ? existing.counter() : adder;
+    }
+
+    public static String scrape() {
+        StringBuilder out = new StringBuilder(16 * 1024);
+        HTTP.render(out);
+        DAO.render(out);
+        JDBC.render(out);
+        for (Map.Entry<String, Scalar> entry : new TreeMap<>(SCALARS).entrySet()) {
+            Scalar scalar = entry.getValue();
+            TimerFamily.header(out, entry.getKey(), scalar.type(), scalar.help());
+            out.append(entry.getKey()).append(' ').append(scalar.value().getAsLong()).append('\n');
+        }
+        return out.toString();
+    }
+
+    private static String[] methodAndRoute(String key) {
+        int space = key.indexOf(' ');
+        return space < 0 ? new String[] {"", key} : new String[] {key.substring(0, space), key.substring(space + 1)};
+    }
+
+    private record Scalar(String type, String help, LongSupplier value, LongAdder counter) {
+        Scalar(String type, String help, LongSupplier value) {
+            this(type, help, value, null);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.smarttask.server.metrics;
+
+import com.smarttask.server.http.Responses;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * GET /metrics: {@link Metrics#scrape()} in the Prometheus text exposition format.
+ * Served outside /api and without the session filter, for scrapers; protected by
+ * METRICS_TOKEN when it is set.
+ */
+public class MetricsHandler implements HttpHandler {
+
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    private static final String TOKEN = System.getenv("METRICS_TOKEN");
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            exchange.getResponseHeaders().set("Allow", "GET");
+            Responses.error(exchange, 405, "Method Not Allowed");
+            return;
+        }
+        if (TOKEN != null && !TOKEN.isEmpty() && !authorized(exchange.getRequestHeaders().getFirst("Authorization"))) {
+            exchange.getResponseHeaders().set("WWW-Authenticate", "Bearer");
+            Responses.error(exchange, 401, "Metrics token required");
+            return;
+        }
+        Responses.send(exchange, 200, CONTENT_TYPE, Metrics.scrape().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static boolean authorized(String authorization) {
+        if (authorization == null) return false;
+        byte[] expected = ("Bearer " + TOKEN).getBytes(StandardCharsets.UTF_8);
+        return MessageDigest.isEqual(expected, authorization.trim().getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,26 @@
+package com.smarttask.server.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Count, error count and latency of one series (a route, a DAO method...).
+ */
+public final class Timer {
+
+    final String[] labels;
+    final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder errors = new LongAdder();
+
+    Timer(String[] labels) {
+        this.labels = labels;
+    }
+
+    public void record(long nanos, boolean error) {
+        latency.record(nanos);
+        if (error) errors.increment();
+    }
+
+    long errors() {
+        return errors.sum();
+    }
+}
@@ -0,0 +1,149 @@
+package com.smarttask.server.metrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Timers of one kind (HTTP routes, DAO methods, JDBC statements), one per series
+ * key, exposed as four metrics named after the family:
+ *
+ * - {name}s_total: count, {name}_errors_total: failed ones
+ * - {name}_duration_seconds: histogram with fixed buckets from 0.5 ms to 10 s
+ * - {name}_latency_seconds: p50, p90, p99 and max from the full-resolution histogram
+ *
+ * The series key is what the caller has at hand (a route template, a method name);
+ * the labels are derived from it once, when the series is created. Past MAX_SERIES
+ * keys, new ones share an "other" series instead of growing the output without bound.
+ */
+public final class TimerFamily {
+
+    private static final int MAX_SERIES = 500;
+    private static final String OTHER = "other";
+
+    private static final long[] BOUNDS_MICROS = {500, 1_000, 2_500, 5_000, 10_000, 25_000, 50_000,
+            100_000, 250_000, 500_000, 1_000_000, 2_500_000, 5_000_000, 10_000_000};
+    private static final String[] BOUND_LABELS = {"0.0005", "0.001", "0.0025", "0.005", "0.01", "0.025", "0.05",
+            "0.1", "0.25", "0.5", "1", "2.5", "5", "10"};
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 1.0};
+    private static final String[] QUANTILE_LABELS = {"0.5", "0.9", "0.99", "1"};
+
+    private final String name;
+    private final String help;
+    private final String[] labelNames;
+    private final Function<String, String[]> labelsOf;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    TimerFamily(String name, String help, String[] labelNames, Function<String, String[]> labelsOf) {
+        this.name = name;
+        this.help = help;
+        this.labelNames = labelNames;
+        this.labelsOf = labelsOf;
+    }
+
+    public Timer timer(String key) {
+        Timer timer = timers.get(key);
+        if (timer != null) return timer;
+        if (timers.size() >= MAX_SERIES) {
+            return timers.computeIfAbsent(OTHER, k -> new Timer(other()));
+        }
+        return timers.computeIfAbsent(key, k -> new Timer(labelsOf.apply(k)));
+    }
+
+    private String[] other() {
+        String[] labels = new String[labelNames.length];
+        Arrays.fill(labels, OTHER);
+        return labels;
+    }
+
+    void render(StringBuilder out) {
+        List<Timer> series = new ArrayList<>(timers.values());
+        if (series.isEmpty()) return;
+        series.sort(Comparator.comparing((Timer t) -> String.join(" ", t.labels)));
+
+        // One snapshot per series, so the four metrics agree with each other
+        long[][] snapshots = new long[series.size()][];
+        long[] totals = new long[series.size()];
+        for (int i = 0; i < series.size(); i++) {
+            snapshots[i] = series.get(i).latency.snapshot();
+            for (long c : snapshots[i]) totals[i] += c;
+        }
+
+        header(out, name + "s_total", "counter", help + ": count");
+        for (int i = 0; i < series.size(); i++) {
+            sample(out, name + "s_total", series.get(i), null, null, Long.toString(totals[i]));
+        }
+
+        header(out, name + "_errors_total", "counter", help + ": failures");
+        for (Timer timer : series) {
+            sample(out, name + "_errors_total", timer, null, null, Long.toString(timer.errors()));
+        }
+
+        String histogram = name + "_duration_seconds";
+        header(out, histogram, "histogram", help + ": duration");
+        for (int i = 0; i < series.size(); i++) {
+            Timer timer = series.get(i);
+            long[] snapshot = snapshots[i];
+            int bucket = 0;
+            long cumulative = 0;
+            for (int b = 0; b < BOUNDS_MICROS.length; b++) {
+                while (bucket < snapshot.length && LatencyHistogram.highest(bucket) <= BOUNDS_MICROS[b]) {
+                    cumulative += snapshot[bucket++];
+                }
+                sample(out, histogram + "_bucket", timer, "le", BOUND_LABELS[b], Long.toString(cumulative));
+            }
+            sample(out, histogram + "_bucket", timer, "le", "+Inf", Long.toString(totals[i]));
+            sample(out, histogram + "_sum", timer, null, null, seconds(timer.latency.sumNanos() / 1000));
+            sample(out, histogram + "_count", timer, null, null, Long.toString(totals[i]));
+        }
+
+        String latency = name + "_latency_seconds";
+        header(out, latency, "gauge", help + ": quantiles since startup (within 6.25 %)");
+        for (int i = 0; i < series.size(); i++) {
+            for (int q = 0; q < QUANTILES.length; q++) {
+                long micros = LatencyHistogram.valueAtQuantile(snapshots[i], totals[i], QUANTILES[q]);
+                sample(out, latency, series.get(i), "quantile", QUANTILE_LABELS[q], seconds(micros));
+            }
+        }
+    }
+
+    static void header(StringBuilder out, String metric, String type, String help) {
+        out.append("# HELP ").append(metric).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(metric).append(' ').append(type).append('\n');
+    }
+
+    private void sample(StringBuilder out, String metric, Timer timer, String extraName, String extraValue, String value) {
+        out.append(metric).append('{');
+        for (int i = 0; i < labelNames.length; i++) {
+            if (i > 0) out.append(',');
+            label(out, labelNames[i], timer.labels[i]);
+        }
+        if (extraName != null) {
+            out.append(',');
+            label(out, extraName, extraValue);
+        }
+        out.append("} ").append(value).append('\n');
+    }
+
+    private static void label(StringBuilder out, String name, String value) {
+        out.append(name).append("=\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> out.append("\\\\");
+                case '"' -> out.append("\\\"");
+                case '\n' -> out.append("\\n");
+                default -> out.append(c);
+            }
+        }
+        out.append('"');
+    }
+
+    private static String seconds(long micros) {
+        return micros == Long.MAX_VALUE ? "+Inf" : Double.toString(micros / 1e6);
+    }
+}
@@ -0,0 +1,32 @@
+package com.smarttask.server.migration;
+
+import com.smarttask.server.dao.TimeRollupDAO;
+import com.smarttask.server.dao.UserAccessDAO;
+
+import java.sql.Connection;
+
+/**
+ * V3: fills the time rollups and the access tables from the source tables.
+ *
+ * Both are maintained with every write afterwards; this computes them once for
+ * the rows written before they existed. On a new database they are simply empty.
+ * The rebuilds run on their own connections and throw on failure, in which case
+ * the version is not recorded and runs again at the next start.
+ */
+class BackfillDerivedTables implements Migration {
+
+    @Override
+    public int version() { return 3; }
+
+    @Override
+    public String description() { return "back-fill time rollups and access tables"; }
+
+    @Override
+    public String checksum() { return null; }
+
+    @Override
+    public void apply(Connection conn) {
+        new TimeRollupDAO().rebuild();
+        new UserAccessDAO().rebuild();
+    }
+}
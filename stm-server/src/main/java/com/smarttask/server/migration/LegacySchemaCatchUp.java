@@ -0,0 +1,85 @@
+package com.smarttask.server.migration;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * V2: brings a database created before versioned migrations up to V1.
+ *
+ * V1 only creates missing tables, so tables created by the former schema.sql
+ * script or by earlier servers keep whatever columns and indexes they had then.
+ * This adds the ones the old startup check probed for on every start, this time
+ * once: a database created by V1 already has them all and nothing is changed.
+ */
+class LegacySchemaCatchUp implements Migration {
+
+    private Set<String> columns;
+    private Set<String> indexes;
+
+    @Override
+    public int version() { return 2; }
+
+    @Override
+    public String description() { return "legacy schema catch-up"; }
+
+    @Override
+    public String checksum() { return null; }
+
+    @Override
+    public void apply(Connection conn) throws SQLException {
+        // Everything the checks need, in two queries instead of one metadata call per check
+        columns = names(conn, "SELECT table_name, column_name FROM information_schema.columns WHERE table_schema = DATABASE()");
+        indexes = names(conn, "SELECT DISTINCT table_name, index_name FROM information_schema.statistics WHERE table_schema = DATABASE()");
+
+        try (Statement stmt = conn.createStatement()) {
+            if (addColumn(stmt, "users", "first_name", "VARCHAR(255)")) {
+                addColumn(stmt, "users", "last_name", "VARCHAR(255)");
+            }
+            if (addColumn(stmt, "tasks", "parent_task_id", "VARCHAR(36)")) {
+                stmt.executeUpdate("ALTER TABLE tasks ADD FOREIGN KEY (parent_task_id) REFERENCES tasks(id)");
+            }
+            addColumn(stmt, "comment_attachments", "file_type", "VARCHAR(100)");
+            addColumn(stmt, "comment_attachments", "file_size", "BIGINT");
+
+            // Attachment bodies in the blob store, referenced by SHA-256
+            addColumn(stmt, "attachments", "content_hash", "CHAR(64) NULL");
+            addColumn(stmt, "comment_attachments", "content_hash", "CHAR(64) NULL");
+            addIndex(stmt, "attachments", "idx_content_hash", "content_hash");
+            addIndex(stmt, "comment_attachments", "idx_content_hash", "content_hash");
+
+            // Notification listing and paginated comment threads
+            addIndex(stmt, "notifications", "idx_user_read_created", "user_id, is_read, created_at");
+            addIndex(stmt, "notifications", "idx_user_created", "user_id, created_at");
+            addIndex(stmt, "comments", "idx_task_created", "task_id, created_at");
+        }
+    }
+
+    private boolean addColumn(Statement stmt, String table, String column, String definition) throws SQLException {
+        if (columns.contains(key(table, column))) return false;
+        System.out.println("  adding column " + table + "." + column);
+        stmt.executeUpdate("ALTER TABLE " + table + " ADD COLUMN " + column + " " + definition);
+        return true;
+    }
+
+    private void addIndex(Statement stmt, String table, String indexName, String indexColumns) throws SQLException {
+        if (indexes.contains(key(table, indexName))) return;
+        System.out.println("  adding index " + table + "." + indexName);
+        stmt.executeUpdate("CREATE INDEX " + indexName + " ON " + table + " (" + indexColumns + ")");
+    }
+
+    private static Set<String> names(Connection conn, String sql) throws SQLException {
+        Set<String> names = new HashSet<>();
+        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) names.add(key(rs.getString(1), rs.getString(2)));
+        }
+        return names;
+    }
+
+    private static String key(String table, String name) {
+        return (table + "." + name).toLowerCase();
+    }
+}
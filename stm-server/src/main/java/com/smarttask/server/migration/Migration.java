@@ -0,0 +1,26 @@
+package com.smarttask.server.migration;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * One versioned step of the database schema.
+ *
+ * Migrations are applied once, in version order, and recorded in schema_version.
+ * A migration that has been released must not change afterwards: add a new one
+ * instead (the runner refuses to start when a recorded checksum no longer matches).
+ */
+public interface Migration {
+
+    int version();
+
+    String description();
+
+    /**
+     * Fingerprint of the migration's content, stored when it is applied and checked
+     * at every start. Null for code migrations, which are not checked.
+     */
+    String checksum();
+
+    void apply(Connection conn) throws SQLException;
+}
@@ -0,0 +1,192 @@
+package com.smarttask.server.migration;
+
+import com.smarttask.server.config.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Applies the schema migrations listed in {@link Migrations}.
+ *
+ * The versions already applied are recorded in schema_version, read in a single
+ * query at startup: an up-to-date database costs one round trip, instead of one
+ * metadata probe per table, column and index. Recorded checksums are compared
+ * with the migrations shipped in this build, and the server refuses to start
+ * if a released migration was edited.
+ *
+ * Several servers starting together serialize on a MySQL named lock, so a
+ * migration is never applied twice. Each migration is recorded only once it has
+ * completed; one that fails stops the startup and is retried at the next one.
+ *
+ * Configuration (environment variables):
+ * - MIGRATIONS_AUTO: apply pending migrations at startup (default true). When
+ *   false, startup only reports them and they are applied with {@code --migrate}.
+ * - MIGRATIONS_TARGET: highest version to apply (default: all). Lets a costly
+ *   migration, such as an index build on a large table, be held back and rolled
+ *   out separately.
+ *
+ * {@code MainServer --migration-status} lists applied and pending versions.
+ */
+public final class MigrationRunner {
+
+    private static final boolean AUTO = Boolean.parseBoolean(System.getenv().getOrDefault("MIGRATIONS_AUTO", "true"));
+    private static final int TARGET = Integer.parseInt(System.getenv().getOrDefault("MIGRATIONS_TARGET", String.valueOf(Integer.MAX_VALUE)));
+    private static final String LOCK_NAME = "smarttask_schema_migration";
+    private static final int LOCK_TIMEOUT_SECONDS = 300;
+    private static final int ER_NO_SUCH_TABLE = 1146;
+
+    private MigrationRunner() {}
+
+    /**
+     * Startup check: applies pending migrations (or only reports them when
+     * MIGRATIONS_AUTO is false).
+     * @return false when the server must not start (edited migration, failed migration)
+     */
+    public static boolean migrateOnStartup() {
+        return run(AUTO);
+    }
+
+    /** Applies pending migrations up to MIGRATIONS_TARGET, whatever MIGRATIONS_AUTO says. */
+    public static boolean migrate() {
+        return run(true);
+    }
+
+    /** Prints every known migration with its state. */
+    public static void printStatus() {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            Map<Integer, String> applied = applied(conn);
+            System.out.println("Schema migrations:");
+            for (Migration migration : Migrations.all()) {
+                String state;
+                if (!applied.containsKey(migration.version())) {
+                    state = migration.version() > TARGET ? "held back (MIGRATIONS_TARGET)" : "pending";
+                } else if (checksumMismatch(migration, applied.get(migration.version()))) {
+                    state = "applied, CHECKSUM MISMATCH";
+                } else {
+                    state = "applied";
+                }
+                System.out.printf("  V%-3d %-45s %s%n", migration.version(), migration.description(), state);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error reading schema_version: " + e.getMessage());
+        }
+    }
+
+    private static boolean run(boolean apply) {
+        List<Migration> migrations = Migrations.all();
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            if (!acquireLock(conn)) {
+                System.err.println("Timed out waiting for another server to finish migrating the schema");
+                return false;
+            }
+            try {
+                Map<Integer, String> applied = applied(conn);
+                for (Migration migration : migrations) {
+                    if (applied.containsKey(migration.version()) && checksumMismatch(migration, applied.get(migration.version()))) {
+                        System.err.println("Migration V" + migration.version() + " (" + migration
+                                + ") was changed after being applied: restore it and add a new migration instead");
+                        return false;
+                    }
+                }
+
+                List<Migration> pending = migrations.stream()
+                        .filter(m -> !applied.containsKey(m.version()) && m.version() <= TARGET)
+                        .toList();
+                if (pending.isEmpty()) return true;
+                if (!apply) {
+                    System.out.println("⚠️ " + pending.size() + " schema migration(s) pending, run with --migrate to apply them");
+                    return true;
+                }
+                for (Migration migration : pending) {
+                    applyOne(conn, migration);
+                }
+                return true;
+            } finally {
+                releaseLock(conn);
+            }
+        } catch (SQLException | RuntimeException e) {
+            System.err.println("Error migrating schema: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    private static void applyOne(Connection conn, Migration migration) throws SQLException {
+        System.out.println("Applying migration V" + migration.version() + ": " + migration.description() + "...");
+        long start = System.currentTimeMillis();
+        migration.apply(conn);
+        long elapsed = System.currentTimeMillis() - start;
+
+        String sql = "INSERT INTO schema_version (version, description, checksum, execution_ms) VALUES (?, ?, ?, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, migration.version());
+            stmt.setString(2, migration.description());
+            stmt.setString(3, migration.checksum());
+            stmt.setLong(4, elapsed);
+            stmt.executeUpdate();
+        }
+        System.out.println("Migration V" + migration.version() + " applied in " + elapsed + " ms.");
+    }
+
+    /** Version → checksum of every applied migration; creates schema_version on first use. */
+    private static Map<Integer, String> applied(Connection conn) throws SQLException {
+        Map<Integer, String> applied = new LinkedHashMap<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT version, checksum FROM schema_version ORDER BY version")) {
+            while (rs.next()) {
+                applied.put(rs.getInt("version"), rs.getString("checksum"));
+            }
+        } catch (SQLException e) {
+            if (e.getErrorCode() != ER_NO_SUCH_TABLE) throw e;
+            createVersionTable(conn);
+        }
+        return applied;
+    }
+
+    private static void createVersionTable(Connection conn) throws SQLException {
+        String sql = """
+                CREATE TABLE IF NOT EXISTS schema_version (
+                    version INT PRIMARY KEY,
+                    description VARCHAR(200) NOT NULL,
+                    checksum CHAR(64) NULL,
+                    applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                    execution_ms BIGINT NOT NULL
+                )
+                """;
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate(sql);
+        }
+    }
+
+    private static boolean checksumMismatch(Migration migration, String recorded) {
+        // Code migrations have no checksum
+        return migration.checksum() != null && !Objects.equals(migration.checksum(), recorded);
+    }
+
+    private static boolean acquireLock(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            stmt.setString(1, LOCK_NAME);
+            stmt.setInt(2, LOCK_TIMEOUT_SECONDS);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() && rs.getInt(1) == 1;
+            }
+        }
+    }
+
+    private static void releaseLock(Connection conn) {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            stmt.setString(1, LOCK_NAME);
+            stmt.executeQuery().close();
+        } catch (SQLException e) {
+            // The lock goes with the connection anyway
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.smarttask.server.migration;
+
+import java.util.List;
+
+/**
+ * Every migration, in version order. A schema change is a new entry at the end
+ * (and, for SQL, a new script under resources/db/migration/); released entries
+ * are never edited.
+ */
+final class Migrations {
+
+    private Migrations() {}
+
+    static List<Migration> all() {
+        return List.of(
+                new SqlMigration(1, "initial schema", "V1__initial_schema.sql"),
+                new LegacySchemaCatchUp(),
+                new BackfillDerivedTables(),
+                new SqlMigration(4, "listing indexes (online)", "V4__listing_indexes.sql"),
+                new SqlMigration(5, "comment insertion order", "V5__comment_seq.sql")
+        );
+    }
+}
@@ -0,0 +1,103 @@
+package com.smarttask.server.migration;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Migration read from a SQL script under db/migration/ on the classpath.
+ *
+ * Statements are separated by a semicolon at the end of a line; lines starting
+ * with -- are comments. MySQL commits DDL statement by statement, so a script
+ * interrupted halfway is simply run again: statements failing because their
+ * table, column or index already exists are skipped.
+ */
+class SqlMigration implements Migration {
+
+    // ER_TABLE_EXISTS_ERROR, ER_DUP_FIELDNAME, ER_DUP_KEYNAME
+    private static final Set<Integer> ALREADY_EXISTS = Set.of(1050, 1060, 1061);
+
+    private final int version;
+    private final String description;
+    private final String resource;
+    private final String script;
+
+    SqlMigration(int version, String description, String resource) {
+        this.version = version;
+        this.description = description;
+        this.resource = resource;
+        this.script = load("/db/migration/" + resource);
+    }
+
+    @Override
+    public int version() { return version; }
+
+    @Override
+    public String description() { return description; }
+
+    @Override
+    public String checksum() {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(script.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void apply(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : statements()) {
+                try {
+                    stmt.execute(sql);
+                } catch (SQLException e) {
+                    if (!ALREADY_EXISTS.contains(e.getErrorCode())) throw e;
+                    System.out.println("  skipped (already present): " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    List<String> statements() {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (String line : script.split("\n")) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("--")) continue;
+            current.append(line).append('\n');
+            if (trimmed.endsWith(";")) {
+                String sql = current.toString().trim();
+                statements.add(sql.substring(0, sql.length() - 1));
+                current.setLength(0);
+            }
+        }
+        if (!current.toString().isBlank()) statements.add(current.toString().trim());
+        return statements;
+    }
+
+    private static String load(String path) {
+        try (InputStream in = SqlMigration.class.getResourceAsStream(path)) {
+            if (in == null) throw new IllegalStateException("Migration script not found: " + path);
+            // Line endings normalized so a checkout with CRLF gives the same checksum
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8).replace("\r\n", "\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return resource;
+    }
+}
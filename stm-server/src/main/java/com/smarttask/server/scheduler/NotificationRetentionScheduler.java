@@ -0,0 +1,76 @@
+package com.smarttask.server.scheduler;
+
+import com.smarttask.server.dao.NotificationDAO;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background job that keeps the notifications table small.
+ *
+ * Read notifications older than the retention age are moved into
+ * notifications_archive in bounded batches, with a pause between batches so
+ * the job never holds long locks or competes with API traffic.
+ *
+ * Configuration (environment variables):
+ * - NOTIFICATION_RETENTION_DAYS: age after which read notifications are archived (default 30)
+ * - NOTIFICATION_ARCHIVE_BATCH_SIZE: rows moved per transaction (default 500)
+ * - NOTIFICATION_ARCHIVE_PAUSE_MS: pause between two batches (default 200)
+ * - NOTIFICATION_ARCHIVE_INTERVAL_HOURS: delay between two runs (default 6)
+ */
+public class NotificationRetentionScheduler {
+
+    private static final int RETENTION_DAYS = Integer.parseInt(System.getenv().getOrDefault("NOTIFICATION_RETENTION_DAYS", "30"));
+    private static final int BATCH_SIZE = Integer.parseInt(System.getenv().getOrDefault("NOTIFICATION_ARCHIVE_BATCH_SIZE", "500"));
+    private static final long PAUSE_MS = Long.parseLong(System.getenv().getOrDefault("NOTIFICATION_ARCHIVE_PAUSE_MS", "200"));
+    private static final long INTERVAL_HOURS = Long.parseLong(System.getenv().getOrDefault("NOTIFICATION_ARCHIVE_INTERVAL_HOURS", "6"));
+
+    private final NotificationDAO notifDAO = new NotificationDAO();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "notification-retention");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public void start() {
+        executor.scheduleWithFixedDelay(this::runOnce, 1, INTERVAL_HOURS * 60, TimeUnit.MINUTES);
+        System.out.println("Notification retention scheduled: archiving read notifications older than "
+                + RETENTION_DAYS + " days every " + INTERVAL_HOURS + "h");
+    }
+
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Archives every eligible notification, one batch per transaction.
+     */
+    void runOnce() {
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minus(Duration.ofDays(RETENTION_DAYS)));
+        long start = System.currentTimeMillis();
+        int total = 0;
+
+        try {
+            int archived;
+            do {
+                archived = notifDAO.archiveReadBefore(cutoff, BATCH_SIZE);
+                total += archived;
+                if (archived == BATCH_SIZE) {
+                    Thread.sleep(PAUSE_MS);
+                }
+            } while (archived == BATCH_SIZE && !Thread.currentThread().isInterrupted());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            System.err.println("Notification retention run failed: " + e.getMessage());
+        }
+
+        if (total > 0) {
+            System.out.println("Archived " + total + " notifications in " + (System.currentTimeMillis() - start) + "ms");
+        }
+    }
+}
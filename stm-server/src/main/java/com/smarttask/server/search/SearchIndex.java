@@ -0,0 +1,401 @@
+package com.smarttask.server.search;
+
+import com.smarttask.model.CalendarEvent;
+import com.smarttask.model.Comment;
+import com.smarttask.model.SearchResult;
+import com.smarttask.model.SearchResult.Type;
+import com.smarttask.model.Task;
+import com.smarttask.server.config.DatabaseConnection;
+import com.smarttask.server.dao.CalendarEventDAO;
+import com.smarttask.server.dao.UserAccessDAO;
+
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process inverted index over task titles and descriptions, comments, tag
+ * names and calendar events.
+ *
+ * Built from the database at startup ({@link #rebuild()}) and then kept current
+ * by the DAOs, which report every successful write. Each query term matches
+ * whole terms and, at a lower score, terms it is a prefix of; a document must
+ * match every query term. Scores add up field weight x idf per term. Hits are
+ * filtered with the same rules as the rest of the API: tasks (and their
+ * comments and tags) are visible to their owner, to the users reaching their
+ * project (project_access, as in TaskPermissions) and to the users they are
+ * shared with; events follow their PUBLIC / PRIVATE / SHARED visibility.
+ */
+public final class SearchIndex {
+
+    private static final float TITLE_WEIGHT = 3f;
+    private static final float TAG_WEIGHT = 2f;
+    private static final float BODY_WEIGHT = 1f;
+    private static final float PREFIX_FACTOR = 0.5f;
+    private static final int MAX_PREFIX_TERMS = 200;
+    private static final int SNIPPET_LENGTH = 120;
+
+    private record Doc(Type type, String id, String taskId, String title, String snippet, Set<String> terms) {}
+
+    private static final class TaskAcl {
+        String ownerId;
+        String projectId;
+        final Set<String> sharedWith = new HashSet<>();
+    }
+
+    private record EventAcl(CalendarEvent.EventVisibility visibility, String creatorId, Set<String> sharedWith) {}
+
+    // Document key ("TASK:<id>", "COMMENT:<id>", "TAG:<taskId>::<name>", "EVENT:<id>") -> document
+    private static final Map<String, Doc> DOCS = new HashMap<>();
+    // Term -> document key -> weight; sorted for prefix lookups
+    private static final NavigableMap<String, Map<String, Float>> POSTINGS = new TreeMap<>();
+    // Task id -> keys of its comment and tag documents
+    private static final Map<String, Set<String>> TASK_CHILDREN = new HashMap<>();
+    private static final Map<String, TaskAcl> TASK_ACL = new HashMap<>();
+    private static final Map<String, EventAcl> EVENT_ACL = new HashMap<>();
+    private static final ReadWriteLock LOCK = new ReentrantReadWriteLock();
+
+    private SearchIndex() {}
+
+    // --- QUERY ---
+
+    public static List<SearchResult> search(String userId, String query, Set<Type> types, int limit) {
+        List<String> terms = Tokenizer.tokenize(query);
+        if (terms.isEmpty() || userId == null) return List.of();
+        // Read before taking the lock: one indexed query per search
+        Set<String> projectIds = new UserAccessDAO().findProjectIds(userId);
+
+        LOCK.readLock().lock();
+        try {
+            Map<String, Float> scores = null;
+            for (String term : terms) {
+                Map<String, Float> termScores = scoreTerm(term);
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    Map<String, Float> both = new HashMap<>();
+                    for (Map.Entry<String, Float> e : scores.entrySet()) {
+                        Float s = termScores.get(e.getKey());
+                        if (s != null) both.put(e.getKey(), e.getValue() + s);
+                    }
+                    scores = both;
+                }
+                if (scores.isEmpty()) return List.of();
+            }
+
+            List<SearchResult> results = new ArrayList<>();
+            for (Map.Entry<String, Float> e : scores.entrySet()) {
+                Doc doc = DOCS.get(e.getKey());
+                if (!types.contains(doc.type()) || !canSee(userId, projectIds, doc)) continue;
+                results.add(toResult(doc, e.getValue()));
+            }
+            results.sort(Comparator.comparingDouble(SearchResult::getScore).reversed()
+                    .thenComparing(SearchResult::getTitle, Comparator.nullsLast(Comparator.naturalOrder())));
+            return results.size() > limit ? new ArrayList<>(results.subList(0, limit)) : results;
+        } finally {
+            LOCK.readLock().unlock();
+        }
+    }
+
+    private static Map<String, Float> scoreTerm(String term) {
+        Map<String, Float> scores = new HashMap<>();
+        addPostings(scores, term, POSTINGS.get(term), 1f);
+        int expanded = 0;
+        for (Map.Entry<String, Map<String, Float>> e
+                : POSTINGS.subMap(term, false, term + Character.MAX_VALUE, false).entrySet()) {
+            if (++expanded > MAX_PREFIX_TERMS) break;
+            addPostings(scores, e.getKey(), e.getValue(), PREFIX_FACTOR);
+        }
+        return scores;
+    }
+
+    private static void addPostings(Map<String, Float> scores, String term, Map<String, Float> postings, float factor) {
+        if (postings == null) return;
+        float idf = (float) Math.log(1 + (double) DOCS.size() / postings.size());
+        for (Map.Entry<String, Float> p : postings.entrySet()) {
+            scores.merge(p.getKey(), p.getValue() * idf * factor, Math::max);
+        }
+    }
+
+    private static boolean canSee(String userId, Set<String> projectIds, Doc doc) {
+        if (doc.type() == Type.EVENT) {
+            EventAcl acl = EVENT_ACL.get(doc.id());
+            if (acl == null) return false;
+            if (userId.equals(acl.creatorId()) || acl.visibility() == CalendarEvent.EventVisibility.PUBLIC) return true;
+            return acl.visibility() == CalendarEvent.EventVisibility.SHARED && acl.sharedWith().contains(userId);
+        }
+        TaskAcl acl = TASK_ACL.get(doc.taskId());
+        return acl != null && (userId.equals(acl.ownerId) || acl.sharedWith.contains(userId)
+                || (acl.projectId != null && projectIds.contains(acl.projectId)));
+    }
+
+    private static SearchResult toResult(Doc doc, float score) {
+        String title = doc.title();
+        if (title == null) {
+            // Comments and tags are listed under their task
+            Doc task = DOCS.get(key(Type.TASK, doc.taskId()));
+            title = task != null ? task.title() : null;
+        }
+        return new SearchResult(doc.type(), doc.id(), doc.taskId(), title, doc.snippet(), score);
+    }
+
+    // --- UPDATES (called by the DAOs after a successful write) ---
+
+    public static void indexTask(Task task) {
+        if (task == null || task.getId() == null) return;
+        Map<String, Float> weights = new HashMap<>();
+        addTerms(weights, task.getTitle(), TITLE_WEIGHT);
+        addTerms(weights, task.getDescription(), BODY_WEIGHT);
+
+        LOCK.writeLock().lock();
+        try {
+            put(new Doc(Type.TASK, task.getId(), task.getId(), task.getTitle(),
+                    snippet(task.getDescription()), weights.keySet()), weights);
+            TaskAcl acl = TASK_ACL.computeIfAbsent(task.getId(), k -> new TaskAcl());
+            if (task.getUser() != null && task.getUser().getId() != null) {
+                acl.ownerId = task.getUser().getId();
+            }
+            acl.projectId = task.getProjectId();
+        } finally {
+            LOCK.writeLock().unlock();
+        }
+    }
+
+    /** Removes the task with its comments, tags and sharing. */
+    public static void removeTask(String taskId) {
+        LOCK.writeLock().lock();
+        try {
+            remove(key(Type.TASK, taskId));
+            Set<String> children = TASK_CHILDREN.remove(taskId);
+            if (children != null) children.forEach(SearchIndex::remove);
+            TASK_ACL.remove(taskId);
+        } finally {
+            LOCK.writeLock().unlock();
+        }
+    }
+
+    /** Indexes a new or edited comment. An edit may omit the task: the indexed one is kept. */
+    public static void indexComment(Comment comment) {
+        if (comment == null || comment.getId() == null) return;
+        Map<String, Float> weights = new HashMap<>();
+        addTerms(weights, comment.getContent(), BODY_WEIGHT);
+
+        LOCK.writeLock().lock();
+        try {
+            String key = key(Type.COMMENT, comment.getId());
+            String taskId = comment.getTask() != null ? comment.getTask().getId() : null;
+            if (taskId == null && DOCS.containsKey(key)) taskId = DOCS.get(key).taskId();
+            if (taskId == null) return;
+            put(new Doc(Type.COMMENT, comment.getId(), taskId, null, snippet(comment.getContent()), weights.keySet()), weights);
+            TASK_CHILDREN.computeIfAbsent(taskId, k -> new HashSet<>()).add(key);
+        } finally {
+            LOCK.writeLock().unlock();
+        }
+    }
+
+    public static void removeComment(String commentId) {
+        LOCK.writeLock().lock();
+        try {
+            Doc doc = remove(key(Type.COMMENT, commentId));
+            if (doc != null) removeChild(doc.taskId(), key(Type.COMMENT, commentId));
+        } finally {
+            LOCK.writeLock().unlock();
+        }
+    }
+
+    public static void indexTag(String taskId, String tagName) {
+        if (taskId == null || tagName == null) return;
+        Map<String, Float> weights = new HashMap<>();
+        addTerms(weights, tagName, TAG_WEIGHT);
+        String id = taskId + "::" + tagName;
+
+        LOCK.writeLock().lock();
+        try {
+            put(new Doc(Type.TAG, id, taskId, null, "#" + tagName, weights.keySet()), weights);
+            TASK_CHILDREN.computeIfAbsent(taskId, k -> new HashSet<>()).add(key(Type.TAG, id));
+        } finally {
+            LOCK.writeLock().unlock();
+        }
+    }
+
+    public static void removeTag(String taskId, String tagName) {
+        String key = key(Type.TAG, taskId + "::" + tagName);
+        LOCK.writeLock().lock();
+        try {
+            remove(key);
+            removeChild(taskId, key);
+        } finally {
+            LOCK.writeLock().unlock();
+        }
+    }
+
+    public static void shareTask(String taskId, String userId) {
+        LOCK.writeLock().lock();
+        try {
+            TASK_ACL.computeIfAbsent(taskId, k -> new TaskAcl()).sharedWith.add(userId);
+        } finally {
+            LOCK.writeLock().unlock();
+        }
+    }
+
+    public static void unshareTask(String taskId, String userId) {
+        LOCK.writeLock().lock();
+        try {
+            TaskAcl acl = TASK_ACL.get(taskId);
+            if (acl != null) acl.sharedWith.remove(userId);
+        } finally {
+            LOCK.writeLock().unlock();
+        }
+    }
+
+    public static void indexEvent(CalendarEvent event) {
+        if (event == null || event.getId() == null) return;
+        Map<String, Float> weights = new HashMap<>();
+        addTerms(weights, event.getTitle(), TITLE_WEIGHT);
+        addTerms(weights, event.getDescription(), BODY_WEIGHT);
+        addTerms(weights, event.getLocation(), BODY_WEIGHT);
+        Set<String> sharedWith = event.getSharedWithUserIds() != null
+                ? new HashSet<>(event.getSharedWithUserIds()) : Set.of();
+
+        LOCK.writeLock().lock();
+        try {
+            put(new Doc(Type.EVENT, event.getId(), null, event.getTitle(),
+                    snippet(event.getDescription()), weights.keySet()), weights);
+            // Updates do not rewrite creator_user_id and may come without it
+            String creatorId = event.getCreatorUserId();
+            EventAcl previous = EVENT_ACL.get(event.getId());
+            if (creatorId == null && previous != null) creatorId = previous.creatorId();
+            EVENT_ACL.put(event.getId(), new EventAcl(event.getVisibility(), creatorId, sharedWith));
+        } finally {
+            LOCK.writeLock().unlock();
+        }
+    }
+
+    public static void removeEvent(String eventId) {
+        LOCK.writeLock().lock();
+        try {
+            remove(key(Type.EVENT, eventId));
+            EVENT_ACL.remove(eventId);
+        } finally {
+            LOCK.writeLock().unlock();
+        }
+    }
+
+    /** Re-reads all events, after bulk deletes that do not say which rows went away. */
+    public static void reloadEvents() {
+        List<CalendarEvent> events = new CalendarEventDAO().getAllEvents();
+        LOCK.writeLock().lock();
+        try {
+            new ArrayList<>(EVENT_ACL.keySet()).forEach(SearchIndex::removeEvent);
+            events.forEach(SearchIndex::indexEvent);
+        } finally {
+            LOCK.writeLock().unlock();
+        }
+    }
+
+    // --- FULL BUILD ---
+
+    /**
+     * Rebuilds the whole index from the database.
+     */
+    public static void rebuild() {
+        long start = System.currentTimeMillis();
+        List<CalendarEvent> events = new CalendarEventDAO().getAllEvents();
+
+        LOCK.writeLock().lock();
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setReadOnly(true);
+            DOCS.clear();
+            POSTINGS.clear();
+            TASK_CHILDREN.clear();
+            TASK_ACL.clear();
+            EVENT_ACL.clear();
+
+            try (Statement stmt = conn.createStatement()) {
+                try (ResultSet rs = stmt.executeQuery("SELECT id, title, description, user_id, project_id FROM tasks")) {
+                    while (rs.next()) {
+                        Task t = new Task();
+                        t.setId(rs.getString("id"));
+                        t.setTitle(rs.getString("title"));
+                        t.setDescription(rs.getString("description"));
+                        t.setProjectId(rs.getString("project_id"));
+                        com.smarttask.model.User owner = new com.smarttask.model.User();
+                        owner.setId(rs.getString("user_id"));
+                        t.setUser(owner);
+                        indexTask(t);
+                    }
+                }
+                try (ResultSet rs = stmt.executeQuery("SELECT id, task_id, content FROM comments")) {
+                    while (rs.next()) {
+                        Comment c = new Comment();
+                        c.setId(rs.getString("id"));
+                        Task t = new Task();
+                        t.setId(rs.getString("task_id"));
+                        c.setTask(t);
+                        c.setContent(rs.getString("content"));
+                        indexComment(c);
+                    }
+                }
+                try (ResultSet rs = stmt.executeQuery("SELECT task_id, tag_name FROM task_tags")) {
+                    while (rs.next()) indexTag(rs.getString("task_id"), rs.getString("tag_name"));
+                }
+                try (ResultSet rs = stmt.executeQuery("SELECT task_id, user_id FROM shared_tasks")) {
+                    while (rs.next()) shareTask(rs.getString("task_id"), rs.getString("user_id"));
+                }
+            }
+            events.forEach(SearchIndex::indexEvent);
+
+            System.out.println("Search index built: " + DOCS.size() + " documents, " + POSTINGS.size()
+                    + " terms in " + (System.currentTimeMillis() - start) + "ms");
+        } catch (SQLException e) {
+            System.err.println("Error building search index: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            LOCK.writeLock().unlock();
+        }
+    }
+
+    // --- INTERNALS (write lock held) ---
+
+    private static void put(Doc doc, Map<String, Float> weights) {
+        String key = key(doc.type(), doc.id());
+        remove(key);
+        DOCS.put(key, doc);
+        weights.forEach((term, weight) -> POSTINGS.computeIfAbsent(term, t -> new HashMap<>()).put(key, weight));
+    }
+
+    private static Doc remove(String key) {
+        Doc doc = DOCS.remove(key);
+        if (doc == null) return null;
+        for (String term : doc.terms()) {
+            Map<String, Float> postings = POSTINGS.get(term);
+            if (postings != null) {
+                postings.remove(key);
+                if (postings.isEmpty()) POSTINGS.remove(term);
+            }
+        }
+        return doc;
+    }
+
+    private static void removeChild(String taskId, String key) {
+        Set<String> children = TASK_CHILDREN.get(taskId);
+        if (children != null) children.remove(key);
+    }
+
+    private static void addTerms(Map<String, Float> weights, String text, float fieldWeight) {
+        for (String term : Tokenizer.tokenize(text)) {
+            weights.merge(term, fieldWeight, Float::sum);
+        }
+    }
+
+    private static String snippet(String text) {
+        if (text == null) return null;
+        String s = text.strip().replaceAll("\\s+", " ");
+        return s.length() <= SNIPPET_LENGTH ? s : s.substring(0, SNIPPET_LENGTH) + "…";
+    }
+
+    private static String key(Type type, String id) {
+        return type.name() + ":" + id;
+    }
+}
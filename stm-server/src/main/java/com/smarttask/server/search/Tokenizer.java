@@ -0,0 +1,30 @@
+package com.smarttask.server.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Splits text into index terms: lower case, accents removed ("tâche" -> "tache"),
+ * split on anything that is not a letter or a digit, one-character terms dropped.
+ */
+final class Tokenizer {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    static final int MIN_TERM_LENGTH = 2;
+
+    private Tokenizer() {}
+
+    static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isBlank()) return terms;
+        String normalized = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        for (String term : SEPARATORS.split(normalized.toLowerCase(Locale.ROOT))) {
+            if (term.length() >= MIN_TERM_LENGTH) terms.add(term);
+        }
+        return terms;
+    }
+}
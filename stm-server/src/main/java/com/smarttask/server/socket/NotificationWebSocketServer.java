@@ -3,19 +3,49 @@ package com.smarttask.server.socket;
 import org.java_websocket.WebSocket;
 import org.java_websocket.handshake.ClientHandshake;
 import org.java_websocket.server.WebSocketServer;
+import org.java_websocket.WebSocketImpl;
 import com.google.gson.JsonObject;
+import com.smarttask.server.metrics.Metrics;
 import com.smarttask.server.util.GsonUtils;
 
 import java.net.InetSocketAddress;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 public class NotificationWebSocketServer extends WebSocketServer {
 
     private static final Map<String, WebSocket> userSessions = new ConcurrentHashMap<>();
+    private static final LongAdder messagesSent = Metrics.counter("stm_websocket_messages_sent_total",
+            "Notifications pushed over WebSocket");
 
     public NotificationWebSocketServer(int port) {
         super(new InetSocketAddress(port));
+        Metrics.gauge("stm_websocket_connections", "Open WebSocket connections",
+                () -> getConnections().size());
+        Metrics.gauge("stm_websocket_authenticated_users", "Users with an authenticated WebSocket session",
+                userSessions::size);
+        Metrics.gauge("stm_websocket_send_queue_frames", "Frames waiting to be written, all connections together",
+                this::queuedFrames);
+        Metrics.gauge("stm_websocket_backlogged_connections", "Connections with frames waiting to be written",
+                this::backloggedConnections);
+    }
+
+    // Lus à chaque scrape de /metrics, jamais sur le chemin des envois
+    private long queuedFrames() {
+        long frames = 0;
+        for (WebSocket conn : getConnections()) {
+            if (conn instanceof WebSocketImpl impl) frames += impl.outQueue.size();
+        }
+        return frames;
+    }
+
+    private long backloggedConnections() {
+        long count = 0;
+        for (WebSocket conn : getConnections()) {
+            if (conn.hasBufferedData()) count++;
+        }
+        return count;
     }
 
     @Override
@@ -45,6 +75,7 @@ public class NotificationWebSocketServer extends WebSocketServer {
             response.add("payload", GsonUtils.getGson().toJsonTree(notificationPayload));
             
             conn.send(response.toString());
+            messagesSent.increment();
         }
     }
 
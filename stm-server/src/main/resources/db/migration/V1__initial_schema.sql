@@ -1,11 +1,9 @@
--- 1. Créer la base de données
-DROP DATABASE IF EXISTS smarttask_db;
-CREATE DATABASE IF NOT EXISTS smarttask_db ;
-
-USE smarttask_db;
+-- V1 : schéma complet de SmartTask
+-- Base vide : crée toutes les tables. Base existante : les tables présentes sont
+-- laissées telles quelles, V2 leur ajoute ce qui leur manque.
 
 -- Table Users
-CREATE TABLE users (
+CREATE TABLE IF NOT EXISTS users (
     id VARCHAR(36) PRIMARY KEY DEFAULT (UUID()),
     username VARCHAR(50) UNIQUE NOT NULL,
     email VARCHAR(100) UNIQUE NOT NULL,
@@ -24,8 +22,26 @@ CREATE TABLE users (
     INDEX idx_email (email)
 );
 
+-- Table Projects
+CREATE TABLE IF NOT EXISTS projects (
+    id VARCHAR(36) PRIMARY KEY DEFAULT (UUID()),
+    name VARCHAR(100) NOT NULL,
+    description TEXT,
+    user_id VARCHAR(36) NOT NULL,
+    color VARCHAR(20) DEFAULT '#3788d8',
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    is_active BOOLEAN DEFAULT TRUE,
+    
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    
+    INDEX idx_user_id (user_id),
+    INDEX idx_name (name),
+    INDEX idx_is_active (is_active)
+);
+
 -- Table Tasks
-CREATE TABLE tasks (
+CREATE TABLE IF NOT EXISTS tasks (
     id VARCHAR(36) PRIMARY KEY DEFAULT (UUID()),
     title VARCHAR(200) NOT NULL,
     description TEXT,
@@ -38,8 +54,10 @@ CREATE TABLE tasks (
     user_id VARCHAR(36) NOT NULL,
     project_id VARCHAR(36),
     recurrence_type ENUM('DAILY', 'WEEKLY', 'MONTHLY', 'YEARLY', 'NONE') DEFAULT 'NONE',
+    parent_task_id VARCHAR(36),
     
     FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    FOREIGN KEY (parent_task_id) REFERENCES tasks(id),
     
     -- ⚡ INDEXES POUR PERFORMANCE
     INDEX idx_user_id (user_id),
@@ -53,7 +71,7 @@ CREATE TABLE tasks (
 );
 
 -- Table sub_tasks
-CREATE TABLE sub_tasks (
+CREATE TABLE IF NOT EXISTS sub_tasks (
     id VARCHAR(36) PRIMARY KEY DEFAULT (UUID()),
     task_id VARCHAR(36) NOT NULL,
     title VARCHAR(200) NOT NULL,
@@ -72,7 +90,7 @@ CREATE TABLE sub_tasks (
 
 
 -- Table Task Tags (Many-to-Many)
-CREATE TABLE task_tags (
+CREATE TABLE IF NOT EXISTS task_tags (
     task_id VARCHAR(36) DEFAULT (UUID()),
     tag_name VARCHAR(50),
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
@@ -85,7 +103,7 @@ CREATE TABLE task_tags (
 );
 
 -- Table Task Dependencies
-CREATE TABLE task_dependencies (
+CREATE TABLE IF NOT EXISTS task_dependencies (
     id VARCHAR(72) PRIMARY KEY DEFAULT (UUID()), 
     predecessor_id VARCHAR(36) NOT NULL,
     successor_id VARCHAR(36) NOT NULL,
@@ -102,7 +120,7 @@ CREATE TABLE task_dependencies (
 );
 
 -- Table Comments
-CREATE TABLE comments (
+CREATE TABLE IF NOT EXISTS comments (
     id VARCHAR(36) PRIMARY KEY DEFAULT (UUID()),
     task_id VARCHAR(36) NOT NULL,
     user_id VARCHAR(36) NOT NULL,
@@ -115,23 +133,58 @@ CREATE TABLE comments (
     
     INDEX idx_task_id (task_id),
     INDEX idx_user_id (user_id),
-    INDEX idx_created_at (created_at)
+    INDEX idx_created_at (created_at),
+    INDEX idx_task_created (task_id, created_at)
 );
 
 -- Table Comment Attachments
-CREATE TABLE comment_attachments (
+CREATE TABLE IF NOT EXISTS comment_attachments (
     id VARCHAR(36) PRIMARY KEY DEFAULT (UUID()),
     comment_id VARCHAR(36) NOT NULL,
     file_name VARCHAR(255) NOT NULL,
+    file_type VARCHAR(100),
     file_path VARCHAR(500),
+    file_size BIGINT,
     uploaded_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    
-    FOREIGN KEY (comment_id) REFERENCES comments(id) ON DELETE CASCADE
-    
+    content_hash CHAR(64) NULL,
+
+    FOREIGN KEY (comment_id) REFERENCES comments(id) ON DELETE CASCADE,
+
+    INDEX idx_content_hash (content_hash)
+);
+
+-- Table Attachments (task files, bodies in the blob store)
+CREATE TABLE IF NOT EXISTS attachments (
+    id VARCHAR(36) PRIMARY KEY,
+    task_id VARCHAR(36) NOT NULL,
+    file_name VARCHAR(255) NOT NULL,
+    file_type VARCHAR(100),
+    file_path VARCHAR(500) NOT NULL,
+    file_size BIGINT,
+    uploaded_at DATETIME,
+    content_hash CHAR(64) NULL,
+
+    FOREIGN KEY (task_id) REFERENCES tasks(id) ON DELETE CASCADE,
+
+    INDEX idx_content_hash (content_hash)
+);
+
+-- Table Time Tracking
+CREATE TABLE IF NOT EXISTS time_tracking (
+    id VARCHAR(36) PRIMARY KEY,
+    task_id VARCHAR(36) NOT NULL,
+    user_id VARCHAR(36) NOT NULL,
+    start_time DATETIME NOT NULL,
+    end_time DATETIME,
+    duration_ms BIGINT,
+    notes TEXT,
+
+    FOREIGN KEY (task_id) REFERENCES tasks(id) ON DELETE CASCADE,
+    FOREIGN KEY (user_id) REFERENCES users(id)
 );
 
 -- Table Shared Tasks
-CREATE TABLE shared_tasks (
+CREATE TABLE IF NOT EXISTS shared_tasks (
     task_id VARCHAR(36),
     user_id VARCHAR(36),
     permission_level ENUM('READ', 'WRITE', 'ADMIN') DEFAULT 'READ',
@@ -150,7 +203,7 @@ CREATE TABLE shared_tasks (
 );
 
 -- Table Notifications
-CREATE TABLE notifications (
+CREATE TABLE IF NOT EXISTS notifications (
     id VARCHAR(36) PRIMARY KEY DEFAULT (UUID()),
     user_id VARCHAR(36) NOT NULL,
     type ENUM('TASK_ASSIGNED', 'COMMENT_ADDED', 'DEADLINE_REMINDER', 'STATUS_CHANGE', 
@@ -167,10 +220,25 @@ CREATE TABLE notifications (
     INDEX idx_user_id (user_id),
     INDEX idx_is_read (is_read),
     INDEX idx_created_at (created_at),
-    INDEX idx_type (type)
+    INDEX idx_type (type),
+    INDEX idx_user_read_created (user_id, is_read, created_at),
+    INDEX idx_user_created (user_id, created_at)
+);
+
+-- Table Notifications Archive (read notifications moved out by the retention job)
+CREATE TABLE IF NOT EXISTS notifications_archive (
+    id VARCHAR(36) PRIMARY KEY,
+    user_id VARCHAR(36) NOT NULL,
+    type VARCHAR(50) NOT NULL,
+    title VARCHAR(200) NOT NULL,
+    message TEXT NOT NULL,
+    created_at TIMESTAMP NULL,
+    archived_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+
+    INDEX idx_archive_user_created (user_id, created_at)
 );
 
-CREATE TABLE calendar_event (
+CREATE TABLE IF NOT EXISTS calendar_event (
     id VARCHAR(36) PRIMARY KEY DEFAULT (UUID()),
     title VARCHAR(200) NOT NULL,
     description TEXT,
@@ -197,26 +265,8 @@ CREATE TABLE calendar_event (
     location VARCHAR(500)
 );
 
--- Table Projects
-CREATE TABLE projects (
-    id VARCHAR(36) PRIMARY KEY DEFAULT (UUID()),
-    name VARCHAR(100) NOT NULL,
-    description TEXT,
-    user_id VARCHAR(36) NOT NULL,
-    color VARCHAR(20) DEFAULT '#3788d8',
-    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
-    is_active BOOLEAN DEFAULT TRUE,
-    
-    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
-    
-    INDEX idx_user_id (user_id),
-    INDEX idx_name (name),
-    INDEX idx_is_active (is_active)
-);
-
 -- Table Teams
-CREATE TABLE teams (
+CREATE TABLE IF NOT EXISTS teams (
     id VARCHAR(36) PRIMARY KEY DEFAULT (UUID()),
     name VARCHAR(100) NOT NULL,
     description TEXT,
@@ -234,7 +284,7 @@ CREATE TABLE teams (
 );
 
 -- Table Team Members (Many-to-Many: users ↔ teams)
-CREATE TABLE team_members (
+CREATE TABLE IF NOT EXISTS team_members (
     team_id VARCHAR(36) NOT NULL,
     user_id VARCHAR(36) NOT NULL,
     role ENUM('MEMBER', 'ADMIN', 'OWNER') DEFAULT 'MEMBER',
@@ -249,7 +299,7 @@ CREATE TABLE team_members (
 );
 
 -- Table Team Projects
-CREATE TABLE team_projects (
+CREATE TABLE IF NOT EXISTS team_projects (
     team_id VARCHAR(36) NOT NULL DEFAULT (UUID()),
     project_id VARCHAR(36) NOT NULL DEFAULT (UUID()),
     assigned_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
@@ -259,4 +309,53 @@ CREATE TABLE team_projects (
     FOREIGN KEY (project_id) REFERENCES projects(id) ON DELETE CASCADE,
 
     INDEX idx_project_id (project_id)
-);
\ No newline at end of file
+);
+
+-- Table Project Access (materialized: projects owned or reached through a team)
+CREATE TABLE IF NOT EXISTS project_access (
+    user_id VARCHAR(36) NOT NULL,
+    project_id VARCHAR(36) NOT NULL,
+
+    PRIMARY KEY (user_id, project_id),
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    FOREIGN KEY (project_id) REFERENCES projects(id) ON DELETE CASCADE,
+
+    INDEX idx_project_id (project_id)
+);
+
+-- Table Team Access (materialized: teams owned or joined)
+CREATE TABLE IF NOT EXISTS team_access (
+    user_id VARCHAR(36) NOT NULL,
+    team_id VARCHAR(36) NOT NULL,
+
+    PRIMARY KEY (user_id, team_id),
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    FOREIGN KEY (team_id) REFERENCES teams(id) ON DELETE CASCADE,
+
+    INDEX idx_team_id (team_id)
+);
+
+-- Time rollups (maintained with every time entry, back-filled by V3)
+CREATE TABLE IF NOT EXISTS time_rollup_task (
+    task_id VARCHAR(36) PRIMARY KEY,
+    total_ms BIGINT NOT NULL DEFAULT 0,
+    entries INT NOT NULL DEFAULT 0,
+
+    FOREIGN KEY (task_id) REFERENCES tasks(id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS time_rollup_user_day (
+    user_id VARCHAR(36) NOT NULL,
+    day DATE NOT NULL,
+    total_ms BIGINT NOT NULL DEFAULT 0,
+
+    PRIMARY KEY (user_id, day)
+);
+
+CREATE TABLE IF NOT EXISTS time_rollup_project_week (
+    project_id VARCHAR(36) NOT NULL,
+    week_start DATE NOT NULL,
+    total_ms BIGINT NOT NULL DEFAULT 0,
+
+    PRIMARY KEY (project_id, week_start)
+);
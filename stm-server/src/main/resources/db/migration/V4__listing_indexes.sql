@@ -0,0 +1,14 @@
+-- V4 : index manquants sur les listes les plus sollicitées
+-- Construits en ligne (ALGORITHM=INPLACE, LOCK=NONE) : les tables restent lisibles
+-- et modifiables pendant la construction. Sur une grosse base, appliquer cette
+-- version à part avec MIGRATIONS_TARGET / --migrate plutôt qu'au démarrage.
+
+-- Entrées de temps d'un utilisateur ou d'une tâche, triées par début
+ALTER TABLE time_tracking ADD INDEX idx_user_start (user_id, start_time), ALGORITHM=INPLACE, LOCK=NONE;
+ALTER TABLE time_tracking ADD INDEX idx_task_start (task_id, start_time), ALGORITHM=INPLACE, LOCK=NONE;
+
+-- Rétention : notifications lues plus anciennes qu'une date
+ALTER TABLE notifications ADD INDEX idx_read_created (is_read, created_at), ALGORITHM=INPLACE, LOCK=NONE;
+
+-- Pièces jointes d'une page de commentaires
+ALTER TABLE comment_attachments ADD INDEX idx_comment_uploaded (comment_id, uploaded_at), ALGORITHM=INPLACE, LOCK=NONE;
@@ -0,0 +1,13 @@
+-- V5 : ordre d'insertion des commentaires
+-- created_at est à la seconde et les id sont des UUID aléatoires : deux commentaires
+-- postés dans la même seconde n'ont pas d'ordre stable, et un curseur (created_at, id)
+-- peut sauter le second. seq est croissant à l'insertion et sert de curseur.
+
+ALTER TABLE comments ADD COLUMN seq BIGINT NULL;
+
+-- Commentaires existants numérotés dans l'ordre où le fil les affichait
+SET @seq := 0;
+UPDATE comments SET seq = (@seq := @seq + 1) ORDER BY created_at, id;
+
+ALTER TABLE comments MODIFY seq BIGINT NOT NULL AUTO_INCREMENT, ADD UNIQUE KEY uk_seq (seq);
+ALTER TABLE comments ADD INDEX idx_task_seq (task_id, seq);